@@ -22,13 +22,14 @@ public final class VisitForest {
 	public final VisitType visitType;
 	
 	public enum Color {WHITE, GRAY, BLACK}
-	private Color[] vertexColor;
+	private static final Color[] COLORS = Color.values();
+	private byte[] vertexColor; //ordinal del colore
 	
-	private Integer[] parent; //pi greco
-	private Double[] distance; //d
+	private int[] parent; //pi greco, -1 se assente
+	private double[] distance; //d, NaN se non calcolata
 	
-	private Integer[] startTime; //d
-	private Integer[] endTime; //f
+	private int[] startTime; //d
+	private int[] endTime; //f
 	
 	/**
 	 * Costruisce una nuova foresta di visita.
@@ -43,18 +44,29 @@ public final class VisitForest {
 	}
 	
 	private void initialize() {
-		vertexColor = new Color[graph.size()];
-		Arrays.fill(vertexColor, Color.WHITE);
-		parent = new Integer[graph.size()];
-		Arrays.fill(parent, null);
-		distance = new Double[graph.size()];
-		Arrays.fill(distance, null);
-		startTime = new Integer[graph.size()];
+		int n = graph.size();
+		vertexColor = new byte[n];
+		Arrays.fill(vertexColor, (byte) Color.WHITE.ordinal());
+		parent = new int[n];
+		Arrays.fill(parent, -1);
+		distance = new double[n];
+		Arrays.fill(distance, Double.NaN);
+		startTime = new int[n];
 		Arrays.fill(startTime, -1);
-		endTime = new Integer[graph.size()];
+		endTime = new int[n];
 		Arrays.fill(endTime, -1);
 	}
 	
+	private int indexOf(String vertex) throws NoSuchElementException {
+		int index = this.graph.getVertexIndex(vertex);
+		if(index < 0 || index >= vertexColor.length) throw new NoSuchElementException("Il vertice di indice "+vertex+" non appartiene al grafo");
+		return index;
+	}
+	
+	private void checkIndex(int vertex) throws NoSuchElementException {
+		if(vertex < 0 || vertex >= vertexColor.length) throw new NoSuchElementException("Il vertice di indice "+vertex+" non appartiene al grafo");
+	}
+	
 	/**
 	 * Restituisce tutti i vertici radice.
 	 * @return un insieme di indici che rappresentano i vertici che non hanno un predecessore.
@@ -62,7 +74,7 @@ public final class VisitForest {
 	public Set<String> getRoots() {
 		Set<String> res = new HashSet<String>();
 		for(int i = 0; i < parent.length; i++) {
-			if(parent[i] == null) res.add(this.graph.getVertexLabel(i));
+			if(parent[i] < 0) res.add(this.graph.getVertexLabel(i));
 		}
 		return res;
 	}
@@ -74,8 +86,18 @@ public final class VisitForest {
 	 * @throws NoSuchElementException se vertex non appartiene al grafo.
 	 */
 	public Color getColor(String vertex) throws NoSuchElementException {
-		if(this.graph.getVertexIndex(vertex) >= graph.size()) throw new NoSuchElementException("Il vertice di indice "+vertex+" non appartiene al grafo");
-		return vertexColor[this.graph.getVertexIndex(vertex)];
+		return COLORS[vertexColor[indexOf(vertex)]];
+	}
+	
+	/**
+	 * Restituisce il colore del vertice di indice vertex
+	 * @param vertex l'indice del vertice di interesse
+	 * @return il colore del vertice in questa visita
+	 * @throws NoSuchElementException se vertex non e' un indice valido.
+	 */
+	public Color getColor(int vertex) throws NoSuchElementException {
+		checkIndex(vertex);
+		return COLORS[vertexColor[vertex]];
 	}
 	
 	/**
@@ -86,9 +108,20 @@ public final class VisitForest {
 	 * @throws IllegalArgumentException se non e' possibile effettuare questa operazione con i parametri dati
 	 */
 	public void setColor(String vertex, Color color) throws NoSuchElementException, IllegalArgumentException {
-		if(this.graph.getVertexIndex(vertex) >= graph.size()) throw new NoSuchElementException("Il vertice di indice "+vertex+" non appartiene al grafo");
-		if(vertexColor[this.graph.getVertexIndex(vertex)].compareTo(color) > 0) throw new IllegalArgumentException("Il colore di un vertice non puo' passare da GRAY a WHITE o da BLACK a GRAY o WHITE");
-		vertexColor[this.graph.getVertexIndex(vertex)] = color;
+		setColor(indexOf(vertex), color);
+	}
+	
+	/**
+	 * Setta il colore del vertice di indice vertex
+	 * @param vertex l'indice del vertice di interesse
+	 * @param color il nuovo colore
+	 * @throws NoSuchElementException se vertex non e' un indice valido
+	 * @throws IllegalArgumentException se non e' possibile effettuare questa operazione con i parametri dati
+	 */
+	public void setColor(int vertex, Color color) throws NoSuchElementException, IllegalArgumentException {
+		checkIndex(vertex);
+		if(vertexColor[vertex] > color.ordinal()) throw new IllegalArgumentException("Il colore di un vertice non puo' passare da GRAY a WHITE o da BLACK a GRAY o WHITE");
+		vertexColor[vertex] = (byte) color.ordinal();
 	}
 	
 	/**
@@ -98,21 +131,43 @@ public final class VisitForest {
 	 * @throws NoSuchElementException se vertex non appartiene al grafo.
 	 */
 	public String getParent(String vertex) throws NoSuchElementException {
-		if(this.graph.getVertexIndex(vertex) >= graph.size()) throw new NoSuchElementException("Il vertice di indice "+vertex+" non appartiene al grafo");
-		return graph.getVertexLabel(this.parent[this.graph.getVertexIndex(vertex)]);
+		int p = this.parent[indexOf(vertex)];
+		return p < 0 ? null : graph.getVertexLabel(p);
+	}
+	
+	/**
+	 * Restituisce l'indice del padre del vertice di indice vertex
+	 * @param vertex l'indice del vertice di interesse
+	 * @return l'indice del padre del vertice in questa visita, o -1 se il vertice non ha padre
+	 * @throws NoSuchElementException se vertex non e' un indice valido.
+	 */
+	public int getParent(int vertex) throws NoSuchElementException {
+		checkIndex(vertex);
+		return this.parent[vertex];
 	}
 	
 	/**
 	 * Setta il padre del vertice vertex
 	 * @param vertex il vertice di interesse
-	 * @param parent il nuovo padre
+	 * @param parent il nuovo padre (null se vertex non ha padre)
 	 * @throws NoSuchElementException se vertex non appartiene al grafo
 	 * @throws IllegalArgumentException se non e' possibile effettuare questa operazione con i parametri dati
 	 */
 	public void setParent(String vertex, String parent) throws NoSuchElementException, IllegalArgumentException {
-		if(this.graph.getVertexIndex(vertex) >= graph.size()) throw new NoSuchElementException("Il vertice di indice "+vertex+" non appartiene al grafo");
-		if(this.graph.getVertexIndex(parent) >= graph.size()) throw new NoSuchElementException("Il vertice di indice "+parent+" non appartiene al grafo");
-		this.parent[this.graph.getVertexIndex(vertex)] = this.graph.getVertexIndex(parent);
+		setParent(indexOf(vertex), parent == null ? -1 : indexOf(parent));
+	}
+	
+	/**
+	 * Setta il padre del vertice di indice vertex
+	 * @param vertex l'indice del vertice di interesse
+	 * @param parent l'indice del nuovo padre (-1 se vertex non ha padre)
+	 * @throws NoSuchElementException se vertex o parent non sono indici validi
+	 * @throws IllegalArgumentException se non e' possibile effettuare questa operazione con i parametri dati
+	 */
+	public void setParent(int vertex, int parent) throws NoSuchElementException, IllegalArgumentException {
+		checkIndex(vertex);
+		if(parent != -1) checkIndex(parent);
+		this.parent[vertex] = parent;
 	}
 	
 	/**
@@ -122,8 +177,19 @@ public final class VisitForest {
 	 * @throws NoSuchElementException se vertex non appartiene al grafo o se la visita non calcola la distanza.
 	 */
 	public Double getDistance(String vertex) throws NoSuchElementException {
-		if(this.graph.getVertexIndex(vertex) >= graph.size()) throw new NoSuchElementException("Il vertice di indice "+vertex+" non appartiene al grafo");
-		return distance[this.graph.getVertexIndex(vertex)];
+		double d = distance[indexOf(vertex)];
+		return Double.isNaN(d) ? null : d;
+	}
+	
+	/**
+	 * Restituisce la distanza del vertice di indice vertex dalla sorgente
+	 * @param vertex l'indice del vertice di interesse
+	 * @return la distanza del vertice dalla sorgente in questa visita, o NaN se non e' stata calcolata
+	 * @throws NoSuchElementException se vertex non e' un indice valido.
+	 */
+	public double getDistance(int vertex) throws NoSuchElementException {
+		checkIndex(vertex);
+		return distance[vertex];
 	}
 	
 	/**
@@ -134,8 +200,18 @@ public final class VisitForest {
 	 * @throws IllegalArgumentException se non e' possibile effettuare questa operazione con i parametri dati
 	 */
 	public void setDistance(String vertex, double distance) throws NoSuchElementException, IllegalArgumentException {
-		if(this.graph.getVertexIndex(vertex) >= graph.size()) throw new NoSuchElementException("Il vertice di indice "+vertex+" non appartiene al grafo");
-		this.distance[this.graph.getVertexIndex(vertex)] = distance;
+		this.distance[indexOf(vertex)] = distance;
+	}
+	
+	/**
+	 * Setta la distanza stimata del vertice di indice vertex dalla sorgente
+	 * @param vertex l'indice del vertice di interesse
+	 * @param distance la nuova distanza
+	 * @throws NoSuchElementException se vertex non e' un indice valido
+	 */
+	public void setDistance(int vertex, double distance) throws NoSuchElementException {
+		checkIndex(vertex);
+		this.distance[vertex] = distance;
 	}
 	
 	/**
@@ -145,20 +221,40 @@ public final class VisitForest {
 	 * @throws NoSuchElementException se vertex non appartiene al grafo.
 	 */
 	public Integer getStartTime(String vertex) throws NoSuchElementException {
-		if(this.graph.getVertexIndex(vertex) >= graph.size()) throw new NoSuchElementException("Il vertice di indice "+vertex+" non appartiene al grafo");
-		return startTime[this.graph.getVertexIndex(vertex)];
+		return startTime[indexOf(vertex)];
+	}
+	
+	/**
+	 * Restituisce il tempo di inizio visita del vertice di indice vertex
+	 * @param vertex l'indice del vertice di interesse
+	 * @return il tempo di inizio visita del vertice in questa visita, o -1 se non e' stato visitato
+	 * @throws NoSuchElementException se vertex non e' un indice valido.
+	 */
+	public int getStartTime(int vertex) throws NoSuchElementException {
+		checkIndex(vertex);
+		return startTime[vertex];
 	}
 	
 	/**
 	 * Setta il tempo di inizio visita del vertice vertex
 	 * @param vertex il vertice di interesse
-	 * @param startTime il tempo di inizio visita
+	 * @param startTime il tempo di inizio visita, o null per cancellarlo (memorizzato come -1)
 	 * @throws NoSuchElementException se vertex non appartiene al grafo
 	 * @throws IllegalArgumentException se non e' possibile effettuare questa operazione con i parametri dati
 	 */
 	public void setStartTime(String vertex, Integer startTime) throws NoSuchElementException {
-		if(this.graph.getVertexIndex(vertex) >= graph.size()) throw new NoSuchElementException("Il vertice di indice "+vertex+" non appartiene al grafo");
-		this.startTime[this.graph.getVertexIndex(vertex)] = startTime;
+		this.startTime[indexOf(vertex)] = startTime == null ? -1 : startTime;
+	}
+	
+	/**
+	 * Setta il tempo di inizio visita del vertice di indice vertex
+	 * @param vertex l'indice del vertice di interesse
+	 * @param startTime il tempo di inizio visita
+	 * @throws NoSuchElementException se vertex non e' un indice valido
+	 */
+	public void setStartTime(int vertex, int startTime) throws NoSuchElementException {
+		checkIndex(vertex);
+		this.startTime[vertex] = startTime;
 	}
 	
 	/**
@@ -168,20 +264,40 @@ public final class VisitForest {
 	 * @throws NoSuchElementException se vertex non appartiene al grafo.
 	 */
 	public Integer getEndTime(String vertex) throws NoSuchElementException {
-		if(this.graph.getVertexIndex(vertex) >= graph.size()) throw new NoSuchElementException("Il vertice di indice "+vertex+" non appartiene al grafo");
-		return endTime[this.graph.getVertexIndex(vertex)];
+		return endTime[indexOf(vertex)];
+	}
+	
+	/**
+	 * Restituisce il tempo di fine visita del vertice di indice vertex
+	 * @param vertex l'indice del vertice di interesse
+	 * @return il tempo di fine visita del vertice in questa visita, o -1 se non e' terminata
+	 * @throws NoSuchElementException se vertex non e' un indice valido.
+	 */
+	public int getEndTime(int vertex) throws NoSuchElementException {
+		checkIndex(vertex);
+		return endTime[vertex];
 	}
 	
 	/**
 	 * Setta il tempo di fine visita del vertice vertex
 	 * @param vertex il vertice di interesse
-	 * @param endTime il tempo di fine visita
+	 * @param endTime il tempo di fine visita, o null per cancellarlo (memorizzato come -1)
 	 * @throws NoSuchElementException se vertex non appartiene al grafo
 	 * @throws IllegalArgumentException se non e' possibile effettuare questa operazione con i parametri dati
 	 */
 	public void setEndTime(String vertex, Integer endTime) throws NoSuchElementException {
-		if(this.graph.getVertexIndex(vertex) >= graph.size()) throw new NoSuchElementException("Il vertice di indice "+vertex+" non appartiene al grafo");
-		this.endTime[this.graph.getVertexIndex(vertex)] = endTime;
+		this.endTime[indexOf(vertex)] = endTime == null ? -1 : endTime;
+	}
+	
+	/**
+	 * Setta il tempo di fine visita del vertice di indice vertex
+	 * @param vertex l'indice del vertice di interesse
+	 * @param endTime il tempo di fine visita
+	 * @throws NoSuchElementException se vertex non e' un indice valido
+	 */
+	public void setEndTime(int vertex, int endTime) throws NoSuchElementException {
+		checkIndex(vertex);
+		this.endTime[vertex] = endTime;
 	}
 
 	
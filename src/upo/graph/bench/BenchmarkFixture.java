@@ -0,0 +1,65 @@
+package upo.graph.bench;
+
+import java.util.SplittableRandom;
+
+import upo.graph.impl.AdjListDirWeight;
+
+/**
+ * Stato condiviso dalle operazioni misurate su uno stesso grafo: l'elenco degli archi generati, il grafo costruito
+ * e dei campioni di vertici e archi, scelti con un seme fisso, che le operazioni usano a rotazione per non
+ * interrogare sempre gli stessi elementi.
+ *
+ * @author Guido
+ */
+final class BenchmarkFixture
+{
+    private static final int SAMPLES = 64;
+
+    final GraphShape shape;
+    final EdgeList edges;
+    final AdjListDirWeight graph;
+    private final int[] sampleVertices = new int[SAMPLES];
+    private final int[] sampleEdges = new int[SAMPLES];
+    private int cursor;
+    private int extraVertices;
+
+    BenchmarkFixture(GraphShape shape, EdgeList edges, long seed)
+    {
+        this.shape = shape;
+        this.edges = edges;
+        this.graph = edges.toAdjListDirWeight();
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < SAMPLES; i++)
+        {
+            sampleVertices[i] = random.nextInt(edges.vertexCount());
+            sampleEdges[i] = random.nextInt(edges.edgeCount());
+        }
+    }
+
+    /**
+     * Restituisce l'etichetta del prossimo vertice del campione.
+     */
+    String nextVertex()
+    {
+        cursor = (cursor + 1) % SAMPLES;
+        return edges.label(sampleVertices[cursor]);
+    }
+
+    /**
+     * Restituisce la posizione del prossimo arco del campione nell'elenco degli archi.
+     */
+    int nextEdge()
+    {
+        cursor = (cursor + 1) % SAMPLES;
+        return sampleEdges[cursor];
+    }
+
+    /**
+     * Restituisce un'etichetta non ancora usata per un vertice aggiuntivo.
+     */
+    String freshLabel()
+    {
+        return "extra" + extraVertices++;
+    }
+
+}
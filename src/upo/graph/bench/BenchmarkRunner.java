@@ -0,0 +1,268 @@
+package upo.graph.bench;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Esegue i benchmark delle operazioni di {@link GraphOperation} sui grafi generati da {@link GraphShape}, a
+ * diverse scale, e riporta per ciascuna combinazione il throughput (operazioni al secondo, con la deviazione
+ * standard tra le iterazioni) e i byte allocati per operazione.
+ * <p>
+ * Ogni misura segue lo schema di JMH: alcune iterazioni di riscaldamento per lasciare compilare il codice al JIT,
+ * poi le iterazioni misurate, ciascuna di durata fissa e di almeno un'invocazione. I risultati vengono consumati
+ * per impedire l'eliminazione del calcolo. I byte allocati sono letti dai contatori per thread della JVM
+ * ({@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long[])}) sommando tutti i thread, cosi' da
+ * includere le allocazioni delle operazioni parallele.
+ * <p>
+ * Opzioni, tutte facoltative:
+ * <pre>
+ * --shapes random,grid,power_law,dag   famiglie di grafi
+ * --edges 1000,100000,1000000          numero di archi di ciascun grafo (fino a 10000000 con -Xmx adeguato)
+ * --ops bfs_tree,dijkstra              operazioni da misurare (predefinito: tutte)
+ * --warmup 3                           iterazioni di riscaldamento
+ * --iterations 5                       iterazioni misurate
+ * --time 500                           durata di un'iterazione in millisecondi
+ * --seed 42                            seme dei generatori
+ * --csv risultati.csv                  scrive anche i risultati in formato CSV, per confrontare le versioni
+ * </pre>
+ *
+ * @author Guido
+ */
+public final class BenchmarkRunner
+{
+    private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private List<GraphShape> shapes = List.of(GraphShape.values());
+    private List<Integer> scales = List.of(1_000, 100_000, 1_000_000);
+    private List<GraphOperation> operations = List.of(GraphOperation.values());
+    private int warmup = 3;
+    private int iterations = 5;
+    private long iterationNanos = 500_000_000L;
+    private long seed = 42;
+    private Path csv;
+    private long sink;
+
+    /**
+     * Risultato della misura di un'operazione su un grafo.
+     */
+    private static final class Result
+    {
+        private final double opsPerSecond;
+        private final double error;
+        private final double bytesPerOp;
+
+        Result(double opsPerSecond, double error, double bytesPerOp)
+        {
+            this.opsPerSecond = opsPerSecond;
+            this.error = error;
+            this.bytesPerOp = bytesPerOp;
+        }
+    }
+
+    private BenchmarkRunner()
+    {
+    }
+
+    /**
+     * Avvia i benchmark.
+     *
+     * @param args Le opzioni descritte nella documentazione della classe.
+     * @throws IOException Se non e' possibile scrivere il file CSV.
+     */
+    public static void main(String[] args) throws IOException
+    {
+        BenchmarkRunner runner = new BenchmarkRunner();
+        runner.parse(args);
+        runner.run();
+    }
+
+    private void parse(String[] args)
+    {
+        for (int i = 0; i < args.length; i += 2)
+        {
+            if (i + 1 == args.length)
+            {
+                throw new IllegalArgumentException("Manca il valore dell'opzione " + args[i]);
+            }
+            String value = args[i + 1];
+            switch (args[i])
+            {
+                case "--shapes":
+                    shapes = parseList(value, GraphShape.class);
+                    break;
+                case "--ops":
+                    operations = parseList(value, GraphOperation.class);
+                    break;
+                case "--edges":
+                    scales = new ArrayList<>();
+                    for (String scale : value.split(","))
+                    {
+                        scales.add(Integer.parseInt(scale.trim().replace("_", "")));
+                    }
+                    break;
+                case "--warmup":
+                    warmup = Integer.parseInt(value);
+                    break;
+                case "--iterations":
+                    iterations = Math.max(1, Integer.parseInt(value));
+                    break;
+                case "--time":
+                    iterationNanos = Long.parseLong(value) * 1_000_000L;
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(value);
+                    break;
+                case "--csv":
+                    csv = Paths.get(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Opzione sconosciuta: " + args[i]);
+            }
+        }
+    }
+
+    private static <E extends Enum<E>> List<E> parseList(String value, Class<E> type)
+    {
+        List<E> values = new ArrayList<>();
+        for (String name : value.split(","))
+        {
+            values.add(Enum.valueOf(type, name.trim().toUpperCase(Locale.ROOT).replace('-', '_')));
+        }
+        return values;
+    }
+
+    private void run() throws IOException
+    {
+        PrintWriter report = csv == null ? null : new PrintWriter(Files.newBufferedWriter(csv));
+        try
+        {
+            if (report != null)
+            {
+                report.println("operation,shape,edges,vertices,ops_per_second,error,bytes_per_op");
+            }
+            System.out.printf(Locale.ROOT, "%-30s %-10s %10s %10s %14s %12s %14s%n", "operazione", "grafo", "archi",
+                    "vertici", "op/s", "errore", "byte/op");
+            for (GraphShape shape : shapes)
+            {
+                for (int scale : scales)
+                {
+                    EdgeList edges = shape.generate(scale, seed);
+                    BenchmarkFixture fixture = new BenchmarkFixture(shape, edges, seed);
+                    for (GraphOperation operation : operations)
+                    {
+                        String row = String.format(Locale.ROOT, "%-30s %-10s %10d %10d", operation, shape,
+                                edges.edgeCount(), edges.vertexCount());
+                        if (edges.vertexCount() > operation.maxVertices())
+                        {
+                            System.out.println(row + "   saltata: troppi vertici");
+                            continue;
+                        }
+                        Result result;
+                        try
+                        {
+                            result = measure(operation, fixture);
+                        }
+                        catch (UnsupportedOperationException e)
+                        {
+                            System.out.println(row + "   non supportata: " + e.getMessage());
+                            continue;
+                        }
+                        System.out.printf(Locale.ROOT, "%s %14.1f %12.1f %14.0f%n", row, result.opsPerSecond,
+                                result.error, result.bytesPerOp);
+                        if (report != null)
+                        {
+                            report.printf(Locale.ROOT, "%s,%s,%d,%d,%.3f,%.3f,%.1f%n", operation, shape,
+                                    edges.edgeCount(), edges.vertexCount(), result.opsPerSecond, result.error,
+                                    result.bytesPerOp);
+                        }
+                    }
+                }
+            }
+        }
+        finally
+        {
+            if (report != null)
+            {
+                report.close();
+            }
+        }
+        if (sink == 42)
+        {
+            System.out.println();
+        }
+    }
+
+    private Result measure(GraphOperation operation, BenchmarkFixture fixture)
+    {
+        System.gc();
+        for (int i = 0; i < warmup; i++)
+        {
+            iteration(operation, fixture);
+        }
+
+        double[] throughput = new double[iterations];
+        long operations = 0;
+        long allocated = 0;
+        for (int i = 0; i < iterations; i++)
+        {
+            long bytesBefore = allocatedBytes();
+            long start = System.nanoTime();
+            long count = iteration(operation, fixture);
+            long elapsed = System.nanoTime() - start;
+            allocated += allocatedBytes() - bytesBefore;
+            operations += count;
+            throughput[i] = count * 1e9 / elapsed;
+        }
+
+        double mean = 0;
+        for (double t : throughput)
+        {
+            mean += t;
+        }
+        mean /= iterations;
+        double variance = 0;
+        for (double t : throughput)
+        {
+            variance += (t - mean) * (t - mean);
+        }
+        double error = iterations > 1 ? Math.sqrt(variance / (iterations - 1)) : 0;
+        return new Result(mean, error, (double) allocated / operations);
+    }
+
+    /**
+     * Esegue l'operazione ripetutamente per la durata di un'iterazione.
+     *
+     * @return Il numero di invocazioni.
+     */
+    private long iteration(GraphOperation operation, BenchmarkFixture fixture)
+    {
+        long start = System.nanoTime();
+        long count = 0;
+        do
+        {
+            sink += System.identityHashCode(operation.run(fixture));
+            count++;
+        }
+        while (System.nanoTime() - start < iterationNanos);
+        return count;
+    }
+
+    private static long allocatedBytes()
+    {
+        long[] bytes = THREADS.getThreadAllocatedBytes(THREADS.getAllThreadIds());
+        long total = 0;
+        for (long b : bytes)
+        {
+            total += Math.max(0, b);
+        }
+        return total;
+    }
+
+}
@@ -0,0 +1,157 @@
+package upo.graph.bench;
+
+import java.util.stream.IntStream;
+
+import upo.graph.impl.AdjListDirWeight;
+import upo.graph.impl.ConcurrentWeightedGraph;
+import upo.graph.impl.CsrWeightedGraph;
+import upo.graph.impl.GraphLoader;
+
+/**
+ * Grafo generato, memorizzato come elenco di archi su indici interi, da cui si costruiscono le rappresentazioni
+ * misurate dai benchmark.
+ *
+ * @author Guido
+ */
+public final class EdgeList
+{
+    private final String[] labels;
+    private final int[] sources;
+    private final int[] targets;
+    private final double[] weights;
+
+    EdgeList(String[] labels, int[] sources, int[] targets, double[] weights)
+    {
+        this.labels = labels;
+        this.sources = sources;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    /**
+     * Restituisce il numero di vertici.
+     *
+     * @return Il numero di vertici.
+     */
+    public int vertexCount()
+    {
+        return labels.length;
+    }
+
+    /**
+     * Restituisce il numero di archi generati, eventuali duplicati compresi.
+     *
+     * @return Il numero di archi.
+     */
+    public int edgeCount()
+    {
+        return sources.length;
+    }
+
+    /**
+     * Restituisce l'etichetta del vertice di indice <code>v</code>.
+     *
+     * @param v L'indice del vertice.
+     * @return L'etichetta.
+     */
+    public String label(int v)
+    {
+        return labels[v];
+    }
+
+    /**
+     * Restituisce l'indice del vertice di origine dell'arco <code>e</code>.
+     *
+     * @param e La posizione dell'arco.
+     * @return L'indice del vertice di origine.
+     */
+    public int source(int e)
+    {
+        return sources[e];
+    }
+
+    /**
+     * Restituisce l'indice del vertice di destinazione dell'arco <code>e</code>.
+     *
+     * @param e La posizione dell'arco.
+     * @return L'indice del vertice di destinazione.
+     */
+    public int target(int e)
+    {
+        return targets[e];
+    }
+
+    /**
+     * Restituisce il peso dell'arco <code>e</code>.
+     *
+     * @param e La posizione dell'arco.
+     * @return Il peso.
+     */
+    public double weight(int e)
+    {
+        return weights[e];
+    }
+
+    /**
+     * Costruisce il grafo con i metodi di {@link AdjListDirWeight}, un vertice e un arco alla volta.
+     *
+     * @return Un nuovo grafo con i vertici nell'ordine dei loro indici.
+     */
+    public AdjListDirWeight toAdjListDirWeight()
+    {
+        AdjListDirWeight graph = new AdjListDirWeight();
+        for (String label : labels)
+        {
+            graph.addVertex(label);
+        }
+        for (int e = 0; e < sources.length; e++)
+        {
+            graph.addEdge(labels[sources[e]], labels[targets[e]]);
+            graph.setEdgeWeight(labels[sources[e]], labels[targets[e]], weights[e]);
+        }
+        return graph;
+    }
+
+    /**
+     * Costruisce un {@link ConcurrentWeightedGraph} inserendo i vertici in ordine e poi gli archi in parallelo
+     * sul pool fork-join comune.
+     *
+     * @return Un grafo con gli stessi vertici e archi di quello di {@link #toAdjListDirWeight()}, ma con i pesi
+     *         degli eventuali archi duplicati scelti in un ordine non determinato.
+     */
+    public ConcurrentWeightedGraph toConcurrentWeightedGraph()
+    {
+        return toConcurrentWeightedGraph(true);
+    }
+
+    /**
+     * Costruisce un {@link ConcurrentWeightedGraph} inserendo i vertici in ordine e poi gli archi, in parallelo
+     * sul pool fork-join comune o in sequenza su un solo thread.
+     *
+     * @param parallel True per inserire gli archi in parallelo.
+     * @return Un grafo con gli stessi vertici e archi di quello di {@link #toAdjListDirWeight()}.
+     */
+    public ConcurrentWeightedGraph toConcurrentWeightedGraph(boolean parallel)
+    {
+        ConcurrentWeightedGraph graph = new ConcurrentWeightedGraph();
+        for (String label : labels)
+        {
+            graph.addVertex(label);
+        }
+        IntStream edges = IntStream.range(0, sources.length);
+        (parallel ? edges.parallel() : edges)
+                .forEach(e -> graph.addEdge(labels[sources[e]], labels[targets[e]], weights[e]));
+        return graph;
+    }
+
+    /**
+     * Costruisce direttamente l'istantanea CSR con {@link GraphLoader#fromEdges(String[], int[], int[], double[])}.
+     *
+     * @return Un grafo equivalente a quello di {@link #toAdjListDirWeight()}.
+     */
+    public CsrWeightedGraph toCsrWeightedGraph()
+    {
+        return GraphLoader.fromEdges(labels, sources, targets, weights);
+    }
+
+}
@@ -0,0 +1,300 @@
+package upo.graph.bench;
+
+import upo.graph.impl.AdjListDirWeight;
+import upo.graph.impl.EdgeBatch;
+
+/**
+ * Operazioni di {@link upo.graph.base.Graph} e {@link upo.graph.base.WeightedGraph} misurate dai benchmark su
+ * {@link AdjListDirWeight}, piu' la costruzione del grafo. Le operazioni che modificano il grafo lo riportano
+ * allo stato iniziale prima di terminare, cosi' che le misure successive non ne siano influenzate.
+ *
+ * @author Guido
+ */
+public enum GraphOperation
+{
+    /** Costruzione del grafo con addVertex, addEdge e setEdgeWeight. */
+    BUILD
+    {
+        @Override
+        Object run(BenchmarkFixture f)
+        {
+            return f.edges.toAdjListDirWeight();
+        }
+    },
+
+    /** Costruzione diretta dell'istantanea CSR a partire dagli stessi archi. */
+    BULK_LOAD
+    {
+        @Override
+        Object run(BenchmarkFixture f)
+        {
+            return f.edges.toCsrWeightedGraph();
+        }
+    },
+
+    /** Costruzione di un {@link upo.graph.impl.ConcurrentWeightedGraph} inserendo gli archi in parallelo. */
+    CONCURRENT_BUILD
+    {
+        @Override
+        Object run(BenchmarkFixture f)
+        {
+            return f.edges.toConcurrentWeightedGraph();
+        }
+    },
+
+    /**
+     * Come {@link #CONCURRENT_BUILD}, ma con gli archi inseriti da un solo thread: il rapporto tra i due throughput
+     * misura quanto scalano gli scrittori concorrenti.
+     */
+    CONCURRENT_BUILD_SERIAL
+    {
+        @Override
+        Object run(BenchmarkFixture f)
+        {
+            return f.edges.toConcurrentWeightedGraph(false);
+        }
+    },
+
+    /** Aggiunta e rimozione di un vertice isolato. */
+    ADD_REMOVE_VERTEX
+    {
+        @Override
+        Object run(BenchmarkFixture f)
+        {
+            String label = f.freshLabel();
+            f.graph.addVertex(label);
+            f.graph.removeVertex(label);
+            return label;
+        }
+    },
+
+    /** Rimozione e reinserimento di un arco esistente, con il suo peso. */
+    ADD_REMOVE_EDGE
+    {
+        @Override
+        Object run(BenchmarkFixture f)
+        {
+            int e = f.nextEdge();
+            String u = f.edges.label(f.edges.source(e));
+            String v = f.edges.label(f.edges.target(e));
+            double weight = f.graph.getEdgeWeight(u, v);
+            f.graph.removeEdge(u, v);
+            f.graph.addEdge(u, v);
+            f.graph.setEdgeWeight(u, v, weight);
+            return u;
+        }
+    },
+
+    CONTAINS_EDGE
+    {
+        @Override
+        Object run(BenchmarkFixture f)
+        {
+            int e = f.nextEdge();
+            return f.graph.containsEdge(f.edges.label(f.edges.source(e)), f.edges.label(f.edges.target(e)));
+        }
+    },
+
+    IS_ADJACENT
+    {
+        @Override
+        Object run(BenchmarkFixture f)
+        {
+            int e = f.nextEdge();
+            return f.graph.isAdjacent(f.edges.label(f.edges.target(e)), f.edges.label(f.edges.source(e)));
+        }
+    },
+
+    GET_EDGE_WEIGHT
+    {
+        @Override
+        Object run(BenchmarkFixture f)
+        {
+            int e = f.nextEdge();
+            return f.graph.getEdgeWeight(f.edges.label(f.edges.source(e)), f.edges.label(f.edges.target(e)));
+        }
+    },
+
+    /** Lettura e riscrittura dello stesso peso, che invalida comunque l'istantanea CSR del grafo. */
+    SET_EDGE_WEIGHT
+    {
+        @Override
+        Object run(BenchmarkFixture f)
+        {
+            int e = f.nextEdge();
+            String u = f.edges.label(f.edges.source(e));
+            String v = f.edges.label(f.edges.target(e));
+            f.graph.setEdgeWeight(u, v, f.graph.getEdgeWeight(u, v));
+            return u;
+        }
+    },
+
+    /** Come {@link #SET_EDGE_WEIGHT}, ma per 64 archi applicati con un solo lotto. */
+    BATCH_SET_EDGE_WEIGHT
+    {
+        @Override
+        Object run(BenchmarkFixture f)
+        {
+            EdgeBatch batch = new EdgeBatch(64);
+            for (int i = 0; i < 64; i++)
+            {
+                int e = f.nextEdge();
+                String u = f.edges.label(f.edges.source(e));
+                String v = f.edges.label(f.edges.target(e));
+                batch.reweight(u, v, f.graph.getEdgeWeight(u, v));
+            }
+            return f.graph.applyBatch(batch, false);
+        }
+    },
+
+    GET_ADJACENT
+    {
+        @Override
+        Object run(BenchmarkFixture f)
+        {
+            return f.graph.getAdjacent(f.nextVertex());
+        }
+    },
+
+    BFS_TREE
+    {
+        @Override
+        Object run(BenchmarkFixture f)
+        {
+            return f.graph.getBFSTree(f.nextVertex());
+        }
+    },
+
+    DFS_TREE
+    {
+        @Override
+        Object run(BenchmarkFixture f)
+        {
+            return f.graph.getDFSTree(f.nextVertex());
+        }
+    },
+
+    DFS_TOT_FOREST
+    {
+        @Override
+        Object run(BenchmarkFixture f)
+        {
+            return f.graph.getDFSTOTForest(f.nextVertex());
+        }
+    },
+
+    IS_CYCLIC
+    {
+        @Override
+        Object run(BenchmarkFixture f)
+        {
+            return f.graph.isCyclic();
+        }
+    },
+
+    IS_DAG
+    {
+        @Override
+        Object run(BenchmarkFixture f)
+        {
+            return f.graph.isDAG();
+        }
+    },
+
+    TOPOLOGICAL_SORT
+    {
+        @Override
+        Object run(BenchmarkFixture f)
+        {
+            return f.graph.topologicalSort();
+        }
+    },
+
+    STRONGLY_CONNECTED_COMPONENTS
+    {
+        @Override
+        Object run(BenchmarkFixture f)
+        {
+            return f.graph.stronglyConnectedComponents();
+        }
+    },
+
+    CONNECTED_COMPONENTS
+    {
+        @Override
+        Object run(BenchmarkFixture f)
+        {
+            return f.graph.connectedComponents();
+        }
+    },
+
+    BELLMAN_FORD
+    {
+        @Override
+        Object run(BenchmarkFixture f)
+        {
+            return f.graph.getBellmanFordShortestPaths(f.nextVertex());
+        }
+    },
+
+    DIJKSTRA
+    {
+        @Override
+        Object run(BenchmarkFixture f)
+        {
+            return f.graph.getDijkstraShortestPaths(f.nextVertex());
+        }
+    },
+
+    PRIM_MST
+    {
+        @Override
+        Object run(BenchmarkFixture f)
+        {
+            return f.graph.getPrimMST(f.nextVertex());
+        }
+    },
+
+    KRUSKAL_MST
+    {
+        @Override
+        Object run(BenchmarkFixture f)
+        {
+            return f.graph.getKruskalMST();
+        }
+    },
+
+    /** Eseguito solo fino a 2000 vertici: la matrice delle distanze cresce con il quadrato dei vertici. */
+    FLOYD_WARSHALL
+    {
+        @Override
+        Object run(BenchmarkFixture f)
+        {
+            return f.graph.getFloydWarshallShortestPaths();
+        }
+
+        @Override
+        int maxVertices()
+        {
+            return 2000;
+        }
+    };
+
+    /**
+     * Esegue una volta l'operazione sul grafo della fixture.
+     *
+     * @param f La fixture.
+     * @return Il risultato, che il chiamante consuma per evitare che il calcolo venga eliminato.
+     * @throws UnsupportedOperationException Se l'operazione non e' definita per il grafo.
+     */
+    abstract Object run(BenchmarkFixture f) throws UnsupportedOperationException;
+
+    /**
+     * Restituisce il numero massimo di vertici per cui l'operazione viene misurata.
+     */
+    int maxVertices()
+    {
+        return Integer.MAX_VALUE;
+    }
+
+}
@@ -0,0 +1,165 @@
+package upo.graph.bench;
+
+import java.util.SplittableRandom;
+
+/**
+ * Famiglie di grafi generati per i benchmark. Ogni generatore e' deterministico: lo stesso numero di archi e lo
+ * stesso seme producono sempre lo stesso grafo, cosi' che i risultati di versioni diverse siano confrontabili.
+ * I pesi sono interi compresi tra 1 e 100.
+ *
+ * @author Guido
+ */
+public enum GraphShape
+{
+    /** Grafo casuale uniforme (Erdos-Renyi) con grado medio 8. */
+    RANDOM
+    {
+        @Override
+        public EdgeList generate(int edges, long seed)
+        {
+            SplittableRandom random = new SplittableRandom(seed);
+            int n = Math.max(2, edges / AVERAGE_DEGREE);
+            int[] sources = new int[edges];
+            int[] targets = new int[edges];
+            for (int e = 0; e < edges; e++)
+            {
+                sources[e] = random.nextInt(n);
+                targets[e] = (sources[e] + 1 + random.nextInt(n - 1)) % n;
+            }
+            return new EdgeList(labels(n), sources, targets, weights(random, edges));
+        }
+    },
+
+    /** Griglia quadrata con archi in entrambi i versi tra vertici adiacenti, come una rete stradale. */
+    GRID
+    {
+        @Override
+        public EdgeList generate(int edges, long seed)
+        {
+            SplittableRandom random = new SplittableRandom(seed);
+            int side = Math.max(2, (int) Math.sqrt(edges / 4.0));
+            int m = 4 * side * (side - 1);
+            int[] sources = new int[m];
+            int[] targets = new int[m];
+            int e = 0;
+            for (int r = 0; r < side; r++)
+            {
+                for (int c = 0; c < side; c++)
+                {
+                    int v = r * side + c;
+                    if (c + 1 < side)
+                    {
+                        sources[e] = v;
+                        targets[e++] = v + 1;
+                        sources[e] = v + 1;
+                        targets[e++] = v;
+                    }
+                    if (r + 1 < side)
+                    {
+                        sources[e] = v;
+                        targets[e++] = v + side;
+                        sources[e] = v + side;
+                        targets[e++] = v;
+                    }
+                }
+            }
+            String[] labels = new String[side * side];
+            for (int v = 0; v < labels.length; v++)
+            {
+                labels[v] = (v / side) + "," + (v % side);
+            }
+            return new EdgeList(labels, sources, targets, weights(random, m));
+        }
+    },
+
+    /**
+     * Grafo a legge di potenza (Barabasi-Albert): ogni nuovo vertice si collega a 8 vertici precedenti scelti con
+     * probabilita' proporzionale al loro grado, quindi pochi vertici concentrano molti archi.
+     */
+    POWER_LAW
+    {
+        @Override
+        public EdgeList generate(int edges, long seed)
+        {
+            SplittableRandom random = new SplittableRandom(seed);
+            int n = Math.max(AVERAGE_DEGREE + 1, edges / AVERAGE_DEGREE);
+            int m = (n - 1) * AVERAGE_DEGREE;
+            int[] sources = new int[m];
+            int[] targets = new int[m];
+
+            // Ogni estremo di ogni arco compare una volta: scegliere una posizione a caso equivale a scegliere
+            // un vertice con probabilita' proporzionale al grado
+            int[] endpoints = new int[2 * m];
+            int count = 0;
+            int e = 0;
+            for (int v = 1; v < n; v++)
+            {
+                for (int k = 0; k < AVERAGE_DEGREE; k++)
+                {
+                    int t = count == 0 ? 0 : endpoints[random.nextInt(count)];
+                    sources[e] = v;
+                    targets[e++] = t;
+                    endpoints[count++] = t;
+                }
+                for (int k = 0; k < AVERAGE_DEGREE; k++)
+                {
+                    endpoints[count++] = v;
+                }
+            }
+            return new EdgeList(labels(n), sources, targets, weights(random, m));
+        }
+    },
+
+    /** Grafo aciclico casuale: ogni arco va da un vertice di indice minore a uno di indice maggiore. */
+    DAG
+    {
+        @Override
+        public EdgeList generate(int edges, long seed)
+        {
+            SplittableRandom random = new SplittableRandom(seed);
+            int n = Math.max(2, edges / AVERAGE_DEGREE);
+            int[] sources = new int[edges];
+            int[] targets = new int[edges];
+            for (int e = 0; e < edges; e++)
+            {
+                int u = random.nextInt(n);
+                int v = (u + 1 + random.nextInt(n - 1)) % n;
+                sources[e] = Math.min(u, v);
+                targets[e] = Math.max(u, v);
+            }
+            return new EdgeList(labels(n), sources, targets, weights(random, edges));
+        }
+    };
+
+    private static final int AVERAGE_DEGREE = 8;
+
+    /**
+     * Genera un grafo con circa <code>edges</code> archi.
+     *
+     * @param edges Il numero di archi desiderato.
+     * @param seed Il seme del generatore pseudocasuale.
+     * @return Il grafo generato.
+     */
+    public abstract EdgeList generate(int edges, long seed);
+
+    private static String[] labels(int n)
+    {
+        String[] labels = new String[n];
+        for (int v = 0; v < n; v++)
+        {
+            labels[v] = "v" + v;
+        }
+        return labels;
+    }
+
+    private static double[] weights(SplittableRandom random, int m)
+    {
+        double[] weights = new double[m];
+        for (int e = 0; e < m; e++)
+        {
+            weights[e] = 1 + random.nextInt(100);
+        }
+        return weights;
+    }
+
+}
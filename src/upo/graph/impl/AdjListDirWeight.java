@@ -5,29 +5,61 @@ import upo.graph.base.VisitForest.Color;
 import upo.graph.base.VisitForest.VisitType;
 
 import java.util.*;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.IntStream;
 
 public class AdjListDirWeight implements WeightedGraph 
 {
 	private Map<String, Vertex> vertexMap;
+	private List<Vertex> vertexList;
 	private boolean directed;
+	private final boolean trackPredecessors;
+	private int modCount;
+	private CsrWeightedGraph snapshot;
+	private int snapshotModCount;
+
+	// Esiti delle operazioni di un lotto, vedi applyBatch
+	private static final byte SKIPPED = 0;
+	private static final byte INSERTED = 1;
+	private static final byte UPDATED = 2;
+	private static final byte DELETED = 3;
 	
     public AdjListDirWeight() 
+    {
+        this(true);
+    }
+
+    /**
+     * Costruisce un grafo vuoto, specificando se mantenere l'indice degli archi entranti.
+     * Con l'indice attivo ogni vertice conosce i propri predecessori: {@link #getPredecessors(String)},
+     * {@link #inDegree(String)} e la rimozione degli archi entranti in {@link #removeVertex(String)} costano 
+     * O(grado) invece di richiedere una scansione di tutti i vertici, al prezzo di una seconda mappa per vertice.
+     * 
+     * @param trackPredecessors True per mantenere l'indice degli archi entranti, false altrimenti.
+     */
+    public AdjListDirWeight(boolean trackPredecessors) 
     {
         vertexMap = new HashMap<>();
+        vertexList = new ArrayList<>();
         directed = true;
+        this.trackPredecessors = trackPredecessors;
     }
     
     /**
      * Classe interna che rappresenta un vertice nel grafo orientato pesato.
-     * Ogni vertice ha un'etichetta, una mappa dei vertici adiacenti con i pesi degli archi corrispondenti,
-     * e metodi per manipolare e recuperare informazioni sui vertici adiacenti.
+     * Ogni vertice ha un'etichetta, il proprio indice interno, una mappa dei vertici adiacenti con i pesi 
+     * degli archi corrispondenti, e metodi per manipolare e recuperare informazioni sui vertici adiacenti.
+     * Se l'indice degli archi entranti e' attivo, il vertice mantiene anche la mappa dei propri predecessori,
+     * con gli stessi pesi degli archi uscenti corrispondenti.
      * 
      * @author Guido
      */
     private class Vertex 
     {
         private String label;
+        private int index;
         private Map<Vertex, Double> adjacentVertices;
+        private Map<Vertex, Double> incomingVertices;
 
         /**
          * Costruisce un nuovo vertice con l'etichetta fornita.
@@ -38,6 +70,10 @@ public class AdjListDirWeight implements WeightedGraph
         {
             this.label = label;
             this.adjacentVertices = new HashMap<>();
+            if (trackPredecessors) 
+            {
+                this.incomingVertices = new HashMap<>();
+            }
         }
 
         /**
@@ -50,6 +86,26 @@ public class AdjListDirWeight implements WeightedGraph
             return label;
         }
 
+        /**
+         * Recupera l'indice interno del vertice, cioe' la sua posizione in <code>vertexList</code>.
+         * 
+         * @return L'indice interno del vertice.
+         */
+        public int getIndex() 
+        {
+            return index;
+        }
+
+        /**
+         * Aggiorna l'indice interno del vertice (usato quando gli indici vengono compattati dopo una rimozione).
+         * 
+         * @param index Il nuovo indice interno del vertice.
+         */
+        public void setIndex(int index) 
+        {
+            this.index = index;
+        }
+
         /**
          * Aggiunge un vertice adiacente con il peso specificato al vertice corrente.
          * 
@@ -59,6 +115,10 @@ public class AdjListDirWeight implements WeightedGraph
         public void addAdjacentVertex(Vertex vertex, double weight) 
         {
             adjacentVertices.put(vertex, weight);
+            if (incomingVertices != null) 
+            {
+                vertex.incomingVertices.put(this, weight);
+            }
         }
 
         /**
@@ -91,6 +151,10 @@ public class AdjListDirWeight implements WeightedGraph
         public void removeAdjacentVertex(Vertex vertex) 
         {
             adjacentVertices.remove(vertex);
+            if (incomingVertices != null) 
+            {
+                vertex.incomingVertices.remove(this);
+            }
         }
 
         /**
@@ -130,7 +194,8 @@ public class AdjListDirWeight implements WeightedGraph
     /**
      * Restituisce l'indice del vertice associato all'etichetta specificata nel grafo.
      * Se l'etichetta è null o il vertice non è presente nel grafo, il metodo restituisce -1.
-     * L'indice rappresenta la posizione del vertice in una lista ordinata di vertici.
+     * L'indice rappresenta la posizione del vertice nella lista dei vertici, ed e' letto in tempo costante
+     * dal vertice stesso.
      * 
      * @param label L'etichetta del vertice di cui si desidera ottenere l'indice.
      * @return L'indice del vertice o -1 se l'etichetta è null o il vertice non è presente.
@@ -146,8 +211,7 @@ public class AdjListDirWeight implements WeightedGraph
         Vertex vertex = vertexMap.get(label);
         if (vertex != null) 
         {
-            List<Vertex> vertices = new ArrayList<>(vertexMap.values());
-            return vertices.indexOf(vertex);
+            return vertex.getIndex();
         } 
         else 
         {
@@ -166,20 +230,19 @@ public class AdjListDirWeight implements WeightedGraph
     @Override
     public String getVertexLabel(Integer index) 
     {
-        if (index == null || index < 0 || index >= vertexMap.size()) 
+        if (index == null || index < 0 || index >= vertexList.size()) 
         {
             return null;
         }
 
-        List<Vertex> vertices = new ArrayList<>(vertexMap.values());
-        return vertices.get(index).getLabel();
+        return vertexList.get(index).getLabel();
     }
 
     /**
      * Aggiunge un nuovo vertice al grafo con l'etichetta specificata.
      * Se il grafo già contiene un vertice con la stessa etichetta, il vertice non viene aggiunto e il metodo restituisce -1.
-     * Dopo l'aggiunta del vertice, il metodo restituisce l'indice del vertice appena aggiunto nel grafo.
-     * L'indice rappresenta la posizione del vertice nella lista ordinata dei vertici.
+     * Dopo l'aggiunta del vertice, il metodo restituisce l'indice del vertice appena aggiunto nel grafo,
+     * che e' sempre uguale a <code>this.size()</code> prima dell'inserimento.
      * 
      * @param label L'etichetta del nuovo vertice da aggiungere al grafo.
      * @return L'indice del vertice appena aggiunto o -1 se un vertice con la stessa etichetta è già presente nel grafo.
@@ -190,8 +253,11 @@ public class AdjListDirWeight implements WeightedGraph
         if (!vertexMap.containsKey(label)) 
         {
             Vertex newVertex = new Vertex(label);
+            newVertex.setIndex(vertexList.size());
             vertexMap.put(label, newVertex);
-            return new ArrayList<>(vertexMap.values()).indexOf(newVertex);
+            vertexList.add(newVertex);
+            modCount++;
+            return newVertex.getIndex();
         }
         return -1;
     }
@@ -210,6 +276,10 @@ public class AdjListDirWeight implements WeightedGraph
 
     /**
      * Rimuove un vertice dal grafo insieme a tutti gli archi associati a quel vertice.
+     * Con l'indice degli archi entranti attivo gli archi vengono rimossi in tempo O(grado), altrimenti
+     * vengono esaminati tutti i vertici del grafo.
+     * Gli indici dei vertici successivi a quello rimosso vengono decrementati di 1, in modo che restino
+     * compresi tra 0 e <code>this.size()-1</code>.
      * Se il vertice non è presente nel grafo, solleva un'eccezione NoSuchElementException.
      * 
      * @param label L'etichetta del vertice da rimuovere dal grafo.
@@ -225,11 +295,34 @@ public class AdjListDirWeight implements WeightedGraph
         }
         vertexMap.remove(label);
 
-        for (Vertex vertex : vertexMap.values()) 
+        // Compatta la tabella degli indici
+        vertexList.remove(vertexToRemove.getIndex());
+        for (int i = vertexToRemove.getIndex(); i < vertexList.size(); i++) 
+        {
+            vertexList.get(i).setIndex(i);
+        }
+        modCount++;
+
+        if (trackPredecessors) 
         {
-            if (vertex.isAdjacent(vertexToRemove)) 
+            // Rimuove solo gli archi entranti noti e, dai successori, il riferimento al vertice rimosso
+            for (Vertex predecessor : vertexToRemove.incomingVertices.keySet()) 
             {
-                vertex.removeAdjacentVertex(vertexToRemove);
+                predecessor.adjacentVertices.remove(vertexToRemove);
+            }
+            for (Vertex successor : vertexToRemove.adjacentVertices.keySet()) 
+            {
+                successor.incomingVertices.remove(vertexToRemove);
+            }
+        } 
+        else 
+        {
+            for (Vertex vertex : vertexMap.values()) 
+            {
+                if (vertex.isAdjacent(vertexToRemove)) 
+                {
+                    vertex.removeAdjacentVertex(vertexToRemove);
+                }
             }
         }
     }
@@ -253,6 +346,7 @@ public class AdjListDirWeight implements WeightedGraph
             throw new IllegalArgumentException("Il vertice " + sourceVertex + " o " + targetVertex + " non appartiene al grafo");
         }
         source.addAdjacentVertex(target, WeightedGraph.defaultEdgeWeight);
+        modCount++;
     }
 
     /**
@@ -303,6 +397,7 @@ public class AdjListDirWeight implements WeightedGraph
         }
 
         source.removeAdjacentVertex(target);
+        modCount++;
     }
 
     /**
@@ -331,6 +426,134 @@ public class AdjListDirWeight implements WeightedGraph
         return adjacentVertices;
     }
 
+    /**
+     * Esegue <code>action</code> su ogni arco uscente dal vertice di indice <code>v</code>, passando l'indice 
+     * della destinazione e il peso. Le liste di adiacenza vengono lette direttamente, senza costruire insiemi 
+     * di etichette come {@link #getAdjacent(String)}.
+     * 
+     * @param v L'indice del vertice.
+     * @param action L'operazione da eseguire per ogni coppia (destinazione, peso).
+     * @throws NoSuchElementException Se <code>v</code> non e' un indice valido.
+     */
+    public void forEachNeighbor(int v, IntDoubleConsumer action) throws NoSuchElementException 
+    {
+        for (Map.Entry<Vertex, Double> edge : vertexAt(v).adjacentVertices.entrySet()) 
+        {
+            action.accept(edge.getKey().getIndex(), edge.getValue());
+        }
+    }
+
+    /**
+     * Esegue <code>action</code> su ogni arco entrante nel vertice di indice <code>v</code>, passando l'indice 
+     * dell'origine e il peso. Con l'indice degli archi entranti disattivato vengono esaminati tutti i vertici.
+     * 
+     * @param v L'indice del vertice.
+     * @param action L'operazione da eseguire per ogni coppia (origine, peso).
+     * @throws NoSuchElementException Se <code>v</code> non e' un indice valido.
+     */
+    public void forEachPredecessor(int v, IntDoubleConsumer action) throws NoSuchElementException 
+    {
+        Vertex target = vertexAt(v);
+        if (trackPredecessors) 
+        {
+            for (Map.Entry<Vertex, Double> edge : target.incomingVertices.entrySet()) 
+            {
+                action.accept(edge.getKey().getIndex(), edge.getValue());
+            }
+        } 
+        else 
+        {
+            for (Vertex candidate : vertexList) 
+            {
+                Double weight = candidate.adjacentVertices.get(target);
+                if (weight != null) 
+                {
+                    action.accept(candidate.getIndex(), weight);
+                }
+            }
+        }
+    }
+
+    private Vertex vertexAt(int v) throws NoSuchElementException 
+    {
+        if (v < 0 || v >= vertexList.size()) 
+        {
+            throw new NoSuchElementException("Il vertice di indice " + v + " non appartiene al grafo");
+        }
+        return vertexList.get(v);
+    }
+
+    /**
+     * Restituisce un insieme di etichette dei predecessori del vertice specificato, cioe' dei vertici da cui
+     * parte un arco verso di esso. Con l'indice degli archi entranti attivo il costo e' O(grado entrante),
+     * altrimenti vengono esaminati tutti i vertici del grafo.
+     * 
+     * @param vertex L'etichetta del vertice di cui ottenere i predecessori.
+     * @return Un insieme di etichette dei predecessori del vertice specificato.
+     * @throws NoSuchElementException Se il vertice specificato non appartiene al grafo.
+     */
+    public Set<String> getPredecessors(String vertex) throws NoSuchElementException 
+    {
+        Vertex target = vertexMap.get(vertex);
+
+        if (target == null) 
+        {
+            throw new NoSuchElementException("Il vertice " + vertex + " non appartiene al grafo");
+        }
+
+        Set<String> predecessors = new HashSet<>();
+        if (trackPredecessors) 
+        {
+            for (Vertex predecessor : target.incomingVertices.keySet()) 
+            {
+                predecessors.add(predecessor.getLabel());
+            }
+        } 
+        else 
+        {
+            for (Vertex candidate : vertexList) 
+            {
+                if (candidate.isAdjacent(target)) 
+                {
+                    predecessors.add(candidate.getLabel());
+                }
+            }
+        }
+        return predecessors;
+    }
+
+    /**
+     * Restituisce il numero di archi entranti nel vertice specificato. Con l'indice degli archi entranti attivo
+     * il costo e' O(1), altrimenti vengono esaminati tutti i vertici del grafo.
+     * 
+     * @param vertex L'etichetta del vertice.
+     * @return Il grado entrante del vertice.
+     * @throws NoSuchElementException Se il vertice specificato non appartiene al grafo.
+     */
+    public int inDegree(String vertex) throws NoSuchElementException 
+    {
+        Vertex target = vertexMap.get(vertex);
+
+        if (target == null) 
+        {
+            throw new NoSuchElementException("Il vertice " + vertex + " non appartiene al grafo");
+        }
+
+        if (trackPredecessors) 
+        {
+            return target.incomingVertices.size();
+        }
+        int degree = 0;
+        for (Vertex candidate : vertexList) 
+        {
+            if (candidate.isAdjacent(target)) 
+            {
+                degree++;
+            }
+        }
+        return degree;
+    }
+
     /**
      * Verifica se esiste un arco diretto dal vertice sorgente al vertice destinatario nel grafo.
      * Restituisce true se esiste un arco tra i vertici specificati, altrimenti restituisce false.
@@ -403,53 +626,15 @@ public class AdjListDirWeight implements WeightedGraph
     /**
      * Verifica se il grafo contiene cicli utilizzando una ricerca in profondità (DFS).
      * Restituisce true se il grafo contiene almeno un ciclo, altrimenti restituisce false.
+     * La visita iterativa di {@link DepthFirstSearch} segnala un ciclo quando incontra un vertice gia' visitato
+     * diverso dal genitore del vertice corrente.
      * 
      * @return True se il grafo contiene cicli, altrimenti false.
      */
     @Override
     public boolean isCyclic() 
     {
-        Set<Vertex> visited = new HashSet<>();
-        for (Vertex vertex : vertexMap.values()) 
-        {
-            if (!visited.contains(vertex)) 
-            {
-                if (isCyclicUtil(vertex, visited, null)) 
-                {
-                    return true;
-                }
-            }
-        }
-        return false;
-    }
-
-    /**
-     * Metodo di supporto per la verifica dei cicli nel grafo mediante una ricerca in profondità (DFS).
-     * 
-     * @param current Il vertice corrente in esame.
-     * @param visited Insieme di vertici visitati durante la ricerca.
-     * @param parent Il vertice genitore del vertice corrente.
-     * @return True se il grafo contiene un ciclo, altrimenti false.
-     */
-    private boolean isCyclicUtil(Vertex current, Set<Vertex> visited, Vertex parent) 
-    {
-        visited.add(current);
-
-        for (Vertex adjacent : current.adjacentVertices.keySet()) 
-        {
-            if (!visited.contains(adjacent)) 
-            {
-                if (isCyclicUtil(adjacent, visited, current)) 
-                {
-                    return true;
-                }
-            } 
-            else if (!adjacent.equals(parent)) 
-            {
-                return true;
-            }
-        }
-        return false;
+        return freeze().isCyclic();
     }
 
     /**
@@ -482,36 +667,104 @@ public class AdjListDirWeight implements WeightedGraph
             throw new IllegalArgumentException("Il vertice specificato non appartiene al grafo");
         }
 
-        // Inizializza l'oggetto VisitForest per la BFS
+        // Inizializza l'oggetto VisitForest per la BFS: la visita lavora sugli indici interi dei vertici,
+        // con una coda su array e un solo visitatore per gli archi, senza copiare gli insiemi di adiacenza
+        Probe probe = GraphMetrics.isEnabled() ? GraphMetrics.start(Algorithm.BFS, vertexList.size(), edgeCount()) : null;
         VisitForest visitForest = new VisitForest(this, VisitType.BFS);
-        Queue<String> queue = new LinkedList<>();
+        BreadthFirstVisitor visitor = new BreadthFirstVisitor(visitForest, vertexList.size());
 
-        // Inizia la BFS dal vertice di partenza
-        visitForest.setColor(startingVertex, Color.GRAY);
-        visitForest.setDistance(startingVertex, 0);
-        visitForest.setParent(startingVertex, null); // Inizializza il genitore del vertice di partenza come null
-        queue.add(startingVertex);
+        // Inizia la BFS dal vertice di partenza (il suo genitore resta -1)
+        int s = vertexMap.get(startingVertex).getIndex();
+        visitForest.setColor(s, Color.GRAY);
+        visitForest.setDistance(s, 0);
+        visitor.queue[visitor.tail++] = s;
 
-        while (!queue.isEmpty()) 
+        while (visitor.head < visitor.tail) 
         {
-            String u = queue.poll();
-            Set<String> adj = getAdjacent(u);
+            int u = visitor.queue[visitor.head++];
+            visitor.current = u;
+            visitor.nextDistance = visitForest.getDistance(u) + 1;
+            forEachNeighbor(u, visitor);
+            visitForest.setColor(u, Color.BLACK);
+        }
 
-            for (String v : adj) 
+        if (probe != null) 
+        {
+            // Ogni vertice accodato e' stato estratto e ha esaminato tutti i suoi archi uscenti
+            long examined = 0;
+            for (int i = 0; i < visitor.tail; i++) 
             {
-                if (visitForest.getColor(v) == Color.WHITE) 
-                {
-                    visitForest.setColor(v, Color.GRAY);
-                    visitForest.setParent(v, u);
-                    visitForest.setDistance(v, visitForest.getDistance(u) + 1);
-                    queue.add(v);
-                }
+                examined += vertexList.get(visitor.queue[i]).adjacentVertices.size();
             }
+            probe.count(visitor.tail, examined, 0, 0, 0);
+            probe.finish();
+        }
+        return visitForest;
+    }
 
-            visitForest.setColor(u, Color.BLACK);
+    /**
+     * Conta gli archi del grafo sommando i gradi uscenti, senza costruire l'istantanea.
+     * 
+     * @return Il numero di archi.
+     */
+    int edgeCount() 
+    {
+        int count = 0;
+        for (Vertex vertex : vertexList) 
+        {
+            count += vertex.adjacentVertices.size();
         }
+        return count;
+    }
 
-        return visitForest;
+    /**
+     * Visitatore degli archi usato da {@link #getBFSTree(String)}: scopre i vicini bianchi del vertice corrente
+     * e li accoda.
+     */
+    private static final class BreadthFirstVisitor implements IntDoubleConsumer 
+    {
+        private final VisitForest visitForest;
+        private final int[] queue;
+        private int head;
+        private int tail;
+        private int current;
+        private double nextDistance;
+
+        BreadthFirstVisitor(VisitForest visitForest, int size) 
+        {
+            this.visitForest = visitForest;
+            this.queue = new int[size];
+        }
+
+        @Override
+        public void accept(int v, double weight) 
+        {
+            if (visitForest.getColor(v) == Color.WHITE) 
+            {
+                visitForest.setColor(v, Color.GRAY);
+                visitForest.setParent(v, current);
+                visitForest.setDistance(v, nextDistance);
+                queue[tail++] = v;
+            }
+        }
+    }
+
+    /**
+     * Restituisce l'albero di visita in ampiezza (BFS) calcolato in parallelo sull'istantanea CSR del grafo,
+     * con una visita level-synchronous che alterna le strategie top-down e bottom-up.
+     * La foresta restituita fa riferimento all'istantanea, che ha gli stessi indici ed etichette di <code>this</code>.
+     * 
+     * @param startingVertex Il vertice di partenza per la visita in ampiezza.
+     * @return Un oggetto {@code VisitForest} con genitori e distanze della visita.
+     * @throws IllegalArgumentException Se il vertice specificato non appartiene al grafo.
+     */
+    public VisitForest getParallelBFSTree(String startingVertex) throws IllegalArgumentException 
+    {
+        if (!vertexMap.containsKey(startingVertex)) 
+        {
+            throw new IllegalArgumentException("Il vertice specificato non appartiene al grafo");
+        }
+        return freeze().getParallelBFSTree(startingVertex);
     }
 
     /**
@@ -533,34 +786,12 @@ public class AdjListDirWeight implements WeightedGraph
             throw new IllegalArgumentException("Il vertice specificato non appartiene al grafo");
         }
 
-        // Inizializza l'oggetto VisitForest per la DFS
-        VisitForest visitForest = new VisitForest(this, VisitType.DFS);
-        Stack<String> stack = new Stack<>();
-
-        int time = 0;
-        visitForest.setColor(startingVertex, Color.GRAY);
-        visitForest.setStartTime(startingVertex, time++);
-        stack.push(startingVertex);
-
-        while (!stack.isEmpty()) 
-        {
-            String u = stack.pop();
-            Set<String> adj = getAdjacent(u);
-            for (String v : adj) 
-            {
-                if (visitForest.getColor(v) == Color.WHITE) 
-                {
-                    visitForest.setColor(v, Color.GRAY);
-                    visitForest.setParent(v, u);
-                    visitForest.setStartTime(v, time++);
-                    stack.push(v);
-                }
-            }
-            visitForest.setColor(u, Color.BLACK);
-            visitForest.setEndTime(u, time++);
-        }
-
-        return visitForest;
+        // Esegue la DFS iterativa sull'istantanea, che ha gli stessi indici di this
+        CsrWeightedGraph csr = freeze();
+        Probe probe = GraphMetrics.start(Algorithm.DFS, csr);
+        DepthFirstSearch dfs = new DepthFirstSearch(csr);
+        dfs.visit(vertexMap.get(startingVertex).getIndex());
+        return csr.finishVisit(probe, dfs.fill(new VisitForest(this, VisitType.DFS)));
     }
 
     /**
@@ -581,44 +812,12 @@ public class AdjListDirWeight implements WeightedGraph
             throw new IllegalArgumentException("Il vertice specificato non appartiene al grafo");
         }
 
-        // Inizializza l'oggetto VisitForest per la DFS-TOT
-        VisitForest visitForest = new VisitForest(this, VisitType.DFS_TOT);
-
-        for (String u : vertexMap.keySet()) 
-        {
-            if (visitForest.getColor(u) == Color.WHITE) 
-            {
-            	// Inizializza il tempo di visita
-            	int[] time = {0};
-            	
-            	// Esegue la DFS-TOT ricorsiva
-            	recursiveDFS(visitForest, startingVertex, time);
-            }
-        }
-
-        return visitForest;
-    }
-
-    /**
-     * Metodo ricorsivo per eseguire la DFS-TOT e costruire l'albero di visita in profondità totale.
-     * 
-     * @param visitForest L'oggetto VisitForest associato alla DFS-TOT.
-     * @param vertex Il vertice corrente della DFS-TOT.
-     * @param time Un array contenente il tempo di visita.
-     */
-    private void recursiveDFS(VisitForest visitForest, String vertex, int[] time) 
-    {
-        visitForest.setColor(vertex, Color.GRAY);	    
-        for (String v : getAdjacent(vertex)) 
-        {
-            if (visitForest.getColor(v) == Color.WHITE) 
-            {
-                visitForest.setParent(v, vertex);
-                recursiveDFS(visitForest, v, time);
-            }
-        }
-
-        visitForest.setColor(vertex, Color.BLACK);
+        // Visita prima i vertici raggiungibili da startingVertex, poi i restanti in ordine di indice
+        CsrWeightedGraph csr = freeze();
+        Probe probe = GraphMetrics.start(Algorithm.DFS_TOT, csr);
+        DepthFirstSearch dfs = new DepthFirstSearch(csr);
+        dfs.visitAll(vertexMap.get(startingVertex).getIndex());
+        return csr.finishVisit(probe, dfs.fill(new VisitForest(this, VisitType.DFS_TOT)));
     }
 
     /**
@@ -640,8 +839,9 @@ public class AdjListDirWeight implements WeightedGraph
 	        throw new IllegalArgumentException("L'ordinamento dei vertici non è valido");
 	    }
 
-	    VisitForest visitForest = new VisitForest(this, VisitType.DFS_TOT);
-	    int[] time = {0};
+	    CsrWeightedGraph csr = freeze();
+	    Probe probe = GraphMetrics.start(Algorithm.DFS_TOT, csr);
+	    DepthFirstSearch dfs = new DepthFirstSearch(csr);
 
 	    for (String vertex : vertexOrdering) 
 	    {
@@ -649,79 +849,47 @@ public class AdjListDirWeight implements WeightedGraph
 	        {
 	            throw new IllegalArgumentException("Il vertice " + vertex + " non appartiene al grafo");
 	        }
-
-	        if (visitForest.getColor(vertex) == Color.WHITE) 
-	        {
-	            recursiveDFS(visitForest, vertex, time);
-	        }
+	        dfs.visit(vertexMap.get(vertex).getIndex());
 	    }
 
-	    return visitForest;
+	    return csr.finishVisit(probe, dfs.fill(new VisitForest(this, VisitType.DFS_TOT)));
 	}
 
     /**
      * Esegue un ordinamento topologico dei vertici del grafo diretto aciclico (DAG).
      * L'ordinamento topologico è un ordinamento lineare dei vertici tale che per ogni arco diretto (u, v), 
      * il vertice u appare prima di v nell'ordinamento.
+     * L'ordinamento è calcolato con l'algoritmo di Kahn sull'istantanea CSR, in un'unica passata che rileva 
+     * anche gli eventuali cicli.
      * 
      * @return Un array di stringhe rappresentante l'ordinamento topologico dei vertici del grafo.
-     * @throws UnsupportedOperationException Se il grafo non è un DAG (grafo diretto aciclico).
+     * @throws UnsupportedOperationException Se il grafo contiene un ciclo orientato.
      */
     @Override
     public String[] topologicalSort() throws UnsupportedOperationException 
     {
-        if (!isDAG()) 
-        {
-            throw new UnsupportedOperationException("Il grafo non è un DAG");
-        }
-
-        // Inizializza una lista per contenere l'ordinamento topologico e uno stack per l'elaborazione
-        List<String> result = new ArrayList<>();
-        Stack<String> stack = new Stack<>();
-        Set<String> visited = new HashSet<>();
-
-        // Esegue la DFS modificata per generare l'ordinamento topologico
-        for (String vertex : vertexMap.keySet()) 
-        {
-            if (!visited.contains(vertex)) 
-            {
-                topologicalSortUtil(vertex, visited, stack);
-            }
-        }
-
-        // Popola l'elenco result con gli elementi dello stack
-        while (!stack.isEmpty()) 
-        {
-            result.add(stack.pop());
-        }
-
-        // Converte l'elenco in un array di stringhe e restituiscilo
-        return result.toArray(new String[0]);
+        return freeze().topologicalSort();
     }
 
     /**
-     * Metodo ausiliario per l'ordinamento topologico.
+     * Restituisce i vertici raggruppati in livelli topologici (anticatene): il primo livello contiene i vertici 
+     * senza archi entranti, ogni livello successivo quelli i cui predecessori stanno tutti nei livelli precedenti.
+     * I vertici di uno stesso livello possono quindi essere elaborati contemporaneamente.
      * 
-     * @param vertex Il vertice corrente durante l'esplorazione.
-     * @param visited Insieme di vertici già visitati durante la DFS.
-     * @param stack Uno stack utilizzato per tenere traccia dell'ordinamento topologico.
+     * @return La lista dei livelli, in ordine topologico.
+     * @throws UnsupportedOperationException Se il grafo contiene un ciclo orientato.
      */
-    private void topologicalSortUtil(String vertex, Set<String> visited, Stack<String> stack) 
+    public List<Set<String>> topologicalLayers() throws UnsupportedOperationException 
     {
-        visited.add(vertex);
-
-        for (String adjacent : getAdjacent(vertex)) {
-            if (!visited.contains(adjacent)) {
-                topologicalSortUtil(adjacent, visited, stack);
-            }
-        }
-        stack.push(vertex);
+        return freeze().topologicalLayers();
     }
 
     /**
      * Restituisce l'insieme delle componenti fortemente connesse (SCC) del grafo orientato.
      * Una componente fortemente connessa è un sottoinsieme massimale di vertici in cui esiste un percorso 
      * da ogni vertice a ogni altro vertice della componente.
+     * Le componenti sono calcolate con l'algoritmo di Tarjan (iterativo) sull'istantanea CSR, in tempo O(V+E),
+     * anche se il grafo contiene cicli.
      * 
      * @return Un insieme di insiemi di stringhe rappresentante le SCC del grafo orientato.
      * @throws UnsupportedOperationException Se il grafo non è orientato.
@@ -734,54 +902,19 @@ public class AdjListDirWeight implements WeightedGraph
         {
             throw new UnsupportedOperationException("Il grafo non è orientato");
         }
-
-        // Ottiene l'ordinamento topologico inverso dei vertici
-        List<String> verticesInOrder = Arrays.asList(topologicalSort());
-        Collections.reverse(verticesInOrder);
-        
-        // Inizializza l'insieme delle SCC e un insieme di vertici già visitati
-        Set<Set<String>> sccSet = new HashSet<>();
-        Set<String> visited = new HashSet<>();
-        
-        // Itera attraverso i vertici nell'ordinamento topologico inverso
-        for (String vertex : verticesInOrder)
-        {
-            // Se il vertice non è già stato visitato
-            if(!visited.contains(vertex))
-            {
-                // Inizializza un insieme per la nuova SCC e avvia la DFS
-                Set<String> scc = new HashSet<>();
-                dfsForSCC(vertex, visited, scc);
-                
-                // Aggiunge la SCC all'insieme delle SCC
-                sccSet.add(scc);
-            }
-        }
-        return sccSet;
+        return freeze().stronglyConnectedComponents();
     }
 
     /**
-     * Metodo ausiliario per la ricerca delle SCC utilizzando la DFS.
+     * Restituisce il grafo di condensazione: ogni componente fortemente connessa diventa un vertice, etichettato
+     * con l'etichetta di uno dei suoi vertici, e c'è un arco tra due componenti se c'è un arco tra i loro vertici.
+     * Il risultato è un DAG con i vertici inseriti in ordine topologico.
      * 
-     * @param vertex Il vertice corrente durante l'esplorazione.
-     * @param visited Insieme di vertici già visitati durante la DFS.
-     * @param scc L'insieme corrente della componente fortemente connessa.
+     * @return Il grafo di condensazione.
      */
-    private void dfsForSCC(String vertex, Set<String> visited, Set<String> scc)
+    public Graph getCondensation() 
     {
-        // Segna il vertice come visitato e lo aggiunge alla SCC corrente
-        visited.add(vertex);
-        scc.add(vertex);
-        
-        // Itera attraverso i vertici adiacenti
-        for(String adjacent : getAdjacent(vertex))
-        {
-            // Se il vertice adiacente non è già stato visitato, avvia la DFS ricorsiva
-            if(!visited.contains(adjacent))
-            {
-                dfsForSCC(adjacent, visited, scc);
-            }
-        }
+        return freeze().getCondensation();
     }
 
     /**
@@ -856,138 +989,530 @@ public class AdjListDirWeight implements WeightedGraph
         }
 
         // Imposta il nuovo peso dell'arco
-        source.adjacentVertices.put(target, weight);
+        source.addAdjacentVertex(target, weight);
+        modCount++;
     }
 
     /**
-     * Calcola i cammini minimi da un vertice di partenza a tutti gli altri vertici nel grafo, utilizzando l'algoritmo di Bellman-Ford.
+     * Applica in un'unica passata tutte le operazioni del lotto, equivalenti a chiamate in sequenza di 
+     * {@link #addEdge(String, String)} seguita da {@link #setEdgeWeight(String, String, double)}, 
+     * {@link #removeEdge(String, String)} e {@link #setEdgeWeight(String, String, double)}.
+     * <p>
+     * Le etichette vengono risolte una sola volta per operazione e tutti i vertici vengono verificati prima di 
+     * modificare il grafo: se uno manca non viene applicata nessuna operazione. Le operazioni vengono poi raggruppate 
+     * per vertice di origine, mantenendo l'ordine del lotto all'interno di ciascun gruppo, e applicate gruppo per 
+     * gruppo; la mappa di adiacenza di un'origine che riceve piu' inserimenti di quanti archi abbia gia' viene 
+     * ridimensionata una volta sola. Con l'indice degli archi entranti attivo, le mappe dei predecessori vengono 
+     * aggiornate in una seconda passata, raggruppando per destinazione. Poiche' ogni gruppo modifica solo le mappe del 
+     * proprio vertice, con <code>parallel</code> i gruppi vengono applicati in parallelo sul pool fork-join comune.
+     * <p>
+     * A differenza dei singoli metodi, le rimozioni e i cambi di peso di archi inesistenti non sollevano eccezioni ma 
+     * vengono saltati e conteggiati nel risultato.
      * 
-     * @param startingVertex il vertice di partenza da cui calcolare i cammini minimi
-     * @return un nuovo grafo pesato che rappresenta i cammini minimi dal vertice di partenza a tutti gli altri vertici nel grafo
-     * @throws UnsupportedOperationException se il grafo contiene un ciclo negativo
-     * @throws IllegalArgumentException se il vertice di partenza specificato non appartiene al grafo
+     * @param batch Il lotto di operazioni.
+     * @param parallel True per applicare in parallelo i gruppi di origini e destinazioni diverse.
+     * @return I contatori dell'applicazione.
+     * @throws IllegalArgumentException Se il vertice di origine o di destinazione di un'operazione non appartiene al grafo.
      */
-    @Override
-    public WeightedGraph getBellmanFordShortestPaths(String startingVertex) throws UnsupportedOperationException, IllegalArgumentException {
-        // Verifica se il vertice di partenza è valido
-        if (!vertexMap.containsKey(startingVertex)) {
-            throw new IllegalArgumentException("Il vertice specificato non appartiene al grafo");
+    public BatchStatistics applyBatch(EdgeBatch batch, boolean parallel) throws IllegalArgumentException 
+    {
+        long start = System.nanoTime();
+        int m = batch.size();
+        int n = vertexList.size();
+
+        // Risolve le etichette, riusando l'ultima origine quando le operazioni sono gia' raggruppate
+        int[] from = new int[m];
+        int[] to = new int[m];
+        String lastLabel = null;
+        int lastIndex = -1;
+        for (int i = 0; i < m; i++) 
+        {
+            String sourceVertex = batch.source(i);
+            String targetVertex = batch.target(i);
+            if (lastLabel == null || !lastLabel.equals(sourceVertex)) 
+            {
+                Vertex source = vertexMap.get(sourceVertex);
+                lastLabel = source == null ? null : sourceVertex;
+                lastIndex = source == null ? -1 : source.getIndex();
+            }
+            Vertex target = vertexMap.get(targetVertex);
+            if (lastIndex < 0 || target == null) 
+            {
+                throw new IllegalArgumentException("Il vertice " + sourceVertex + " o " + targetVertex + " non appartiene al grafo");
+            }
+            from[i] = lastIndex;
+            to[i] = target.getIndex();
         }
 
-        VisitForest visit = new VisitForest(this, VisitType.DFS_TOT);
-        for (String u : vertexMap.keySet()) {
-            visit.setDistance(u, Double.POSITIVE_INFINITY);
+        int[][] bySource = groupBy(from, n);
+        int[] order = bySource[0];
+        int[] bounds = bySource[1];
+        byte[] outcome = new byte[m];
+        IntStream groups = IntStream.range(0, bounds.length - 1);
+        (parallel ? groups.parallel() : groups).forEach(g -> 
+                applySourceGroup(batch, order, bounds[g], bounds[g + 1], from, to, outcome));
+
+        if (trackPredecessors) 
+        {
+            int[][] byTarget = groupBy(to, n);
+            IntStream targets = IntStream.range(0, byTarget[1].length - 1);
+            (parallel ? targets.parallel() : targets).forEach(g -> 
+                    applyTargetGroup(batch, byTarget[0], byTarget[1][g], byTarget[1][g + 1], from, to, outcome));
         }
-        visit.setDistance(startingVertex, 0);
 
-        // Esegue il rilassamento degli archi per V-1 volte
-        int V = vertexMap.size();
-        for (int i = 1; i <= V - 1; i++) {
-            for (String u : vertexMap.keySet()) {
-                for (String v : vertexMap.keySet()) {
-                    if (!v.equals(u) && this.containsEdge(u, v) && visit.getDistance(v) > visit.getDistance(u) + this.getEdgeWeight(u, v)) {
-                        visit.setParent(v, u);
-                        visit.setDistance(v, visit.getDistance(u) + this.getEdgeWeight(u, v));
-                    }
-                }
+        long inserted = 0;
+        long updated = 0;
+        long deleted = 0;
+        long skipped = 0;
+        for (byte o : outcome) 
+        {
+            switch (o) 
+            {
+                case INSERTED:
+                    inserted++;
+                    break;
+                case UPDATED:
+                    updated++;
+                    break;
+                case DELETED:
+                    deleted++;
+                    break;
+                default:
+                    skipped++;
+                    break;
             }
         }
+        if (skipped < m) 
+        {
+            modCount++;
+        }
+        return new BatchStatistics(m, inserted, updated, deleted, skipped, bounds.length - 1, parallel, System.nanoTime() - start);
+    }
 
-        // Controlla la presenza di cicli negativi
-        for (String u : vertexMap.keySet()) {
-            for (String v : vertexMap.keySet()) {
-                if (!v.equals(u) && this.containsEdge(u, v) && visit.getDistance(v) > visit.getDistance(u) + this.getEdgeWeight(u, v)) {
-                    throw new UnsupportedOperationException("Il grafo contiene un ciclo negativo");
-                }
+    /**
+     * Raggruppa le operazioni per <code>key</code>, mantenendo l'ordine del lotto all'interno di ciascun gruppo.
+     * Se le operazioni sono molte rispetto ai vertici usa un counting sort, altrimenti ordina le coppie 
+     * (chiave, posizione) per non allocare array grandi quanto il grafo.
+     * 
+     * @return Le posizioni delle operazioni in ordine di gruppo e le posizioni di inizio di ciascun gruppo in tale 
+     *         ordine, seguite dal numero di operazioni.
+     */
+    private static int[][] groupBy(int[] key, int n) 
+    {
+        int m = key.length;
+        int[] order = new int[m];
+        if ((long) m * 8 < n) 
+        {
+            long[] packed = new long[m];
+            for (int i = 0; i < m; i++) 
+            {
+                packed[i] = (long) key[i] << 32 | i;
+            }
+            Arrays.sort(packed);
+            for (int i = 0; i < m; i++) 
+            {
+                order[i] = (int) packed[i];
+            }
+        } 
+        else 
+        {
+            int[] next = new int[n + 1];
+            for (int k : key) 
+            {
+                next[k + 1]++;
+            }
+            for (int v = 0; v < n; v++) 
+            {
+                next[v + 1] += next[v];
+            }
+            for (int i = 0; i < m; i++) 
+            {
+                order[next[key[i]]++] = i;
             }
         }
 
-        // Costruisce il grafo dei cammini minimi
-        WeightedGraph shortestPathsGraph = new AdjListDirWeight();
-        createBFGraph(shortestPathsGraph, visit);
+        int groups = 0;
+        for (int k = 0; k < m; k++) 
+        {
+            if (k == 0 || key[order[k]] != key[order[k - 1]]) 
+            {
+                groups++;
+            }
+        }
+        int[] bounds = new int[groups + 1];
+        groups = 0;
+        for (int k = 0; k < m; k++) 
+        {
+            if (k == 0 || key[order[k]] != key[order[k - 1]]) 
+            {
+                bounds[groups++] = k;
+            }
+        }
+        bounds[groups] = m;
+        return new int[][] { order, bounds };
+    }
 
-        return shortestPathsGraph;
+    /**
+     * Restituisce una mappa con capacita' sufficiente per <code>expected</code> archi senza ridimensionamenti.
+     */
+    private static Map<Vertex, Double> presized(Map<Vertex, Double> edges, int expected) 
+    {
+        Map<Vertex, Double> map = new HashMap<>((int) (expected / 0.75f) + 1);
+        map.putAll(edges);
+        return map;
     }
 
     /**
-     * Crea un grafo dei cammini minimi utilizzando l'algoritmo di Bellman-Ford.
-     * Aggiunge i vertici al grafo fornito e gli archi con i relativi pesi calcolati
-     * in base alle distanze calcolate dall'algoritmo di Bellman-Ford.
-     *
-     * @param graph il grafo dei cammini minimi da popolare
-     * @param visit l'albero di visita generato dall'algoritmo di Bellman-Ford
+     * Applica agli archi uscenti di un vertice le operazioni del suo gruppo, comprese tra le posizioni 
+     * <code>first</code> e <code>last</code> (esclusa) di <code>order</code>, registrandone l'esito.
      */
-    private void createBFGraph(WeightedGraph graph, VisitForest visit) 
+    private void applySourceGroup(EdgeBatch batch, int[] order, int first, int last, int[] sources, int[] targets, byte[] outcome) 
     {
-        for (String v : vertexMap.keySet()) 
+        Vertex source = vertexList.get(sources[order[first]]);
+        int inserts = 0;
+        for (int k = first; k < last; k++) 
         {
-            graph.addVertex(v);
+            if (batch.kind(order[k]) == EdgeBatch.INSERT) 
+            {
+                inserts++;
+            }
+        }
+        if (inserts > source.adjacentVertices.size()) 
+        {
+            source.adjacentVertices = presized(source.adjacentVertices, source.adjacentVertices.size() + inserts);
         }
 
-        for (String u : vertexMap.keySet()) 
+        Map<Vertex, Double> edges = source.adjacentVertices;
+        for (int k = first; k < last; k++) 
         {
-            for (String v : vertexMap.keySet()) 
+            int i = order[k];
+            Vertex target = vertexList.get(targets[i]);
+            switch (batch.kind(i)) 
             {
-                if (this.containsEdge(u, v) && !v.equals(u)) 
-                {
-                    double weight = visit.getDistance(v) - visit.getDistance(u);
-                    graph.addEdge(u, v);
-                    graph.setEdgeWeight(u, v, weight);
-                }
+                case EdgeBatch.INSERT:
+                    outcome[i] = edges.put(target, batch.weight(i)) == null ? INSERTED : UPDATED;
+                    break;
+                case EdgeBatch.REWEIGHT:
+                    outcome[i] = edges.replace(target, batch.weight(i)) == null ? SKIPPED : UPDATED;
+                    break;
+                default:
+                    outcome[i] = edges.remove(target) == null ? SKIPPED : DELETED;
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Riporta sui predecessori di un vertice le operazioni applicate agli archi entranti in esso, comprese tra le 
+     * posizioni <code>first</code> e <code>last</code> (esclusa) di <code>order</code>.
+     */
+    private void applyTargetGroup(EdgeBatch batch, int[] order, int first, int last, int[] sources, int[] targets, byte[] outcome) 
+    {
+        Vertex target = vertexList.get(targets[order[first]]);
+        int inserts = 0;
+        for (int k = first; k < last; k++) 
+        {
+            if (outcome[order[k]] == INSERTED) 
+            {
+                inserts++;
+            }
+        }
+        if (inserts > target.incomingVertices.size()) 
+        {
+            target.incomingVertices = presized(target.incomingVertices, target.incomingVertices.size() + inserts);
+        }
+
+        Map<Vertex, Double> edges = target.incomingVertices;
+        for (int k = first; k < last; k++) 
+        {
+            int i = order[k];
+            if (outcome[i] == DELETED) 
+            {
+                edges.remove(vertexList.get(sources[i]));
+            } 
+            else if (outcome[i] != SKIPPED) 
+            {
+                edges.put(vertexList.get(sources[i]), batch.weight(i));
             }
         }
     }
 
+    /**
+     * Restituisce il contatore delle modifiche strutturali e dei pesi, incrementato da ogni operazione che 
+     * cambia vertici, archi o pesi. Permette a chi conserva risultati calcolati sul grafo di riconoscerli come 
+     * non piu' validi.
+     * 
+     * @return Il numero di modifiche effettuate dalla creazione del grafo.
+     */
+    int modificationCount() 
+    {
+        return modCount;
+    }
+
+    /**
+     * Indica se il grafo mantiene l'indice degli archi entranti, cioe' se {@link #forEachPredecessor(int, IntDoubleConsumer)} 
+     * costa O(grado entrante) invece di una scansione di tutti i vertici.
+     * 
+     * @return True se l'indice degli archi entranti e' attivo.
+     */
+    boolean tracksPredecessors() 
+    {
+        return trackPredecessors;
+    }
+
+    /**
+     * Restituisce un'istantanea immutabile del grafo in formato CSR, con gli stessi indici dei vertici.
+     * L'istantanea viene riutilizzata finche' il grafo non viene modificato.
+     * 
+     * @return Un {@code CsrWeightedGraph} equivalente allo stato attuale del grafo.
+     */
+    public CsrWeightedGraph freeze() 
+    {
+        if (snapshot != null && snapshotModCount == modCount) 
+        {
+            return snapshot;
+        }
+
+        int n = vertexList.size();
+        String[] labels = new String[n];
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < n; i++) 
+        {
+            Vertex vertex = vertexList.get(i);
+            labels[i] = vertex.getLabel();
+            offsets[i + 1] = offsets[i] + vertex.adjacentVertices.size();
+        }
+
+        int[] targets = new int[offsets[n]];
+        double[] weights = new double[offsets[n]];
+        for (int i = 0; i < n; i++) 
+        {
+            int e = offsets[i];
+            for (Map.Entry<Vertex, Double> edge : vertexList.get(i).adjacentVertices.entrySet()) 
+            {
+                targets[e] = edge.getKey().getIndex();
+                weights[e] = edge.getValue();
+                e++;
+            }
+        }
+
+        snapshot = new CsrWeightedGraph(labels, offsets, targets, weights);
+        snapshotModCount = modCount;
+        return snapshot;
+    }
+
+    /**
+     * Calcola i cammini minimi da un vertice di partenza a tutti gli altri vertici nel grafo, utilizzando l'algoritmo di Bellman-Ford.
+     * Vengono rilassati solo gli archi esistenti dell'istantanea CSR, fermandosi al primo round senza modifiche.
+     * 
+     * @param startingVertex il vertice di partenza da cui calcolare i cammini minimi
+     * @return un nuovo grafo pesato che rappresenta i cammini minimi dal vertice di partenza a tutti gli altri vertici nel grafo
+     * @throws UnsupportedOperationException se il grafo contiene un ciclo negativo
+     * @throws IllegalArgumentException se il vertice di partenza specificato non appartiene al grafo
+     */
+    @Override
+    public WeightedGraph getBellmanFordShortestPaths(String startingVertex) throws UnsupportedOperationException, IllegalArgumentException 
+    {
+        return getBellmanFordShortestPaths(startingVertex, false);
+    }
+
+    /**
+     * Calcola i cammini minimi da un vertice di partenza con l'algoritmo di Bellman-Ford, nella versione a round
+     * con terminazione anticipata oppure nella versione a coda (SPFA), che rileva i cicli negativi contando
+     * i rilassamenti di ciascun vertice.
+     * 
+     * @param startingVertex il vertice di partenza da cui calcolare i cammini minimi
+     * @param useQueue true per usare la versione a coda (SPFA), false per la versione a round
+     * @return un nuovo grafo pesato che rappresenta i cammini minimi dal vertice di partenza a tutti gli altri vertici nel grafo
+     * @throws UnsupportedOperationException se il grafo contiene un ciclo negativo
+     * @throws IllegalArgumentException se il vertice di partenza specificato non appartiene al grafo
+     */
+    public WeightedGraph getBellmanFordShortestPaths(String startingVertex, boolean useQueue) throws UnsupportedOperationException, IllegalArgumentException 
+    {
+        if (!vertexMap.containsKey(startingVertex)) 
+        {
+            throw new IllegalArgumentException("Il vertice specificato non appartiene al grafo");
+        }
+        return freeze().getBellmanFordShortestPaths(startingVertex, useQueue);
+    }
+
     /**
      * Restituisce un grafo pesato contenente i cammini minimi calcolati utilizzando l'algoritmo di Dijkstra.
+     * Il calcolo viene eseguito sull'istantanea CSR del grafo con uno heap indicizzato, in tempo O((V+E) log V).
      * 
      * @param startingVertex Il vertice di partenza per il calcolo dei cammini minimi.
-     * @return Un grafo pesato con i cammini minimi calcolati.
-     * @throws UnsupportedOperationException Poiché il metodo non è implementato.
+     * @return Un grafo pesato con i cammini minimi calcolati, con la stessa forma di quello di Bellman-Ford.
+     * @throws UnsupportedOperationException Se il grafo contiene archi con peso negativo.
      * @throws IllegalArgumentException Se il vertice specificato non appartiene al grafo.
      */
     @Override
     public WeightedGraph getDijkstraShortestPaths(String startingVertex) throws UnsupportedOperationException, IllegalArgumentException 
     {
-        throw new UnsupportedOperationException("Metodo non implementabile");
+        if (!vertexMap.containsKey(startingVertex)) 
+        {
+            throw new IllegalArgumentException("Il vertice specificato non appartiene al grafo");
+        }
+        return freeze().getDijkstraShortestPaths(startingVertex);
+    }
+
+    /**
+     * Calcola il cammino minimo tra due vertici con Dijkstra bidirezionale sull'istantanea CSR. A differenza di 
+     * {@link #getDijkstraShortestPaths(String)} non costruisce l'intero albero dei cammini minimi: la ricerca 
+     * si ferma appena il cammino è determinato.
+     * 
+     * @param source Il vertice di origine.
+     * @param target Il vertice di destinazione.
+     * @return Il cammino, il suo costo e il numero di vertici estratti durante la ricerca.
+     * @throws UnsupportedOperationException Se il grafo contiene archi con peso negativo.
+     * @throws IllegalArgumentException Se uno dei due vertici non appartiene al grafo.
+     */
+    public ShortestPath shortestPath(String source, String target) throws UnsupportedOperationException, IllegalArgumentException 
+    {
+        return freeze().shortestPath(source, target);
+    }
+
+    /**
+     * Calcola il cammino minimo tra due vertici con A*, guidato dalla stima fornita, oppure con Dijkstra 
+     * bidirezionale se la stima è null. La stima deve essere ammissibile, cioè non superare mai la distanza 
+     * reale dalla destinazione, altrimenti il cammino restituito potrebbe non essere minimo.
+     * 
+     * @param source Il vertice di origine.
+     * @param target Il vertice di destinazione.
+     * @param heuristic La stima della distanza di ogni vertice, identificato dall'etichetta, da <code>target</code>.
+     * @return Il cammino, il suo costo e il numero di vertici estratti durante la ricerca.
+     * @throws UnsupportedOperationException Se il grafo contiene archi con peso negativo.
+     * @throws IllegalArgumentException Se uno dei due vertici non appartiene al grafo.
+     */
+    public ShortestPath shortestPath(String source, String target, ToDoubleFunction<String> heuristic) throws UnsupportedOperationException, IllegalArgumentException 
+    {
+        return freeze().shortestPath(source, target, heuristic);
     }
 
     /**
      * Restituisce un albero ricoprente minimo (Minimum Spanning Tree, MST) utilizzando l'algoritmo di Prim a partire dal vertice specificato.
+     * La strategia di selezione del minimo viene scelta in base alla densità del grafo, come in 
+     * {@link #getPrimMST(String, PrimMode, PrimStatistics)}.
      * 
      * @param startingVertex Il vertice di partenza per l'algoritmo di Prim.
-     * @return Un grafo pesato rappresentante l'albero ricoprente minimo.
-     * @throws UnsupportedOperationException Poiché il metodo non è implementato.
+     * @return Un grafo pesato con tutti i vertici e gli archi dell'albero, con il loro verso e peso originali.
      * @throws IllegalArgumentException Se il vertice specificato non appartiene al grafo.
      */
     @Override
     public WeightedGraph getPrimMST(String startingVertex)throws UnsupportedOperationException, IllegalArgumentException 
     {
-        throw new UnsupportedOperationException("Metodo non implementabile");
+        return getPrimMST(startingVertex, PrimMode.AUTO, null);
+    }
+
+    /**
+     * Restituisce un albero ricoprente minimo utilizzando l'algoritmo di Prim sull'istantanea CSR. Gli archi vengono 
+     * considerati senza orientamento e l'albero copre i vertici collegati a <code>startingVertex</code>.
+     * Con {@link PrimMode#HEAP} il costo è O(E log V), con {@link PrimMode#ARRAY} è O(V^2); {@link PrimMode#AUTO} 
+     * sceglie la versione più economica in base al numero di archi.
+     * 
+     * @param startingVertex Il vertice di partenza per l'algoritmo di Prim.
+     * @param mode La strategia di selezione del minimo.
+     * @param stats L'oggetto in cui registrare strategia usata e contatori dell'esecuzione, oppure null.
+     * @return Un grafo pesato con tutti i vertici e gli archi dell'albero, con il loro verso e peso originali.
+     * @throws IllegalArgumentException Se il vertice specificato non appartiene al grafo.
+     */
+    public WeightedGraph getPrimMST(String startingVertex, PrimMode mode, PrimStatistics stats) throws IllegalArgumentException 
+    {
+        if (!vertexMap.containsKey(startingVertex)) 
+        {
+            throw new IllegalArgumentException("Il vertice specificato non appartiene al grafo");
+        }
+        return freeze().getPrimMST(startingVertex, mode, stats);
     }
 
     /**
      * Restituisce un albero ricoprente minimo (Minimum Spanning Tree, MST) utilizzando l'algoritmo di Kruskal.
+     * Gli archi vengono considerati senza orientamento e ordinati in parallelo sull'istantanea CSR; le componenti 
+     * sono mantenute con una union-find sugli indici dei vertici. Se il grafo non è connesso il risultato è 
+     * una foresta ricoprente minima.
      * 
-     * @return Un grafo pesato rappresentante l'albero ricoprente minimo.
-     * @throws UnsupportedOperationException Poiché il metodo non è implementato.
+     * @return Un grafo pesato con tutti i vertici e gli archi dell'albero, con il loro verso e peso originali.
      */
     @Override
     public WeightedGraph getKruskalMST() throws UnsupportedOperationException 
     {
-        throw new UnsupportedOperationException("Metodo non implementabile");
+        return freeze().getKruskalMST();
+    }
+
+    /**
+     * Restituisce un albero ricoprente minimo calcolato con la variante Filter-Kruskal, che partiziona gli archi 
+     * attorno a pivot casuali e scarta quelli pesanti che chiuderebbero un ciclo prima di ordinarli.
+     * E' preferibile a {@link #getKruskalMST()} sui grafi densi.
+     * 
+     * @return Un grafo pesato con tutti i vertici e gli archi dell'albero, con il loro verso e peso originali.
+     */
+    public WeightedGraph getFilterKruskalMST() 
+    {
+        return freeze().getFilterKruskalMST();
     }
 
     /**
      * Restituisce un grafo pesato contenente tutte le coppie di cammini minimi calcolati utilizzando l'algoritmo di Floyd-Warshall.
+     * Il grafo risultante contiene tutti i vertici e un arco (u, v) per ogni vertice v raggiungibile da u, 
+     * pesato con la distanza minima.
      * 
      * @return Un grafo pesato con i cammini minimi calcolati per tutte le coppie di vertici.
-     * @throws UnsupportedOperationException Poiché il metodo non è implementato.
+     * @throws UnsupportedOperationException Se il grafo contiene un ciclo negativo.
      */
     @Override
     public WeightedGraph getFloydWarshallShortestPaths() throws UnsupportedOperationException 
     {
-        throw new UnsupportedOperationException("Metodo non implementabile");
+        return freeze().getFloydWarshallShortestPaths();
+    }
+
+    /**
+     * Calcola i cammini minimi tra tutte le coppie di vertici con l'algoritmo di Floyd-Warshall a blocchi 
+     * sull'istantanea CSR, e li restituisce come matrice delle distanze e dei successori, interrogabile 
+     * per indici o per etichette.
+     * 
+     * @return La matrice delle distanze e dei successori, con gli stessi indici dei vertici di this.
+     * @throws UnsupportedOperationException Se il grafo contiene un ciclo negativo.
+     */
+    public DistanceMatrix getFloydWarshallDistances() throws UnsupportedOperationException 
+    {
+        return freeze().getFloydWarshallDistances();
+    }
+
+    /**
+     * Restituisce un grafo pesato contenente i cammini minimi tra tutte le coppie di vertici, calcolati con 
+     * l'algoritmo di Johnson. Ha la stessa forma del risultato di {@link #getFloydWarshallShortestPaths()}, 
+     * ma sui grafi sparsi costa O(VE log V) invece di O(V^3).
+     * 
+     * @return Un grafo pesato con i cammini minimi calcolati per tutte le coppie di vertici.
+     * @throws UnsupportedOperationException Se il grafo contiene un ciclo negativo.
+     */
+    public WeightedGraph getJohnsonShortestPaths() throws UnsupportedOperationException 
+    {
+        return freeze().getJohnsonShortestPaths();
+    }
+
+    /**
+     * Calcola i cammini minimi tra tutte le coppie di vertici con l'algoritmo di Johnson sull'istantanea CSR: 
+     * i pesi vengono resi non negativi con i potenziali di Bellman-Ford, poi Dijkstra viene eseguito da ogni 
+     * vertice in parallelo, con heap e array di lavoro riutilizzati da ciascun thread.
+     * 
+     * @return La matrice delle distanze e dei successori, con gli stessi indici dei vertici di this.
+     * @throws UnsupportedOperationException Se il grafo contiene un ciclo negativo.
+     */
+    public DistanceMatrix getJohnsonDistances() throws UnsupportedOperationException 
+    {
+        return freeze().getJohnsonDistances();
+    }
+
+    /**
+     * Costruisce la gerarchia di contrazione dell'istantanea CSR del grafo. La gerarchia non segue le modifiche 
+     * successive di this: va ricostruita dopo aver cambiato vertici o archi.
+     * 
+     * @return La gerarchia, da interrogare con {@link ContractionHierarchy#shortestPath(String, String)}.
+     * @throws UnsupportedOperationException Se il grafo contiene archi con peso negativo.
+     */
+    public ContractionHierarchy buildContractionHierarchy() throws UnsupportedOperationException 
+    {
+        return freeze().buildContractionHierarchy();
     }
 
 }
\ No newline at end of file
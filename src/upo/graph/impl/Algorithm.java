@@ -0,0 +1,30 @@
+package upo.graph.impl;
+
+/**
+ * Algoritmi che riportano le proprie esecuzioni agli {@link AlgorithmListener} registrati in {@link GraphMetrics}.
+ *
+ * @author Guido
+ */
+public enum Algorithm
+{
+    BFS,
+    PARALLEL_BFS,
+    DFS,
+    DFS_TOT,
+    TOPOLOGICAL_SORT,
+    STRONGLY_CONNECTED_COMPONENTS,
+    BELLMAN_FORD,
+    SPFA,
+    DIJKSTRA,
+    BIDIRECTIONAL_DIJKSTRA,
+    A_STAR,
+    PRIM,
+    KRUSKAL,
+    FILTER_KRUSKAL,
+    FLOYD_WARSHALL,
+    JOHNSON,
+    CONTRACTION_HIERARCHY_BUILD,
+    CONTRACTION_HIERARCHY_QUERY,
+    DYNAMIC_UPDATE,
+    CYCLE_CHECK
+}
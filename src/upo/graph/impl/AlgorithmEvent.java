@@ -0,0 +1,53 @@
+package upo.graph.impl;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Evento JFR per una singola esecuzione di un algoritmo, emesso da {@link JfrAlgorithmListener}.
+ *
+ * @author Guido
+ */
+@Name("upo.graph.Algorithm")
+@Label("Graph Algorithm")
+@Category({ "Graph", "Algorithms" })
+@Description("Un'esecuzione di un algoritmo sui grafi, con i suoi contatori")
+@StackTrace(false)
+final class AlgorithmEvent extends Event
+{
+    @Label("Algorithm")
+    String algorithm;
+
+    @Label("Vertex Count")
+    int vertexCount;
+
+    @Label("Edge Count")
+    int edgeCount;
+
+    @Label("Vertices Visited")
+    long verticesVisited;
+
+    @Label("Edges Examined")
+    long edgesExamined;
+
+    @Label("Relaxations")
+    long relaxations;
+
+    @Label("Heap Operations")
+    long heapOperations;
+
+    @Label("Rounds")
+    long rounds;
+
+    @Label("Algorithm Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    long algorithmDuration;
+
+    @Label("Phases")
+    String phases;
+}
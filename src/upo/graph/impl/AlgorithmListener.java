@@ -0,0 +1,22 @@
+package upo.graph.impl;
+
+/**
+ * Riceve i contatori di ogni esecuzione di un algoritmo sui grafi, una volta registrato con
+ * {@link GraphMetrics#addListener(AlgorithmListener)}.
+ * <p>
+ * Il metodo viene chiamato nel thread che ha eseguito l'algoritmo, al termine dell'esecuzione, e puo' essere
+ * chiamato contemporaneamente da piu' thread: le implementazioni devono essere sicure per l'uso concorrente e
+ * rapide, perche' il loro costo si somma a quello dell'algoritmo.
+ *
+ * @author Guido
+ */
+@FunctionalInterface
+public interface AlgorithmListener
+{
+    /**
+     * Riceve i contatori di un'esecuzione conclusa.
+     *
+     * @param run L'esecuzione.
+     */
+    void algorithmCompleted(AlgorithmRun run);
+}
@@ -0,0 +1,57 @@
+package upo.graph.impl;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Evento JFR periodico con i totali di un algoritmo, emesso da {@link MetricsRegistry#startJfrExport()}.
+ *
+ * @author Guido
+ */
+@Name("upo.graph.AlgorithmMetrics")
+@Label("Graph Algorithm Metrics")
+@Category({ "Graph", "Algorithms" })
+@Description("Totali cumulativi delle esecuzioni di un algoritmo sui grafi")
+@Period("1 s")
+@StackTrace(false)
+final class AlgorithmMetricsEvent extends Event
+{
+    @Label("Algorithm")
+    String algorithm;
+
+    @Label("Runs")
+    long runs;
+
+    @Label("Total Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    long totalDuration;
+
+    @Label("Max Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    long maxDuration;
+
+    @Label("99th Percentile Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    long p99Duration;
+
+    @Label("Vertices Visited")
+    long verticesVisited;
+
+    @Label("Edges Examined")
+    long edgesExamined;
+
+    @Label("Relaxations")
+    long relaxations;
+
+    @Label("Heap Operations")
+    long heapOperations;
+
+    @Label("Rounds")
+    long rounds;
+}
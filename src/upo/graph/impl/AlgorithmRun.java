@@ -0,0 +1,156 @@
+package upo.graph.impl;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Contatori di un'esecuzione di un algoritmo, consegnati agli {@link AlgorithmListener} registrati in
+ * {@link GraphMetrics}. I contatori che un algoritmo non misura valgono zero: per esempio gli archi esaminati
+ * dall'algoritmo di Floyd-Warshall, che non scorre le liste di adiacenza.
+ *
+ * @author Guido
+ */
+public final class AlgorithmRun
+{
+    private final Algorithm algorithm;
+    private final int vertexCount;
+    private final int edgeCount;
+    private final long verticesVisited;
+    private final long edgesExamined;
+    private final long relaxations;
+    private final long heapOperations;
+    private final long rounds;
+    private final long nanos;
+    private final Map<String, Long> phases;
+
+    AlgorithmRun(Algorithm algorithm, int vertexCount, int edgeCount, long verticesVisited, long edgesExamined,
+            long relaxations, long heapOperations, long rounds, long nanos, LinkedHashMap<String, Long> phases)
+    {
+        this.algorithm = algorithm;
+        this.vertexCount = vertexCount;
+        this.edgeCount = edgeCount;
+        this.verticesVisited = verticesVisited;
+        this.edgesExamined = edgesExamined;
+        this.relaxations = relaxations;
+        this.heapOperations = heapOperations;
+        this.rounds = rounds;
+        this.nanos = nanos;
+        this.phases = Collections.unmodifiableMap(phases);
+    }
+
+    /**
+     * Restituisce l'algoritmo eseguito.
+     *
+     * @return L'algoritmo.
+     */
+    public Algorithm getAlgorithm()
+    {
+        return algorithm;
+    }
+
+    /**
+     * Restituisce il numero di vertici del grafo su cui e' stato eseguito l'algoritmo.
+     *
+     * @return Il numero di vertici.
+     */
+    public int getVertexCount()
+    {
+        return vertexCount;
+    }
+
+    /**
+     * Restituisce il numero di archi del grafo su cui e' stato eseguito l'algoritmo.
+     *
+     * @return Il numero di archi.
+     */
+    public int getEdgeCount()
+    {
+        return edgeCount;
+    }
+
+    /**
+     * Restituisce il numero di vertici elaborati: raggiunti dalle visite, estratti dalla coda, aggiunti all'albero
+     * o, per Bellman-Ford, scanditi in ciascuna passata.
+     *
+     * @return Il numero di vertici visitati.
+     */
+    public long getVerticesVisited()
+    {
+        return verticesVisited;
+    }
+
+    /**
+     * Restituisce il numero di archi esaminati scorrendo le liste di adiacenza.
+     *
+     * @return Il numero di archi esaminati.
+     */
+    public long getEdgesExamined()
+    {
+        return edgesExamined;
+    }
+
+    /**
+     * Restituisce il numero di rilassamenti riusciti, cioe' di archi che hanno migliorato una distanza o una
+     * chiave.
+     *
+     * @return Il numero di rilassamenti.
+     */
+    public long getRelaxations()
+    {
+        return relaxations;
+    }
+
+    /**
+     * Restituisce il numero di operazioni sulla coda di priorita' (inserimenti, estrazioni e diminuzioni di
+     * chiave).
+     *
+     * @return Il numero di operazioni sulla coda.
+     */
+    public long getHeapOperations()
+    {
+        return heapOperations;
+    }
+
+    /**
+     * Restituisce il numero di passate: le passate sugli archi di Bellman-Ford e gli indici intermedi di
+     * Floyd-Warshall.
+     *
+     * @return Il numero di passate.
+     */
+    public long getRounds()
+    {
+        return rounds;
+    }
+
+    /**
+     * Restituisce la durata complessiva dell'esecuzione, in nanosecondi.
+     *
+     * @return La durata in nanosecondi.
+     */
+    public long getNanos()
+    {
+        return nanos;
+    }
+
+    /**
+     * Restituisce la durata di ciascuna fase dell'esecuzione, in nanosecondi, nell'ordine in cui le fasi sono state
+     * eseguite. Gli algoritmi che non distinguono fasi restituiscono una mappa vuota.
+     *
+     * @return Le fasi con le rispettive durate.
+     */
+    public Map<String, Long> getPhases()
+    {
+        return phases;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "AlgorithmRun[algorithm=" + algorithm + ", vertexCount=" + vertexCount + ", edgeCount=" + edgeCount
+                + ", verticesVisited=" + verticesVisited + ", edgesExamined=" + edgesExamined + ", relaxations="
+                + relaxations + ", heapOperations=" + heapOperations + ", rounds=" + rounds + ", nanos=" + nanos
+                + ", phases=" + phases + "]";
+    }
+
+}
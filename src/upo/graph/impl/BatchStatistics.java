@@ -0,0 +1,121 @@
+package upo.graph.impl;
+
+/**
+ * Risultato dell'applicazione di un {@link EdgeBatch} con {@link AdjListDirWeight#applyBatch(EdgeBatch, boolean)}:
+ * quante operazioni hanno avuto effetto, quante sono state saltate e quanto e' durata l'applicazione.
+ *
+ * @author Guido
+ */
+public final class BatchStatistics
+{
+    private final int operations;
+    private final long inserted;
+    private final long updated;
+    private final long deleted;
+    private final long skipped;
+    private final int sources;
+    private final boolean parallel;
+    private final long nanos;
+
+    BatchStatistics(int operations, long inserted, long updated, long deleted, long skipped, int sources, boolean parallel, long nanos)
+    {
+        this.operations = operations;
+        this.inserted = inserted;
+        this.updated = updated;
+        this.deleted = deleted;
+        this.skipped = skipped;
+        this.sources = sources;
+        this.parallel = parallel;
+        this.nanos = nanos;
+    }
+
+    /**
+     * Restituisce il numero di operazioni del lotto.
+     *
+     * @return Il numero di operazioni.
+     */
+    public int getOperations()
+    {
+        return operations;
+    }
+
+    /**
+     * Restituisce il numero di archi nuovi aggiunti al grafo.
+     *
+     * @return Il numero di archi inseriti.
+     */
+    public long getInserted()
+    {
+        return inserted;
+    }
+
+    /**
+     * Restituisce il numero di archi esistenti di cui e' stato riscritto il peso, da un cambio di peso o da un
+     * inserimento di un arco gia' presente.
+     *
+     * @return Il numero di archi aggiornati.
+     */
+    public long getUpdated()
+    {
+        return updated;
+    }
+
+    /**
+     * Restituisce il numero di archi rimossi.
+     *
+     * @return Il numero di archi rimossi.
+     */
+    public long getDeleted()
+    {
+        return deleted;
+    }
+
+    /**
+     * Restituisce il numero di rimozioni e cambi di peso saltati perche' l'arco non esisteva.
+     *
+     * @return Il numero di operazioni saltate.
+     */
+    public long getSkipped()
+    {
+        return skipped;
+    }
+
+    /**
+     * Restituisce il numero di vertici di origine distinti, cioe' di gruppi in cui sono state divise le operazioni.
+     *
+     * @return Il numero di origini distinte.
+     */
+    public int getSources()
+    {
+        return sources;
+    }
+
+    /**
+     * Indica se i gruppi sono stati applicati in parallelo.
+     *
+     * @return True se l'applicazione e' stata parallela.
+     */
+    public boolean isParallel()
+    {
+        return parallel;
+    }
+
+    /**
+     * Restituisce la durata dell'applicazione, validazione compresa, in nanosecondi.
+     *
+     * @return La durata in nanosecondi.
+     */
+    public long getNanos()
+    {
+        return nanos;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "BatchStatistics[operations=" + operations + ", inserted=" + inserted + ", updated=" + updated
+                + ", deleted=" + deleted + ", skipped=" + skipped + ", sources=" + sources + ", parallel=" + parallel
+                + ", nanos=" + nanos + "]";
+    }
+
+}
@@ -0,0 +1,551 @@
+package upo.graph.impl;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import upo.graph.base.VisitForest;
+import upo.graph.base.WeightedGraph;
+
+/**
+ * Decoratore di un {@link AdjListDirWeight} che memorizza gli alberi dei cammini minimi gia' calcolati, indicizzati
+ * per vertice sorgente, per chi interroga ripetutamente le stesse sorgenti.
+ * <p>
+ * Ogni albero e' conservato in forma compatta (distanze e predecessori in array primitivi) e serve sia
+ * {@link #getDijkstraShortestPaths(String)} sia {@link #getBellmanFordShortestPaths(String)}, perche' le distanze
+ * minime non dipendono dall'algoritmo: l'albero viene calcolato con Dijkstra se il grafo non ha archi negativi,
+ * altrimenti con Bellman-Ford. Oltre ai metodi di {@link WeightedGraph}, che restituiscono ogni volta un nuovo
+ * grafo dei cammini minimi, {@link #getDistance(String, String)} e {@link #getPath(String, String)} rispondono
+ * direttamente dagli array memorizzati.
+ * <p>
+ * La cache ha un numero massimo di alberi e, facoltativamente, un limite di memoria; quando uno dei due viene
+ * superato si eliminano gli alberi usati meno di recente. Qualunque modifica del grafo, fatta tramite il decoratore
+ * o direttamente sul grafo decorato, svuota la cache alla richiesta successiva, confrontando il contatore delle
+ * modifiche del grafo con quello registrato al momento del calcolo.
+ * <p>
+ * Come il grafo decorato, la classe non e' sicura per l'uso concorrente.
+ *
+ * @author Guido
+ */
+public class CachedWeightedGraph implements WeightedGraph
+{
+    private final AdjListDirWeight graph;
+    private final int maxEntries;
+    private final long maxBytes;
+    private final LinkedHashMap<Integer, Tree> trees;
+    private long cachedBytes;
+    private int cachedModCount;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    /**
+     * Albero dei cammini minimi da una sorgente: distanza e predecessore di ogni vertice (-1 per la sorgente e i
+     * vertici non raggiungibili).
+     */
+    private static final class Tree
+    {
+        private final double[] dist;
+        private final int[] parent;
+
+        Tree(int n)
+        {
+            this.dist = new double[n];
+            this.parent = new int[n];
+        }
+
+        long bytes()
+        {
+            return (long) dist.length * (Double.BYTES + Integer.BYTES);
+        }
+    }
+
+    /**
+     * Crea il decoratore con un limite sul numero di alberi memorizzati.
+     *
+     * @param graph Il grafo da decorare.
+     * @param maxEntries Il numero massimo di sorgenti di cui conservare l'albero.
+     * @throws IllegalArgumentException Se <code>maxEntries</code> non e' positivo.
+     */
+    public CachedWeightedGraph(AdjListDirWeight graph, int maxEntries) throws IllegalArgumentException
+    {
+        this(graph, maxEntries, Long.MAX_VALUE);
+    }
+
+    /**
+     * Crea il decoratore con un limite sul numero di alberi memorizzati e sulla memoria da essi occupata.
+     * Ogni albero occupa 12 byte per vertice; un albero piu' grande dell'intero limite non viene memorizzato.
+     *
+     * @param graph Il grafo da decorare.
+     * @param maxEntries Il numero massimo di sorgenti di cui conservare l'albero.
+     * @param maxBytes La memoria massima, in byte, occupata dagli array degli alberi.
+     * @throws IllegalArgumentException Se uno dei due limiti non e' positivo.
+     */
+    public CachedWeightedGraph(AdjListDirWeight graph, int maxEntries, long maxBytes) throws IllegalArgumentException
+    {
+        if (maxEntries <= 0 || maxBytes <= 0)
+        {
+            throw new IllegalArgumentException("I limiti della cache devono essere positivi");
+        }
+        this.graph = graph;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.trees = new LinkedHashMap<>(16, 0.75f, true);
+        this.cachedModCount = graph.modificationCount();
+    }
+
+    /**
+     * Restituisce il grafo decorato.
+     *
+     * @return Il grafo su cui opera il decoratore.
+     */
+    public AdjListDirWeight getGraph()
+    {
+        return graph;
+    }
+
+    /**
+     * Restituisce il grafo dei cammini minimi calcolato con l'algoritmo di Bellman-Ford, riutilizzando l'albero
+     * memorizzato per la sorgente se il grafo non e' stato modificato.
+     *
+     * @param startingVertex il vertice di partenza da cui calcolare i cammini minimi
+     * @return un nuovo grafo pesato che rappresenta i cammini minimi dal vertice di partenza
+     * @throws UnsupportedOperationException se il grafo contiene un ciclo negativo
+     * @throws IllegalArgumentException se il vertice di partenza specificato non appartiene al grafo
+     */
+    @Override
+    public WeightedGraph getBellmanFordShortestPaths(String startingVertex) throws UnsupportedOperationException, IllegalArgumentException
+    {
+        return graph.freeze().createDistanceGraph(tree(startingVertex).dist);
+    }
+
+    /**
+     * Restituisce il grafo dei cammini minimi calcolato con l'algoritmo di Dijkstra, riutilizzando l'albero
+     * memorizzato per la sorgente se il grafo non e' stato modificato.
+     *
+     * @param startingVertex il vertice di partenza da cui calcolare i cammini minimi
+     * @return un nuovo grafo pesato che rappresenta i cammini minimi dal vertice di partenza
+     * @throws UnsupportedOperationException se il grafo contiene archi con peso negativo
+     * @throws IllegalArgumentException se il vertice di partenza specificato non appartiene al grafo
+     */
+    @Override
+    public WeightedGraph getDijkstraShortestPaths(String startingVertex) throws UnsupportedOperationException, IllegalArgumentException
+    {
+        if (!graph.containsVertex(startingVertex))
+        {
+            throw new IllegalArgumentException("Il vertice specificato non appartiene al grafo");
+        }
+        CsrWeightedGraph csr = graph.freeze();
+        if (csr.hasNegativeWeights())
+        {
+            throw new UnsupportedOperationException("Il grafo contiene archi con peso negativo");
+        }
+        return csr.createDistanceGraph(tree(startingVertex).dist);
+    }
+
+    /**
+     * Restituisce la distanza minima tra due vertici, calcolando l'albero della sorgente solo se non e' gia'
+     * memorizzato.
+     *
+     * @param sourceVertex L'etichetta del vertice di origine.
+     * @param targetVertex L'etichetta del vertice di destinazione.
+     * @return La distanza, o infinito se il vertice di destinazione non e' raggiungibile.
+     * @throws UnsupportedOperationException Se dalla sorgente e' raggiungibile un ciclo negativo.
+     * @throws IllegalArgumentException Se uno dei due vertici non appartiene al grafo.
+     */
+    public double getDistance(String sourceVertex, String targetVertex) throws UnsupportedOperationException, IllegalArgumentException
+    {
+        int t = targetIndex(sourceVertex, targetVertex);
+        return tree(sourceVertex).dist[t];
+    }
+
+    /**
+     * Ricostruisce un cammino minimo tra due vertici risalendo i predecessori dell'albero della sorgente.
+     *
+     * @param sourceVertex L'etichetta del vertice di origine.
+     * @param targetVertex L'etichetta del vertice di destinazione.
+     * @return Le etichette dei vertici del cammino, estremi compresi, o un array vuoto se il vertice di
+     * destinazione non e' raggiungibile.
+     * @throws UnsupportedOperationException Se dalla sorgente e' raggiungibile un ciclo negativo.
+     * @throws IllegalArgumentException Se uno dei due vertici non appartiene al grafo.
+     */
+    public String[] getPath(String sourceVertex, String targetVertex) throws UnsupportedOperationException, IllegalArgumentException
+    {
+        int t = targetIndex(sourceVertex, targetVertex);
+        Tree tree = tree(sourceVertex);
+        if (tree.dist[t] == Double.POSITIVE_INFINITY)
+        {
+            return new String[0];
+        }
+        int length = 0;
+        for (int v = t; v >= 0; v = tree.parent[v])
+        {
+            length++;
+        }
+        String[] path = new String[length];
+        for (int v = t, i = length - 1; v >= 0; v = tree.parent[v], i--)
+        {
+            path[i] = graph.getVertexLabel(v);
+        }
+        return path;
+    }
+
+    private int targetIndex(String sourceVertex, String targetVertex) throws IllegalArgumentException
+    {
+        int t = graph.getVertexIndex(targetVertex);
+        if (t < 0 || !graph.containsVertex(sourceVertex))
+        {
+            throw new IllegalArgumentException("Il vertice " + sourceVertex + " o " + targetVertex + " non appartiene al grafo");
+        }
+        return t;
+    }
+
+    /**
+     * Restituisce l'albero della sorgente, calcolandolo e memorizzandolo se necessario.
+     */
+    private Tree tree(String startingVertex) throws UnsupportedOperationException, IllegalArgumentException
+    {
+        int s = graph.getVertexIndex(startingVertex);
+        if (s < 0)
+        {
+            throw new IllegalArgumentException("Il vertice specificato non appartiene al grafo");
+        }
+        validate();
+        Tree tree = trees.get(s);
+        if (tree != null)
+        {
+            hits++;
+            return tree;
+        }
+
+        misses++;
+        CsrWeightedGraph csr = graph.freeze();
+        tree = new Tree(csr.size());
+        if (csr.hasNegativeWeights())
+        {
+            Probe probe = GraphMetrics.start(Algorithm.BELLMAN_FORD, csr);
+            boolean ok = ShortestPaths.bellmanFord(csr, s, tree.dist, tree.parent, probe);
+            if (probe != null)
+            {
+                probe.finish();
+            }
+            if (!ok)
+            {
+                throw new UnsupportedOperationException("Il grafo contiene un ciclo negativo");
+            }
+        }
+        else
+        {
+            Probe probe = GraphMetrics.start(Algorithm.DIJKSTRA, csr);
+            ShortestPaths.dijkstra(csr, s, tree.dist, tree.parent, new IndexedMinHeap(csr.size()), probe);
+            if (probe != null)
+            {
+                probe.finish();
+            }
+        }
+        store(s, tree);
+        return tree;
+    }
+
+    /**
+     * Svuota la cache se il grafo e' stato modificato dopo il calcolo degli alberi memorizzati.
+     */
+    private void validate()
+    {
+        int modCount = graph.modificationCount();
+        if (modCount != cachedModCount)
+        {
+            if (!trees.isEmpty())
+            {
+                invalidations++;
+            }
+            trees.clear();
+            cachedBytes = 0;
+            cachedModCount = modCount;
+        }
+    }
+
+    private void store(int s, Tree tree)
+    {
+        if (tree.bytes() > maxBytes)
+        {
+            return;
+        }
+        trees.put(s, tree);
+        cachedBytes += tree.bytes();
+
+        // L'ordine di accesso della mappa mette per primi gli alberi usati meno di recente
+        Iterator<Tree> eldest = trees.values().iterator();
+        while (trees.size() > maxEntries || cachedBytes > maxBytes)
+        {
+            cachedBytes -= eldest.next().bytes();
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Elimina tutti gli alberi memorizzati, senza azzerare i contatori.
+     */
+    public void clearCache()
+    {
+        trees.clear();
+        cachedBytes = 0;
+    }
+
+    /**
+     * Restituisce il numero di alberi attualmente memorizzati e ancora validi.
+     *
+     * @return Il numero di sorgenti presenti nella cache.
+     */
+    public int getCachedTrees()
+    {
+        validate();
+        return trees.size();
+    }
+
+    /**
+     * Restituisce la memoria occupata dagli array degli alberi memorizzati e ancora validi.
+     *
+     * @return La memoria occupata, in byte.
+     */
+    public long getCachedBytes()
+    {
+        validate();
+        return cachedBytes;
+    }
+
+    /**
+     * Restituisce il numero di richieste servite con un albero gia' memorizzato.
+     *
+     * @return Il numero di successi della cache.
+     */
+    public long getHits()
+    {
+        return hits;
+    }
+
+    /**
+     * Restituisce il numero di richieste che hanno richiesto il calcolo dell'albero.
+     *
+     * @return Il numero di fallimenti della cache.
+     */
+    public long getMisses()
+    {
+        return misses;
+    }
+
+    /**
+     * Restituisce il numero di alberi eliminati per rispettare i limiti della cache.
+     *
+     * @return Il numero di eliminazioni.
+     */
+    public long getEvictions()
+    {
+        return evictions;
+    }
+
+    /**
+     * Restituisce il numero di volte in cui la cache e' stata svuotata perche' il grafo era stato modificato.
+     *
+     * @return Il numero di invalidazioni.
+     */
+    public long getInvalidations()
+    {
+        return invalidations;
+    }
+
+    @Override
+    public int getVertexIndex(String label)
+    {
+        return graph.getVertexIndex(label);
+    }
+
+    @Override
+    public String getVertexLabel(Integer index)
+    {
+        return graph.getVertexLabel(index);
+    }
+
+    @Override
+    public int addVertex(String label)
+    {
+        return graph.addVertex(label);
+    }
+
+    @Override
+    public boolean containsVertex(String label)
+    {
+        return graph.containsVertex(label);
+    }
+
+    @Override
+    public void removeVertex(String label) throws NoSuchElementException
+    {
+        graph.removeVertex(label);
+    }
+
+    @Override
+    public void addEdge(String sourceVertex, String targetVertex) throws IllegalArgumentException
+    {
+        graph.addEdge(sourceVertex, targetVertex);
+    }
+
+    @Override
+    public boolean containsEdge(String sourceVertex, String targetVertex) throws IllegalArgumentException
+    {
+        return graph.containsEdge(sourceVertex, targetVertex);
+    }
+
+    @Override
+    public void removeEdge(String sourceVertex, String targetVertex) throws IllegalArgumentException, NoSuchElementException
+    {
+        graph.removeEdge(sourceVertex, targetVertex);
+    }
+
+    @Override
+    public Set<String> getAdjacent(String vertex) throws NoSuchElementException
+    {
+        return graph.getAdjacent(vertex);
+    }
+
+    @Override
+    public boolean isAdjacent(String targetVertex, String sourceVertex) throws IllegalArgumentException
+    {
+        return graph.isAdjacent(targetVertex, sourceVertex);
+    }
+
+    @Override
+    public int size()
+    {
+        return graph.size();
+    }
+
+    @Override
+    public boolean isDirected()
+    {
+        return graph.isDirected();
+    }
+
+    @Override
+    public boolean isCyclic()
+    {
+        return graph.isCyclic();
+    }
+
+    @Override
+    public boolean isDAG()
+    {
+        return graph.isDAG();
+    }
+
+    @Override
+    public VisitForest getBFSTree(String startingVertex) throws UnsupportedOperationException, IllegalArgumentException
+    {
+        return graph.getBFSTree(startingVertex);
+    }
+
+    @Override
+    public VisitForest getDFSTree(String startingVertex) throws UnsupportedOperationException, IllegalArgumentException
+    {
+        return graph.getDFSTree(startingVertex);
+    }
+
+    @Override
+    public VisitForest getDFSTOTForest(String startingVertex) throws UnsupportedOperationException, IllegalArgumentException
+    {
+        return graph.getDFSTOTForest(startingVertex);
+    }
+
+    @Override
+    public VisitForest getDFSTOTForest(String[] vertexOrdering) throws UnsupportedOperationException, IllegalArgumentException
+    {
+        return graph.getDFSTOTForest(vertexOrdering);
+    }
+
+    @Override
+    public String[] topologicalSort() throws UnsupportedOperationException
+    {
+        return graph.topologicalSort();
+    }
+
+    @Override
+    public Set<Set<String>> stronglyConnectedComponents() throws UnsupportedOperationException
+    {
+        return graph.stronglyConnectedComponents();
+    }
+
+    @Override
+    public Set<Set<String>> connectedComponents() throws UnsupportedOperationException
+    {
+        return graph.connectedComponents();
+    }
+
+    @Override
+    public double getEdgeWeight(String sourceVertex, String targetVertex) throws IllegalArgumentException, NoSuchElementException
+    {
+        return graph.getEdgeWeight(sourceVertex, targetVertex);
+    }
+
+    @Override
+    public void setEdgeWeight(String sourceVertex, String targetVertex, double weight) throws IllegalArgumentException, NoSuchElementException
+    {
+        graph.setEdgeWeight(sourceVertex, targetVertex, weight);
+    }
+
+    @Override
+    public WeightedGraph getPrimMST(String startingVertex) throws UnsupportedOperationException, IllegalArgumentException
+    {
+        return graph.getPrimMST(startingVertex);
+    }
+
+    @Override
+    public WeightedGraph getKruskalMST() throws UnsupportedOperationException
+    {
+        return graph.getKruskalMST();
+    }
+
+    @Override
+    public WeightedGraph getFloydWarshallShortestPaths() throws UnsupportedOperationException
+    {
+        return graph.getFloydWarshallShortestPaths();
+    }
+
+    /**
+     * Due decoratori sono uguali se le istantanee CSR dei grafi decorati coincidono, cioe' se hanno le stesse
+     * etichette e gli stessi archi pesati. Un decoratore non e' mai uguale a un grafo non decorato, perche' il
+     * confronto inverso non lo riconoscerebbe e la relazione non sarebbe simmetrica.
+     *
+     * @param obj l'oggetto da confrontare
+     * @return true se obj e' un decoratore il cui grafo decorato ha la stessa istantanea di questo
+     */
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj)
+        {
+            return true;
+        }
+        if (!(obj instanceof CachedWeightedGraph))
+        {
+            return false;
+        }
+        return graph.freeze().equals(((CachedWeightedGraph) obj).graph.freeze());
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return graph.freeze().hashCode();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "CachedWeightedGraph[trees=" + trees.size() + ", hits=" + hits + ", misses=" + misses + ", evictions="
+                + evictions + ", invalidations=" + invalidations + "]";
+    }
+
+}
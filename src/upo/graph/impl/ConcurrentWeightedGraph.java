@@ -0,0 +1,703 @@
+package upo.graph.impl;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+
+import upo.graph.base.VisitForest;
+import upo.graph.base.WeightedGraph;
+
+/**
+ * Grafo orientato pesato sicuro per l'uso concorrente, con la stessa semantica di {@link AdjListDirWeight}.
+ * <p>
+ * Le liste di adiacenza (archi uscenti ed entranti di ogni vertice) sono {@link ConcurrentHashMap}. Le modifiche
+ * degli archi sono serializzate solo per vertice di origine, con un insieme di lock a strisce: gli inserimenti e le
+ * rimozioni di archi con origini diverse procedono in parallelo, mentre le due mappe che descrivono uno stesso arco
+ * restano coerenti tra loro. Le letture di un singolo arco o vertice non acquisiscono lock.
+ * <p>
+ * La tabella degli indici dei vertici e' protetta da uno {@link StampedLock}, acquisito in scrittura da aggiunta e
+ * rimozione di vertici; la traduzione da indice a etichetta usa una lettura ottimistica, ripetuta con il lock solo
+ * se un vertice e' stato aggiunto o rimosso nel frattempo. Le modifiche degli archi non toccano questo lock, per
+ * non contendere un contatore condiviso a ogni scrittura: acquisiscono solo il lock dell'origine e verificano,
+ * sotto di esso, che i due estremi non siano stati rimossi. La rimozione di un vertice acquisisce infatti tutti i
+ * lock a strisce, in ordine, prima di segnare il vertice come rimosso e staccarne gli archi.
+ * <p>
+ * Le visite e gli algoritmi sui cammini e sugli alberi ricoprenti vengono eseguiti su un'istantanea CSR coerente
+ * (vedi {@link #freeze()}), ottenuta escludendo per il tempo della copia tutte le modifiche. L'istantanea viene
+ * riutilizzata finche' il grafo non viene modificato, quindi i lettori concorrenti di un grafo stabile non si
+ * bloccano a vicenda.
+ *
+ * @author Guido
+ */
+public class ConcurrentWeightedGraph implements WeightedGraph
+{
+    private final ConcurrentHashMap<String, Node> vertexMap;
+    private final StampedLock lock;
+    private final ReentrantLock[] stripes;
+    private Node[] nodes;
+    private int count;
+    private volatile CsrWeightedGraph snapshot;
+    private volatile boolean stale;
+
+    /**
+     * Vertice del grafo: etichetta, indice corrente e mappe degli archi uscenti ed entranti con i loro pesi.
+     */
+    private static final class Node
+    {
+        private final String label;
+        private final int stripe;
+        private volatile int index;
+        private boolean removed;
+        private final Map<Node, Double> out = new ConcurrentHashMap<>();
+        private final Map<Node, Double> in = new ConcurrentHashMap<>();
+
+        Node(String label, int index, int stripe)
+        {
+            this.label = label;
+            this.index = index;
+            this.stripe = stripe;
+        }
+    }
+
+    /**
+     * Costruisce un grafo vuoto con un numero di lock pari a quattro volte i processori disponibili.
+     */
+    public ConcurrentWeightedGraph()
+    {
+        this(4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Costruisce un grafo vuoto specificando il numero di lock tra cui ripartire i vertici di origine degli archi,
+     * arrotondato alla potenza di due successiva.
+     *
+     * @param concurrencyLevel Il numero di origini distinte che possono essere modificate contemporaneamente.
+     * @throws IllegalArgumentException Se <code>concurrencyLevel</code> non e' positivo.
+     */
+    public ConcurrentWeightedGraph(int concurrencyLevel) throws IllegalArgumentException
+    {
+        if (concurrencyLevel <= 0)
+        {
+            throw new IllegalArgumentException("Il livello di concorrenza deve essere positivo");
+        }
+        int size = Integer.highestOneBit(Math.min(concurrencyLevel, 1 << 16) * 2 - 1);
+        stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++)
+        {
+            stripes[i] = new ReentrantLock();
+        }
+        vertexMap = new ConcurrentHashMap<>();
+        lock = new StampedLock();
+        nodes = new Node[16];
+        stale = true;
+    }
+
+    /**
+     * Restituisce l'indice del vertice con l'etichetta specificata, senza acquisire lock.
+     *
+     * @param label L'etichetta del vertice di cui si desidera ottenere l'indice.
+     * @return L'indice del vertice o -1 se l'etichetta è null o il vertice non è presente.
+     */
+    @Override
+    public int getVertexIndex(String label)
+    {
+        if (label == null)
+        {
+            return -1;
+        }
+        Node node = vertexMap.get(label);
+        return node == null ? -1 : node.index;
+    }
+
+    /**
+     * Restituisce l'etichetta del vertice associato all'indice specificato, con una lettura ottimistica della
+     * tabella degli indici.
+     *
+     * @param index L'indice del vertice di cui si desidera ottenere l'etichetta.
+     * @return L'etichetta del vertice o null se l'indice è null, negativo o oltre la dimensione del grafo.
+     */
+    @Override
+    public String getVertexLabel(Integer index)
+    {
+        if (index == null || index < 0)
+        {
+            return null;
+        }
+
+        long stamp = lock.tryOptimisticRead();
+        String label = labelAt(index);
+        if (!lock.validate(stamp))
+        {
+            stamp = lock.readLock();
+            try
+            {
+                label = labelAt(index);
+            }
+            finally
+            {
+                lock.unlockRead(stamp);
+            }
+        }
+        return label;
+    }
+
+    /**
+     * Legge l'etichetta di indice <code>index</code> tollerando uno stato intermedio della tabella, che il
+     * chiamante scarta se la validazione del lock fallisce.
+     */
+    private String labelAt(int index)
+    {
+        Node[] table = nodes;
+        int n = count;
+        if (index >= n || index >= table.length)
+        {
+            return null;
+        }
+        Node node = table[index];
+        return node == null ? null : node.label;
+    }
+
+    /**
+     * Aggiunge un nuovo vertice con l'etichetta specificata, acquisendo il lock dei vertici in scrittura.
+     *
+     * @param label L'etichetta del nuovo vertice.
+     * @return L'indice del vertice appena aggiunto o -1 se un vertice con la stessa etichetta è già presente.
+     * @throws IllegalArgumentException Se l'etichetta è null.
+     */
+    @Override
+    public int addVertex(String label) throws IllegalArgumentException
+    {
+        if (label == null)
+        {
+            throw new IllegalArgumentException("L'etichetta del vertice non puo' essere null");
+        }
+        if (vertexMap.containsKey(label))
+        {
+            return -1;
+        }
+
+        long stamp = lock.writeLock();
+        try
+        {
+            if (vertexMap.containsKey(label))
+            {
+                return -1;
+            }
+            if (count == nodes.length)
+            {
+                Node[] grown = new Node[count * 2];
+                System.arraycopy(nodes, 0, grown, 0, count);
+                nodes = grown;
+            }
+            Node node = new Node(label, count, stripeOf(label));
+            nodes[count++] = node;
+            vertexMap.put(label, node);
+            stale = true;
+            return node.index;
+        }
+        finally
+        {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private int stripeOf(String label)
+    {
+        int h = label.hashCode();
+        return (h ^ (h >>> 16)) & (stripes.length - 1);
+    }
+
+    @Override
+    public boolean containsVertex(String label)
+    {
+        return label != null && vertexMap.containsKey(label);
+    }
+
+    /**
+     * Rimuove un vertice insieme a tutti i suoi archi, in tempo O(grado) per gli archi e O(V) per la
+     * compattazione degli indici, come in {@link AdjListDirWeight#removeVertex(String)}.
+     *
+     * @param label L'etichetta del vertice da rimuovere.
+     * @throws NoSuchElementException Se il vertice specificato non è presente nel grafo.
+     */
+    @Override
+    public void removeVertex(String label) throws NoSuchElementException
+    {
+        long stamp = lock.writeLock();
+        lockStripes();
+        try
+        {
+            Node node = label == null ? null : vertexMap.remove(label);
+            if (node == null)
+            {
+                throw new NoSuchElementException("Vertice non trovato: " + label);
+            }
+            node.removed = true;
+            for (Node predecessor : node.in.keySet())
+            {
+                predecessor.out.remove(node);
+            }
+            for (Node successor : node.out.keySet())
+            {
+                successor.in.remove(node);
+            }
+
+            // Compatta la tabella degli indici
+            int index = node.index;
+            System.arraycopy(nodes, index + 1, nodes, index, count - index - 1);
+            nodes[--count] = null;
+            for (int i = index; i < count; i++)
+            {
+                nodes[i].index = i;
+            }
+            stale = true;
+        }
+        finally
+        {
+            unlockStripes();
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Acquisisce tutti i lock a strisce in ordine di indice, cosi' che due thread che li acquisiscono insieme non
+     * possano bloccarsi a vicenda. Va chiamato dopo aver acquisito il lock dei vertici, mai prima.
+     */
+    private void lockStripes()
+    {
+        for (ReentrantLock stripe : stripes)
+        {
+            stripe.lock();
+        }
+    }
+
+    private void unlockStripes()
+    {
+        for (int i = stripes.length - 1; i >= 0; i--)
+        {
+            stripes[i].unlock();
+        }
+    }
+
+    /**
+     * Aggiunge un arco con il peso predefinito, o riporta al peso predefinito un arco gia' presente. Solo le
+     * modifiche di archi con la stessa origine (o con origini che condividono il lock) vengono serializzate.
+     *
+     * @param sourceVertex L'etichetta del vertice di origine.
+     * @param targetVertex L'etichetta del vertice di destinazione.
+     * @throws IllegalArgumentException Se uno o entrambi i vertici non appartengono al grafo.
+     */
+    @Override
+    public void addEdge(String sourceVertex, String targetVertex) throws IllegalArgumentException
+    {
+        putEdge(sourceVertex, targetVertex, WeightedGraph.defaultEdgeWeight);
+    }
+
+    /**
+     * Aggiunge un arco con il peso specificato, o ne aggiorna il peso se e' gia' presente, in un'unica
+     * operazione atomica: gli altri thread non osservano mai l'arco con il peso predefinito.
+     *
+     * @param sourceVertex L'etichetta del vertice di origine.
+     * @param targetVertex L'etichetta del vertice di destinazione.
+     * @param weight Il peso dell'arco.
+     * @throws IllegalArgumentException Se uno o entrambi i vertici non appartengono al grafo.
+     */
+    public void addEdge(String sourceVertex, String targetVertex, double weight) throws IllegalArgumentException
+    {
+        putEdge(sourceVertex, targetVertex, weight);
+    }
+
+    private void putEdge(String sourceVertex, String targetVertex, double weight) throws IllegalArgumentException
+    {
+        Node source = node(sourceVertex);
+        Node target = node(targetVertex);
+        ReentrantLock stripe = lockSource(source, target, sourceVertex, targetVertex);
+        try
+        {
+            source.out.put(target, weight);
+            target.in.put(source, weight);
+            markStale();
+        }
+        finally
+        {
+            stripe.unlock();
+        }
+    }
+
+    /**
+     * Acquisisce il lock dell'origine di un arco e verifica, mentre lo detiene, che entrambi gli estremi
+     * appartengano ancora al grafo: una rimozione concorrente di uno dei due vertici e' gia' terminata, e allora
+     * il vertice risulta rimosso, oppure attende il rilascio del lock e stacchera' anche l'arco appena scritto.
+     *
+     * @return Il lock acquisito, che il chiamante deve rilasciare.
+     * @throws IllegalArgumentException Se uno dei due vertici non appartiene al grafo.
+     */
+    private ReentrantLock lockSource(Node source, Node target, String sourceVertex, String targetVertex)
+            throws IllegalArgumentException
+    {
+        if (source != null && target != null)
+        {
+            ReentrantLock stripe = stripes[source.stripe];
+            stripe.lock();
+            if (!source.removed && !target.removed)
+            {
+                return stripe;
+            }
+            stripe.unlock();
+        }
+        throw new IllegalArgumentException("Il vertice " + sourceVertex + " o " + targetVertex + " non appartiene al grafo");
+    }
+
+    private Node node(String label)
+    {
+        return label == null ? null : vertexMap.get(label);
+    }
+
+    /**
+     * Segna l'istantanea come non piu' valida, scrivendo il campo volatile solo se necessario per non
+     * contendere la stessa linea di cache tra i thread che inseriscono archi. Viene chiamato con il lock
+     * dell'origine acquisito, quindi non puo' precedere la costruzione di un'istantanea che non vede l'arco.
+     */
+    private void markStale()
+    {
+        if (!stale)
+        {
+            stale = true;
+        }
+    }
+
+    @Override
+    public boolean containsEdge(String sourceVertex, String targetVertex) throws IllegalArgumentException
+    {
+        Node source = node(sourceVertex);
+        Node target = node(targetVertex);
+        if (source == null || target == null)
+        {
+            throw new IllegalArgumentException("Il vertice " + sourceVertex + " o " + targetVertex + " non appartiene al grafo");
+        }
+        return source.out.containsKey(target);
+    }
+
+    /**
+     * Rimuove l'arco tra il vertice di origine e il vertice di destinazione.
+     *
+     * @param sourceVertex L'etichetta del vertice di origine.
+     * @param targetVertex L'etichetta del vertice di destinazione.
+     * @throws IllegalArgumentException Se uno o entrambi i vertici non appartengono al grafo.
+     * @throws NoSuchElementException Se non c'è un arco tra i vertici specificati.
+     */
+    @Override
+    public void removeEdge(String sourceVertex, String targetVertex) throws IllegalArgumentException, NoSuchElementException
+    {
+        Node source = node(sourceVertex);
+        Node target = node(targetVertex);
+        ReentrantLock stripe = lockSource(source, target, sourceVertex, targetVertex);
+        try
+        {
+            if (source.out.remove(target) == null)
+            {
+                throw new NoSuchElementException("Non c'è un arco tra " + sourceVertex + " e " + targetVertex);
+            }
+            target.in.remove(source);
+            markStale();
+        }
+        finally
+        {
+            stripe.unlock();
+        }
+    }
+
+    /**
+     * Restituisce le etichette dei vertici adiacenti al vertice specificato. Gli archi aggiunti o rimossi
+     * durante la lettura possono comparire o meno nel risultato.
+     *
+     * @param vertex L'etichetta del vertice.
+     * @return Un nuovo insieme con le etichette dei vertici adiacenti.
+     * @throws NoSuchElementException Se il vertice specificato non appartiene al grafo.
+     */
+    @Override
+    public Set<String> getAdjacent(String vertex) throws NoSuchElementException
+    {
+        Node source = node(vertex);
+        if (source == null)
+        {
+            throw new NoSuchElementException("Il vertice " + vertex + " non appartiene al grafo");
+        }
+        Set<String> adjacent = new HashSet<>();
+        for (Node target : source.out.keySet())
+        {
+            adjacent.add(target.label);
+        }
+        return adjacent;
+    }
+
+    /**
+     * Restituisce le etichette dei predecessori del vertice specificato, in tempo O(grado entrante).
+     *
+     * @param vertex L'etichetta del vertice.
+     * @return Un nuovo insieme con le etichette dei predecessori.
+     * @throws NoSuchElementException Se il vertice specificato non appartiene al grafo.
+     */
+    public Set<String> getPredecessors(String vertex) throws NoSuchElementException
+    {
+        Node target = node(vertex);
+        if (target == null)
+        {
+            throw new NoSuchElementException("Il vertice " + vertex + " non appartiene al grafo");
+        }
+        Set<String> predecessors = new HashSet<>();
+        for (Node source : target.in.keySet())
+        {
+            predecessors.add(source.label);
+        }
+        return predecessors;
+    }
+
+    @Override
+    public boolean isAdjacent(String targetVertex, String sourceVertex) throws IllegalArgumentException
+    {
+        Node source = node(sourceVertex);
+        Node target = node(targetVertex);
+        if (source == null || target == null)
+        {
+            throw new IllegalArgumentException("I vertici forniti non appartengono al grafo.");
+        }
+        return source.out.containsKey(target);
+    }
+
+    @Override
+    public int size()
+    {
+        return vertexMap.size();
+    }
+
+    @Override
+    public boolean isDirected()
+    {
+        return true;
+    }
+
+    @Override
+    public double getEdgeWeight(String sourceVertex, String targetVertex) throws IllegalArgumentException, NoSuchElementException
+    {
+        Node source = node(sourceVertex);
+        Node target = node(targetVertex);
+        if (source == null || target == null)
+        {
+            throw new IllegalArgumentException("Il vertice " + sourceVertex + " o " + targetVertex + " non appartiene al grafo");
+        }
+        Double weight = source.out.get(target);
+        if (weight == null)
+        {
+            throw new NoSuchElementException("Non c'è un arco tra " + sourceVertex + " e " + targetVertex);
+        }
+        return weight;
+    }
+
+    /**
+     * Imposta il peso di un arco esistente. La verifica dell'esistenza e la scrittura avvengono sotto il lock
+     * dell'origine, quindi non possono far ricomparire un arco rimosso contemporaneamente.
+     *
+     * @param sourceVertex Il vertice di origine dell'arco.
+     * @param targetVertex Il vertice di destinazione dell'arco.
+     * @param weight Il nuovo peso dell'arco.
+     * @throws IllegalArgumentException Se uno dei vertici specificati non appartiene al grafo.
+     * @throws NoSuchElementException Se non c'è un arco tra i vertici specificati.
+     */
+    @Override
+    public void setEdgeWeight(String sourceVertex, String targetVertex, double weight) throws IllegalArgumentException, NoSuchElementException
+    {
+        Node source = node(sourceVertex);
+        Node target = node(targetVertex);
+        ReentrantLock stripe = lockSource(source, target, sourceVertex, targetVertex);
+        try
+        {
+            if (source.out.replace(target, weight) == null)
+            {
+                throw new NoSuchElementException("Non c'è un arco tra " + sourceVertex + " e " + targetVertex);
+            }
+            target.in.put(source, weight);
+            markStale();
+        }
+        finally
+        {
+            stripe.unlock();
+        }
+    }
+
+    /**
+     * Restituisce un'istantanea immutabile e coerente del grafo in formato CSR, con gli stessi indici dei vertici.
+     * La copia viene eseguita con il lock dei vertici in scrittura e tutti i lock a strisce, che attendono il
+     * completamento delle modifiche in corso e bloccano le successive fino al termine; l'istantanea viene poi riutilizzata senza lock finche' il
+     * grafo non viene modificato.
+     *
+     * @return Un {@code CsrWeightedGraph} equivalente allo stato del grafo in un istante della chiamata.
+     */
+    public CsrWeightedGraph freeze()
+    {
+        if (!stale)
+        {
+            CsrWeightedGraph current = snapshot;
+            if (current != null)
+            {
+                return current;
+            }
+        }
+
+        long stamp = lock.writeLock();
+        lockStripes();
+        try
+        {
+            if (!stale && snapshot != null)
+            {
+                return snapshot;
+            }
+
+            String[] labels = new String[count];
+            int[] offsets = new int[count + 1];
+            for (int i = 0; i < count; i++)
+            {
+                labels[i] = nodes[i].label;
+                offsets[i + 1] = offsets[i] + nodes[i].out.size();
+            }
+            int[] targets = new int[offsets[count]];
+            double[] weights = new double[offsets[count]];
+            for (int i = 0; i < count; i++)
+            {
+                int e = offsets[i];
+                for (Map.Entry<Node, Double> edge : nodes[i].out.entrySet())
+                {
+                    targets[e] = edge.getKey().index;
+                    weights[e] = edge.getValue();
+                    e++;
+                }
+            }
+
+            CsrWeightedGraph built = new CsrWeightedGraph(labels, offsets, targets, weights);
+            snapshot = built;
+            stale = false;
+            return built;
+        }
+        finally
+        {
+            unlockStripes();
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public boolean isCyclic()
+    {
+        return freeze().isCyclic();
+    }
+
+    @Override
+    public boolean isDAG()
+    {
+        return isDirected() && !isCyclic();
+    }
+
+    @Override
+    public VisitForest getBFSTree(String startingVertex) throws UnsupportedOperationException, IllegalArgumentException
+    {
+        return freeze().getBFSTree(startingVertex);
+    }
+
+    @Override
+    public VisitForest getDFSTree(String startingVertex) throws UnsupportedOperationException, IllegalArgumentException
+    {
+        return freeze().getDFSTree(startingVertex);
+    }
+
+    @Override
+    public VisitForest getDFSTOTForest(String startingVertex) throws UnsupportedOperationException, IllegalArgumentException
+    {
+        return freeze().getDFSTOTForest(startingVertex);
+    }
+
+    @Override
+    public VisitForest getDFSTOTForest(String[] vertexOrdering) throws UnsupportedOperationException, IllegalArgumentException
+    {
+        return freeze().getDFSTOTForest(vertexOrdering);
+    }
+
+    @Override
+    public String[] topologicalSort() throws UnsupportedOperationException
+    {
+        return freeze().topologicalSort();
+    }
+
+    @Override
+    public Set<Set<String>> stronglyConnectedComponents() throws UnsupportedOperationException
+    {
+        return freeze().stronglyConnectedComponents();
+    }
+
+    @Override
+    public Set<Set<String>> connectedComponents() throws UnsupportedOperationException
+    {
+        throw new UnsupportedOperationException("Un grafo orientato non supporta l'operazione");
+    }
+
+    @Override
+    public WeightedGraph getBellmanFordShortestPaths(String startingVertex) throws UnsupportedOperationException, IllegalArgumentException
+    {
+        return freeze().getBellmanFordShortestPaths(startingVertex);
+    }
+
+    @Override
+    public WeightedGraph getDijkstraShortestPaths(String startingVertex) throws UnsupportedOperationException, IllegalArgumentException
+    {
+        return freeze().getDijkstraShortestPaths(startingVertex);
+    }
+
+    @Override
+    public WeightedGraph getPrimMST(String startingVertex) throws UnsupportedOperationException, IllegalArgumentException
+    {
+        return freeze().getPrimMST(startingVertex);
+    }
+
+    @Override
+    public WeightedGraph getKruskalMST() throws UnsupportedOperationException
+    {
+        return freeze().getKruskalMST();
+    }
+
+    @Override
+    public WeightedGraph getFloydWarshallShortestPaths() throws UnsupportedOperationException
+    {
+        return freeze().getFloydWarshallShortestPaths();
+    }
+
+    /**
+     * Due grafi concorrenti sono uguali se le loro istantanee lo sono, cioe' se hanno gli stessi vertici con gli
+     * stessi indici e gli stessi archi pesati.
+     *
+     * @param obj l'oggetto da confrontare con l'istanza corrente
+     * @return true se i due grafi sono uguali, false altrimenti
+     */
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj)
+        {
+            return true;
+        }
+        if (!(obj instanceof ConcurrentWeightedGraph))
+        {
+            return false;
+        }
+        return freeze().equals(((ConcurrentWeightedGraph) obj).freeze());
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return freeze().hashCode();
+    }
+
+}
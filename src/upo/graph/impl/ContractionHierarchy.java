@@ -0,0 +1,625 @@
+package upo.graph.impl;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Gerarchia di contrazione (Contraction Hierarchies, Geisberger et al.) di un grafo con pesi non negativi, per
+ * rispondere a molte interrogazioni del cammino minimo tra due vertici su un grafo che cambia raramente.
+ * <p>
+ * Il preprocessing ({@link CsrWeightedGraph#buildContractionHierarchy()}) assegna a ogni vertice un rango e
+ * aggiunge scorciatoie che preservano le distanze. Un'interrogazione s &rarr; t esegue una ricerca in avanti da s
+ * e una all'indietro da t che salgono soltanto verso vertici di rango maggiore, quindi esplorano una piccola parte
+ * del grafo. Il cammino trovato viene poi espanso sostituendo ricorsivamente ogni scorciatoia con i due archi che
+ * rappresenta.
+ * <p>
+ * La gerarchia e' immutabile e puo' essere interrogata da piu' thread contemporaneamente: ogni thread usa le
+ * proprie strutture di lavoro, allocate alla prima interrogazione e poi riutilizzate. Con
+ * {@link #write(OutputStream)} e {@link #read(InputStream)} puo' essere salvata e ricaricata senza ripetere
+ * il preprocessing.
+ *
+ * @author Guido
+ */
+public final class ContractionHierarchy
+{
+    /** Intestazione del formato binario ("CHG1"). */
+    private static final int MAGIC = 0x43484731;
+
+    /** Capacita' iniziale degli array letti da un flusso, che poi raddoppiano fino alla lunghezza dichiarata. */
+    private static final int READ_CHUNK = 1 << 16;
+
+    private final String[] labels;
+    private final Map<String, Integer> indexMap;
+    private final int[] rank;
+
+    // Grafo verso l'alto per la ricerca in avanti: archi (v, w) con rank[w] > rank[v]
+    private final int[] upOffsets;
+    private final int[] upTargets;
+    private final double[] upWeights;
+    private final int[] upMiddles;
+
+    // Grafo verso l'alto per la ricerca all'indietro: archi (u, v) con rank[u] > rank[v], memorizzati presso v
+    private final int[] downOffsets;
+    private final int[] downTargets;
+    private final double[] downWeights;
+    private final int[] downMiddles;
+
+    private final ThreadLocal<Query> queries;
+
+    /**
+     * Strutture di lavoro di un'interrogazione: distanze, predecessori e code delle due ricerche. Dopo ogni
+     * interrogazione vengono riportate allo stato iniziale visitando solo i vertici toccati.
+     */
+    private static final class Query
+    {
+        final double[] distForward;
+        final double[] distBackward;
+        final int[] parentForward;
+        final int[] parentBackward;
+        final int[] touched;
+        final IndexedMinHeap forward;
+        final IndexedMinHeap backward;
+        int touchedCount;
+
+        Query(int n)
+        {
+            distForward = new double[n];
+            distBackward = new double[n];
+            parentForward = new int[n];
+            parentBackward = new int[n];
+            touched = new int[2 * n];
+            forward = new IndexedMinHeap(n);
+            backward = new IndexedMinHeap(n);
+            Arrays.fill(distForward, Double.POSITIVE_INFINITY);
+            Arrays.fill(distBackward, Double.POSITIVE_INFINITY);
+        }
+
+        void reset()
+        {
+            for (int i = 0; i < touchedCount; i++)
+            {
+                distForward[touched[i]] = Double.POSITIVE_INFINITY;
+                distBackward[touched[i]] = Double.POSITIVE_INFINITY;
+            }
+            touchedCount = 0;
+            forward.clear();
+            backward.clear();
+        }
+    }
+
+    ContractionHierarchy(String[] labels, int[] rank, int[] upOffsets, int[] upTargets, double[] upWeights,
+            int[] upMiddles, int[] downOffsets, int[] downTargets, double[] downWeights, int[] downMiddles)
+    {
+        this.labels = labels;
+        this.rank = rank;
+        this.upOffsets = upOffsets;
+        this.upTargets = upTargets;
+        this.upWeights = upWeights;
+        this.upMiddles = upMiddles;
+        this.downOffsets = downOffsets;
+        this.downTargets = downTargets;
+        this.downWeights = downWeights;
+        this.downMiddles = downMiddles;
+        this.indexMap = new HashMap<>(labels.length * 2);
+        for (int i = 0; i < labels.length; i++)
+        {
+            indexMap.put(labels[i], i);
+        }
+        int n = labels.length;
+        this.queries = ThreadLocal.withInitial(() -> new Query(n));
+    }
+
+    /**
+     * Restituisce il numero di vertici.
+     *
+     * @return Il numero di vertici della gerarchia.
+     */
+    public int size()
+    {
+        return labels.length;
+    }
+
+    /**
+     * Restituisce il numero di archi della gerarchia, scorciatoie comprese.
+     *
+     * @return Il numero di archi dei due grafi verso l'alto.
+     */
+    public int edgeCount()
+    {
+        return upTargets.length + downTargets.length;
+    }
+
+    /**
+     * Restituisce il numero di scorciatoie aggiunte dal preprocessing.
+     *
+     * @return Il numero di archi che rappresentano un cammino di due o piu' archi originali.
+     */
+    public int shortcutCount()
+    {
+        int count = 0;
+        for (int m : upMiddles)
+        {
+            count += m >= 0 ? 1 : 0;
+        }
+        for (int m : downMiddles)
+        {
+            count += m >= 0 ? 1 : 0;
+        }
+        return count;
+    }
+
+    /**
+     * Restituisce il rango del vertice, cioe' la sua posizione nell'ordine di contrazione.
+     *
+     * @param vertex L'etichetta del vertice.
+     * @return Il rango, compreso tra 0 e <code>size()-1</code>.
+     * @throws IllegalArgumentException Se il vertice non appartiene al grafo.
+     */
+    public int getRank(String vertex) throws IllegalArgumentException
+    {
+        Integer v = indexMap.get(vertex);
+        if (v == null)
+        {
+            throw new IllegalArgumentException("Il vertice specificato non appartiene al grafo");
+        }
+        return rank[v];
+    }
+
+    /**
+     * Calcola il cammino minimo tra due vertici con la ricerca bidirezionale verso l'alto. Ogni direzione si
+     * ferma quando la sua chiave minima raggiunge il costo del miglior cammino trovato.
+     *
+     * @param source Il vertice di origine.
+     * @param target Il vertice di destinazione.
+     * @return Il cammino espanso in archi originali, il suo costo e il numero di vertici estratti.
+     * @throws IllegalArgumentException Se uno dei due vertici non appartiene al grafo.
+     */
+    public ShortestPath shortestPath(String source, String target) throws IllegalArgumentException
+    {
+        Integer s = indexMap.get(source);
+        Integer t = indexMap.get(target);
+        if (s == null || t == null)
+        {
+            throw new IllegalArgumentException("Il vertice " + source + " o " + target + " non appartiene al grafo");
+        }
+
+        Probe probe = GraphMetrics.start(Algorithm.CONTRACTION_HIERARCHY_QUERY, size(), edgeCount());
+        Query query = queries.get();
+        ShortestPath path;
+        try
+        {
+            path = search(query, s, t);
+        }
+        finally
+        {
+            query.reset();
+        }
+        if (probe != null)
+        {
+            probe.count(path.getSettledVertices(), 0, 0, 0, 0);
+            probe.finish();
+        }
+        return path;
+    }
+
+    private ShortestPath search(Query query, int s, int t)
+    {
+        query.distForward[s] = 0;
+        query.parentForward[s] = -1;
+        query.distBackward[t] = 0;
+        query.parentBackward[t] = -1;
+        query.touched[query.touchedCount++] = s;
+        query.touched[query.touchedCount++] = t;
+        query.forward.insert(s, 0);
+        query.backward.insert(t, 0);
+
+        double best = s == t ? 0 : Double.POSITIVE_INFINITY;
+        int meeting = s == t ? s : -1;
+        int settled = 0;
+        while (!query.forward.isEmpty() || !query.backward.isEmpty())
+        {
+            boolean forward = query.backward.isEmpty() || (!query.forward.isEmpty()
+                    && query.forward.keyOf(query.forward.peek()) <= query.backward.keyOf(query.backward.peek()));
+            IndexedMinHeap heap = forward ? query.forward : query.backward;
+            if (heap.keyOf(heap.peek()) >= best)
+            {
+                heap.clear();
+                continue;
+            }
+
+            double[] dist = forward ? query.distForward : query.distBackward;
+            double[] other = forward ? query.distBackward : query.distForward;
+            int[] parent = forward ? query.parentForward : query.parentBackward;
+            int[] offsets = forward ? upOffsets : downOffsets;
+            int[] targets = forward ? upTargets : downTargets;
+            double[] weights = forward ? upWeights : downWeights;
+
+            int u = heap.extractMin();
+            settled++;
+            double du = dist[u];
+            if (du + other[u] < best)
+            {
+                best = du + other[u];
+                meeting = u;
+            }
+            for (int e = offsets[u]; e < offsets[u + 1]; e++)
+            {
+                int v = targets[e];
+                double alt = du + weights[e];
+                if (alt < dist[v])
+                {
+                    if (query.distForward[v] == Double.POSITIVE_INFINITY && query.distBackward[v] == Double.POSITIVE_INFINITY)
+                    {
+                        query.touched[query.touchedCount++] = v;
+                    }
+                    dist[v] = alt;
+                    parent[v] = u;
+                    heap.insertOrDecrease(v, alt);
+                }
+            }
+        }
+
+        if (meeting < 0)
+        {
+            return new ShortestPath(new String[0], Double.POSITIVE_INFINITY, settled);
+        }
+        return new ShortestPath(unpack(query, meeting), best, settled);
+    }
+
+    /**
+     * Ricostruisce il cammino in archi originali: prima la catena dei predecessori in avanti fino al punto
+     * d'incontro, poi quella all'indietro fino alla destinazione, espandendo ogni scorciatoia con una pila
+     * esplicita.
+     */
+    private String[] unpack(Query query, int meeting)
+    {
+        int[] chain = new int[16];
+        int length = 0;
+        for (int v = meeting; v >= 0; v = query.parentForward[v])
+        {
+            chain = ensure(chain, length + 1);
+            chain[length++] = v;
+        }
+        for (int i = 0, j = length - 1; i < j; i++, j--)
+        {
+            int tmp = chain[i];
+            chain[i] = chain[j];
+            chain[j] = tmp;
+        }
+        for (int v = query.parentBackward[meeting]; v >= 0; v = query.parentBackward[v])
+        {
+            chain = ensure(chain, length + 1);
+            chain[length++] = v;
+        }
+
+        int[] path = new int[Math.max(16, length)];
+        int count = 0;
+        path[count++] = chain[0];
+        int[] stack = new int[16];
+        for (int i = 0; i + 1 < length; i++)
+        {
+            int top = 0;
+            stack[top++] = chain[i];
+            stack[top++] = chain[i + 1];
+            while (top > 0)
+            {
+                int b = stack[--top];
+                int a = stack[--top];
+                int middle = middleOf(a, b);
+                if (middle < 0)
+                {
+                    path = ensure(path, count + 1);
+                    path[count++] = b;
+                }
+                else
+                {
+                    // Espande prima (a, middle), poi (middle, b)
+                    stack = ensure(stack, top + 4);
+                    stack[top++] = middle;
+                    stack[top++] = b;
+                    stack[top++] = a;
+                    stack[top++] = middle;
+                }
+            }
+        }
+
+        String[] result = new String[count];
+        for (int i = 0; i < count; i++)
+        {
+            result[i] = labels[path[i]];
+        }
+        return result;
+    }
+
+    /**
+     * Restituisce il vertice intermedio dell'arco (a, b) della gerarchia, o -1 se e' un arco originale.
+     * L'arco si trova nel grafo in avanti di a se b ha rango maggiore, altrimenti nel grafo all'indietro di b.
+     */
+    private int middleOf(int a, int b)
+    {
+        if (rank[b] > rank[a])
+        {
+            for (int e = upOffsets[a]; e < upOffsets[a + 1]; e++)
+            {
+                if (upTargets[e] == b)
+                {
+                    return upMiddles[e];
+                }
+            }
+        }
+        else
+        {
+            for (int e = downOffsets[b]; e < downOffsets[b + 1]; e++)
+            {
+                if (downTargets[e] == a)
+                {
+                    return downMiddles[e];
+                }
+            }
+        }
+        throw new IllegalStateException("Arco " + labels[a] + " -> " + labels[b] + " assente dalla gerarchia");
+    }
+
+    private static int[] ensure(int[] array, int capacity)
+    {
+        return capacity <= array.length ? array : Arrays.copyOf(array, Math.max(capacity, array.length * 2));
+    }
+
+    /**
+     * Scrive la gerarchia in formato binario sul flusso specificato, che non viene chiuso.
+     *
+     * @param out Il flusso di destinazione.
+     * @throws IOException Se si verifica un errore di scrittura.
+     */
+    public void write(OutputStream out) throws IOException
+    {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeInt(labels.length);
+        for (String label : labels)
+        {
+            data.writeUTF(label);
+        }
+        writeInts(data, rank);
+        writeInts(data, upOffsets);
+        writeInts(data, upTargets);
+        writeDoubles(data, upWeights);
+        writeInts(data, upMiddles);
+        writeInts(data, downOffsets);
+        writeInts(data, downTargets);
+        writeDoubles(data, downWeights);
+        writeInts(data, downMiddles);
+        data.flush();
+    }
+
+    /**
+     * Legge una gerarchia scritta con {@link #write(OutputStream)}. Il flusso non viene chiuso.
+     *
+     * @param in Il flusso di origine.
+     * @return La gerarchia letta.
+     * @throws IOException Se si verifica un errore di lettura o il flusso non contiene una gerarchia valida.
+     */
+    public static ContractionHierarchy read(InputStream in) throws IOException
+    {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != MAGIC)
+        {
+            throw new IOException("Il flusso non contiene una gerarchia di contrazione");
+        }
+        int n = data.readInt();
+        if (n < 0)
+        {
+            throw new IOException("Il flusso non contiene una gerarchia di contrazione valida");
+        }
+        // Gli array crescono man mano che i dati arrivano: una lunghezza corrotta fa fallire la lettura alla fine del
+        // flusso invece di allocare tutta la memoria dichiarata
+        String[] labels = new String[Math.min(n, READ_CHUNK)];
+        Set<String> distinct = new HashSet<>();
+        for (int i = 0; i < n; i++)
+        {
+            labels = grow(labels, i, n);
+            labels[i] = data.readUTF();
+            if (!distinct.add(labels[i]))
+            {
+                throw new IOException("Etichetta ripetuta nella gerarchia: " + labels[i]);
+            }
+        }
+        int[] rank = readInts(data);
+        int[] upOffsets = readInts(data);
+        int[] upTargets = readInts(data);
+        double[] upWeights = readDoubles(data);
+        int[] upMiddles = readInts(data);
+        int[] downOffsets = readInts(data);
+        int[] downTargets = readInts(data);
+        double[] downWeights = readDoubles(data);
+        int[] downMiddles = readInts(data);
+        if (rank.length != n || !isPermutation(rank))
+        {
+            throw new IOException("I ranghi della gerarchia non sono una permutazione dei vertici");
+        }
+        checkEdges(rank, upOffsets, upTargets, upWeights, upMiddles, true);
+        checkEdges(rank, downOffsets, downTargets, downWeights, downMiddles, false);
+        checkShortcuts(upOffsets, upTargets, upMiddles, downOffsets, downTargets, downMiddles);
+        return new ContractionHierarchy(labels, rank, upOffsets, upTargets, upWeights, upMiddles,
+                downOffsets, downTargets, downWeights, downMiddles);
+    }
+
+    /**
+     * Verifica che ogni scorciatoia letta da un flusso sia espandibile: per la scorciatoia (u, w) con vertice
+     * intermedio m devono esistere gli archi (u, m), memorizzato nel grafo all'indietro di m, e (m, w), memorizzato
+     * nel grafo in avanti di m.
+     *
+     * @throws IOException Se manca uno dei due archi di una scorciatoia.
+     */
+    private static void checkShortcuts(int[] upOffsets, int[] upTargets, int[] upMiddles, int[] downOffsets,
+            int[] downTargets, int[] downMiddles) throws IOException
+    {
+        int n = upOffsets.length - 1;
+        for (int v = 0; v < n; v++)
+        {
+            // Nel grafo in avanti l'arco e' (v, w), in quello all'indietro e' (w, v)
+            for (int e = upOffsets[v]; e < upOffsets[v + 1]; e++)
+            {
+                int m = upMiddles[e];
+                if (m >= 0 && !(contains(downOffsets, downTargets, m, v) && contains(upOffsets, upTargets, m, upTargets[e])))
+                {
+                    throw new IOException("Scorciatoia non espandibile nella gerarchia: " + v + " -> " + upTargets[e]);
+                }
+            }
+            for (int e = downOffsets[v]; e < downOffsets[v + 1]; e++)
+            {
+                int m = downMiddles[e];
+                if (m >= 0 && !(contains(downOffsets, downTargets, m, downTargets[e]) && contains(upOffsets, upTargets, m, v)))
+                {
+                    throw new IOException("Scorciatoia non espandibile nella gerarchia: " + downTargets[e] + " -> " + v);
+                }
+            }
+        }
+    }
+
+    private static boolean contains(int[] offsets, int[] targets, int v, int target)
+    {
+        for (int e = offsets[v]; e < offsets[v + 1]; e++)
+        {
+            if (targets[e] == target)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isPermutation(int[] values)
+    {
+        boolean[] seen = new boolean[values.length];
+        for (int v : values)
+        {
+            if (v < 0 || v >= values.length || seen[v])
+            {
+                return false;
+            }
+            seen[v] = true;
+        }
+        return true;
+    }
+
+    /**
+     * Verifica uno dei due grafi verso l'alto letti da un flusso: offset crescenti entro gli array degli archi,
+     * estremi e vertici intermedi validi, pesi non negativi. Ogni arco deve salire di rango, e il vertice intermedio
+     * di una scorciatoia deve avere rango minore di entrambi gli estremi, cosi' che l'espansione dei cammini
+     * termini sempre.
+     *
+     * @param upward True per il grafo in avanti, in cui l'arco (v, w) e' memorizzato presso v; false per quello
+     * all'indietro, in cui l'arco (u, v) e' memorizzato presso v.
+     * @throws IOException Se uno dei controlli fallisce.
+     */
+    private static void checkEdges(int[] rank, int[] offsets, int[] targets, double[] weights, int[] middles,
+            boolean upward) throws IOException
+    {
+        int n = rank.length;
+        int m = targets.length;
+        if (offsets.length != n + 1 || offsets[0] != 0 || offsets[n] != m || weights.length != m
+                || middles.length != m)
+        {
+            throw new IOException("Il flusso non contiene una gerarchia di contrazione valida");
+        }
+        for (int v = 0; v < n; v++)
+        {
+            if (offsets[v] > offsets[v + 1] || offsets[v + 1] > m)
+            {
+                throw new IOException("Gli offset della gerarchia non sono crescenti");
+            }
+            for (int e = offsets[v]; e < offsets[v + 1]; e++)
+            {
+                int w = targets[e];
+                int middle = middles[e];
+                if (w < 0 || w >= n || rank[w] <= rank[v])
+                {
+                    throw new IOException("Arco non valido nella gerarchia: " + v + (upward ? " -> " : " <- ") + w);
+                }
+                if (middle < -1 || middle >= n || (middle >= 0 && (rank[middle] >= rank[v] || rank[middle] >= rank[w])))
+                {
+                    throw new IOException("Vertice intermedio non valido nella gerarchia: " + middle);
+                }
+                if (!(weights[e] >= 0))
+                {
+                    throw new IOException("Peso non valido nella gerarchia: " + weights[e]);
+                }
+            }
+        }
+    }
+
+    private static void writeInts(DataOutputStream data, int[] values) throws IOException
+    {
+        data.writeInt(values.length);
+        for (int v : values)
+        {
+            data.writeInt(v);
+        }
+    }
+
+    private static void writeDoubles(DataOutputStream data, double[] values) throws IOException
+    {
+        data.writeInt(values.length);
+        for (double v : values)
+        {
+            data.writeDouble(v);
+        }
+    }
+
+    private static int[] readInts(DataInputStream data) throws IOException
+    {
+        int length = readLength(data);
+        int[] values = new int[Math.min(length, READ_CHUNK)];
+        for (int i = 0; i < length; i++)
+        {
+            if (i == values.length)
+            {
+                values = Arrays.copyOf(values, (int) Math.min(length, 2L * values.length));
+            }
+            values[i] = data.readInt();
+        }
+        return values;
+    }
+
+    private static String[] grow(String[] values, int i, int length)
+    {
+        return i < values.length ? values : Arrays.copyOf(values, (int) Math.min(length, 2L * values.length));
+    }
+
+    private static int readLength(DataInputStream data) throws IOException
+    {
+        int length = data.readInt();
+        if (length < 0)
+        {
+            throw new IOException("Lunghezza negativa nella gerarchia: " + length);
+        }
+        return length;
+    }
+
+    private static double[] readDoubles(DataInputStream data) throws IOException
+    {
+        int length = readLength(data);
+        double[] values = new double[Math.min(length, READ_CHUNK)];
+        for (int i = 0; i < length; i++)
+        {
+            if (i == values.length)
+            {
+                values = Arrays.copyOf(values, (int) Math.min(length, 2L * values.length));
+            }
+            values[i] = data.readDouble();
+        }
+        return values;
+    }
+
+}
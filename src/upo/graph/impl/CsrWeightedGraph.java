@@ -0,0 +1,1170 @@
+package upo.graph.impl;
+
+import upo.graph.base.*;
+import upo.graph.base.VisitForest.Color;
+import upo.graph.base.VisitForest.VisitType;
+
+import java.util.*;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Istantanea immutabile di un grafo orientato pesato, memorizzata in formato Compressed Sparse Row (CSR).
+ * Gli archi uscenti dal vertice di indice <code>v</code> occupano le posizioni comprese tra
+ * <code>offsets[v]</code> (incluso) e <code>offsets[v+1]</code> (escluso) degli array <code>targets</code>
+ * e <code>weights</code>, ordinati per indice di destinazione crescente.
+ * Gli indici dei vertici coincidono con quelli del grafo da cui l'istantanea e' stata ottenuta
+ * (vedi {@link AdjListDirWeight#freeze()}).
+ * <p>
+ * Tutti i metodi che modificherebbero il grafo lanciano una UnsupportedOperationException.
+ *
+ * @author Guido
+ */
+public final class CsrWeightedGraph implements WeightedGraph
+{
+    /** Sotto questa lunghezza le righe vengono ordinate con insertion sort. */
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+
+    private final String[] labels;
+    private final Map<String, Integer> indexMap;
+    private final int[] offsets;
+    private final int[] targets;
+    private final double[] weights;
+    private final boolean negativeWeights;
+    private volatile CsrWeightedGraph transposed;
+
+    /**
+     * Costruisce una nuova istantanea a partire dagli array CSR forniti, che non vengono copiati.
+     * Gli archi di ciascun vertice vengono ordinati per indice di destinazione crescente.
+     *
+     * @param labels Le etichette dei vertici, nell'ordine dei loro indici.
+     * @param offsets L'array degli offset, di lunghezza <code>labels.length + 1</code>.
+     * @param targets Gli indici dei vertici di destinazione degli archi.
+     * @param weights I pesi degli archi.
+     */
+    CsrWeightedGraph(String[] labels, int[] offsets, int[] targets, double[] weights)
+    {
+        this.labels = labels;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.indexMap = new HashMap<>(labels.length * 2);
+        for (int i = 0; i < labels.length; i++)
+        {
+            indexMap.put(labels[i], i);
+        }
+        for (int v = 0; v < labels.length; v++)
+        {
+            sortRow(offsets[v], offsets[v + 1]);
+        }
+        boolean negative = false;
+        for (double w : weights)
+        {
+            if (w < 0)
+            {
+                negative = true;
+                break;
+            }
+        }
+        this.negativeWeights = negative;
+    }
+
+    /**
+     * Ordina per destinazione crescente gli archi compresi tra <code>from</code> e <code>to</code>. Le righe corte,
+     * che sono la maggior parte, usano insertion sort; quelle lunghe ordinano chiavi primitive che impacchettano
+     * destinazione (32 bit alti) e posizione nella riga (32 bit bassi), in tempo O(d log d).
+     *
+     * @param from La prima posizione (inclusa).
+     * @param to L'ultima posizione (esclusa).
+     */
+    private void sortRow(int from, int to)
+    {
+        if (to - from > INSERTION_SORT_THRESHOLD)
+        {
+            long[] keys = new long[to - from];
+            for (int i = from; i < to; i++)
+            {
+                keys[i - from] = (long) targets[i] << 32 | (i - from);
+            }
+            Arrays.sort(keys);
+            double[] rowWeights = Arrays.copyOfRange(weights, from, to);
+            for (int i = from; i < to; i++)
+            {
+                long key = keys[i - from];
+                targets[i] = (int) (key >>> 32);
+                weights[i] = rowWeights[(int) key];
+            }
+            return;
+        }
+        for (int i = from + 1; i < to; i++)
+        {
+            int t = targets[i];
+            double w = weights[i];
+            int j = i - 1;
+            while (j >= from && targets[j] > t)
+            {
+                targets[j + 1] = targets[j];
+                weights[j + 1] = weights[j];
+                j--;
+            }
+            targets[j + 1] = t;
+            weights[j + 1] = w;
+        }
+    }
+
+    /**
+     * Restituisce il numero di archi del grafo.
+     *
+     * @return Il numero di archi.
+     */
+    public int edgeCount()
+    {
+        return targets.length;
+    }
+
+    /**
+     * Restituisce la posizione del primo arco uscente dal vertice <code>v</code>.
+     *
+     * @param v L'indice del vertice.
+     * @return La posizione (inclusa) del primo arco uscente da <code>v</code>.
+     */
+    public int firstEdge(int v)
+    {
+        return offsets[v];
+    }
+
+    /**
+     * Restituisce la posizione successiva all'ultimo arco uscente dal vertice <code>v</code>.
+     *
+     * @param v L'indice del vertice.
+     * @return La posizione (esclusa) dell'ultimo arco uscente da <code>v</code>.
+     */
+    public int lastEdge(int v)
+    {
+        return offsets[v + 1];
+    }
+
+    /**
+     * Esegue <code>action</code> su ogni arco uscente dal vertice <code>v</code>, in ordine di destinazione
+     * crescente, leggendo direttamente gli array CSR senza allocare collezioni.
+     *
+     * @param v L'indice del vertice.
+     * @param action L'operazione da eseguire per ogni coppia (destinazione, peso).
+     * @throws NoSuchElementException Se <code>v</code> non e' un indice valido.
+     */
+    public void forEachNeighbor(int v, IntDoubleConsumer action) throws NoSuchElementException
+    {
+        if (v < 0 || v >= labels.length)
+        {
+            throw new NoSuchElementException("Il vertice di indice " + v + " non appartiene al grafo");
+        }
+        for (int e = offsets[v]; e < offsets[v + 1]; e++)
+        {
+            action.accept(targets[e], weights[e]);
+        }
+    }
+
+    /**
+     * Restituisce il numero di archi uscenti dal vertice <code>v</code>.
+     *
+     * @param v L'indice del vertice.
+     * @return Il grado uscente di <code>v</code>.
+     */
+    public int outDegree(int v)
+    {
+        return offsets[v + 1] - offsets[v];
+    }
+
+    /**
+     * Restituisce l'indice del vertice di destinazione dell'arco in posizione <code>edge</code>.
+     *
+     * @param edge La posizione dell'arco.
+     * @return L'indice del vertice di destinazione.
+     */
+    public int edgeTarget(int edge)
+    {
+        return targets[edge];
+    }
+
+    /**
+     * Restituisce il peso dell'arco in posizione <code>edge</code>.
+     *
+     * @param edge La posizione dell'arco.
+     * @return Il peso dell'arco.
+     */
+    public double edgeWeight(int edge)
+    {
+        return weights[edge];
+    }
+
+    /**
+     * Restituisce il grafo trasposto, con gli stessi vertici e gli archi invertiti. Gli archi entranti nel vertice
+     * <code>v</code> di <code>this</code> sono quindi gli archi uscenti da <code>v</code> nel trasposto.
+     * Il trasposto viene costruito in tempo O(V+E) alla prima richiesta e poi riutilizzato.
+     *
+     * @return Il grafo trasposto.
+     */
+    public CsrWeightedGraph transpose()
+    {
+        CsrWeightedGraph result = transposed;
+        if (result == null)
+        {
+            int n = labels.length;
+            int[] inOffsets = new int[n + 1];
+            for (int e = 0; e < targets.length; e++)
+            {
+                inOffsets[targets[e] + 1]++;
+            }
+            for (int v = 0; v < n; v++)
+            {
+                inOffsets[v + 1] += inOffsets[v];
+            }
+            int[] next = Arrays.copyOf(inOffsets, n);
+            int[] sources = new int[targets.length];
+            double[] inWeights = new double[targets.length];
+            for (int u = 0; u < n; u++)
+            {
+                for (int e = offsets[u]; e < offsets[u + 1]; e++)
+                {
+                    int pos = next[targets[e]]++;
+                    sources[pos] = u;
+                    inWeights[pos] = weights[e];
+                }
+            }
+            result = new CsrWeightedGraph(labels, inOffsets, sources, inWeights);
+            result.transposed = this;
+            transposed = result;
+        }
+        return result;
+    }
+
+    /**
+     * Verifica se il grafo contiene almeno un arco con peso negativo.
+     *
+     * @return True se esiste un arco con peso negativo, altrimenti false.
+     */
+    public boolean hasNegativeWeights()
+    {
+        return negativeWeights;
+    }
+
+    /**
+     * Cerca l'arco (u, v) tramite ricerca binaria sugli archi uscenti da <code>u</code>.
+     *
+     * @param u L'indice del vertice di origine.
+     * @param v L'indice del vertice di destinazione.
+     * @return La posizione dell'arco, o -1 se l'arco non esiste.
+     */
+    int findEdge(int u, int v)
+    {
+        int pos = Arrays.binarySearch(targets, offsets[u], offsets[u + 1], v);
+        return pos >= 0 ? pos : -1;
+    }
+
+    /**
+     * Restituisce l'indice del vertice con l'etichetta specificata, o -1 se non e' presente.
+     *
+     * @param label L'etichetta del vertice.
+     * @return L'indice del vertice o -1.
+     */
+    @Override
+    public int getVertexIndex(String label)
+    {
+        if (label == null)
+        {
+            return -1;
+        }
+        Integer index = indexMap.get(label);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Restituisce l'etichetta del vertice di indice <code>index</code>, o null se l'indice non e' valido.
+     *
+     * @param index L'indice del vertice.
+     * @return L'etichetta del vertice o null.
+     */
+    @Override
+    public String getVertexLabel(Integer index)
+    {
+        if (index == null || index < 0 || index >= labels.length)
+        {
+            return null;
+        }
+        return labels[index];
+    }
+
+    /**
+     * Operazione non supportata: l'istantanea e' immutabile.
+     *
+     * @throws UnsupportedOperationException Sempre.
+     */
+    @Override
+    public int addVertex(String label)
+    {
+        throw new UnsupportedOperationException("Il grafo e' immutabile");
+    }
+
+    @Override
+    public boolean containsVertex(String label)
+    {
+        return indexMap.containsKey(label);
+    }
+
+    /**
+     * Operazione non supportata: l'istantanea e' immutabile.
+     *
+     * @throws UnsupportedOperationException Sempre.
+     */
+    @Override
+    public void removeVertex(String label) throws NoSuchElementException
+    {
+        throw new UnsupportedOperationException("Il grafo e' immutabile");
+    }
+
+    /**
+     * Operazione non supportata: l'istantanea e' immutabile.
+     *
+     * @throws UnsupportedOperationException Sempre.
+     */
+    @Override
+    public void addEdge(String sourceVertex, String targetVertex) throws IllegalArgumentException
+    {
+        throw new UnsupportedOperationException("Il grafo e' immutabile");
+    }
+
+    /**
+     * Restituisce la posizione dell'arco tra i due vertici specificati, o -1 se l'arco non esiste.
+     *
+     * @param sourceVertex L'etichetta del vertice di origine.
+     * @param targetVertex L'etichetta del vertice di destinazione.
+     * @return La posizione dell'arco o -1.
+     * @throws IllegalArgumentException Se uno o entrambi i vertici non appartengono al grafo.
+     */
+    private int edgeOf(String sourceVertex, String targetVertex) throws IllegalArgumentException
+    {
+        int u = getVertexIndex(sourceVertex);
+        int v = getVertexIndex(targetVertex);
+        if (u < 0 || v < 0)
+        {
+            throw new IllegalArgumentException("Il vertice " + sourceVertex + " o " + targetVertex + " non appartiene al grafo");
+        }
+        return findEdge(u, v);
+    }
+
+    @Override
+    public boolean containsEdge(String sourceVertex, String targetVertex) throws IllegalArgumentException
+    {
+        return edgeOf(sourceVertex, targetVertex) >= 0;
+    }
+
+    /**
+     * Operazione non supportata: l'istantanea e' immutabile.
+     *
+     * @throws UnsupportedOperationException Sempre.
+     */
+    @Override
+    public void removeEdge(String sourceVertex, String targetVertex) throws IllegalArgumentException, NoSuchElementException
+    {
+        throw new UnsupportedOperationException("Il grafo e' immutabile");
+    }
+
+    @Override
+    public Set<String> getAdjacent(String vertex) throws NoSuchElementException
+    {
+        int u = getVertexIndex(vertex);
+        if (u < 0)
+        {
+            throw new NoSuchElementException("Il vertice " + vertex + " non appartiene al grafo");
+        }
+        Set<String> adjacentVertices = new HashSet<>();
+        for (int e = offsets[u]; e < offsets[u + 1]; e++)
+        {
+            adjacentVertices.add(labels[targets[e]]);
+        }
+        return adjacentVertices;
+    }
+
+    @Override
+    public boolean isAdjacent(String targetVertex, String sourceVertex) throws IllegalArgumentException
+    {
+        int u = getVertexIndex(sourceVertex);
+        int v = getVertexIndex(targetVertex);
+        if (u < 0 || v < 0)
+        {
+            throw new IllegalArgumentException("I vertici forniti non appartengono al grafo.");
+        }
+        return findEdge(u, v) >= 0;
+    }
+
+    @Override
+    public int size()
+    {
+        return labels.length;
+    }
+
+    @Override
+    public boolean isDirected()
+    {
+        return true;
+    }
+
+    /**
+     * Verifica se il grafo contiene cicli con la stessa semantica di {@link AdjListDirWeight#isCyclic()}:
+     * una DFS sui vertici in ordine di indice segnala un ciclo appena incontra un vertice gia' visitato
+     * diverso dal proprio genitore.
+     *
+     * @return True se il grafo contiene cicli, altrimenti false.
+     */
+    @Override
+    public boolean isCyclic()
+    {
+        if (labels.length == 0)
+        {
+            return false;
+        }
+        Probe probe = GraphMetrics.start(Algorithm.CYCLE_CHECK, this);
+        DepthFirstSearch dfs = new DepthFirstSearch(this);
+        dfs.visitAll(0);
+        if (probe != null)
+        {
+            // La visita completa scopre ogni vertice ed esamina ogni arco una volta
+            probe.count(labels.length, targets.length, 0, 0, 0);
+            probe.finish();
+        }
+        return dfs.foundNonTreeEdge();
+    }
+
+    @Override
+    public boolean isDAG()
+    {
+        return isDirected() && !isCyclic();
+    }
+
+    /**
+     * Restituisce l'albero di visita in ampiezza (BFS) a partire dal vertice specificato,
+     * usando una coda di indici su array.
+     *
+     * @param startingVertex Il vertice di partenza per la visita in ampiezza.
+     * @return Un oggetto {@code VisitForest} rappresentante l'albero di visita in ampiezza.
+     * @throws IllegalArgumentException Se il vertice specificato non appartiene al grafo.
+     */
+    @Override
+    public VisitForest getBFSTree(String startingVertex) throws UnsupportedOperationException, IllegalArgumentException
+    {
+        int s = getVertexIndex(startingVertex);
+        if (s < 0)
+        {
+            throw new IllegalArgumentException("Il vertice specificato non appartiene al grafo");
+        }
+
+        Probe probe = GraphMetrics.start(Algorithm.BFS, this);
+        VisitForest visitForest = new VisitForest(this, VisitType.BFS);
+        int[] queue = new int[labels.length];
+        int head = 0;
+        int tail = 0;
+
+        visitForest.setColor(s, Color.GRAY);
+        visitForest.setDistance(s, 0);
+        queue[tail++] = s;
+
+        while (head < tail)
+        {
+            int u = queue[head++];
+            double du = visitForest.getDistance(u);
+            for (int e = offsets[u]; e < offsets[u + 1]; e++)
+            {
+                int v = targets[e];
+                if (visitForest.getColor(v) == Color.WHITE)
+                {
+                    visitForest.setColor(v, Color.GRAY);
+                    visitForest.setParent(v, u);
+                    visitForest.setDistance(v, du + 1);
+                    queue[tail++] = v;
+                }
+            }
+            visitForest.setColor(u, Color.BLACK);
+        }
+
+        if (probe != null)
+        {
+            probe.count(tail, offsetSum(queue, tail), 0, 0, 0);
+            probe.finish();
+        }
+        return visitForest;
+    }
+
+    /**
+     * Restituisce l'albero di visita in ampiezza (BFS) calcolato in parallelo sul pool fork-join comune,
+     * livello per livello, alternando la strategia top-down e quella bottom-up in base alla dimensione
+     * della frontiera (vedi {@link ParallelBFS}). Genitori e distanze sono quelli di una BFS valida,
+     * ma a parita' di livello il genitore scelto puo' differire da quello di {@link #getBFSTree(String)}.
+     *
+     * @param startingVertex Il vertice di partenza per la visita in ampiezza.
+     * @return Un oggetto {@code VisitForest} con genitori e distanze della visita.
+     * @throws IllegalArgumentException Se il vertice specificato non appartiene al grafo.
+     */
+    public VisitForest getParallelBFSTree(String startingVertex) throws IllegalArgumentException
+    {
+        int s = getVertexIndex(startingVertex);
+        if (s < 0)
+        {
+            throw new IllegalArgumentException("Il vertice specificato non appartiene al grafo");
+        }
+
+        Probe probe = GraphMetrics.start(Algorithm.PARALLEL_BFS, this);
+        VisitForest visitForest = new VisitForest(this, VisitType.BFS);
+        ParallelBFS.run(this, s, visitForest);
+        if (probe != null)
+        {
+            probe.countVisit(this, visitForest);
+            probe.finish();
+        }
+        return visitForest;
+    }
+
+    @Override
+    public VisitForest getDFSTree(String startingVertex) throws UnsupportedOperationException, IllegalArgumentException
+    {
+        int s = getVertexIndex(startingVertex);
+        if (s < 0)
+        {
+            throw new IllegalArgumentException("Il vertice specificato non appartiene al grafo");
+        }
+
+        Probe probe = GraphMetrics.start(Algorithm.DFS, this);
+        DepthFirstSearch dfs = new DepthFirstSearch(this);
+        dfs.visit(s);
+        return finishVisit(probe, dfs.fill(new VisitForest(this, VisitType.DFS)));
+    }
+
+    /**
+     * Restituisce la foresta di visita DFS-TOT: la visita parte da <code>startingVertex</code> e prosegue
+     * dai vertici non ancora visitati, in ordine di indice.
+     *
+     * @param startingVertex Il vertice di partenza per la visita in profondità totale.
+     * @return Un oggetto {@code VisitForest} rappresentante la foresta di visita.
+     * @throws IllegalArgumentException Se il vertice specificato non appartiene al grafo.
+     */
+    @Override
+    public VisitForest getDFSTOTForest(String startingVertex) throws UnsupportedOperationException, IllegalArgumentException
+    {
+        int s = getVertexIndex(startingVertex);
+        if (s < 0)
+        {
+            throw new IllegalArgumentException("Il vertice specificato non appartiene al grafo");
+        }
+
+        Probe probe = GraphMetrics.start(Algorithm.DFS_TOT, this);
+        DepthFirstSearch dfs = new DepthFirstSearch(this);
+        dfs.visitAll(s);
+        return finishVisit(probe, dfs.fill(new VisitForest(this, VisitType.DFS_TOT)));
+    }
+
+    @Override
+    public VisitForest getDFSTOTForest(String[] vertexOrdering) throws UnsupportedOperationException, IllegalArgumentException
+    {
+        if (vertexOrdering == null || vertexOrdering.length != labels.length)
+        {
+            throw new IllegalArgumentException("L'ordinamento dei vertici non è valido");
+        }
+
+        Probe probe = GraphMetrics.start(Algorithm.DFS_TOT, this);
+        DepthFirstSearch dfs = new DepthFirstSearch(this);
+        for (String vertex : vertexOrdering)
+        {
+            int u = getVertexIndex(vertex);
+            if (u < 0)
+            {
+                throw new IllegalArgumentException("Il vertice " + vertex + " non appartiene al grafo");
+            }
+            dfs.visit(u);
+        }
+        return finishVisit(probe, dfs.fill(new VisitForest(this, VisitType.DFS_TOT)));
+    }
+
+    /**
+     * Riporta alla sonda, se esiste, i contatori di una visita conclusa.
+     *
+     * @param probe La sonda dell'esecuzione, oppure null.
+     * @param visitForest La foresta prodotta dalla visita.
+     * @return La foresta.
+     */
+    VisitForest finishVisit(Probe probe, VisitForest visitForest)
+    {
+        if (probe != null)
+        {
+            probe.countVisit(this, visitForest);
+            probe.finish();
+        }
+        return visitForest;
+    }
+
+    /**
+     * Somma i gradi uscenti dei primi <code>count</code> vertici di <code>vertices</code>.
+     */
+    private long offsetSum(int[] vertices, int count)
+    {
+        long sum = 0;
+        for (int i = 0; i < count; i++)
+        {
+            sum += offsets[vertices[i] + 1] - offsets[vertices[i]];
+        }
+        return sum;
+    }
+
+    /**
+     * Restituisce un ordinamento topologico dei vertici, calcolato con l'algoritmo di Kahn in un'unica passata
+     * che rileva anche gli eventuali cicli.
+     *
+     * @return Un array di etichette in ordine topologico.
+     * @throws UnsupportedOperationException Se il grafo contiene un ciclo orientato.
+     */
+    @Override
+    public String[] topologicalSort() throws UnsupportedOperationException
+    {
+        TopologicalOrder topological = topologicalOrder();
+        if (topological == null)
+        {
+            throw new UnsupportedOperationException("Il grafo non è un DAG");
+        }
+
+        int[] order = topological.order();
+        String[] result = new String[order.length];
+        for (int i = 0; i < order.length; i++)
+        {
+            result[i] = labels[order[i]];
+        }
+        return result;
+    }
+
+    /**
+     * Restituisce i vertici raggruppati in livelli topologici: il primo livello contiene i vertici senza archi
+     * entranti, ogni livello successivo quelli i cui predecessori stanno tutti nei livelli precedenti.
+     * I vertici di uno stesso livello non sono collegati tra loro e possono essere elaborati in parallelo.
+     *
+     * @return La lista dei livelli, in ordine topologico.
+     * @throws UnsupportedOperationException Se il grafo contiene un ciclo orientato.
+     */
+    public List<Set<String>> topologicalLayers() throws UnsupportedOperationException
+    {
+        TopologicalOrder topological = topologicalOrder();
+        if (topological == null)
+        {
+            throw new UnsupportedOperationException("Il grafo non è un DAG");
+        }
+
+        int[] order = topological.order();
+        List<Set<String>> layers = new ArrayList<>(topological.layerCount());
+        for (int l = 0; l < topological.layerCount(); l++)
+        {
+            Set<String> layer = new HashSet<>();
+            for (int i = topological.layerStart(l); i < topological.layerStart(l + 1); i++)
+            {
+                layer.add(labels[order[i]]);
+            }
+            layers.add(layer);
+        }
+        return layers;
+    }
+
+    /**
+     * Calcola l'ordine topologico riportando l'esecuzione ai listener: l'algoritmo di Kahn estrae ogni vertice
+     * ed esamina ogni arco una volta, o si ferma prima se trova un ciclo.
+     *
+     * @return L'ordine topologico, oppure null se il grafo contiene un ciclo.
+     */
+    private TopologicalOrder topologicalOrder()
+    {
+        Probe probe = GraphMetrics.start(Algorithm.TOPOLOGICAL_SORT, this);
+        TopologicalOrder topological = TopologicalOrder.of(this);
+        if (probe != null)
+        {
+            if (topological != null)
+            {
+                probe.count(labels.length, targets.length, 0, 0, 0);
+            }
+            probe.finish();
+        }
+        return topological;
+    }
+
+    /**
+     * Restituisce le componenti fortemente connesse, calcolate con l'algoritmo di Tarjan in tempo O(V+E).
+     * Funziona su qualunque grafo orientato, anche ciclico.
+     *
+     * @return Un insieme di insiemi di etichette rappresentante le SCC del grafo.
+     */
+    @Override
+    public Set<Set<String>> stronglyConnectedComponents() throws UnsupportedOperationException
+    {
+        return stronglyConnected().toLabelSets();
+    }
+
+    /**
+     * Restituisce il grafo di condensazione, ottenuto contraendo ogni componente fortemente connessa in un
+     * vertice etichettato con uno dei suoi vertici. Il risultato e' un DAG i cui indici sono gia' in ordine
+     * topologico.
+     *
+     * @return Il grafo di condensazione.
+     */
+    public Graph getCondensation()
+    {
+        return stronglyConnected().toCondensation();
+    }
+
+    /**
+     * Esegue l'algoritmo di Tarjan riportando l'esecuzione ai listener: ogni vertice e ogni arco vengono
+     * esaminati una volta.
+     */
+    private StronglyConnectedComponents stronglyConnected()
+    {
+        Probe probe = GraphMetrics.start(Algorithm.STRONGLY_CONNECTED_COMPONENTS, this);
+        StronglyConnectedComponents components = new StronglyConnectedComponents(this);
+        if (probe != null)
+        {
+            probe.count(labels.length, targets.length, 0, 0, 0);
+            probe.finish();
+        }
+        return components;
+    }
+
+    @Override
+    public Set<Set<String>> connectedComponents() throws UnsupportedOperationException
+    {
+        throw new UnsupportedOperationException("Un grafo orientato non supporta l'operazione");
+    }
+
+    @Override
+    public double getEdgeWeight(String sourceVertex, String targetVertex) throws IllegalArgumentException, NoSuchElementException
+    {
+        int e = edgeOf(sourceVertex, targetVertex);
+        if (e < 0)
+        {
+            throw new NoSuchElementException("Non c'è un arco tra " + sourceVertex + " e " + targetVertex);
+        }
+        return weights[e];
+    }
+
+    /**
+     * Operazione non supportata: l'istantanea e' immutabile.
+     *
+     * @throws UnsupportedOperationException Sempre.
+     */
+    @Override
+    public void setEdgeWeight(String sourceVertex, String targetVertex, double weight) throws IllegalArgumentException, NoSuchElementException
+    {
+        throw new UnsupportedOperationException("Il grafo e' immutabile");
+    }
+
+    /**
+     * Calcola i cammini minimi dal vertice di partenza con l'algoritmo di Bellman-Ford, rilassando
+     * direttamente gli archi memorizzati negli array CSR e fermandosi al primo round senza modifiche.
+     *
+     * @param startingVertex il vertice di partenza da cui calcolare i cammini minimi
+     * @return un nuovo grafo pesato che rappresenta i cammini minimi dal vertice di partenza
+     * @throws UnsupportedOperationException se il grafo contiene un ciclo negativo
+     * @throws IllegalArgumentException se il vertice di partenza specificato non appartiene al grafo
+     */
+    @Override
+    public WeightedGraph getBellmanFordShortestPaths(String startingVertex) throws UnsupportedOperationException, IllegalArgumentException
+    {
+        return getBellmanFordShortestPaths(startingVertex, false);
+    }
+
+    /**
+     * Calcola i cammini minimi dal vertice di partenza con l'algoritmo di Bellman-Ford, nella versione a round
+     * con terminazione anticipata oppure nella versione a coda (SPFA).
+     *
+     * @param startingVertex il vertice di partenza da cui calcolare i cammini minimi
+     * @param useQueue true per usare la versione a coda (SPFA), false per la versione a round
+     * @return un nuovo grafo pesato che rappresenta i cammini minimi dal vertice di partenza
+     * @throws UnsupportedOperationException se il grafo contiene un ciclo negativo
+     * @throws IllegalArgumentException se il vertice di partenza specificato non appartiene al grafo
+     */
+    public WeightedGraph getBellmanFordShortestPaths(String startingVertex, boolean useQueue) throws UnsupportedOperationException, IllegalArgumentException
+    {
+        int s = getVertexIndex(startingVertex);
+        if (s < 0)
+        {
+            throw new IllegalArgumentException("Il vertice specificato non appartiene al grafo");
+        }
+
+        Probe probe = GraphMetrics.start(useQueue ? Algorithm.SPFA : Algorithm.BELLMAN_FORD, this);
+        double[] dist = new double[labels.length];
+        boolean ok = useQueue ? ShortestPaths.spfa(this, s, dist, null, probe) : ShortestPaths.bellmanFord(this, s, dist, null, probe);
+        if (probe != null)
+        {
+            probe.phase("ricerca");
+        }
+        if (!ok)
+        {
+            if (probe != null)
+            {
+                probe.finish();
+            }
+            throw new UnsupportedOperationException("Il grafo contiene un ciclo negativo");
+        }
+        return finishResult(probe, createDistanceGraph(dist));
+    }
+
+    /**
+     * Crea il grafo dei cammini minimi con la stessa forma prodotta da {@link AdjListDirWeight}: contiene tutti
+     * i vertici e tutti gli archi (u, v) con u diverso da v, pesati con <code>dist[v] - dist[u]</code>.
+     *
+     * @param dist Le distanze calcolate dalla sorgente, indicizzate per vertice.
+     * @return Il grafo dei cammini minimi.
+     */
+    WeightedGraph createDistanceGraph(double[] dist)
+    {
+        WeightedGraph graph = new AdjListDirWeight();
+        for (String v : labels)
+        {
+            graph.addVertex(v);
+        }
+        for (int u = 0; u < labels.length; u++)
+        {
+            for (int e = offsets[u]; e < offsets[u + 1]; e++)
+            {
+                int v = targets[e];
+                if (v != u)
+                {
+                    graph.addEdge(labels[u], labels[v]);
+                    graph.setEdgeWeight(labels[u], labels[v], dist[v] - dist[u]);
+                }
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Calcola i cammini minimi dal vertice di partenza con l'algoritmo di Dijkstra, in tempo O((V+E) log V).
+     *
+     * @param startingVertex il vertice di partenza da cui calcolare i cammini minimi
+     * @return un nuovo grafo pesato che rappresenta i cammini minimi, con la stessa forma di
+     * {@link #getBellmanFordShortestPaths(String)}
+     * @throws UnsupportedOperationException se il grafo contiene archi con peso negativo
+     * @throws IllegalArgumentException se il vertice di partenza specificato non appartiene al grafo
+     */
+    @Override
+    public WeightedGraph getDijkstraShortestPaths(String startingVertex) throws UnsupportedOperationException, IllegalArgumentException
+    {
+        int s = getVertexIndex(startingVertex);
+        if (s < 0)
+        {
+            throw new IllegalArgumentException("Il vertice specificato non appartiene al grafo");
+        }
+        if (negativeWeights)
+        {
+            throw new UnsupportedOperationException("Il grafo contiene archi con peso negativo");
+        }
+
+        Probe probe = GraphMetrics.start(Algorithm.DIJKSTRA, this);
+        double[] dist = new double[labels.length];
+        ShortestPaths.dijkstra(this, s, dist, null, new IndexedMinHeap(labels.length), probe);
+        if (probe != null)
+        {
+            probe.phase("ricerca");
+        }
+        return finishResult(probe, createDistanceGraph(dist));
+    }
+
+    /**
+     * Calcola il cammino minimo tra due vertici con Dijkstra bidirezionale, che si ferma appena le ricerche
+     * dall'origine e dalla destinazione si incontrano sul cammino ottimo.
+     *
+     * @param source Il vertice di origine.
+     * @param target Il vertice di destinazione.
+     * @return Il cammino, il suo costo e il numero di vertici estratti.
+     * @throws UnsupportedOperationException Se il grafo contiene archi con peso negativo.
+     * @throws IllegalArgumentException Se uno dei due vertici non appartiene al grafo.
+     */
+    public ShortestPath shortestPath(String source, String target) throws UnsupportedOperationException, IllegalArgumentException
+    {
+        return shortestPath(source, target, null);
+    }
+
+    /**
+     * Calcola il cammino minimo tra due vertici. Se viene fornita una stima della distanza dalla destinazione
+     * viene usato A*, altrimenti Dijkstra bidirezionale.
+     *
+     * @param source Il vertice di origine.
+     * @param target Il vertice di destinazione.
+     * @param heuristic Una stima ammissibile della distanza di ogni vertice da <code>target</code>, oppure null.
+     * @return Il cammino, il suo costo e il numero di vertici estratti.
+     * @throws UnsupportedOperationException Se il grafo contiene archi con peso negativo.
+     * @throws IllegalArgumentException Se uno dei due vertici non appartiene al grafo.
+     */
+    public ShortestPath shortestPath(String source, String target, ToDoubleFunction<String> heuristic) throws UnsupportedOperationException, IllegalArgumentException
+    {
+        int s = getVertexIndex(source);
+        int t = getVertexIndex(target);
+        if (s < 0 || t < 0)
+        {
+            throw new IllegalArgumentException("Il vertice " + source + " o " + target + " non appartiene al grafo");
+        }
+        if (negativeWeights)
+        {
+            throw new UnsupportedOperationException("Il grafo contiene archi con peso negativo");
+        }
+        Probe probe = GraphMetrics.start(heuristic == null ? Algorithm.BIDIRECTIONAL_DIJKSTRA : Algorithm.A_STAR, this);
+        ShortestPath path = heuristic == null ? PointToPoint.bidirectional(this, s, t) : PointToPoint.aStar(this, s, t, heuristic);
+        if (probe != null)
+        {
+            probe.count(path.getSettledVertices(), 0, 0, 0, 0);
+            probe.finish();
+        }
+        return path;
+    }
+
+    /**
+     * Calcola l'albero ricoprente minimo con l'algoritmo di Prim a partire dal vertice specificato, scegliendo
+     * automaticamente tra la versione con heap e quella su array in base alla densita' del grafo.
+     *
+     * @param startingVertex Il vertice di partenza.
+     * @return Un nuovo grafo pesato con tutti i vertici e gli archi dell'albero, con il loro verso e peso originali.
+     * @throws IllegalArgumentException Se il vertice specificato non appartiene al grafo.
+     */
+    @Override
+    public WeightedGraph getPrimMST(String startingVertex) throws UnsupportedOperationException, IllegalArgumentException
+    {
+        return getPrimMST(startingVertex, PrimMode.AUTO, null);
+    }
+
+    /**
+     * Calcola l'albero ricoprente minimo con l'algoritmo di Prim a partire dal vertice specificato. Gli archi sono
+     * considerati senza orientamento; l'albero copre solo i vertici collegati a <code>startingVertex</code>.
+     *
+     * @param startingVertex Il vertice di partenza.
+     * @param mode La strategia di selezione del minimo: heap indicizzato, array, o scelta automatica.
+     * @param stats L'oggetto in cui registrare i contatori dell'esecuzione, oppure null.
+     * @return Un nuovo grafo pesato con tutti i vertici e gli archi dell'albero, con il loro verso e peso originali.
+     * @throws IllegalArgumentException Se il vertice specificato non appartiene al grafo.
+     */
+    public WeightedGraph getPrimMST(String startingVertex, PrimMode mode, PrimStatistics stats) throws IllegalArgumentException
+    {
+        int s = getVertexIndex(startingVertex);
+        if (s < 0)
+        {
+            throw new IllegalArgumentException("Il vertice specificato non appartiene al grafo");
+        }
+        Probe probe = GraphMetrics.start(Algorithm.PRIM, this);
+        if (probe != null && stats == null)
+        {
+            stats = new PrimStatistics();
+        }
+        boolean[] selected = SpanningTrees.prim(this, s, mode, stats);
+        if (probe != null)
+        {
+            probe.count(selectedCount(selected) + 1, stats.getEdgesExamined(), stats.getRelaxations(), stats.getHeapOperations(), 0);
+            probe.phase("ricerca");
+        }
+        return finishResult(probe, createEdgeGraph(selected));
+    }
+
+    /**
+     * Calcola la foresta ricoprente minima con l'algoritmo di Kruskal, usando una union-find sugli indici dei
+     * vertici e un ordinamento parallelo degli archi. Gli archi sono considerati senza orientamento; se il grafo
+     * non e' connesso il risultato e' una foresta con un albero per componente.
+     *
+     * @return Un nuovo grafo pesato con tutti i vertici e gli archi scelti, con il loro verso e peso originali.
+     */
+    @Override
+    public WeightedGraph getKruskalMST() throws UnsupportedOperationException
+    {
+        Probe probe = GraphMetrics.start(Algorithm.KRUSKAL, this);
+        boolean[] selected = SpanningTrees.kruskal(this);
+        if (probe != null)
+        {
+            probe.count(labels.length, targets.length, 0, 0, 0);
+            probe.phase("ricerca");
+        }
+        return finishResult(probe, createEdgeGraph(selected));
+    }
+
+    /**
+     * Calcola la foresta ricoprente minima con la variante Filter-Kruskal, che sui grafi densi evita di ordinare
+     * la maggior parte degli archi. Il risultato e' lo stesso di {@link #getKruskalMST()} a parita' di pesi.
+     *
+     * @return Un nuovo grafo pesato con tutti i vertici e gli archi scelti, con il loro verso e peso originali.
+     */
+    public WeightedGraph getFilterKruskalMST()
+    {
+        Probe probe = GraphMetrics.start(Algorithm.FILTER_KRUSKAL, this);
+        boolean[] selected = SpanningTrees.filterKruskal(this);
+        if (probe != null)
+        {
+            probe.count(labels.length, 0, 0, 0, 0);
+            probe.phase("ricerca");
+        }
+        return finishResult(probe, createEdgeGraph(selected));
+    }
+
+    /**
+     * Chiude la fase di costruzione del risultato e conclude l'esecuzione, se la sonda esiste.
+     *
+     * @param probe La sonda dell'esecuzione, oppure null.
+     * @param result Il grafo risultato.
+     * @return Il grafo risultato.
+     */
+    private static WeightedGraph finishResult(Probe probe, WeightedGraph result)
+    {
+        if (probe != null)
+        {
+            probe.phase("risultato");
+            probe.finish();
+        }
+        return result;
+    }
+
+    private static int selectedCount(boolean[] selected)
+    {
+        int count = 0;
+        for (boolean edge : selected)
+        {
+            if (edge)
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Crea un grafo con tutti i vertici e i soli archi segnati in <code>selected</code>, con i pesi originali.
+     *
+     * @param selected Un flag per arco, indicizzato come gli array CSR.
+     * @return Il grafo degli archi scelti.
+     */
+    WeightedGraph createEdgeGraph(boolean[] selected)
+    {
+        WeightedGraph graph = new AdjListDirWeight();
+        for (String v : labels)
+        {
+            graph.addVertex(v);
+        }
+        for (int u = 0; u < labels.length; u++)
+        {
+            for (int e = offsets[u]; e < offsets[u + 1]; e++)
+            {
+                if (selected[e])
+                {
+                    graph.addEdge(labels[u], labels[targets[e]]);
+                    graph.setEdgeWeight(labels[u], labels[targets[e]], weights[e]);
+                }
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Calcola i cammini minimi tra tutte le coppie di vertici con l'algoritmo di Floyd-Warshall a blocchi.
+     *
+     * @return Un nuovo grafo pesato con un arco (u, v) per ogni v raggiungibile da u, pesato con la distanza minima.
+     * @throws UnsupportedOperationException Se il grafo contiene un ciclo negativo.
+     */
+    @Override
+    public WeightedGraph getFloydWarshallShortestPaths() throws UnsupportedOperationException
+    {
+        return getFloydWarshallDistances().toWeightedGraph();
+    }
+
+    /**
+     * Calcola i cammini minimi tra tutte le coppie di vertici con l'algoritmo di Floyd-Warshall, su una matrice
+     * piatta divisa in blocchi che vengono aggiornati in parallelo.
+     *
+     * @return La matrice delle distanze e dei successori, indicizzata come questo grafo.
+     * @throws UnsupportedOperationException Se il grafo contiene un ciclo negativo.
+     */
+    public DistanceMatrix getFloydWarshallDistances() throws UnsupportedOperationException
+    {
+        Probe probe = GraphMetrics.start(Algorithm.FLOYD_WARSHALL, this);
+        try
+        {
+            return FloydWarshall.run(this);
+        }
+        finally
+        {
+            if (probe != null)
+            {
+                probe.count(labels.length, 0, 0, 0, labels.length);
+                probe.finish();
+            }
+        }
+    }
+
+    /**
+     * Calcola i cammini minimi tra tutte le coppie di vertici con l'algoritmo di Johnson, conveniente rispetto a
+     * Floyd-Warshall sui grafi sparsi, anche con archi di peso negativo.
+     *
+     * @return Un nuovo grafo pesato con un arco (u, v) per ogni v raggiungibile da u, pesato con la distanza minima.
+     * @throws UnsupportedOperationException Se il grafo contiene un ciclo negativo.
+     */
+    public WeightedGraph getJohnsonShortestPaths() throws UnsupportedOperationException
+    {
+        return getJohnsonDistances().toWeightedGraph();
+    }
+
+    /**
+     * Calcola i cammini minimi tra tutte le coppie di vertici con l'algoritmo di Johnson: una passata di
+     * Bellman-Ford per ripesare gli archi, poi un'esecuzione di Dijkstra per vertice, in parallelo.
+     *
+     * @return La matrice delle distanze e dei successori, indicizzata come questo grafo.
+     * @throws UnsupportedOperationException Se il grafo contiene un ciclo negativo.
+     */
+    public DistanceMatrix getJohnsonDistances() throws UnsupportedOperationException
+    {
+        return Johnson.run(this);
+    }
+
+    /**
+     * Costruisce la gerarchia di contrazione del grafo, da cui si possono poi calcolare molti cammini minimi tra
+     * due vertici esplorando solo una piccola parte del grafo. Le ricerche locali del preprocessing vengono
+     * eseguite in parallelo.
+     *
+     * @return La gerarchia, indipendente da questa istantanea.
+     * @throws UnsupportedOperationException Se il grafo contiene archi con peso negativo.
+     */
+    public ContractionHierarchy buildContractionHierarchy() throws UnsupportedOperationException
+    {
+        if (negativeWeights)
+        {
+            throw new UnsupportedOperationException("Il grafo contiene archi con peso negativo");
+        }
+        Probe probe = GraphMetrics.start(Algorithm.CONTRACTION_HIERARCHY_BUILD, this);
+        ContractionHierarchy hierarchy = HierarchyBuilder.build(this, probe);
+        if (probe != null)
+        {
+            probe.finish();
+        }
+        return hierarchy;
+    }
+
+    /**
+     * Due istantanee sono uguali se hanno le stesse etichette con gli stessi indici e gli stessi archi pesati.
+     *
+     * @param obj l'oggetto da confrontare con questa istantanea
+     * @return true se i due grafi sono uguali, false altrimenti
+     */
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj)
+        {
+            return true;
+        }
+        if (!(obj instanceof CsrWeightedGraph))
+        {
+            return false;
+        }
+        CsrWeightedGraph other = (CsrWeightedGraph) obj;
+        return Arrays.equals(labels, other.labels) && Arrays.equals(offsets, other.offsets)
+                && Arrays.equals(targets, other.targets) && Arrays.equals(weights, other.weights);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return 31 * Arrays.hashCode(labels) + Arrays.hashCode(targets);
+    }
+
+}
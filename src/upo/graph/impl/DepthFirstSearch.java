@@ -0,0 +1,152 @@
+package upo.graph.impl;
+
+import upo.graph.base.VisitForest;
+import upo.graph.base.VisitForest.Color;
+
+import java.util.Arrays;
+
+/**
+ * Motore iterativo per le visite in profondita' su un {@link CsrWeightedGraph}, condiviso da tutte le operazioni
+ * basate sulla DFS (alberi e foreste di visita, verifica dei cicli).
+ * <p>
+ * La ricorsione e' sostituita da una pila esplicita di indici: per ogni vertice sulla pila viene conservata la
+ * posizione del prossimo arco da esaminare, quindi la profondita' dello stack Java resta costante qualunque sia
+ * la lunghezza dei cammini, e la visita non alloca nulla per arco. Colori, genitori e tempi di inizio e fine visita
+ * vengono registrati in array di primitivi e possono essere copiati in una {@link VisitForest} al termine.
+ *
+ * @author Guido
+ */
+final class DepthFirstSearch
+{
+    private static final byte WHITE = 0;
+    private static final byte GRAY = 1;
+    private static final byte BLACK = 2;
+
+    private final CsrWeightedGraph graph;
+    private final byte[] color;
+    private final int[] parent;
+    private final int[] startTime;
+    private final int[] endTime;
+    private final int[] cursor;
+    private final int[] stack;
+    private int time;
+    private boolean nonTreeEdge;
+
+    /**
+     * Prepara una nuova visita del grafo specificato; nessun vertice e' ancora stato visitato.
+     *
+     * @param graph Il grafo da visitare.
+     */
+    DepthFirstSearch(CsrWeightedGraph graph)
+    {
+        int n = graph.size();
+        this.graph = graph;
+        this.color = new byte[n];
+        this.parent = new int[n];
+        this.startTime = new int[n];
+        this.endTime = new int[n];
+        this.cursor = new int[n];
+        this.stack = new int[n];
+        Arrays.fill(parent, -1);
+        Arrays.fill(startTime, -1);
+        Arrays.fill(endTime, -1);
+    }
+
+    /**
+     * Visita in profondita' tutti i vertici raggiungibili da <code>root</code> e non ancora visitati.
+     * Se <code>root</code> e' gia' stato visitato non fa nulla.
+     *
+     * @param root L'indice del vertice da cui iniziare.
+     */
+    void visit(int root)
+    {
+        if (color[root] != WHITE)
+        {
+            return;
+        }
+        int top = 0;
+        discover(root, -1);
+        stack[top++] = root;
+
+        while (top > 0)
+        {
+            int u = stack[top - 1];
+            if (cursor[u] < graph.lastEdge(u))
+            {
+                int v = graph.edgeTarget(cursor[u]++);
+                if (color[v] == WHITE)
+                {
+                    discover(v, u);
+                    stack[top++] = v;
+                }
+                else if (v != parent[u])
+                {
+                    nonTreeEdge = true;
+                }
+            }
+            else
+            {
+                color[u] = BLACK;
+                endTime[u] = time++;
+                top--;
+            }
+        }
+    }
+
+    private void discover(int v, int p)
+    {
+        color[v] = GRAY;
+        parent[v] = p;
+        startTime[v] = time++;
+        cursor[v] = graph.firstEdge(v);
+    }
+
+    /**
+     * Visita tutti i vertici del grafo: prima quelli raggiungibili da <code>first</code>, poi quelli ancora
+     * non visitati, in ordine di indice (DFS-TOT).
+     *
+     * @param first L'indice del vertice da cui iniziare.
+     */
+    void visitAll(int first)
+    {
+        visit(first);
+        for (int v = 0; v < color.length; v++)
+        {
+            visit(v);
+        }
+    }
+
+    /**
+     * Indica se la visita ha esaminato un arco verso un vertice gia' visitato diverso dal genitore del vertice
+     * corrente: e' il criterio usato da {@link AdjListDirWeight#isCyclic()}.
+     *
+     * @return True se un arco di questo tipo e' stato incontrato.
+     */
+    boolean foundNonTreeEdge()
+    {
+        return nonTreeEdge;
+    }
+
+    /**
+     * Copia colori, genitori e tempi di visita nella foresta specificata. I vertici visitati risultano neri,
+     * gli altri restano bianchi.
+     *
+     * @param visitForest Una foresta di visita appena creata, con gli stessi indici del grafo visitato.
+     * @return La foresta stessa.
+     */
+    VisitForest fill(VisitForest visitForest)
+    {
+        for (int v = 0; v < color.length; v++)
+        {
+            if (color[v] != WHITE)
+            {
+                visitForest.setColor(v, Color.BLACK);
+                visitForest.setParent(v, parent[v]);
+                visitForest.setStartTime(v, startTime[v]);
+                visitForest.setEndTime(v, endTime[v]);
+            }
+        }
+        return visitForest;
+    }
+
+}
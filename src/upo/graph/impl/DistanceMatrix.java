@@ -0,0 +1,220 @@
+package upo.graph.impl;
+
+import upo.graph.base.WeightedGraph;
+
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Risultato immutabile di un calcolo dei cammini minimi tra tutte le coppie di vertici: una matrice delle distanze
+ * piatta in ordine per righe e una matrice dei successori, indicizzate come il {@link CsrWeightedGraph} da cui
+ * sono state calcolate. L'elemento <code>i * size() + j</code> contiene la distanza da i a j (infinito se j non
+ * e' raggiungibile) e il vertice che segue i sul cammino minimo verso j (-1 se j non e' raggiungibile).
+ *
+ * @author Guido
+ */
+public final class DistanceMatrix
+{
+    /** Numero massimo di vertici per cui la matrice puo' essere indicizzata con un int. */
+    private static final int MAX_SIZE = 46340;
+
+    private final CsrWeightedGraph graph;
+    private final int n;
+    private final double[] dist;
+    private final int[] next;
+
+    /**
+     * Costruisce il risultato a partire dalle matrici fornite, che non vengono copiate.
+     *
+     * @param graph Il grafo da cui sono state calcolate le matrici.
+     * @param dist La matrice delle distanze, di lunghezza <code>graph.size()^2</code>.
+     * @param next La matrice dei successori, di lunghezza <code>graph.size()^2</code>.
+     */
+    DistanceMatrix(CsrWeightedGraph graph, double[] dist, int[] next)
+    {
+        this.graph = graph;
+        this.n = graph.size();
+        this.dist = dist;
+        this.next = next;
+    }
+
+    /**
+     * Verifica che una matrice n x n possa essere allocata in un array indicizzato da int.
+     *
+     * @param n Il numero di vertici.
+     * @throws UnsupportedOperationException Se il grafo ha troppi vertici.
+     */
+    static void checkSize(int n) throws UnsupportedOperationException
+    {
+        if (n > MAX_SIZE)
+        {
+            throw new UnsupportedOperationException("Il grafo ha troppi vertici per una matrice delle distanze");
+        }
+    }
+
+    /**
+     * Restituisce il numero di vertici, cioe' il lato della matrice.
+     *
+     * @return Il numero di vertici.
+     */
+    public int size()
+    {
+        return n;
+    }
+
+    /**
+     * Restituisce il grafo da cui e' stata calcolata la matrice, che ne definisce indici ed etichette.
+     *
+     * @return Il grafo.
+     */
+    public CsrWeightedGraph getGraph()
+    {
+        return graph;
+    }
+
+    /**
+     * Restituisce la distanza minima tra due vertici.
+     *
+     * @param i L'indice del vertice di origine.
+     * @param j L'indice del vertice di destinazione.
+     * @return La distanza, o infinito se <code>j</code> non e' raggiungibile da <code>i</code>.
+     * @throws NoSuchElementException Se uno dei due indici non e' un indice valido.
+     */
+    public double distance(int i, int j) throws NoSuchElementException
+    {
+        return dist[cell(i, j)];
+    }
+
+    /**
+     * Restituisce il vertice che segue <code>i</code> sul cammino minimo verso <code>j</code>.
+     *
+     * @param i L'indice del vertice di origine.
+     * @param j L'indice del vertice di destinazione.
+     * @return L'indice del successore (<code>i</code> stesso se <code>i == j</code>), o -1 se <code>j</code>
+     * non e' raggiungibile.
+     * @throws NoSuchElementException Se uno dei due indici non e' un indice valido.
+     */
+    public int nextHop(int i, int j) throws NoSuchElementException
+    {
+        return next[cell(i, j)];
+    }
+
+    /**
+     * Restituisce la distanza minima tra due vertici identificati dalle etichette.
+     *
+     * @param sourceVertex L'etichetta del vertice di origine.
+     * @param targetVertex L'etichetta del vertice di destinazione.
+     * @return La distanza, o infinito se il vertice di destinazione non e' raggiungibile.
+     * @throws IllegalArgumentException Se uno dei due vertici non appartiene al grafo.
+     */
+    public double getDistance(String sourceVertex, String targetVertex) throws IllegalArgumentException
+    {
+        return dist[cell(sourceVertex, targetVertex)];
+    }
+
+    /**
+     * Ricostruisce il cammino minimo tra due vertici seguendo la matrice dei successori.
+     *
+     * @param sourceVertex L'etichetta del vertice di origine.
+     * @param targetVertex L'etichetta del vertice di destinazione.
+     * @return Le etichette dei vertici del cammino, estremi compresi, o un array vuoto se il vertice di
+     * destinazione non e' raggiungibile.
+     * @throws IllegalArgumentException Se uno dei due vertici non appartiene al grafo.
+     */
+    public String[] getPath(String sourceVertex, String targetVertex) throws IllegalArgumentException
+    {
+        cell(sourceVertex, targetVertex);
+        int i = graph.getVertexIndex(sourceVertex);
+        int j = graph.getVertexIndex(targetVertex);
+        if (next[i * n + j] < 0)
+        {
+            return new String[0];
+        }
+        List<String> path = new ArrayList<>();
+        path.add(sourceVertex);
+        while (i != j)
+        {
+            i = next[i * n + j];
+            path.add(graph.getVertexLabel(i));
+        }
+        return path.toArray(new String[0]);
+    }
+
+    private int cell(String sourceVertex, String targetVertex) throws IllegalArgumentException
+    {
+        int i = graph.getVertexIndex(sourceVertex);
+        int j = graph.getVertexIndex(targetVertex);
+        if (i < 0 || j < 0)
+        {
+            throw new IllegalArgumentException("Il vertice " + sourceVertex + " o " + targetVertex + " non appartiene al grafo");
+        }
+        return i * n + j;
+    }
+
+    private int cell(int i, int j) throws NoSuchElementException
+    {
+        if (i < 0 || i >= n)
+        {
+            throw new NoSuchElementException("Il vertice di indice " + i + " non appartiene al grafo");
+        }
+        if (j < 0 || j >= n)
+        {
+            throw new NoSuchElementException("Il vertice di indice " + j + " non appartiene al grafo");
+        }
+        return i * n + j;
+    }
+
+    /**
+     * Restituisce una vista in sola lettura della matrice delle distanze, in ordine per righe, senza copiarla.
+     *
+     * @return La vista della matrice delle distanze.
+     */
+    public DoubleBuffer distances()
+    {
+        return DoubleBuffer.wrap(dist).asReadOnlyBuffer();
+    }
+
+    /**
+     * Restituisce una vista in sola lettura della matrice dei successori, in ordine per righe, senza copiarla.
+     *
+     * @return La vista della matrice dei successori.
+     */
+    public IntBuffer nextHops()
+    {
+        return IntBuffer.wrap(next).asReadOnlyBuffer();
+    }
+
+    /**
+     * Restituisce il grafo dei cammini minimi: contiene tutti i vertici e un arco (u, v), con u diverso da v,
+     * per ogni coppia in cui v e' raggiungibile da u, pesato con la distanza minima.
+     *
+     * @return Un nuovo grafo pesato con le distanze minime tra tutte le coppie di vertici.
+     */
+    public WeightedGraph toWeightedGraph()
+    {
+        WeightedGraph result = new AdjListDirWeight();
+        for (int v = 0; v < n; v++)
+        {
+            result.addVertex(graph.getVertexLabel(v));
+        }
+        for (int u = 0; u < n; u++)
+        {
+            String source = graph.getVertexLabel(u);
+            for (int v = 0; v < n; v++)
+            {
+                double d = dist[u * n + v];
+                if (u != v && d != Double.POSITIVE_INFINITY)
+                {
+                    String target = graph.getVertexLabel(v);
+                    result.addEdge(source, target);
+                    result.setEdgeWeight(source, target, d);
+                }
+            }
+        }
+        return result;
+    }
+
+}
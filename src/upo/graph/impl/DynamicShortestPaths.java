@@ -0,0 +1,530 @@
+package upo.graph.impl;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import upo.graph.base.WeightedGraph;
+
+/**
+ * Albero dei cammini minimi da una sorgente fissa di un {@link AdjListDirWeight} con pesi non negativi, mantenuto
+ * aggiornato in modo incrementale (Ramalingam e Reps) quando il grafo viene modificato tramite i metodi di questa
+ * classe, che hanno la stessa firma dei modificatori di {@link WeightedGraph}.
+ * <p>
+ * Dopo la modifica di un singolo arco (u, v) si ricalcola solo la parte dell'albero interessata:
+ * <ul>
+ * <li>se il peso diminuisce, o l'arco viene inserito, si propaga il miglioramento da v con Dijkstra, estraendo
+ * solo i vertici la cui distanza diminuisce;</li>
+ * <li>se il peso aumenta, o l'arco viene rimosso, e l'arco apparteneva all'albero, si azzerano le distanze del
+ * sottoalbero di v, si ricava per ciascuno di quei vertici il miglior arco entrante da un vertice esterno al
+ * sottoalbero e si esegue Dijkstra sul solo sottoalbero. Se l'arco non apparteneva all'albero non cambia
+ * nulla.</li>
+ * </ul>
+ * Il costo e' quindi proporzionale alla regione modificata e agli archi incidenti, non a V+E. I predecessori
+ * vengono letti dall'indice degli archi entranti del grafo: se l'indice non e' attivo, leggerli costerebbe una
+ * scansione di tutti i vertici per ogni vertice della regione, quindi in quel caso gli aumenti di peso e le
+ * rimozioni ricalcolano l'intero albero.
+ * <p>
+ * Le modifiche fatte direttamente sul grafo vengono rilevate tramite il suo contatore delle modifiche e causano il
+ * ricalcolo completo dell'albero alla richiesta successiva.
+ *
+ * @author Guido
+ */
+public class DynamicShortestPaths
+{
+    private final AdjListDirWeight graph;
+    private final String source;
+    private double[] dist;
+    private int[] parent;
+    private boolean[] affected;
+    private int[] region;
+    private IndexedMinHeap heap;
+    private int expectedModCount;
+    private int lastUpdateVertices;
+    private final Relaxation relaxation = new Relaxation();
+    private final Subtree subtree = new Subtree();
+    private final Reconnection reconnection = new Reconnection();
+
+    /**
+     * Rilassa gli archi uscenti dal vertice appena estratto dallo heap.
+     */
+    private final class Relaxation implements IntDoubleConsumer
+    {
+        private int from;
+
+        @Override
+        public void accept(int v, double weight)
+        {
+            double alt = dist[from] + weight;
+            if (alt < dist[v])
+            {
+                dist[v] = alt;
+                parent[v] = from;
+                heap.insertOrDecrease(v, alt);
+            }
+        }
+    }
+
+    /**
+     * Aggiunge alla regione i figli nell'albero del vertice visitato.
+     */
+    private final class Subtree implements IntDoubleConsumer
+    {
+        private int from;
+        private int count;
+
+        @Override
+        public void accept(int v, double weight)
+        {
+            if (parent[v] == from && !affected[v])
+            {
+                affected[v] = true;
+                region[count++] = v;
+            }
+        }
+    }
+
+    /**
+     * Cerca il miglior arco entrante nel vertice della regione da un vertice esterno alla regione.
+     */
+    private final class Reconnection implements IntDoubleConsumer
+    {
+        private int to;
+
+        @Override
+        public void accept(int u, double weight)
+        {
+            if (!affected[u] && dist[u] + weight < dist[to])
+            {
+                dist[to] = dist[u] + weight;
+                parent[to] = u;
+            }
+        }
+    }
+
+    /**
+     * Calcola l'albero dei cammini minimi dalla sorgente specificata.
+     *
+     * @param graph Il grafo, senza archi con peso negativo.
+     * @param source L'etichetta del vertice sorgente.
+     * @throws IllegalArgumentException Se la sorgente non appartiene al grafo.
+     * @throws UnsupportedOperationException Se il grafo contiene archi con peso negativo.
+     */
+    public DynamicShortestPaths(AdjListDirWeight graph, String source) throws IllegalArgumentException, UnsupportedOperationException
+    {
+        if (!graph.containsVertex(source))
+        {
+            throw new IllegalArgumentException("Il vertice specificato non appartiene al grafo");
+        }
+        this.graph = graph;
+        this.source = source;
+        rebuild();
+    }
+
+    /**
+     * Ricalcola l'intero albero con Dijkstra sull'istantanea CSR del grafo.
+     */
+    private void rebuild() throws UnsupportedOperationException
+    {
+        int s = graph.getVertexIndex(source);
+        if (s < 0)
+        {
+            throw new IllegalStateException("La sorgente " + source + " non appartiene piu' al grafo");
+        }
+        CsrWeightedGraph csr = graph.freeze();
+        if (csr.hasNegativeWeights())
+        {
+            throw new UnsupportedOperationException("Il grafo contiene archi con peso negativo");
+        }
+        int n = csr.size();
+        dist = new double[n];
+        parent = new int[n];
+        affected = new boolean[n];
+        region = new int[n];
+        heap = new IndexedMinHeap(n);
+        Probe probe = GraphMetrics.start(Algorithm.DIJKSTRA, csr);
+        ShortestPaths.dijkstra(csr, s, dist, parent, heap, probe);
+        if (probe != null)
+        {
+            probe.finish();
+        }
+        expectedModCount = graph.modificationCount();
+        lastUpdateVertices = n;
+    }
+
+    /**
+     * Ricalcola l'albero da zero se il grafo e' stato modificato senza passare da questa classe.
+     */
+    private void synchronize() throws UnsupportedOperationException
+    {
+        if (graph.modificationCount() != expectedModCount)
+        {
+            rebuild();
+        }
+    }
+
+    /**
+     * Restituisce il grafo su cui sono calcolati i cammini minimi.
+     *
+     * @return Il grafo.
+     */
+    public AdjListDirWeight getGraph()
+    {
+        return graph;
+    }
+
+    /**
+     * Restituisce la sorgente dei cammini minimi.
+     *
+     * @return L'etichetta della sorgente.
+     */
+    public String getSource()
+    {
+        return source;
+    }
+
+    /**
+     * Restituisce la distanza minima del vertice dalla sorgente.
+     *
+     * @param vertex L'etichetta del vertice.
+     * @return La distanza, o infinito se il vertice non e' raggiungibile.
+     * @throws IllegalArgumentException Se il vertice non appartiene al grafo.
+     * @throws UnsupportedOperationException Se il grafo, modificato direttamente, contiene archi con peso negativo.
+     */
+    public double getDistance(String vertex) throws IllegalArgumentException, UnsupportedOperationException
+    {
+        synchronize();
+        return dist[indexOf(vertex)];
+    }
+
+    /**
+     * Ricostruisce il cammino minimo dalla sorgente al vertice risalendo l'albero.
+     *
+     * @param vertex L'etichetta del vertice di destinazione.
+     * @return Le etichette dei vertici del cammino, estremi compresi, o un array vuoto se il vertice non e'
+     * raggiungibile.
+     * @throws IllegalArgumentException Se il vertice non appartiene al grafo.
+     * @throws UnsupportedOperationException Se il grafo, modificato direttamente, contiene archi con peso negativo.
+     */
+    public String[] getPath(String vertex) throws IllegalArgumentException, UnsupportedOperationException
+    {
+        synchronize();
+        int t = indexOf(vertex);
+        if (dist[t] == Double.POSITIVE_INFINITY)
+        {
+            return new String[0];
+        }
+        int length = 0;
+        for (int v = t; v >= 0; v = parent[v])
+        {
+            length++;
+        }
+        String[] path = new String[length];
+        for (int v = t, i = length - 1; v >= 0; v = parent[v], i--)
+        {
+            path[i] = graph.getVertexLabel(v);
+        }
+        return path;
+    }
+
+    /**
+     * Restituisce il grafo dei cammini minimi, con la stessa forma di
+     * {@link AdjListDirWeight#getDijkstraShortestPaths(String)}.
+     *
+     * @return Un nuovo grafo pesato con tutti gli archi (u, v) pesati con la differenza delle distanze.
+     * @throws UnsupportedOperationException Se il grafo, modificato direttamente, contiene archi con peso negativo.
+     */
+    public WeightedGraph toWeightedGraph() throws UnsupportedOperationException
+    {
+        synchronize();
+        return graph.freeze().createDistanceGraph(dist);
+    }
+
+    /**
+     * Restituisce il numero di vertici esaminati dall'ultimo aggiornamento: i vertici del sottoalbero azzerato
+     * piu' quelli estratti dallo heap, oppure tutti i vertici se l'albero e' stato ricalcolato da zero.
+     *
+     * @return Il numero di vertici esaminati dall'ultimo aggiornamento.
+     */
+    public int getLastUpdateVertices()
+    {
+        return lastUpdateVertices;
+    }
+
+    /**
+     * Aggiunge un vertice al grafo. Il nuovo vertice non ha archi, quindi non e' raggiungibile.
+     *
+     * @param label L'etichetta del nuovo vertice.
+     * @return L'indice del vertice aggiunto, o -1 se era gia' presente.
+     */
+    public int addVertex(String label)
+    {
+        synchronize();
+        int index = graph.addVertex(label);
+        if (index >= 0)
+        {
+            int n = graph.size();
+            if (n > dist.length)
+            {
+                grow(Math.max(n, dist.length * 2));
+            }
+            dist[index] = Double.POSITIVE_INFINITY;
+            parent[index] = -1;
+        }
+        expectedModCount = graph.modificationCount();
+        lastUpdateVertices = 0;
+        return index;
+    }
+
+    private void grow(int capacity)
+    {
+        int oldLength = dist.length;
+        dist = Arrays.copyOf(dist, capacity);
+        parent = Arrays.copyOf(parent, capacity);
+        affected = Arrays.copyOf(affected, capacity);
+        region = new int[capacity];
+        heap = new IndexedMinHeap(capacity);
+        Arrays.fill(dist, oldLength, capacity, Double.POSITIVE_INFINITY);
+        Arrays.fill(parent, oldLength, capacity, -1);
+    }
+
+    /**
+     * Rimuove un vertice diverso dalla sorgente e ricollega il suo sottoalbero. Oltre al costo dell'aggiornamento
+     * si paga la compattazione degli indici, come in {@link AdjListDirWeight#removeVertex(String)}.
+     *
+     * @param label L'etichetta del vertice da rimuovere.
+     * @throws NoSuchElementException Se il vertice non appartiene al grafo.
+     * @throws IllegalArgumentException Se il vertice e' la sorgente.
+     */
+    public void removeVertex(String label) throws NoSuchElementException, IllegalArgumentException
+    {
+        synchronize();
+        if (source.equals(label))
+        {
+            throw new IllegalArgumentException("Il vertice " + label + " e' la sorgente dei cammini minimi");
+        }
+        int x = graph.getVertexIndex(label);
+        if (x < 0)
+        {
+            throw new NoSuchElementException("Vertice non trovato: " + label);
+        }
+
+        Probe probe = startUpdate();
+        int count = collectSubtree(x);
+        graph.removeVertex(label);
+        expectedModCount = graph.modificationCount();
+
+        // Compatta gli array come la tabella degli indici del grafo; il vertice rimosso esce dalla regione
+        int n = graph.size();
+        System.arraycopy(dist, x + 1, dist, x, n - x);
+        System.arraycopy(parent, x + 1, parent, x, n - x);
+        System.arraycopy(affected, x + 1, affected, x, n - x);
+        dist[n] = Double.POSITIVE_INFINITY;
+        parent[n] = -1;
+        affected[n] = false;
+        for (int v = 0; v < n; v++)
+        {
+            if (parent[v] > x)
+            {
+                parent[v]--;
+            }
+        }
+        int kept = 0;
+        for (int i = 0; i < count; i++)
+        {
+            if (region[i] != x)
+            {
+                region[kept++] = region[i] > x ? region[i] - 1 : region[i];
+            }
+        }
+        repairRegion(kept);
+        finishUpdate(probe);
+    }
+
+    /**
+     * Aggiunge un arco con il peso predefinito, oppure riporta al peso predefinito un arco esistente.
+     *
+     * @param sourceVertex L'etichetta del vertice di origine.
+     * @param targetVertex L'etichetta del vertice di destinazione.
+     * @throws IllegalArgumentException Se uno dei due vertici non appartiene al grafo.
+     */
+    public void addEdge(String sourceVertex, String targetVertex) throws IllegalArgumentException
+    {
+        synchronize();
+        double oldWeight = graph.containsEdge(sourceVertex, targetVertex)
+                ? graph.getEdgeWeight(sourceVertex, targetVertex) : Double.POSITIVE_INFINITY;
+        graph.addEdge(sourceVertex, targetVertex);
+        update(sourceVertex, targetVertex, oldWeight, WeightedGraph.defaultEdgeWeight);
+    }
+
+    /**
+     * Rimuove un arco e, se apparteneva all'albero, ricollega il sottoalbero della sua destinazione.
+     *
+     * @param sourceVertex L'etichetta del vertice di origine.
+     * @param targetVertex L'etichetta del vertice di destinazione.
+     * @throws IllegalArgumentException Se uno dei due vertici non appartiene al grafo.
+     * @throws NoSuchElementException Se l'arco non esiste.
+     */
+    public void removeEdge(String sourceVertex, String targetVertex) throws IllegalArgumentException, NoSuchElementException
+    {
+        synchronize();
+        double oldWeight = graph.getEdgeWeight(sourceVertex, targetVertex);
+        graph.removeEdge(sourceVertex, targetVertex);
+        update(sourceVertex, targetVertex, oldWeight, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Cambia il peso di un arco e aggiorna la parte dell'albero interessata.
+     *
+     * @param sourceVertex L'etichetta del vertice di origine.
+     * @param targetVertex L'etichetta del vertice di destinazione.
+     * @param weight Il nuovo peso, non negativo.
+     * @throws IllegalArgumentException Se uno dei due vertici non appartiene al grafo.
+     * @throws NoSuchElementException Se l'arco non esiste.
+     * @throws UnsupportedOperationException Se il nuovo peso e' negativo; in tal caso il grafo non viene modificato.
+     */
+    public void setEdgeWeight(String sourceVertex, String targetVertex, double weight) throws IllegalArgumentException, NoSuchElementException, UnsupportedOperationException
+    {
+        synchronize();
+        double oldWeight = graph.getEdgeWeight(sourceVertex, targetVertex);
+        if (weight < 0)
+        {
+            throw new UnsupportedOperationException("Il peso dell'arco non puo' essere negativo");
+        }
+        graph.setEdgeWeight(sourceVertex, targetVertex, weight);
+        update(sourceVertex, targetVertex, oldWeight, weight);
+    }
+
+    /**
+     * Aggiorna l'albero dopo che il peso dell'arco (u, v) e' passato da <code>oldWeight</code> a
+     * <code>newWeight</code>, dove infinito indica l'arco assente.
+     */
+    private void update(String sourceVertex, String targetVertex, double oldWeight, double newWeight)
+    {
+        expectedModCount = graph.modificationCount();
+        lastUpdateVertices = 0;
+        Probe probe = startUpdate();
+        int u = graph.getVertexIndex(sourceVertex);
+        int v = graph.getVertexIndex(targetVertex);
+        if (u == v)
+        {
+            finishUpdate(probe);
+            return;
+        }
+        if (newWeight < oldWeight)
+        {
+            if (dist[u] + newWeight < dist[v])
+            {
+                dist[v] = dist[u] + newWeight;
+                parent[v] = u;
+                heap.insert(v, dist[v]);
+                lastUpdateVertices = propagate();
+            }
+        }
+        else if (newWeight > oldWeight && parent[v] == u)
+        {
+            repairRegion(collectSubtree(v));
+        }
+        finishUpdate(probe);
+    }
+
+    /**
+     * Inizia la misura di un aggiornamento. Il numero di archi costa O(V), quindi viene contato solo se ci sono
+     * listener registrati.
+     */
+    private Probe startUpdate()
+    {
+        return GraphMetrics.isEnabled() ? GraphMetrics.start(Algorithm.DYNAMIC_UPDATE, graph.size(), graph.edgeCount()) : null;
+    }
+
+    /**
+     * Riporta i vertici ricalcolati dall'aggiornamento. Se la riparazione ha ricalcolato l'intero albero, anche
+     * il Dijkstra di {@link #rebuild()} e' stato riportato come esecuzione a se'.
+     */
+    private void finishUpdate(Probe probe)
+    {
+        if (probe != null)
+        {
+            probe.count(lastUpdateVertices, 0, 0, 0, 0);
+            probe.finish();
+        }
+    }
+
+    /**
+     * Marca il sottoalbero di <code>root</code> e ne copia i vertici nella regione.
+     *
+     * @return Il numero di vertici del sottoalbero.
+     */
+    private int collectSubtree(int root)
+    {
+        subtree.count = 0;
+        affected[root] = true;
+        region[subtree.count++] = root;
+        for (int i = 0; i < subtree.count; i++)
+        {
+            subtree.from = region[i];
+            graph.forEachNeighbor(subtree.from, subtree);
+        }
+        return subtree.count;
+    }
+
+    /**
+     * Ricalcola le distanze dei primi <code>count</code> vertici della regione, gia' marcati: ognuno riparte dal
+     * miglior arco entrante da fuori della regione, poi Dijkstra completa le distanze all'interno. Senza l'indice
+     * degli archi entranti conviene ricalcolare tutto l'albero.
+     */
+    private void repairRegion(int count)
+    {
+        if (!graph.tracksPredecessors())
+        {
+            rebuild();
+            return;
+        }
+        for (int i = 0; i < count; i++)
+        {
+            dist[region[i]] = Double.POSITIVE_INFINITY;
+            parent[region[i]] = -1;
+        }
+        for (int i = 0; i < count; i++)
+        {
+            reconnection.to = region[i];
+            graph.forEachPredecessor(reconnection.to, reconnection);
+            if (dist[reconnection.to] != Double.POSITIVE_INFINITY)
+            {
+                heap.insert(reconnection.to, dist[reconnection.to]);
+            }
+        }
+        for (int i = 0; i < count; i++)
+        {
+            affected[region[i]] = false;
+        }
+        lastUpdateVertices = count + propagate();
+    }
+
+    /**
+     * Estrae i vertici dallo heap rilassandone gli archi uscenti finche' le distanze migliorano.
+     *
+     * @return Il numero di vertici estratti.
+     */
+    private int propagate()
+    {
+        int settled = 0;
+        while (!heap.isEmpty())
+        {
+            relaxation.from = heap.extractMin();
+            settled++;
+            graph.forEachNeighbor(relaxation.from, relaxation);
+        }
+        return settled;
+    }
+
+    private int indexOf(String vertex) throws IllegalArgumentException
+    {
+        int v = graph.getVertexIndex(vertex);
+        if (v < 0)
+        {
+            throw new IllegalArgumentException("Il vertice specificato non appartiene al grafo");
+        }
+        return v;
+    }
+
+}
@@ -0,0 +1,189 @@
+package upo.graph.impl;
+
+import java.util.Arrays;
+
+import upo.graph.base.WeightedGraph;
+
+/**
+ * Sequenza di modifiche degli archi (inserimenti, rimozioni e cambi di peso) da applicare in un'unica passata con
+ * {@link AdjListDirWeight#applyBatch(EdgeBatch, boolean)}. Le operazioni sono memorizzate in array paralleli, senza
+ * un oggetto per operazione, e vengono applicate nell'ordine in cui sono state aggiunte.
+ * <p>
+ * I metodi di aggiunta restituiscono il lotto stesso, cosi' da poter essere concatenati.
+ *
+ * @author Guido
+ */
+public final class EdgeBatch
+{
+    static final byte INSERT = 0;
+    static final byte DELETE = 1;
+    static final byte REWEIGHT = 2;
+
+    private byte[] kinds;
+    private String[] sources;
+    private String[] targets;
+    private double[] weights;
+    private int size;
+
+    /**
+     * Crea un lotto vuoto.
+     */
+    public EdgeBatch()
+    {
+        this(16);
+    }
+
+    /**
+     * Crea un lotto vuoto con spazio per il numero di operazioni indicato.
+     *
+     * @param expectedSize Il numero di operazioni previsto.
+     * @throws IllegalArgumentException Se <code>expectedSize</code> e' negativo.
+     */
+    public EdgeBatch(int expectedSize) throws IllegalArgumentException
+    {
+        if (expectedSize < 0)
+        {
+            throw new IllegalArgumentException("La dimensione del lotto non puo' essere negativa");
+        }
+        kinds = new byte[expectedSize];
+        sources = new String[expectedSize];
+        targets = new String[expectedSize];
+        weights = new double[expectedSize];
+    }
+
+    /**
+     * Crea un lotto di inserimenti a partire da array paralleli di origini, destinazioni e pesi.
+     *
+     * @param sources Le etichette dei vertici di origine.
+     * @param targets Le etichette dei vertici di destinazione.
+     * @param weights I pesi degli archi.
+     * @return Il lotto, con un inserimento per ogni posizione degli array.
+     * @throws IllegalArgumentException Se gli array non hanno la stessa lunghezza.
+     */
+    public static EdgeBatch inserts(String[] sources, String[] targets, double[] weights) throws IllegalArgumentException
+    {
+        if (sources.length != targets.length || sources.length != weights.length)
+        {
+            throw new IllegalArgumentException("Gli array degli archi devono avere la stessa lunghezza");
+        }
+        EdgeBatch batch = new EdgeBatch(0);
+        batch.kinds = new byte[sources.length];
+        batch.sources = sources.clone();
+        batch.targets = targets.clone();
+        batch.weights = weights.clone();
+        batch.size = sources.length;
+        return batch;
+    }
+
+    /**
+     * Aggiunge l'inserimento di un arco con il peso predefinito, che come {@link AdjListDirWeight#addEdge(String, String)}
+     * riporta al peso predefinito un arco gia' presente.
+     *
+     * @param sourceVertex L'etichetta del vertice di origine.
+     * @param targetVertex L'etichetta del vertice di destinazione.
+     * @return Questo lotto.
+     */
+    public EdgeBatch insert(String sourceVertex, String targetVertex)
+    {
+        return add(INSERT, sourceVertex, targetVertex, WeightedGraph.defaultEdgeWeight);
+    }
+
+    /**
+     * Aggiunge l'inserimento di un arco con il peso specificato, o l'aggiornamento del peso se l'arco e' gia' presente.
+     *
+     * @param sourceVertex L'etichetta del vertice di origine.
+     * @param targetVertex L'etichetta del vertice di destinazione.
+     * @param weight Il peso dell'arco.
+     * @return Questo lotto.
+     */
+    public EdgeBatch insert(String sourceVertex, String targetVertex, double weight)
+    {
+        return add(INSERT, sourceVertex, targetVertex, weight);
+    }
+
+    /**
+     * Aggiunge la rimozione di un arco. Se al momento dell'applicazione l'arco non esiste, l'operazione viene
+     * saltata.
+     *
+     * @param sourceVertex L'etichetta del vertice di origine.
+     * @param targetVertex L'etichetta del vertice di destinazione.
+     * @return Questo lotto.
+     */
+    public EdgeBatch delete(String sourceVertex, String targetVertex)
+    {
+        return add(DELETE, sourceVertex, targetVertex, 0);
+    }
+
+    /**
+     * Aggiunge il cambio di peso di un arco. Se al momento dell'applicazione l'arco non esiste, l'operazione viene
+     * saltata.
+     *
+     * @param sourceVertex L'etichetta del vertice di origine.
+     * @param targetVertex L'etichetta del vertice di destinazione.
+     * @param weight Il nuovo peso dell'arco.
+     * @return Questo lotto.
+     */
+    public EdgeBatch reweight(String sourceVertex, String targetVertex, double weight)
+    {
+        return add(REWEIGHT, sourceVertex, targetVertex, weight);
+    }
+
+    private EdgeBatch add(byte kind, String sourceVertex, String targetVertex, double weight)
+    {
+        if (size == kinds.length)
+        {
+            int capacity = Math.max(16, size * 2);
+            kinds = Arrays.copyOf(kinds, capacity);
+            sources = Arrays.copyOf(sources, capacity);
+            targets = Arrays.copyOf(targets, capacity);
+            weights = Arrays.copyOf(weights, capacity);
+        }
+        kinds[size] = kind;
+        sources[size] = sourceVertex;
+        targets[size] = targetVertex;
+        weights[size] = weight;
+        size++;
+        return this;
+    }
+
+    /**
+     * Restituisce il numero di operazioni del lotto.
+     *
+     * @return Il numero di operazioni.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Rimuove tutte le operazioni, conservando lo spazio gia' allocato.
+     */
+    public void clear()
+    {
+        Arrays.fill(sources, 0, size, null);
+        Arrays.fill(targets, 0, size, null);
+        size = 0;
+    }
+
+    byte kind(int i)
+    {
+        return kinds[i];
+    }
+
+    String source(int i)
+    {
+        return sources[i];
+    }
+
+    String target(int i)
+    {
+        return targets[i];
+    }
+
+    double weight(int i)
+    {
+        return weights[i];
+    }
+
+}
@@ -0,0 +1,138 @@
+package upo.graph.impl;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Algoritmo di Floyd-Warshall a blocchi su una matrice delle distanze piatta (<code>double[]</code> in ordine
+ * per righe) e una matrice dei successori (<code>int[]</code>), ricavate da un {@link CsrWeightedGraph}.
+ * <p>
+ * La matrice e' divisa in blocchi di {@value #BLOCK}x{@value #BLOCK} elementi. Per ogni blocco k della diagonale
+ * si eseguono tre fasi: il blocco (k, k); i blocchi della riga k e della colonna k, in parallelo; tutti gli altri
+ * blocchi, in parallelo. Ogni blocco viene aggiornato con i soli k del blocco diagonale, quindi i dati letti
+ * restano in cache, e il ciclo piu' interno scorre due righe contigue senza salti condizionali.
+ *
+ * @author Guido
+ */
+final class FloydWarshall
+{
+    /** Lato dei blocchi: tre blocchi di double occupano circa 96 KB. */
+    private static final int BLOCK = 64;
+
+    private FloydWarshall()
+    {
+    }
+
+    /**
+     * Calcola le distanze minime tra tutte le coppie di vertici.
+     *
+     * @param graph Il grafo.
+     * @return La matrice delle distanze e dei successori.
+     * @throws UnsupportedOperationException Se il grafo contiene un ciclo negativo o e' troppo grande per
+     * una matrice indicizzata da int.
+     */
+    static DistanceMatrix run(CsrWeightedGraph graph) throws UnsupportedOperationException
+    {
+        int n = graph.size();
+        DistanceMatrix.checkSize(n);
+        double[] dist = new double[n * n];
+        int[] next = new int[n * n];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        Arrays.fill(next, -1);
+        for (int u = 0; u < n; u++)
+        {
+            dist[u * n + u] = 0;
+            next[u * n + u] = u;
+            for (int e = graph.firstEdge(u); e < graph.lastEdge(u); e++)
+            {
+                int v = graph.edgeTarget(e);
+                double w = graph.edgeWeight(e);
+                if (w < dist[u * n + v])
+                {
+                    dist[u * n + v] = w;
+                    next[u * n + v] = v;
+                }
+            }
+        }
+
+        int blocks = (n + BLOCK - 1) / BLOCK;
+        for (int kb = 0; kb < blocks; kb++)
+        {
+            int diagonal = kb;
+
+            // Fase 1: blocco sulla diagonale
+            relaxBlock(dist, next, n, diagonal, diagonal, diagonal);
+
+            // Fase 2: blocchi della riga e della colonna k, che dipendono solo dal blocco diagonale
+            IntStream.range(0, 2 * blocks).parallel().forEach(t ->
+            {
+                int b = t >> 1;
+                if (b != diagonal)
+                {
+                    if ((t & 1) == 0)
+                    {
+                        relaxBlock(dist, next, n, diagonal, b, diagonal);
+                    }
+                    else
+                    {
+                        relaxBlock(dist, next, n, b, diagonal, diagonal);
+                    }
+                }
+            });
+
+            // Fase 3: blocchi restanti, che dipendono solo dalla riga e dalla colonna k
+            IntStream.range(0, blocks * blocks).parallel().forEach(t ->
+            {
+                int ib = t / blocks;
+                int jb = t % blocks;
+                if (ib != diagonal && jb != diagonal)
+                {
+                    relaxBlock(dist, next, n, ib, jb, diagonal);
+                }
+            });
+        }
+
+        for (int v = 0; v < n; v++)
+        {
+            if (dist[v * n + v] < 0)
+            {
+                throw new UnsupportedOperationException("Il grafo contiene un ciclo negativo");
+            }
+        }
+        return new DistanceMatrix(graph, dist, next);
+    }
+
+    /**
+     * Aggiorna il blocco (ib, jb) usando come vertici intermedi quelli del blocco kb.
+     */
+    private static void relaxBlock(double[] dist, int[] next, int n, int ib, int jb, int kb)
+    {
+        int iEnd = Math.min(n, (ib + 1) * BLOCK);
+        int jStart = jb * BLOCK;
+        int jEnd = Math.min(n, jStart + BLOCK);
+        int kEnd = Math.min(n, (kb + 1) * BLOCK);
+        for (int k = kb * BLOCK; k < kEnd; k++)
+        {
+            int kRow = k * n;
+            for (int i = ib * BLOCK; i < iEnd; i++)
+            {
+                int iRow = i * n;
+                double dik = dist[iRow + k];
+                if (dik == Double.POSITIVE_INFINITY)
+                {
+                    continue;
+                }
+                int nik = next[iRow + k];
+                for (int j = jStart; j < jEnd; j++)
+                {
+                    // Selezione senza salti, cosi' che il JIT possa usare move condizionali vettoriali
+                    double candidate = dik + dist[kRow + j];
+                    boolean shorter = candidate < dist[iRow + j];
+                    dist[iRow + j] = shorter ? candidate : dist[iRow + j];
+                    next[iRow + j] = shorter ? nik : next[iRow + j];
+                }
+            }
+        }
+    }
+
+}
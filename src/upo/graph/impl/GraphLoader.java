@@ -0,0 +1,682 @@
+package upo.graph.impl;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import upo.graph.base.WeightedGraph;
+
+/**
+ * Caricamento massivo di grafi da file di archi, senza passare dai metodi <code>addVertex</code> e
+ * <code>addEdge</code>: il file viene mappato in memoria con {@link FileChannel#map} e il risultato e' direttamente
+ * un {@link CsrWeightedGraph}, costruito con array dimensionati esattamente.
+ * <p>
+ * Sono supportati due formati:
+ * <ul>
+ * <li>testo, una riga per arco nella forma <code>origine destinazione [peso]</code>, con i campi separati da
+ * spazi o tabulazioni e il peso predefinito {@link WeightedGraph#defaultEdgeWeight} se assente. Una riga con
+ * una sola etichetta dichiara un vertice, le righe vuote e quelle che iniziano con <code>#</code> vengono
+ * ignorate. Il file viene diviso in blocchi di righe analizzati in parallelo, ciascuno con la propria tabella
+ * delle etichette; le tabelle vengono poi unite in ordine, quindi gli indici dei vertici seguono l'ordine di
+ * prima comparsa nel file, come se i vertici fossero stati aggiunti uno alla volta;</li>
+ * <li>binario, scritto da {@link #writeBinary(CsrWeightedGraph, Path)}: intestazione, etichette e archi come
+ * record di lunghezza fissa (origine, destinazione, peso), decodificati in parallelo.</li>
+ * </ul>
+ * Se lo stesso arco compare piu' volte vale l'ultima occorrenza, come con <code>setEdgeWeight</code>.
+ *
+ * @author Guido
+ */
+public final class GraphLoader
+{
+    /** Intestazione del formato binario ("EDG1"). */
+    private static final int MAGIC = 0x45444731;
+
+    /** Dimensione in byte di un record del formato binario: due int e un double. */
+    private static final int RECORD_BYTES = 2 * Integer.BYTES + Double.BYTES;
+
+    private static final long MIN_CHUNK = 1 << 20;
+    private static final long MAX_CHUNK = 1 << 28;
+
+    private GraphLoader()
+    {
+    }
+
+    /**
+     * Legge un grafo da un file di testo con un arco per riga.
+     *
+     * @param file Il percorso del file.
+     * @return Il grafo letto, con i vertici nell'ordine di prima comparsa.
+     * @throws IOException Se si verifica un errore di lettura o una riga non e' valida.
+     */
+    public static CsrWeightedGraph readEdgeList(Path file) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            long[] bounds = chunkBounds(channel);
+            TextChunk[] chunks = new TextChunk[bounds.length - 1];
+            try
+            {
+                IntStream.range(0, chunks.length).parallel().forEach(i ->
+                {
+                    try
+                    {
+                        chunks[i] = new TextChunk(bounds[i], channel.map(FileChannel.MapMode.READ_ONLY, bounds[i], bounds[i + 1] - bounds[i]));
+                        chunks[i].parse();
+                    }
+                    catch (IOException e)
+                    {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+            catch (UncheckedIOException e)
+            {
+                throw e.getCause();
+            }
+            return merge(chunks);
+        }
+    }
+
+    /**
+     * Divide il file in blocchi di dimensione simile che terminano a fine riga.
+     */
+    private static long[] chunkBounds(FileChannel channel) throws IOException
+    {
+        long size = channel.size();
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        long chunk = Math.min(MAX_CHUNK, Math.max(MIN_CHUNK, size / (4L * parallelism)));
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long start = 0;
+        while (start < size)
+        {
+            long end = Math.min(size, start + chunk);
+            if (end < size)
+            {
+                end = nextLineStart(channel, end - 1, probe);
+            }
+            bounds.add(end);
+            start = end;
+        }
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++)
+        {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+
+    private static long nextLineStart(FileChannel channel, long position, ByteBuffer probe) throws IOException
+    {
+        while (true)
+        {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0)
+            {
+                return channel.size();
+            }
+            for (int i = 0; i < read; i++)
+            {
+                if (probe.get(i) == '\n')
+                {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+    }
+
+    /**
+     * Unisce in ordine le tabelle delle etichette dei blocchi, traduce gli archi negli indici globali e costruisce
+     * l'istantanea.
+     */
+    private static CsrWeightedGraph merge(TextChunk[] chunks) throws IOException
+    {
+        int estimate = 0;
+        long edges = 0;
+        for (TextChunk chunk : chunks)
+        {
+            estimate += chunk.labels.size;
+            edges += chunk.edges;
+        }
+        if (edges > Integer.MAX_VALUE)
+        {
+            throw new IOException("Il file contiene troppi archi");
+        }
+
+        Map<String, Integer> indexMap = new HashMap<>(estimate * 2);
+        List<String> labels = new ArrayList<>(estimate);
+        int[] firstEdge = new int[chunks.length + 1];
+        for (int c = 0; c < chunks.length; c++)
+        {
+            LabelTable table = chunks[c].labels;
+            table.globalIds = new int[table.size];
+            for (int i = 0; i < table.size; i++)
+            {
+                Integer id = indexMap.putIfAbsent(table.labels[i], labels.size());
+                if (id == null)
+                {
+                    id = labels.size();
+                    labels.add(table.labels[i]);
+                }
+                table.globalIds[i] = id;
+            }
+            firstEdge[c + 1] = firstEdge[c] + chunks[c].edges;
+        }
+
+        int m = firstEdge[chunks.length];
+        int[] sources = new int[m];
+        int[] targets = new int[m];
+        double[] weights = new double[m];
+        IntStream.range(0, chunks.length).parallel().forEach(c ->
+        {
+            TextChunk chunk = chunks[c];
+            int[] globalIds = chunk.labels.globalIds;
+            for (int e = 0, pos = firstEdge[c]; e < chunk.edges; e++, pos++)
+            {
+                sources[pos] = globalIds[chunk.sources[e]];
+                targets[pos] = globalIds[chunk.targets[e]];
+                weights[pos] = chunk.weights[e];
+            }
+        });
+        return build(labels.toArray(new String[0]), sources, targets, weights);
+    }
+
+    /**
+     * Costruisce un grafo da archi gia' tradotti in indici, per esempio prodotti da un generatore, con lo stesso
+     * procedimento usato per i file: gli array non vengono modificati e, se un arco compare piu' volte, vale
+     * l'ultima occorrenza.
+     *
+     * @param labels Le etichette dei vertici, nell'ordine dei loro indici.
+     * @param sources Gli indici dei vertici di origine.
+     * @param targets Gli indici dei vertici di destinazione.
+     * @param weights I pesi degli archi.
+     * @return Il grafo.
+     * @throws IllegalArgumentException Se gli array degli archi hanno lunghezze diverse o contengono un indice
+     * non valido.
+     */
+    public static CsrWeightedGraph fromEdges(String[] labels, int[] sources, int[] targets, double[] weights) throws IllegalArgumentException
+    {
+        if (sources.length != targets.length || sources.length != weights.length)
+        {
+            throw new IllegalArgumentException("Gli array degli archi hanno lunghezze diverse");
+        }
+        for (int e = 0; e < sources.length; e++)
+        {
+            if (sources[e] < 0 || sources[e] >= labels.length || targets[e] < 0 || targets[e] >= labels.length)
+            {
+                throw new IllegalArgumentException("L'arco numero " + e + " fa riferimento a un vertice inesistente");
+            }
+        }
+        return build(labels.clone(), sources, targets, weights);
+    }
+
+    /**
+     * Costruisce l'istantanea da archi in ordine di file: conteggio dei gradi, distribuzione nelle righe e, in
+     * parallelo per riga, ordinamento per destinazione ed eliminazione dei duplicati (vale l'ultimo).
+     */
+    static CsrWeightedGraph build(String[] labels, int[] sources, int[] targets, double[] weights)
+    {
+        int n = labels.length;
+        int m = sources.length;
+        int[] offsets = new int[n + 1];
+        for (int e = 0; e < m; e++)
+        {
+            offsets[sources[e] + 1]++;
+        }
+        for (int v = 0; v < n; v++)
+        {
+            offsets[v + 1] += offsets[v];
+        }
+
+        // La chiave di ogni arco e' (destinazione, posizione nella riga): l'ordinamento mette i duplicati in fila,
+        // con l'ultima occorrenza per ultima
+        int[] cursor = Arrays.copyOf(offsets, n);
+        long[] keys = new long[m];
+        double[] rowWeights = new double[m];
+        for (int e = 0; e < m; e++)
+        {
+            int u = sources[e];
+            int pos = cursor[u]++;
+            keys[pos] = (long) targets[e] << 32 | (pos - offsets[u]);
+            rowWeights[pos] = weights[e];
+        }
+
+        int[] unique = new int[n + 1];
+        IntStream.range(0, n).parallel().forEach(v ->
+        {
+            Arrays.sort(keys, offsets[v], offsets[v + 1]);
+            int count = 0;
+            for (int i = offsets[v]; i < offsets[v + 1]; i++)
+            {
+                if (i + 1 == offsets[v + 1] || (keys[i + 1] >>> 32) != (keys[i] >>> 32))
+                {
+                    count++;
+                }
+            }
+            unique[v + 1] = count;
+        });
+        for (int v = 0; v < n; v++)
+        {
+            unique[v + 1] += unique[v];
+        }
+
+        int[] csrTargets = new int[unique[n]];
+        double[] csrWeights = new double[unique[n]];
+        IntStream.range(0, n).parallel().forEach(v ->
+        {
+            int out = unique[v];
+            for (int i = offsets[v]; i < offsets[v + 1]; i++)
+            {
+                if (i + 1 == offsets[v + 1] || (keys[i + 1] >>> 32) != (keys[i] >>> 32))
+                {
+                    csrTargets[out] = (int) (keys[i] >>> 32);
+                    csrWeights[out] = rowWeights[offsets[v] + (int) keys[i]];
+                    out++;
+                }
+            }
+        });
+        return new CsrWeightedGraph(labels, unique, csrTargets, csrWeights);
+    }
+
+    /**
+     * Blocco di righe del file di testo: le etichette incontrate, con indici locali, e gli archi.
+     */
+    private static final class TextChunk
+    {
+        private final long offset;
+        private final MappedByteBuffer buffer;
+        private final LabelTable labels;
+        private int[] sources = new int[1024];
+        private int[] targets = new int[1024];
+        private double[] weights = new double[1024];
+        private int edges;
+
+        TextChunk(long offset, MappedByteBuffer buffer)
+        {
+            this.offset = offset;
+            this.buffer = buffer;
+            this.labels = new LabelTable(buffer);
+        }
+
+        void parse() throws IOException
+        {
+            int limit = buffer.limit();
+            int[] starts = new int[3];
+            int[] ends = new int[3];
+            int p = 0;
+            while (p < limit)
+            {
+                int lineStart = p;
+                int tokens = 0;
+                boolean comment = false;
+                while (p < limit && buffer.get(p) != '\n')
+                {
+                    byte b = buffer.get(p);
+                    if (b == ' ' || b == '\t' || b == '\r')
+                    {
+                        p++;
+                        continue;
+                    }
+                    if (b == '#' && tokens == 0)
+                    {
+                        comment = true;
+                    }
+                    int start = p;
+                    while (p < limit && !isSeparator(buffer.get(p)))
+                    {
+                        p++;
+                    }
+                    if (!comment)
+                    {
+                        if (tokens == 3)
+                        {
+                            throw invalidLine(lineStart);
+                        }
+                        starts[tokens] = start;
+                        ends[tokens] = p;
+                        tokens++;
+                    }
+                }
+                p++;
+
+                if (tokens == 1)
+                {
+                    labels.intern(starts[0], ends[0] - starts[0]);
+                }
+                else if (tokens > 1)
+                {
+                    int u = labels.intern(starts[0], ends[0] - starts[0]);
+                    int v = labels.intern(starts[1], ends[1] - starts[1]);
+                    double w = WeightedGraph.defaultEdgeWeight;
+                    if (tokens == 3)
+                    {
+                        w = parseWeight(starts[2], ends[2], lineStart);
+                    }
+                    addEdge(u, v, w);
+                }
+            }
+        }
+
+        private void addEdge(int u, int v, double w)
+        {
+            if (edges == sources.length)
+            {
+                sources = Arrays.copyOf(sources, edges * 2);
+                targets = Arrays.copyOf(targets, edges * 2);
+                weights = Arrays.copyOf(weights, edges * 2);
+            }
+            sources[edges] = u;
+            targets[edges] = v;
+            weights[edges] = w;
+            edges++;
+        }
+
+        /**
+         * Converte il peso senza creare stringhe quando e' un decimale semplice con al piu' 15 cifre, per cui la
+         * divisione per una potenza di 10 esatta da' lo stesso risultato di {@link Double#parseDouble(String)};
+         * negli altri casi (esponenti, Infinity, cifre in eccesso) ricorre a quest'ultimo.
+         */
+        private double parseWeight(int start, int end, int lineStart) throws IOException
+        {
+            int p = start;
+            boolean negative = false;
+            if (buffer.get(p) == '-' || buffer.get(p) == '+')
+            {
+                negative = buffer.get(p) == '-';
+                p++;
+            }
+            long mantissa = 0;
+            int digits = 0;
+            int decimals = -1;
+            for (; p < end; p++)
+            {
+                byte b = buffer.get(p);
+                if (b >= '0' && b <= '9')
+                {
+                    mantissa = mantissa * 10 + (b - '0');
+                    digits++;
+                    if (decimals >= 0)
+                    {
+                        decimals++;
+                    }
+                }
+                else if (b == '.' && decimals < 0)
+                {
+                    decimals = 0;
+                }
+                else
+                {
+                    break;
+                }
+            }
+            if (p == end && digits > 0 && digits <= 15)
+            {
+                double value = decimals > 0 ? mantissa / POWERS_OF_TEN[decimals] : mantissa;
+                return negative ? -value : value;
+            }
+            try
+            {
+                return Double.parseDouble(decode(buffer, start, end - start));
+            }
+            catch (NumberFormatException e)
+            {
+                throw invalidLine(lineStart);
+            }
+        }
+
+        private IOException invalidLine(int lineStart)
+        {
+            return new IOException("Riga non valida alla posizione " + (offset + lineStart) + " del file");
+        }
+    }
+
+    private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15 };
+
+    private static boolean isSeparator(byte b)
+    {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+    }
+
+    private static String decode(ByteBuffer buffer, int start, int length)
+    {
+        byte[] bytes = new byte[length];
+        buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Tabella delle etichette di un blocco, a indirizzamento aperto sui byte del file: la stringa di un'etichetta
+     * viene creata solo alla sua prima comparsa nel blocco.
+     */
+    private static final class LabelTable
+    {
+        private final ByteBuffer buffer;
+        private int[] slots = new int[1024];
+        private int[] starts = new int[256];
+        private int[] lengths = new int[256];
+        private int[] hashes = new int[256];
+        private String[] labels = new String[256];
+        private int[] globalIds;
+        private int size;
+
+        LabelTable(ByteBuffer buffer)
+        {
+            this.buffer = buffer;
+        }
+
+        /**
+         * Restituisce l'indice locale dell'etichetta compresa tra <code>start</code> e
+         * <code>start + length</code>, aggiungendola se non e' ancora presente.
+         */
+        int intern(int start, int length)
+        {
+            int hash = 1;
+            for (int i = start; i < start + length; i++)
+            {
+                hash = 31 * hash + buffer.get(i);
+            }
+            hash ^= hash >>> 16;
+
+            int mask = slots.length - 1;
+            int slot = hash & mask;
+            while (slots[slot] != 0)
+            {
+                int id = slots[slot] - 1;
+                if (hashes[id] == hash && lengths[id] == length && sameBytes(starts[id], start, length))
+                {
+                    return id;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            if (size == labels.length)
+            {
+                starts = Arrays.copyOf(starts, size * 2);
+                lengths = Arrays.copyOf(lengths, size * 2);
+                hashes = Arrays.copyOf(hashes, size * 2);
+                labels = Arrays.copyOf(labels, size * 2);
+            }
+            starts[size] = start;
+            lengths[size] = length;
+            hashes[size] = hash;
+            labels[size] = decode(buffer, start, length);
+            slots[slot] = ++size;
+            if (size * 2 > slots.length)
+            {
+                rehash();
+            }
+            return size - 1;
+        }
+
+        private boolean sameBytes(int a, int b, int length)
+        {
+            for (int i = 0; i < length; i++)
+            {
+                if (buffer.get(a + i) != buffer.get(b + i))
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void rehash()
+        {
+            slots = new int[slots.length * 2];
+            int mask = slots.length - 1;
+            for (int id = 0; id < size; id++)
+            {
+                int slot = hashes[id] & mask;
+                while (slots[slot] != 0)
+                {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = id + 1;
+            }
+        }
+    }
+
+    /**
+     * Scrive il grafo nel formato binario: l'intestazione (<code>MAGIC</code>, numero di vertici, numero di archi),
+     * le etichette come lunghezza e byte UTF-8, poi un record di {@value #RECORD_BYTES} byte per arco.
+     *
+     * @param graph Il grafo da scrivere.
+     * @param file Il percorso del file, che viene creato o sovrascritto.
+     * @throws IOException Se si verifica un errore di scrittura.
+     */
+    public static void writeBinary(CsrWeightedGraph graph, Path file) throws IOException
+    {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16)))
+        {
+            out.writeInt(MAGIC);
+            out.writeInt(graph.size());
+            out.writeLong(graph.edgeCount());
+            for (int v = 0; v < graph.size(); v++)
+            {
+                byte[] label = graph.getVertexLabel(v).getBytes(StandardCharsets.UTF_8);
+                out.writeInt(label.length);
+                out.write(label);
+            }
+            for (int u = 0; u < graph.size(); u++)
+            {
+                for (int e = graph.firstEdge(u); e < graph.lastEdge(u); e++)
+                {
+                    out.writeInt(u);
+                    out.writeInt(graph.edgeTarget(e));
+                    out.writeDouble(graph.edgeWeight(e));
+                }
+            }
+        }
+    }
+
+    /**
+     * Legge un grafo scritto con {@link #writeBinary(CsrWeightedGraph, Path)}. Le etichette vengono lette in
+     * sequenza, i record degli archi vengono decodificati in parallelo da blocchi mappati in memoria.
+     *
+     * @param file Il percorso del file.
+     * @return Il grafo letto.
+     * @throws IOException Se si verifica un errore di lettura o il file non e' nel formato binario.
+     */
+    public static CsrWeightedGraph readBinary(Path file) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 1 << 16));
+            if (in.readInt() != MAGIC)
+            {
+                throw new IOException("Il file non e' nel formato binario degli archi");
+            }
+            int n = in.readInt();
+            long m = in.readLong();
+            long header = Integer.BYTES * 2 + Long.BYTES;
+            long size = channel.size();
+            // Ogni etichetta occupa almeno il suo prefisso di lunghezza: i valori che non stanno nel file sono
+            // rifiutati prima di allocare gli array
+            if (n < 0 || n > (size - header) / Integer.BYTES)
+            {
+                throw new IOException("Numero di vertici non valido nel file binario: " + n);
+            }
+            String[] labels = new String[n];
+            for (int v = 0; v < n; v++)
+            {
+                int length = in.readInt();
+                header += Integer.BYTES;
+                if (length < 0 || length > size - header)
+                {
+                    throw new IOException("Lunghezza di etichetta non valida nel file binario: " + length);
+                }
+                byte[] label = new byte[length];
+                in.readFully(label);
+                labels[v] = new String(label, StandardCharsets.UTF_8);
+                header += length;
+            }
+            if (m < 0 || m > Integer.MAX_VALUE || size != header + m * RECORD_BYTES)
+            {
+                throw new IOException("Il file non e' nel formato binario degli archi");
+            }
+
+            int edges = (int) m;
+            int[] sources = new int[edges];
+            int[] targets = new int[edges];
+            double[] weights = new double[edges];
+            int recordsPerChunk = (int) (MAX_CHUNK / RECORD_BYTES);
+            int chunks = (int) ((m + recordsPerChunk - 1) / recordsPerChunk);
+            long recordsStart = header;
+            try
+            {
+                IntStream.range(0, chunks).parallel().forEach(c ->
+                {
+                    int first = c * recordsPerChunk;
+                    int count = Math.min(recordsPerChunk, edges - first);
+                    try
+                    {
+                        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+                                recordsStart + (long) first * RECORD_BYTES, (long) count * RECORD_BYTES);
+                        for (int i = 0, e = first; i < count; i++, e++)
+                        {
+                            int base = i * RECORD_BYTES;
+                            sources[e] = buffer.getInt(base);
+                            targets[e] = buffer.getInt(base + Integer.BYTES);
+                            weights[e] = buffer.getDouble(base + 2 * Integer.BYTES);
+                            if (sources[e] < 0 || sources[e] >= n || targets[e] < 0 || targets[e] >= n)
+                            {
+                                throw new IOException("L'arco numero " + e + " fa riferimento a un vertice inesistente");
+                            }
+                        }
+                    }
+                    catch (IOException e)
+                    {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+            catch (UncheckedIOException e)
+            {
+                throw e.getCause();
+            }
+            return build(labels, sources, targets, weights);
+        }
+    }
+
+}
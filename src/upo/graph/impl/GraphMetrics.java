@@ -0,0 +1,106 @@
+package upo.graph.impl;
+
+import java.util.Arrays;
+
+/**
+ * Registro globale degli {@link AlgorithmListener}. Ogni visita e ogni algoritmo di cammini minimi e di alberi di
+ * copertura dei grafi di questo pacchetto riporta le proprie esecuzioni a tutti i listener registrati.
+ * <p>
+ * Gli algoritmi leggono la lista dei listener una sola volta all'inizio: finche' la lista e' vuota non viene
+ * allocato nulla e non viene letto l'orologio, e rimangono solo i contatori locali degli algoritmi.
+ *
+ * @author Guido
+ */
+public final class GraphMetrics
+{
+    private static final AlgorithmListener[] NONE = new AlgorithmListener[0];
+
+    private static volatile AlgorithmListener[] listeners = NONE;
+
+    private GraphMetrics()
+    {
+    }
+
+    /**
+     * Registra un listener. Un listener registrato piu' volte riceve ogni esecuzione piu' volte.
+     *
+     * @param listener Il listener da registrare.
+     * @throws NullPointerException Se il listener e' null.
+     */
+    public static synchronized void addListener(AlgorithmListener listener) throws NullPointerException
+    {
+        if (listener == null)
+        {
+            throw new NullPointerException("Il listener non puo' essere null");
+        }
+        AlgorithmListener[] current = listeners;
+        AlgorithmListener[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = listener;
+        listeners = updated;
+    }
+
+    /**
+     * Rimuove una registrazione del listener.
+     *
+     * @param listener Il listener da rimuovere.
+     * @return True se il listener era registrato.
+     */
+    public static synchronized boolean removeListener(AlgorithmListener listener)
+    {
+        AlgorithmListener[] current = listeners;
+        for (int i = 0; i < current.length; i++)
+        {
+            if (current[i] == listener)
+            {
+                AlgorithmListener[] updated = new AlgorithmListener[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                listeners = updated.length == 0 ? NONE : updated;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Indica se c'e' almeno un listener registrato.
+     *
+     * @return True se le esecuzioni vengono riportate.
+     */
+    public static boolean isEnabled()
+    {
+        return listeners.length > 0;
+    }
+
+    /**
+     * Inizia la misura di un'esecuzione.
+     *
+     * @param algorithm L'algoritmo eseguito.
+     * @param graph Il grafo su cui viene eseguito.
+     * @return La sonda dell'esecuzione, o null se non ci sono listener registrati.
+     */
+    static Probe start(Algorithm algorithm, CsrWeightedGraph graph)
+    {
+        return start(algorithm, graph.size(), graph.edgeCount());
+    }
+
+    /**
+     * Inizia la misura di un'esecuzione su un grafo di cui si conoscono solo le dimensioni, per gli algoritmi
+     * che non lavorano sull'istantanea CSR.
+     *
+     * @param algorithm L'algoritmo eseguito.
+     * @param vertexCount Il numero di vertici del grafo.
+     * @param edgeCount Il numero di archi del grafo.
+     * @return La sonda dell'esecuzione, o null se non ci sono listener registrati.
+     */
+    static Probe start(Algorithm algorithm, int vertexCount, int edgeCount)
+    {
+        AlgorithmListener[] current = listeners;
+        if (current.length == 0)
+        {
+            return null;
+        }
+        return new Probe(algorithm, vertexCount, edgeCount, current);
+    }
+
+}
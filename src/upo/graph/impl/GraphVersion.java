@@ -0,0 +1,459 @@
+package upo.graph.impl;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import upo.graph.base.VisitForest;
+import upo.graph.base.WeightedGraph;
+
+/**
+ * Versione immutabile di un {@link VersionedWeightedGraph}, restituita da {@link VersionedWeightedGraph#snapshot()}.
+ * <p>
+ * Le liste di adiacenza sono righe immutabili, ordinate per indice di destinazione, memorizzate in un
+ * {@link PersistentVector}: una modifica del grafo crea una nuova versione che copia solo la riga cambiata e il
+ * cammino verso di essa, e condivide tutto il resto con le versioni precedenti. Una versione non piu' referenziata
+ * da nessun lettore viene quindi recuperata dal garbage collector senza alcuna operazione esplicita.
+ * <p>
+ * Le interrogazioni su vertici e archi leggono direttamente le righe; le visite e gli algoritmi sui cammini e sugli
+ * alberi ricoprenti vengono eseguiti sull'istantanea CSR della versione, costruita alla prima richiesta e poi
+ * riutilizzata. Tutti i metodi che modificherebbero il grafo lanciano una UnsupportedOperationException.
+ *
+ * @author Guido
+ */
+public final class GraphVersion implements WeightedGraph
+{
+    private final long version;
+    private final PersistentVector<Row> rows;
+    private final Map<String, Integer> indexMap;
+    private final int edgeCount;
+    private volatile CsrWeightedGraph csr;
+
+    /**
+     * Lista di adiacenza immutabile di un vertice, con destinazioni in ordine crescente. Le modifiche restituiscono
+     * una nuova riga, che condivide con la precedente gli array rimasti invariati.
+     */
+    static final class Row
+    {
+        private static final int[] NO_TARGETS = new int[0];
+        private static final double[] NO_WEIGHTS = new double[0];
+
+        final String label;
+        final int[] targets;
+        final double[] weights;
+
+        Row(String label)
+        {
+            this(label, NO_TARGETS, NO_WEIGHTS);
+        }
+
+        Row(String label, int[] targets, double[] weights)
+        {
+            this.label = label;
+            this.targets = targets;
+            this.weights = weights;
+        }
+
+        /**
+         * Restituisce la posizione dell'arco verso <code>v</code>, o un valore negativo se l'arco non esiste
+         * (come {@link Arrays#binarySearch(int[], int)}).
+         */
+        int find(int v)
+        {
+            return Arrays.binarySearch(targets, v);
+        }
+
+        /**
+         * Restituisce la riga con l'arco verso <code>v</code> di peso <code>weight</code>, aggiunto o aggiornato.
+         */
+        Row with(int v, double weight)
+        {
+            int pos = find(v);
+            if (pos >= 0)
+            {
+                double[] w = weights.clone();
+                w[pos] = weight;
+                return new Row(label, targets, w);
+            }
+            pos = -pos - 1;
+            int n = targets.length;
+            int[] t = new int[n + 1];
+            double[] w = new double[n + 1];
+            System.arraycopy(targets, 0, t, 0, pos);
+            System.arraycopy(weights, 0, w, 0, pos);
+            t[pos] = v;
+            w[pos] = weight;
+            System.arraycopy(targets, pos, t, pos + 1, n - pos);
+            System.arraycopy(weights, pos, w, pos + 1, n - pos);
+            return new Row(label, t, w);
+        }
+
+        /**
+         * Restituisce la riga senza l'arco in posizione <code>pos</code>.
+         */
+        Row without(int pos)
+        {
+            int n = targets.length;
+            int[] t = new int[n - 1];
+            double[] w = new double[n - 1];
+            System.arraycopy(targets, 0, t, 0, pos);
+            System.arraycopy(weights, 0, w, 0, pos);
+            System.arraycopy(targets, pos + 1, t, pos, n - pos - 1);
+            System.arraycopy(weights, pos + 1, w, pos, n - pos - 1);
+            return new Row(label, t, w);
+        }
+    }
+
+    /**
+     * Costruisce una versione. <code>indexMap</code> puo' contenere anche etichette aggiunte da versioni successive,
+     * con indice non inferiore al numero di righe, che questa versione ignora.
+     *
+     * @param version Il numero della versione.
+     * @param rows Le righe dei vertici, nell'ordine dei loro indici.
+     * @param indexMap La mappa dalle etichette agli indici, condivisa con le versioni successive.
+     * @param edgeCount Il numero di archi.
+     */
+    GraphVersion(long version, PersistentVector<Row> rows, Map<String, Integer> indexMap, int edgeCount)
+    {
+        this.version = version;
+        this.rows = rows;
+        this.indexMap = indexMap;
+        this.edgeCount = edgeCount;
+    }
+
+    PersistentVector<Row> rows()
+    {
+        return rows;
+    }
+
+    Map<String, Integer> indexMap()
+    {
+        return indexMap;
+    }
+
+    Row row(int v)
+    {
+        return rows.get(v);
+    }
+
+    /**
+     * Restituisce il numero della versione, che cresce di uno a ogni modifica del grafo da cui e' stata ottenuta.
+     *
+     * @return Il numero della versione.
+     */
+    public long getVersion()
+    {
+        return version;
+    }
+
+    /**
+     * Restituisce il numero di archi della versione.
+     *
+     * @return Il numero di archi.
+     */
+    public int edgeCount()
+    {
+        return edgeCount;
+    }
+
+    @Override
+    public int getVertexIndex(String label)
+    {
+        if (label == null)
+        {
+            return -1;
+        }
+        Integer index = indexMap.get(label);
+        return index != null && index < rows.size() ? index : -1;
+    }
+
+    @Override
+    public String getVertexLabel(Integer index)
+    {
+        if (index == null || index < 0 || index >= rows.size())
+        {
+            return null;
+        }
+        return rows.get(index).label;
+    }
+
+    /**
+     * Operazione non supportata: la versione e' immutabile.
+     *
+     * @throws UnsupportedOperationException Sempre.
+     */
+    @Override
+    public int addVertex(String label)
+    {
+        throw new UnsupportedOperationException("Il grafo e' immutabile");
+    }
+
+    @Override
+    public boolean containsVertex(String label)
+    {
+        return getVertexIndex(label) >= 0;
+    }
+
+    /**
+     * Operazione non supportata: la versione e' immutabile.
+     *
+     * @throws UnsupportedOperationException Sempre.
+     */
+    @Override
+    public void removeVertex(String label) throws NoSuchElementException
+    {
+        throw new UnsupportedOperationException("Il grafo e' immutabile");
+    }
+
+    /**
+     * Operazione non supportata: la versione e' immutabile.
+     *
+     * @throws UnsupportedOperationException Sempre.
+     */
+    @Override
+    public void addEdge(String sourceVertex, String targetVertex) throws IllegalArgumentException
+    {
+        throw new UnsupportedOperationException("Il grafo e' immutabile");
+    }
+
+    /**
+     * Restituisce la posizione dell'arco tra i due vertici nella riga dell'origine, o un valore negativo se l'arco
+     * non esiste.
+     *
+     * @throws IllegalArgumentException Se uno o entrambi i vertici non appartengono al grafo.
+     */
+    private int edgeOf(String sourceVertex, String targetVertex) throws IllegalArgumentException
+    {
+        int u = getVertexIndex(sourceVertex);
+        int v = getVertexIndex(targetVertex);
+        if (u < 0 || v < 0)
+        {
+            throw new IllegalArgumentException("Il vertice " + sourceVertex + " o " + targetVertex + " non appartiene al grafo");
+        }
+        return rows.get(u).find(v);
+    }
+
+    @Override
+    public boolean containsEdge(String sourceVertex, String targetVertex) throws IllegalArgumentException
+    {
+        return edgeOf(sourceVertex, targetVertex) >= 0;
+    }
+
+    /**
+     * Operazione non supportata: la versione e' immutabile.
+     *
+     * @throws UnsupportedOperationException Sempre.
+     */
+    @Override
+    public void removeEdge(String sourceVertex, String targetVertex) throws IllegalArgumentException, NoSuchElementException
+    {
+        throw new UnsupportedOperationException("Il grafo e' immutabile");
+    }
+
+    @Override
+    public Set<String> getAdjacent(String vertex) throws NoSuchElementException
+    {
+        int u = getVertexIndex(vertex);
+        if (u < 0)
+        {
+            throw new NoSuchElementException("Il vertice " + vertex + " non appartiene al grafo");
+        }
+        Set<String> adjacentVertices = new HashSet<>();
+        for (int v : rows.get(u).targets)
+        {
+            adjacentVertices.add(rows.get(v).label);
+        }
+        return adjacentVertices;
+    }
+
+    @Override
+    public boolean isAdjacent(String targetVertex, String sourceVertex) throws IllegalArgumentException
+    {
+        int u = getVertexIndex(sourceVertex);
+        int v = getVertexIndex(targetVertex);
+        if (u < 0 || v < 0)
+        {
+            throw new IllegalArgumentException("I vertici forniti non appartengono al grafo.");
+        }
+        return rows.get(u).find(v) >= 0;
+    }
+
+    @Override
+    public int size()
+    {
+        return rows.size();
+    }
+
+    @Override
+    public boolean isDirected()
+    {
+        return true;
+    }
+
+    @Override
+    public double getEdgeWeight(String sourceVertex, String targetVertex) throws IllegalArgumentException, NoSuchElementException
+    {
+        int e = edgeOf(sourceVertex, targetVertex);
+        if (e < 0)
+        {
+            throw new NoSuchElementException("Non c'è un arco tra " + sourceVertex + " e " + targetVertex);
+        }
+        return rows.get(getVertexIndex(sourceVertex)).weights[e];
+    }
+
+    /**
+     * Operazione non supportata: la versione e' immutabile.
+     *
+     * @throws UnsupportedOperationException Sempre.
+     */
+    @Override
+    public void setEdgeWeight(String sourceVertex, String targetVertex, double weight) throws IllegalArgumentException, NoSuchElementException
+    {
+        throw new UnsupportedOperationException("Il grafo e' immutabile");
+    }
+
+    /**
+     * Restituisce l'istantanea CSR della versione, costruita alla prima chiamata in tempo O(V+E) e poi riutilizzata.
+     *
+     * @return Un {@code CsrWeightedGraph} equivalente alla versione, con gli stessi indici dei vertici.
+     */
+    public CsrWeightedGraph freeze()
+    {
+        CsrWeightedGraph current = csr;
+        if (current != null)
+        {
+            return current;
+        }
+
+        int n = rows.size();
+        String[] labels = new String[n];
+        int[] offsets = new int[n + 1];
+        int[] targets = new int[edgeCount];
+        double[] weights = new double[edgeCount];
+        for (int v = 0; v < n; v++)
+        {
+            Row row = rows.get(v);
+            labels[v] = row.label;
+            System.arraycopy(row.targets, 0, targets, offsets[v], row.targets.length);
+            System.arraycopy(row.weights, 0, weights, offsets[v], row.weights.length);
+            offsets[v + 1] = offsets[v] + row.targets.length;
+        }
+        current = new CsrWeightedGraph(labels, offsets, targets, weights);
+        csr = current;
+        return current;
+    }
+
+    @Override
+    public boolean isCyclic()
+    {
+        return freeze().isCyclic();
+    }
+
+    @Override
+    public boolean isDAG()
+    {
+        return isDirected() && !isCyclic();
+    }
+
+    @Override
+    public VisitForest getBFSTree(String startingVertex) throws UnsupportedOperationException, IllegalArgumentException
+    {
+        return freeze().getBFSTree(startingVertex);
+    }
+
+    @Override
+    public VisitForest getDFSTree(String startingVertex) throws UnsupportedOperationException, IllegalArgumentException
+    {
+        return freeze().getDFSTree(startingVertex);
+    }
+
+    @Override
+    public VisitForest getDFSTOTForest(String startingVertex) throws UnsupportedOperationException, IllegalArgumentException
+    {
+        return freeze().getDFSTOTForest(startingVertex);
+    }
+
+    @Override
+    public VisitForest getDFSTOTForest(String[] vertexOrdering) throws UnsupportedOperationException, IllegalArgumentException
+    {
+        return freeze().getDFSTOTForest(vertexOrdering);
+    }
+
+    @Override
+    public String[] topologicalSort() throws UnsupportedOperationException
+    {
+        return freeze().topologicalSort();
+    }
+
+    @Override
+    public Set<Set<String>> stronglyConnectedComponents() throws UnsupportedOperationException
+    {
+        return freeze().stronglyConnectedComponents();
+    }
+
+    @Override
+    public Set<Set<String>> connectedComponents() throws UnsupportedOperationException
+    {
+        throw new UnsupportedOperationException("Un grafo orientato non supporta l'operazione");
+    }
+
+    @Override
+    public WeightedGraph getBellmanFordShortestPaths(String startingVertex) throws UnsupportedOperationException, IllegalArgumentException
+    {
+        return freeze().getBellmanFordShortestPaths(startingVertex);
+    }
+
+    @Override
+    public WeightedGraph getDijkstraShortestPaths(String startingVertex) throws UnsupportedOperationException, IllegalArgumentException
+    {
+        return freeze().getDijkstraShortestPaths(startingVertex);
+    }
+
+    @Override
+    public WeightedGraph getPrimMST(String startingVertex) throws UnsupportedOperationException, IllegalArgumentException
+    {
+        return freeze().getPrimMST(startingVertex);
+    }
+
+    @Override
+    public WeightedGraph getKruskalMST() throws UnsupportedOperationException
+    {
+        return freeze().getKruskalMST();
+    }
+
+    @Override
+    public WeightedGraph getFloydWarshallShortestPaths() throws UnsupportedOperationException
+    {
+        return freeze().getFloydWarshallShortestPaths();
+    }
+
+    /**
+     * Due versioni sono uguali se hanno gli stessi vertici con gli stessi indici e gli stessi archi pesati,
+     * indipendentemente dal numero di versione.
+     *
+     * @param obj l'oggetto da confrontare con questa versione
+     * @return true se i due grafi sono uguali, false altrimenti
+     */
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj)
+        {
+            return true;
+        }
+        if (!(obj instanceof GraphVersion))
+        {
+            return false;
+        }
+        return freeze().equals(((GraphVersion) obj).freeze());
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return freeze().hashCode();
+    }
+
+}
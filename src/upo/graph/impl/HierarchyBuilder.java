@@ -0,0 +1,487 @@
+package upo.graph.impl;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Preprocessing di una {@link ContractionHierarchy}: i vertici vengono contratti uno alla volta in ordine di
+ * importanza crescente e, per ogni coppia di vicini (u, w) di un vertice contratto v, si aggiunge la scorciatoia
+ * u &rarr; w quando il cammino u &rarr; v &rarr; w e' l'unico cammino minimo tra u e w che resta nel grafo
+ * (cioe' quando una ricerca locale, detta witness search, non trova un cammino alternativo non piu' lungo).
+ * <p>
+ * La contrazione procede per round. In ogni round si aggiornano in parallelo le priorita' dei vertici i cui vicini
+ * sono cambiati, si sceglie un insieme indipendente di vertici con priorita' minima rispetto ai propri vicini, si
+ * calcolano in parallelo le loro scorciatoie e infine le si applicano in sequenza. Durante le witness search del
+ * round i vertici dell'insieme vengono ignorati: si possono aggiungere scorciatoie superflue, mai perderne di
+ * necessarie.
+ *
+ * @author Guido
+ */
+final class HierarchyBuilder
+{
+    /** Numero massimo di vertici estratti da una witness search prima di rinunciare. */
+    private static final int SETTLE_LIMIT = 500;
+
+    private final int n;
+    private final Arcs[] out;
+    private final Arcs[] in;
+    private final boolean[] contracted;
+    private final int[] rank;
+    private final int[] deletedNeighbours;
+    private final int[] priority;
+    private final int[] selectedRound;
+    private final ThreadLocal<WitnessSearch> searches;
+
+    /**
+     * Archi uscenti o entranti di un vertice durante la contrazione: destinazione, peso e vertice intermedio
+     * (-1 per gli archi originali). Esiste al piu' un arco per ogni coppia di vertici.
+     */
+    private static final class Arcs
+    {
+        int[] vertex = new int[4];
+        double[] weight = new double[4];
+        int[] middle = new int[4];
+        int size;
+
+        /**
+         * Aggiunge l'arco, oppure ne diminuisce il peso se esiste gia' con un peso maggiore.
+         */
+        void addOrDecrease(int v, double w, int m)
+        {
+            for (int i = 0; i < size; i++)
+            {
+                if (vertex[i] == v)
+                {
+                    if (w < weight[i])
+                    {
+                        weight[i] = w;
+                        middle[i] = m;
+                    }
+                    return;
+                }
+            }
+            if (size == vertex.length)
+            {
+                vertex = Arrays.copyOf(vertex, size * 2);
+                weight = Arrays.copyOf(weight, size * 2);
+                middle = Arrays.copyOf(middle, size * 2);
+            }
+            vertex[size] = v;
+            weight[size] = w;
+            middle[size] = m;
+            size++;
+        }
+    }
+
+    /**
+     * Scorciatoie prodotte dalla contrazione di un vertice.
+     */
+    private static final class Shortcuts
+    {
+        int[] from = new int[8];
+        int[] to = new int[8];
+        double[] weight = new double[8];
+        int size;
+
+        void add(int u, int w, double length)
+        {
+            if (size == from.length)
+            {
+                from = Arrays.copyOf(from, size * 2);
+                to = Arrays.copyOf(to, size * 2);
+                weight = Arrays.copyOf(weight, size * 2);
+            }
+            from[size] = u;
+            to[size] = w;
+            weight[size] = length;
+            size++;
+        }
+    }
+
+    /**
+     * Strutture di lavoro di un thread per le witness search, riutilizzate tra una ricerca e l'altra.
+     */
+    private static final class WitnessSearch
+    {
+        final double[] dist;
+        final int[] touched;
+        final IndexedMinHeap heap;
+        int touchedCount;
+
+        WitnessSearch(int n)
+        {
+            dist = new double[n];
+            touched = new int[n];
+            heap = new IndexedMinHeap(n);
+            Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        }
+
+        void reset()
+        {
+            for (int i = 0; i < touchedCount; i++)
+            {
+                dist[touched[i]] = Double.POSITIVE_INFINITY;
+            }
+            touchedCount = 0;
+            heap.clear();
+        }
+    }
+
+    private HierarchyBuilder(CsrWeightedGraph graph)
+    {
+        n = graph.size();
+        out = new Arcs[n];
+        in = new Arcs[n];
+        for (int v = 0; v < n; v++)
+        {
+            out[v] = new Arcs();
+            in[v] = new Arcs();
+        }
+        for (int u = 0; u < n; u++)
+        {
+            for (int e = graph.firstEdge(u); e < graph.lastEdge(u); e++)
+            {
+                int v = graph.edgeTarget(e);
+                if (v != u)
+                {
+                    out[u].addOrDecrease(v, graph.edgeWeight(e), -1);
+                    in[v].addOrDecrease(u, graph.edgeWeight(e), -1);
+                }
+            }
+        }
+        contracted = new boolean[n];
+        rank = new int[n];
+        deletedNeighbours = new int[n];
+        priority = new int[n];
+        selectedRound = new int[n];
+        Arrays.fill(selectedRound, -1);
+        searches = ThreadLocal.withInitial(() -> new WitnessSearch(n));
+    }
+
+    /**
+     * Costruisce la gerarchia del grafo specificato, che non deve contenere archi con peso negativo.
+     *
+     * @param graph Il grafo.
+     * @param probe La sonda dell'esecuzione, oppure null.
+     * @return La gerarchia di contrazione.
+     */
+    static ContractionHierarchy build(CsrWeightedGraph graph, Probe probe)
+    {
+        return new HierarchyBuilder(graph).contract(graph, probe);
+    }
+
+    private ContractionHierarchy contract(CsrWeightedGraph graph, Probe probe)
+    {
+        long shortcutCount = 0;
+        boolean[] dirty = new boolean[n];
+        Arrays.fill(dirty, true);
+        int[] remaining = new int[n];
+        for (int v = 0; v < n; v++)
+        {
+            remaining[v] = v;
+        }
+        int remainingCount = n;
+        int nextRank = 0;
+        int round = 0;
+
+        while (remainingCount > 0)
+        {
+            int[] current = Arrays.copyOf(remaining, remainingCount);
+            int currentRound = round;
+
+            // Aggiorna le priorita' dei vertici i cui vicini sono cambiati nel round precedente
+            IntStream.range(0, current.length).parallel().forEach(i ->
+            {
+                int v = current[i];
+                if (dirty[v])
+                {
+                    priority[v] = computePriority(v);
+                }
+            });
+            Arrays.fill(dirty, false);
+
+            // Insieme indipendente: vertici con priorita' minore di quella di tutti i vicini non ancora contratti
+            int[] selected = IntStream.of(current).parallel().filter(this::isLocalMinimum).toArray();
+            for (int v : selected)
+            {
+                selectedRound[v] = currentRound;
+            }
+
+            Shortcuts[] shortcuts = new Shortcuts[selected.length];
+            IntStream.range(0, selected.length).parallel().forEach(i ->
+            {
+                Shortcuts found = new Shortcuts();
+                findShortcuts(selected[i], currentRound, found);
+                shortcuts[i] = found;
+            });
+
+            // Applica le contrazioni: gli archi dei vertici dell'insieme non si toccano, quindi l'ordine e' libero
+            for (int i = 0; i < selected.length; i++)
+            {
+                int v = selected[i];
+                rank[v] = nextRank++;
+                contracted[v] = true;
+                Shortcuts found = shortcuts[i];
+                shortcutCount += found.size;
+                for (int j = 0; j < found.size; j++)
+                {
+                    out[found.from[j]].addOrDecrease(found.to[j], found.weight[j], v);
+                    in[found.to[j]].addOrDecrease(found.from[j], found.weight[j], v);
+                }
+                markNeighbours(out[v], dirty);
+                markNeighbours(in[v], dirty);
+            }
+
+            int kept = 0;
+            for (int i = 0; i < remainingCount; i++)
+            {
+                if (!contracted[remaining[i]])
+                {
+                    remaining[kept++] = remaining[i];
+                }
+            }
+            remainingCount = kept;
+            round++;
+        }
+
+        if (probe != null)
+        {
+            // Ogni scorciatoia inserita o accorciata conta come un rilassamento, ogni insieme indipendente come
+            // un passo
+            probe.count(n, 0, shortcutCount, 0, round);
+            probe.phase("contrazione");
+        }
+        ContractionHierarchy hierarchy = export(graph);
+        if (probe != null)
+        {
+            probe.phase("esportazione");
+        }
+        return hierarchy;
+    }
+
+    private void markNeighbours(Arcs arcs, boolean[] dirty)
+    {
+        for (int i = 0; i < arcs.size; i++)
+        {
+            int x = arcs.vertex[i];
+            if (!contracted[x])
+            {
+                deletedNeighbours[x]++;
+                dirty[x] = true;
+            }
+        }
+    }
+
+    /**
+     * Priorita' di contrazione: differenza tra le scorciatoie che la contrazione aggiungerebbe e gli archi che
+     * rimuoverebbe, piu' il numero di vicini gia' contratti, per distribuire le contrazioni in modo uniforme.
+     */
+    private int computePriority(int v)
+    {
+        Shortcuts found = new Shortcuts();
+        findShortcuts(v, -2, found);
+        int removed = liveDegree(out[v]) + liveDegree(in[v]);
+        return found.size - removed + deletedNeighbours[v];
+    }
+
+    private int liveDegree(Arcs arcs)
+    {
+        int degree = 0;
+        for (int i = 0; i < arcs.size; i++)
+        {
+            if (!contracted[arcs.vertex[i]])
+            {
+                degree++;
+            }
+        }
+        return degree;
+    }
+
+    private boolean isLocalMinimum(int v)
+    {
+        return isBelowNeighbours(v, out[v]) && isBelowNeighbours(v, in[v]);
+    }
+
+    private boolean isBelowNeighbours(int v, Arcs arcs)
+    {
+        for (int i = 0; i < arcs.size; i++)
+        {
+            int u = arcs.vertex[i];
+            if (!contracted[u] && precedes(u, v))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Ordine totale sui vertici non contratti: priorita' minore, poi un hash dell'indice per spezzare la parita'
+     * senza favorire sistematicamente gli indici bassi.
+     */
+    private boolean precedes(int u, int v)
+    {
+        if (priority[u] != priority[v])
+        {
+            return priority[u] < priority[v];
+        }
+        int hu = mix(u);
+        int hv = mix(v);
+        return hu != hv ? hu < hv : u < v;
+    }
+
+    private static int mix(int x)
+    {
+        x *= 0x9E3779B9;
+        return x ^ (x >>> 16);
+    }
+
+    /**
+     * Calcola le scorciatoie necessarie per contrarre <code>v</code>. Le witness search ignorano i vertici gia'
+     * contratti, <code>v</code> stesso e i vertici selezionati nel round <code>round</code>.
+     */
+    private void findShortcuts(int v, int round, Shortcuts found)
+    {
+        Arcs incoming = in[v];
+        Arcs outgoing = out[v];
+        double maxOut = 0;
+        for (int j = 0; j < outgoing.size; j++)
+        {
+            if (!contracted[outgoing.vertex[j]])
+            {
+                maxOut = Math.max(maxOut, outgoing.weight[j]);
+            }
+        }
+
+        WitnessSearch search = searches.get();
+        for (int i = 0; i < incoming.size; i++)
+        {
+            int u = incoming.vertex[i];
+            if (contracted[u])
+            {
+                continue;
+            }
+            double toV = incoming.weight[i];
+            witnessSearch(search, u, v, round, toV + maxOut);
+            for (int j = 0; j < outgoing.size; j++)
+            {
+                int w = outgoing.vertex[j];
+                if (w == u || contracted[w])
+                {
+                    continue;
+                }
+                double viaV = toV + outgoing.weight[j];
+                if (search.dist[w] > viaV)
+                {
+                    found.add(u, w, viaV);
+                }
+            }
+            search.reset();
+        }
+    }
+
+    /**
+     * Dijkstra limitato da <code>u</code>: si ferma oltre la distanza <code>limit</code> o dopo
+     * {@value #SETTLE_LIMIT} vertici estratti. Le distanze restano nella struttura di lavoro fino al reset.
+     */
+    private void witnessSearch(WitnessSearch search, int u, int v, int round, double limit)
+    {
+        search.dist[u] = 0;
+        search.touched[search.touchedCount++] = u;
+        search.heap.insert(u, 0);
+        int settled = 0;
+        while (!search.heap.isEmpty() && settled < SETTLE_LIMIT)
+        {
+            int x = search.heap.extractMin();
+            settled++;
+            double dx = search.dist[x];
+            if (dx > limit)
+            {
+                break;
+            }
+            Arcs arcs = out[x];
+            for (int i = 0; i < arcs.size; i++)
+            {
+                int y = arcs.vertex[i];
+                if (y == v || contracted[y] || selectedRound[y] == round)
+                {
+                    continue;
+                }
+                double alt = dx + arcs.weight[i];
+                if (alt < search.dist[y])
+                {
+                    if (search.dist[y] == Double.POSITIVE_INFINITY)
+                    {
+                        search.touched[search.touchedCount++] = y;
+                    }
+                    search.dist[y] = alt;
+                    search.heap.insertOrDecrease(y, alt);
+                }
+            }
+        }
+    }
+
+    /**
+     * Costruisce i due grafi verso l'alto della gerarchia: gli archi (v, w) con rango di w maggiore di quello di
+     * v per la ricerca in avanti, e gli archi (u, v) con rango di u maggiore, memorizzati presso v, per quella
+     * all'indietro.
+     */
+    private ContractionHierarchy export(CsrWeightedGraph graph)
+    {
+        String[] labels = new String[n];
+        for (int v = 0; v < n; v++)
+        {
+            labels[v] = graph.getVertexLabel(v);
+        }
+        UpwardGraph up = upward(out);
+        UpwardGraph down = upward(in);
+        return new ContractionHierarchy(labels, rank, up.offsets, up.targets, up.weights, up.middles,
+                down.offsets, down.targets, down.weights, down.middles);
+    }
+
+    private static final class UpwardGraph
+    {
+        int[] offsets;
+        int[] targets;
+        double[] weights;
+        int[] middles;
+    }
+
+    private UpwardGraph upward(Arcs[] arcs)
+    {
+        UpwardGraph graph = new UpwardGraph();
+        graph.offsets = new int[n + 1];
+        for (int v = 0; v < n; v++)
+        {
+            int count = 0;
+            for (int i = 0; i < arcs[v].size; i++)
+            {
+                if (rank[arcs[v].vertex[i]] > rank[v])
+                {
+                    count++;
+                }
+            }
+            graph.offsets[v + 1] = graph.offsets[v] + count;
+        }
+        int m = graph.offsets[n];
+        graph.targets = new int[m];
+        graph.weights = new double[m];
+        graph.middles = new int[m];
+        for (int v = 0; v < n; v++)
+        {
+            int e = graph.offsets[v];
+            for (int i = 0; i < arcs[v].size; i++)
+            {
+                if (rank[arcs[v].vertex[i]] > rank[v])
+                {
+                    graph.targets[e] = arcs[v].vertex[i];
+                    graph.weights[e] = arcs[v].weight[i];
+                    graph.middles[e] = arcs[v].middle[i];
+                    e++;
+                }
+            }
+        }
+        return graph;
+    }
+
+}
@@ -0,0 +1,255 @@
+package upo.graph.impl;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Coda di priorita' minima indicizzata, implementata come heap 4-ario su array di primitivi.
+ * Gli elementi sono gli interi compresi tra 0 e <code>capacity-1</code> (tipicamente gli indici dei vertici),
+ * ciascuno con una priorita' di tipo double. Oltre alle operazioni classiche supporta
+ * <code>decreaseKey</code> in tempo O(log n), grazie all'array delle posizioni degli elementi nello heap.
+ * <p>
+ * Lo heap puo' essere svuotato con {@link #clear()} e riutilizzato senza nuove allocazioni.
+ *
+ * @author Guido
+ */
+public class IndexedMinHeap
+{
+    private static final int ARITY = 4;
+
+    private final int[] heap;
+    private final int[] position;
+    private final double[] keys;
+    private int size;
+
+    /**
+     * Costruisce uno heap vuoto in grado di contenere gli elementi compresi tra 0 e <code>capacity-1</code>.
+     *
+     * @param capacity Il numero massimo di elementi distinti.
+     */
+    public IndexedMinHeap(int capacity)
+    {
+        heap = new int[capacity];
+        position = new int[capacity];
+        keys = new double[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    /**
+     * Restituisce la capacita' dello heap.
+     *
+     * @return Il numero massimo di elementi distinti.
+     */
+    public int capacity()
+    {
+        return position.length;
+    }
+
+    /**
+     * Restituisce il numero di elementi presenti.
+     *
+     * @return Il numero di elementi nello heap.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Verifica se lo heap e' vuoto.
+     *
+     * @return True se lo heap non contiene elementi, altrimenti false.
+     */
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    /**
+     * Verifica se l'elemento e' presente nello heap.
+     *
+     * @param id L'elemento da cercare.
+     * @return True se l'elemento e' presente, altrimenti false.
+     */
+    public boolean contains(int id)
+    {
+        return position[id] >= 0;
+    }
+
+    /**
+     * Restituisce la priorita' corrente di un elemento presente nello heap.
+     *
+     * @param id L'elemento.
+     * @return La sua priorita'.
+     * @throws NoSuchElementException Se l'elemento non e' presente.
+     */
+    public double keyOf(int id) throws NoSuchElementException
+    {
+        if (!contains(id))
+        {
+            throw new NoSuchElementException("L'elemento " + id + " non appartiene allo heap");
+        }
+        return keys[id];
+    }
+
+    /**
+     * Inserisce un nuovo elemento con la priorita' specificata.
+     *
+     * @param id L'elemento da inserire.
+     * @param key La sua priorita'.
+     * @throws IllegalArgumentException Se l'elemento e' gia' presente.
+     */
+    public void insert(int id, double key) throws IllegalArgumentException
+    {
+        if (contains(id))
+        {
+            throw new IllegalArgumentException("L'elemento " + id + " appartiene gia' allo heap");
+        }
+        keys[id] = key;
+        heap[size] = id;
+        position[id] = size;
+        siftUp(size++);
+    }
+
+    /**
+     * Diminuisce la priorita' di un elemento presente nello heap.
+     *
+     * @param id L'elemento.
+     * @param key La nuova priorita', non maggiore di quella attuale.
+     * @throws NoSuchElementException Se l'elemento non e' presente.
+     * @throws IllegalArgumentException Se la nuova priorita' e' maggiore di quella attuale.
+     */
+    public void decreaseKey(int id, double key) throws NoSuchElementException, IllegalArgumentException
+    {
+        if (keyOf(id) < key)
+        {
+            throw new IllegalArgumentException("La nuova priorita' di " + id + " e' maggiore di quella attuale");
+        }
+        keys[id] = key;
+        siftUp(position[id]);
+    }
+
+    /**
+     * Inserisce l'elemento se non e' presente, altrimenti ne diminuisce la priorita' se <code>key</code>
+     * e' minore di quella attuale.
+     *
+     * @param id L'elemento.
+     * @param key La priorita' proposta.
+     * @return True se lo heap e' stato modificato, altrimenti false.
+     */
+    public boolean insertOrDecrease(int id, double key)
+    {
+        if (!contains(id))
+        {
+            insert(id, key);
+            return true;
+        }
+        if (key < keys[id])
+        {
+            keys[id] = key;
+            siftUp(position[id]);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Restituisce l'elemento con priorita' minima, senza rimuoverlo.
+     *
+     * @return L'elemento minimo.
+     * @throws NoSuchElementException Se lo heap e' vuoto.
+     */
+    public int peek() throws NoSuchElementException
+    {
+        if (size == 0)
+        {
+            throw new NoSuchElementException("Lo heap e' vuoto");
+        }
+        return heap[0];
+    }
+
+    /**
+     * Rimuove e restituisce l'elemento con priorita' minima.
+     *
+     * @return L'elemento minimo.
+     * @throws NoSuchElementException Se lo heap e' vuoto.
+     */
+    public int extractMin() throws NoSuchElementException
+    {
+        int min = peek();
+        position[min] = -1;
+        size--;
+        if (size > 0)
+        {
+            heap[0] = heap[size];
+            position[heap[0]] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    /**
+     * Svuota lo heap in tempo proporzionale al numero di elementi presenti.
+     */
+    public void clear()
+    {
+        for (int i = 0; i < size; i++)
+        {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int i)
+    {
+        int id = heap[i];
+        double key = keys[id];
+        while (i > 0)
+        {
+            int parent = (i - 1) / ARITY;
+            int parentId = heap[parent];
+            if (keys[parentId] <= key)
+            {
+                break;
+            }
+            heap[i] = parentId;
+            position[parentId] = i;
+            i = parent;
+        }
+        heap[i] = id;
+        position[id] = i;
+    }
+
+    private void siftDown(int i)
+    {
+        int id = heap[i];
+        double key = keys[id];
+        while (true)
+        {
+            int first = i * ARITY + 1;
+            if (first >= size)
+            {
+                break;
+            }
+            int last = Math.min(first + ARITY, size);
+            int best = first;
+            for (int c = first + 1; c < last; c++)
+            {
+                if (keys[heap[c]] < keys[heap[best]])
+                {
+                    best = c;
+                }
+            }
+            if (keys[heap[best]] >= key)
+            {
+                break;
+            }
+            heap[i] = heap[best];
+            position[heap[i]] = i;
+            i = best;
+        }
+        heap[i] = id;
+        position[id] = i;
+    }
+
+}
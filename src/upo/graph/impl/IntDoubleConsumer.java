@@ -0,0 +1,20 @@
+package upo.graph.impl;
+
+/**
+ * Operazione che riceve un arco come coppia (indice del vertice, peso), usata per visitare gli archi di un vertice
+ * senza copiare le etichette in nuove collezioni.
+ *
+ * @author Guido
+ */
+@FunctionalInterface
+public interface IntDoubleConsumer
+{
+    /**
+     * Esegue l'operazione sull'arco.
+     *
+     * @param vertex L'indice del vertice all'altro estremo dell'arco.
+     * @param weight Il peso dell'arco.
+     */
+    void accept(int vertex, double weight);
+
+}
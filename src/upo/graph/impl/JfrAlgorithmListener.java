@@ -0,0 +1,33 @@
+package upo.graph.impl;
+
+/**
+ * Listener che emette un evento JFR <code>upo.graph.Algorithm</code> per ogni esecuzione, con i contatori, la
+ * durata e la durata delle fasi. Se l'evento non e' abilitato nella registrazione in corso, o non c'e' nessuna
+ * registrazione, il listener non copia i contatori e non emette nulla.
+ *
+ * @author Guido
+ */
+public final class JfrAlgorithmListener implements AlgorithmListener
+{
+    @Override
+    public void algorithmCompleted(AlgorithmRun run)
+    {
+        AlgorithmEvent event = new AlgorithmEvent();
+        if (!event.shouldCommit())
+        {
+            return;
+        }
+        event.algorithm = run.getAlgorithm().name();
+        event.vertexCount = run.getVertexCount();
+        event.edgeCount = run.getEdgeCount();
+        event.verticesVisited = run.getVerticesVisited();
+        event.edgesExamined = run.getEdgesExamined();
+        event.relaxations = run.getRelaxations();
+        event.heapOperations = run.getHeapOperations();
+        event.rounds = run.getRounds();
+        event.algorithmDuration = run.getNanos();
+        event.phases = run.getPhases().toString();
+        event.commit();
+    }
+
+}
@@ -0,0 +1,166 @@
+package upo.graph.impl;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Algoritmo di Johnson per i cammini minimi tra tutte le coppie di vertici di un {@link CsrWeightedGraph}
+ * sparso, anche con archi di peso negativo: una passata di Bellman-Ford calcola i potenziali con cui ripesare
+ * gli archi in modo che diventino non negativi, poi si esegue Dijkstra da ogni vertice sul grafo ripesato.
+ * <p>
+ * Le V esecuzioni di Dijkstra sono indipendenti e vengono distribuite sul pool fork-join comune. Ogni thread
+ * riutilizza lo stesso heap e gli stessi array di lavoro per tutte le sorgenti che gli vengono assegnate, e
+ * scrive solo la propria riga della matrice del risultato. Il costo totale e' O(VE log V).
+ *
+ * @author Guido
+ */
+final class Johnson
+{
+    private Johnson()
+    {
+    }
+
+    /**
+     * Strutture di lavoro di un thread: heap, distanze e predecessori di una singola esecuzione di Dijkstra.
+     */
+    private static final class Workspace
+    {
+        private final IndexedMinHeap heap;
+        private final double[] dist;
+        private final int[] parent;
+        private final int[] stack;
+
+        Workspace(int n)
+        {
+            this.heap = new IndexedMinHeap(n);
+            this.dist = new double[n];
+            this.parent = new int[n];
+            this.stack = new int[n];
+        }
+    }
+
+    /**
+     * Calcola le distanze minime tra tutte le coppie di vertici.
+     *
+     * @param graph Il grafo.
+     * @return La matrice delle distanze e dei successori.
+     * @throws UnsupportedOperationException Se il grafo contiene un ciclo negativo o e' troppo grande per
+     * una matrice indicizzata da int.
+     */
+    static DistanceMatrix run(CsrWeightedGraph graph) throws UnsupportedOperationException
+    {
+        int n = graph.size();
+        DistanceMatrix.checkSize(n);
+        Probe probe = GraphMetrics.start(Algorithm.JOHNSON, graph);
+        double[] h = new double[n];
+        if (hasNegativeSelfLoop(graph) || !ShortestPaths.potentials(graph, h, probe))
+        {
+            if (probe != null)
+            {
+                probe.phase("potenziali");
+                probe.finish();
+            }
+            throw new UnsupportedOperationException("Il grafo contiene un ciclo negativo");
+        }
+        CsrWeightedGraph reweighted = graph.hasNegativeWeights() ? reweight(graph, h) : graph;
+        if (probe != null)
+        {
+            probe.phase("potenziali");
+        }
+
+        double[] dist = new double[n * n];
+        int[] next = new int[n * n];
+        ThreadLocal<Workspace> workspaces = ThreadLocal.withInitial(() -> new Workspace(n));
+        IntStream.range(0, n).parallel().forEach(s ->
+        {
+            Workspace workspace = workspaces.get();
+            ShortestPaths.dijkstra(reweighted, s, workspace.dist, workspace.parent, workspace.heap, probe);
+            int row = s * n;
+            for (int v = 0; v < n; v++)
+            {
+                double d = workspace.dist[v];
+                dist[row + v] = d == Double.POSITIVE_INFINITY ? d : d - h[s] + h[v];
+            }
+            fillNextHops(s, workspace, next, row);
+        });
+        if (probe != null)
+        {
+            probe.phase("dijkstra");
+            probe.finish();
+        }
+        return new DistanceMatrix(graph, dist, next);
+    }
+
+    /**
+     * Ricava dall'albero dei predecessori la riga della matrice dei successori: il successore di s verso v e' il
+     * figlio di s sul cammino dell'albero che porta a v. Ogni vertice viene risolto una sola volta, risalendo
+     * l'albero fino a un vertice gia' risolto.
+     */
+    private static void fillNextHops(int s, Workspace workspace, int[] next, int row)
+    {
+        int n = workspace.parent.length;
+        int[] parent = workspace.parent;
+        int[] stack = workspace.stack;
+        Arrays.fill(next, row, row + n, -1);
+        next[row + s] = s;
+        for (int v = 0; v < n; v++)
+        {
+            if (next[row + v] >= 0 || parent[v] < 0)
+            {
+                continue;
+            }
+            int top = 0;
+            int u = v;
+            while (next[row + u] < 0 && parent[u] != s)
+            {
+                stack[top++] = u;
+                u = parent[u];
+            }
+            int hop = next[row + u] >= 0 ? next[row + u] : u;
+            next[row + u] = hop;
+            while (top > 0)
+            {
+                next[row + stack[--top]] = hop;
+            }
+        }
+    }
+
+    /**
+     * Crea una copia del grafo con i pesi ripesati secondo i potenziali. Gli errori di arrotondamento che
+     * renderebbero negativo un peso ripesato vengono portati a 0.
+     */
+    private static CsrWeightedGraph reweight(CsrWeightedGraph graph, double[] h)
+    {
+        int n = graph.size();
+        String[] labels = new String[n];
+        int[] offsets = new int[n + 1];
+        int[] targets = new int[graph.edgeCount()];
+        double[] weights = new double[graph.edgeCount()];
+        for (int u = 0; u < n; u++)
+        {
+            labels[u] = graph.getVertexLabel(u);
+            offsets[u + 1] = graph.lastEdge(u);
+            for (int e = graph.firstEdge(u); e < graph.lastEdge(u); e++)
+            {
+                int v = graph.edgeTarget(e);
+                targets[e] = v;
+                weights[e] = Math.max(0, graph.edgeWeight(e) + h[u] - h[v]);
+            }
+        }
+        return new CsrWeightedGraph(labels, offsets, targets, weights);
+    }
+
+    private static boolean hasNegativeSelfLoop(CsrWeightedGraph graph)
+    {
+        for (int u = 0; u < graph.size(); u++)
+        {
+            int e = graph.findEdge(u, u);
+            if (e >= 0 && graph.edgeWeight(e) < 0)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,173 @@
+package upo.graph.impl;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Listener che accumula i contatori delle esecuzioni per algoritmo: totali, durata massima e istogrammi della
+ * durata e della dimensione del grafo. Va registrato con {@link GraphMetrics#addListener(AlgorithmListener)}.
+ * <p>
+ * Gli aggiornamenti usano {@link LongAdder} e contatori atomici, quindi esecuzioni concorrenti non si contendono
+ * un lock. I totali si leggono con {@link #snapshot()}, oppure vengono emessi periodicamente come eventi JFR
+ * <code>upo.graph.AlgorithmMetrics</code> dopo {@link #startJfrExport()}.
+ *
+ * @author Guido
+ */
+public final class MetricsRegistry implements AlgorithmListener
+{
+    /**
+     * Totali di un singolo algoritmo.
+     */
+    private static final class Totals
+    {
+        private final LongAdder runs = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder verticesVisited = new LongAdder();
+        private final LongAdder edgesExamined = new LongAdder();
+        private final LongAdder relaxations = new LongAdder();
+        private final LongAdder heapOperations = new LongAdder();
+        private final LongAdder rounds = new LongAdder();
+        private final AtomicLongArray latencyHistogram = new AtomicLongArray(MetricsSnapshot.BUCKETS);
+        private final AtomicLongArray edgeCountHistogram = new AtomicLongArray(MetricsSnapshot.BUCKETS);
+
+        void add(AlgorithmRun run)
+        {
+            runs.increment();
+            nanos.add(run.getNanos());
+            maxNanos.accumulate(run.getNanos());
+            verticesVisited.add(run.getVerticesVisited());
+            edgesExamined.add(run.getEdgesExamined());
+            relaxations.add(run.getRelaxations());
+            heapOperations.add(run.getHeapOperations());
+            rounds.add(run.getRounds());
+            latencyHistogram.incrementAndGet(MetricsSnapshot.bucket(run.getNanos()));
+            edgeCountHistogram.incrementAndGet(MetricsSnapshot.bucket(run.getEdgeCount()));
+        }
+
+        MetricsSnapshot snapshot(Algorithm algorithm)
+        {
+            return new MetricsSnapshot(algorithm, runs.sum(), nanos.sum(), maxNanos.get(), verticesVisited.sum(),
+                    edgesExamined.sum(), relaxations.sum(), heapOperations.sum(), rounds.sum(),
+                    toArray(latencyHistogram), toArray(edgeCountHistogram));
+        }
+
+        private static long[] toArray(AtomicLongArray histogram)
+        {
+            long[] counts = new long[histogram.length()];
+            for (int i = 0; i < counts.length; i++)
+            {
+                counts[i] = histogram.get(i);
+            }
+            return counts;
+        }
+    }
+
+    private volatile EnumMap<Algorithm, Totals> totals = emptyTotals();
+    private Runnable jfrHook;
+
+    private static EnumMap<Algorithm, Totals> emptyTotals()
+    {
+        EnumMap<Algorithm, Totals> map = new EnumMap<>(Algorithm.class);
+        for (Algorithm algorithm : Algorithm.values())
+        {
+            map.put(algorithm, new Totals());
+        }
+        return map;
+    }
+
+    @Override
+    public void algorithmCompleted(AlgorithmRun run)
+    {
+        totals.get(run.getAlgorithm()).add(run);
+    }
+
+    /**
+     * Restituisce i totali degli algoritmi eseguiti almeno una volta. I totali di un algoritmo sono letti contatore
+     * per contatore, quindi un'esecuzione che termina durante la lettura puo' comparire solo in parte.
+     *
+     * @return Una mappa, indipendente dal registro, dagli algoritmi ai rispettivi totali.
+     */
+    public Map<Algorithm, MetricsSnapshot> snapshot()
+    {
+        Map<Algorithm, MetricsSnapshot> result = new EnumMap<>(Algorithm.class);
+        for (Map.Entry<Algorithm, Totals> entry : totals.entrySet())
+        {
+            MetricsSnapshot snapshot = entry.getValue().snapshot(entry.getKey());
+            if (snapshot.getRuns() > 0)
+            {
+                result.put(entry.getKey(), snapshot);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Restituisce i totali di un algoritmo.
+     *
+     * @param algorithm L'algoritmo.
+     * @return I totali, con tutti i contatori a zero se l'algoritmo non e' mai stato eseguito.
+     */
+    public MetricsSnapshot snapshot(Algorithm algorithm)
+    {
+        return totals.get(algorithm).snapshot(algorithm);
+    }
+
+    /**
+     * Azzera tutti i totali.
+     */
+    public void reset()
+    {
+        totals = emptyTotals();
+    }
+
+    /**
+     * Inizia a emettere i totali come eventi JFR <code>upo.graph.AlgorithmMetrics</code>, uno per algoritmo eseguito
+     * almeno una volta, con il periodo configurato nella registrazione (1 secondo se non specificato). Non fa nulla
+     * se l'esportazione e' gia' attiva.
+     */
+    public synchronized void startJfrExport()
+    {
+        if (jfrHook != null)
+        {
+            return;
+        }
+        jfrHook = () ->
+        {
+            for (MetricsSnapshot snapshot : snapshot().values())
+            {
+                AlgorithmMetricsEvent event = new AlgorithmMetricsEvent();
+                event.algorithm = snapshot.getAlgorithm().name();
+                event.runs = snapshot.getRuns();
+                event.totalDuration = snapshot.getTotalNanos();
+                event.maxDuration = snapshot.getMaxNanos();
+                event.p99Duration = snapshot.getLatencyPercentile(99);
+                event.verticesVisited = snapshot.getVerticesVisited();
+                event.edgesExamined = snapshot.getEdgesExamined();
+                event.relaxations = snapshot.getRelaxations();
+                event.heapOperations = snapshot.getHeapOperations();
+                event.rounds = snapshot.getRounds();
+                event.commit();
+            }
+        };
+        FlightRecorder.addPeriodicEvent(AlgorithmMetricsEvent.class, jfrHook);
+    }
+
+    /**
+     * Smette di emettere i totali come eventi JFR.
+     */
+    public synchronized void stopJfrExport()
+    {
+        if (jfrHook != null)
+        {
+            FlightRecorder.removePeriodicEvent(jfrHook);
+            jfrHook = null;
+        }
+    }
+
+}
@@ -0,0 +1,221 @@
+package upo.graph.impl;
+
+/**
+ * Totali delle esecuzioni di un algoritmo raccolte da un {@link MetricsRegistry}, fotografati in un dato momento.
+ * <p>
+ * Gli istogrammi hanno 64 intervalli in scala logaritmica: l'intervallo <code>i</code> conta i valori compresi tra
+ * <code>2^i</code> e <code>2^(i+1) - 1</code>, e l'intervallo 0 anche i valori nulli.
+ *
+ * @author Guido
+ */
+public final class MetricsSnapshot
+{
+    /** Numero di intervalli degli istogrammi. */
+    public static final int BUCKETS = 64;
+
+    private final Algorithm algorithm;
+    private final long runs;
+    private final long totalNanos;
+    private final long maxNanos;
+    private final long verticesVisited;
+    private final long edgesExamined;
+    private final long relaxations;
+    private final long heapOperations;
+    private final long rounds;
+    private final long[] latencyHistogram;
+    private final long[] edgeCountHistogram;
+
+    MetricsSnapshot(Algorithm algorithm, long runs, long totalNanos, long maxNanos, long verticesVisited,
+            long edgesExamined, long relaxations, long heapOperations, long rounds, long[] latencyHistogram,
+            long[] edgeCountHistogram)
+    {
+        this.algorithm = algorithm;
+        this.runs = runs;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+        this.verticesVisited = verticesVisited;
+        this.edgesExamined = edgesExamined;
+        this.relaxations = relaxations;
+        this.heapOperations = heapOperations;
+        this.rounds = rounds;
+        this.latencyHistogram = latencyHistogram;
+        this.edgeCountHistogram = edgeCountHistogram;
+    }
+
+    /**
+     * Restituisce l'intervallo degli istogrammi in cui cade il valore.
+     *
+     * @param value Un valore non negativo.
+     * @return L'indice dell'intervallo, tra 0 e {@link #BUCKETS} - 1.
+     */
+    static int bucket(long value)
+    {
+        return value <= 0 ? 0 : 63 - Long.numberOfLeadingZeros(value);
+    }
+
+    /**
+     * Restituisce l'algoritmo a cui si riferiscono i totali.
+     *
+     * @return L'algoritmo.
+     */
+    public Algorithm getAlgorithm()
+    {
+        return algorithm;
+    }
+
+    /**
+     * Restituisce il numero di esecuzioni.
+     *
+     * @return Il numero di esecuzioni.
+     */
+    public long getRuns()
+    {
+        return runs;
+    }
+
+    /**
+     * Restituisce la durata complessiva delle esecuzioni, in nanosecondi.
+     *
+     * @return La durata totale in nanosecondi.
+     */
+    public long getTotalNanos()
+    {
+        return totalNanos;
+    }
+
+    /**
+     * Restituisce la durata dell'esecuzione piu' lunga, in nanosecondi.
+     *
+     * @return La durata massima in nanosecondi.
+     */
+    public long getMaxNanos()
+    {
+        return maxNanos;
+    }
+
+    /**
+     * Restituisce la durata media di un'esecuzione, in nanosecondi.
+     *
+     * @return La durata media, oppure 0 se non ci sono esecuzioni.
+     */
+    public double getMeanNanos()
+    {
+        return runs == 0 ? 0 : (double) totalNanos / runs;
+    }
+
+    /**
+     * Restituisce il totale dei vertici visitati.
+     *
+     * @return Il numero di vertici visitati.
+     */
+    public long getVerticesVisited()
+    {
+        return verticesVisited;
+    }
+
+    /**
+     * Restituisce il totale degli archi esaminati.
+     *
+     * @return Il numero di archi esaminati.
+     */
+    public long getEdgesExamined()
+    {
+        return edgesExamined;
+    }
+
+    /**
+     * Restituisce il totale dei rilassamenti riusciti.
+     *
+     * @return Il numero di rilassamenti.
+     */
+    public long getRelaxations()
+    {
+        return relaxations;
+    }
+
+    /**
+     * Restituisce il totale delle operazioni sulla coda di priorita'.
+     *
+     * @return Il numero di operazioni sulla coda.
+     */
+    public long getHeapOperations()
+    {
+        return heapOperations;
+    }
+
+    /**
+     * Restituisce il totale delle passate.
+     *
+     * @return Il numero di passate.
+     */
+    public long getRounds()
+    {
+        return rounds;
+    }
+
+    /**
+     * Restituisce l'istogramma delle durate delle esecuzioni, in nanosecondi.
+     *
+     * @return Una copia dei {@link #BUCKETS} contatori.
+     */
+    public long[] getLatencyHistogram()
+    {
+        return latencyHistogram.clone();
+    }
+
+    /**
+     * Restituisce l'istogramma del numero di archi dei grafi su cui l'algoritmo e' stato eseguito.
+     *
+     * @return Una copia dei {@link #BUCKETS} contatori.
+     */
+    public long[] getEdgeCountHistogram()
+    {
+        return edgeCountHistogram.clone();
+    }
+
+    /**
+     * Stima un percentile delle durate dall'istogramma: restituisce il limite superiore dell'intervallo che
+     * contiene il percentile, quindi la stima eccede il valore vero al piu' di un fattore 2.
+     *
+     * @param percentile Il percentile, tra 0 e 100.
+     * @return La stima in nanosecondi, oppure 0 se non ci sono esecuzioni.
+     * @throws IllegalArgumentException Se il percentile non e' compreso tra 0 e 100.
+     */
+    public long getLatencyPercentile(double percentile) throws IllegalArgumentException
+    {
+        if (!(percentile >= 0 && percentile <= 100))
+        {
+            throw new IllegalArgumentException("Il percentile deve essere compreso tra 0 e 100");
+        }
+        long total = 0;
+        for (long count : latencyHistogram)
+        {
+            total += count;
+        }
+        if (total == 0)
+        {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++)
+        {
+            seen += latencyHistogram[i];
+            if (seen >= rank)
+            {
+                return i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "MetricsSnapshot[algorithm=" + algorithm + ", runs=" + runs + ", totalNanos=" + totalNanos
+                + ", maxNanos=" + maxNanos + ", verticesVisited=" + verticesVisited + ", edgesExamined="
+                + edgesExamined + ", relaxations=" + relaxations + ", heapOperations=" + heapOperations
+                + ", rounds=" + rounds + "]";
+    }
+
+}
@@ -0,0 +1,212 @@
+package upo.graph.impl;
+
+import upo.graph.base.VisitForest;
+import upo.graph.base.VisitForest.Color;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+/**
+ * Visita in ampiezza parallela e direction-optimizing (Beamer et al.) su un {@link CsrWeightedGraph}.
+ * <p>
+ * La visita procede per livelli. Ad ogni livello i blocchi di lavoro vengono eseguiti sul pool fork-join comune:
+ * <ul>
+ * <li>top-down: ogni vertice della frontiera esamina i propri archi uscenti e reclama i vicini non ancora
+ * visitati con una compare-and-set sull'array dei genitori;</li>
+ * <li>bottom-up: ogni vertice non ancora visitato esamina i propri archi entranti (sul grafo trasposto) e si
+ * ferma al primo predecessore che appartiene alla frontiera, rappresentata come bitmap.</li>
+ * </ul>
+ * Si passa al bottom-up quando gli archi uscenti dalla frontiera superano 1/{@value #ALPHA} di quelli dei
+ * vertici non ancora visitati, e si torna al top-down quando la frontiera scende sotto 1/{@value #BETA}
+ * dei vertici.
+ *
+ * @author Guido
+ */
+final class ParallelBFS
+{
+    private static final int ALPHA = 14;
+    private static final int BETA = 24;
+
+    /** Numero di vertici (multiplo di 64) assegnati a ciascun blocco di lavoro. */
+    private static final int GRAIN = 4096;
+
+    private ParallelBFS()
+    {
+    }
+
+    /**
+     * Esegue la visita a partire da <code>s</code> e scrive genitori, distanze e colori in <code>visitForest</code>.
+     *
+     * @param graph Il grafo.
+     * @param s L'indice del vertice sorgente.
+     * @param visitForest Una foresta di visita appena creata per <code>graph</code>.
+     */
+    static void run(CsrWeightedGraph graph, int s, VisitForest visitForest)
+    {
+        int n = graph.size();
+        AtomicIntegerArray parent = new AtomicIntegerArray(n);
+        int[] level = new int[n];
+        for (int v = 0; v < n; v++)
+        {
+            parent.set(v, -1);
+        }
+
+        int words = (n + 63) >>> 6;
+        long[] frontierBits = new long[words];
+        AtomicLongArray nextBits = new AtomicLongArray(words);
+
+        int[] frontier = {s};
+        parent.set(s, s);
+        level[s] = 0;
+        long unexploredEdges = graph.edgeCount() - graph.outDegree(s);
+        boolean bottomUp = false;
+        int depth = 0;
+
+        while (frontier.length > 0)
+        {
+            long frontierEdges = 0;
+            for (int u : frontier)
+            {
+                frontierEdges += graph.outDegree(u);
+            }
+            if (!bottomUp && frontierEdges > unexploredEdges / ALPHA)
+            {
+                bottomUp = true;
+            }
+            else if (bottomUp && frontier.length < n / BETA)
+            {
+                bottomUp = false;
+            }
+
+            depth++;
+            if (bottomUp)
+            {
+                Arrays.fill(frontierBits, 0L);
+                for (int u : frontier)
+                {
+                    frontierBits[u >>> 6] |= 1L << u;
+                }
+                bottomUpStep(graph.transpose(), parent, level, frontierBits, nextBits, depth);
+            }
+            else
+            {
+                topDownStep(graph, frontier, parent, level, nextBits, depth);
+            }
+
+            frontier = drain(nextBits);
+            for (int u : frontier)
+            {
+                unexploredEdges -= graph.outDegree(u);
+            }
+        }
+
+        for (int v = 0; v < n; v++)
+        {
+            int p = parent.get(v);
+            if (p >= 0)
+            {
+                visitForest.setColor(v, Color.BLACK);
+                visitForest.setDistance(v, level[v]);
+                if (v != s)
+                {
+                    visitForest.setParent(v, p);
+                }
+            }
+        }
+    }
+
+    /**
+     * Passo top-down: i blocchi della frontiera vengono esaminati in parallelo.
+     */
+    private static void topDownStep(CsrWeightedGraph graph, int[] frontier, AtomicIntegerArray parent,
+            int[] level, AtomicLongArray nextBits, int depth)
+    {
+        int chunks = (frontier.length + GRAIN - 1) / GRAIN;
+        IntStream.range(0, chunks).parallel().forEach(c ->
+        {
+            int end = Math.min(frontier.length, (c + 1) * GRAIN);
+            for (int i = c * GRAIN; i < end; i++)
+            {
+                int u = frontier[i];
+                for (int e = graph.firstEdge(u); e < graph.lastEdge(u); e++)
+                {
+                    int v = graph.edgeTarget(e);
+                    if (parent.get(v) < 0 && parent.compareAndSet(v, -1, u))
+                    {
+                        level[v] = depth;
+                        setBit(nextBits, v);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Passo bottom-up: i blocchi di vertici non visitati vengono esaminati in parallelo. Ogni blocco e' allineato
+     * a 64 vertici, quindi ogni vertice viene scritto da un solo thread e non serve la compare-and-set.
+     */
+    private static void bottomUpStep(CsrWeightedGraph transpose, AtomicIntegerArray parent, int[] level,
+            long[] frontierBits, AtomicLongArray nextBits, int depth)
+    {
+        int n = transpose.size();
+        int chunks = (n + GRAIN - 1) / GRAIN;
+        IntStream.range(0, chunks).parallel().forEach(c ->
+        {
+            int end = Math.min(n, (c + 1) * GRAIN);
+            for (int v = c * GRAIN; v < end; v++)
+            {
+                if (parent.get(v) >= 0)
+                {
+                    continue;
+                }
+                for (int e = transpose.firstEdge(v); e < transpose.lastEdge(v); e++)
+                {
+                    int u = transpose.edgeTarget(e);
+                    if ((frontierBits[u >>> 6] & (1L << u)) != 0)
+                    {
+                        parent.set(v, u);
+                        level[v] = depth;
+                        setBit(nextBits, v);
+                        break;
+                    }
+                }
+            }
+        });
+    }
+
+    private static void setBit(AtomicLongArray bits, int v)
+    {
+        bits.getAndAccumulate(v >>> 6, 1L << v, (a, b) -> a | b);
+    }
+
+    /**
+     * Converte la bitmap della prossima frontiera in un array di indici e la azzera.
+     */
+    private static int[] drain(AtomicLongArray bits)
+    {
+        int count = 0;
+        for (int w = 0; w < bits.length(); w++)
+        {
+            count += Long.bitCount(bits.get(w));
+        }
+        int[] result = new int[count];
+        int i = 0;
+        for (int w = 0; w < bits.length(); w++)
+        {
+            long word = bits.get(w);
+            if (word != 0)
+            {
+                bits.set(w, 0L);
+                while (word != 0)
+                {
+                    result[i++] = (w << 6) + Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                }
+            }
+        }
+        return result;
+    }
+
+}
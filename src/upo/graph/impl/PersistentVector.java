@@ -0,0 +1,100 @@
+package upo.graph.impl;
+
+/**
+ * Vettore persistente: ogni modifica restituisce un nuovo vettore e lascia invariato quello di partenza.
+ * Gli elementi sono le foglie di un albero con 32 figli per nodo; {@link #set(int, Object)} e
+ * {@link #append(Object)} copiano solo i nodi sul cammino dalla radice alla foglia modificata, O(log32 n), e
+ * condividono tutti gli altri con la versione precedente.
+ *
+ * @param <T> Il tipo degli elementi.
+ * @author Guido
+ */
+final class PersistentVector<T>
+{
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+    private static final PersistentVector<?> EMPTY = new PersistentVector<>(0, 0, new Object[WIDTH]);
+
+    private final int size;
+    private final int shift;
+    private final Object[] root;
+
+    private PersistentVector(int size, int shift, Object[] root)
+    {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+    }
+
+    /**
+     * Restituisce il vettore vuoto.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> PersistentVector<T> empty()
+    {
+        return (PersistentVector<T>) EMPTY;
+    }
+
+    int size()
+    {
+        return size;
+    }
+
+    /**
+     * Restituisce l'elemento in posizione <code>i</code>, che deve essere compresa tra 0 e <code>size()-1</code>.
+     */
+    @SuppressWarnings("unchecked")
+    T get(int i)
+    {
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS)
+        {
+            node = (Object[]) node[(i >>> level) & MASK];
+        }
+        return (T) node[i & MASK];
+    }
+
+    /**
+     * Restituisce un vettore uguale a this tranne che in posizione <code>i</code>, che contiene <code>value</code>.
+     */
+    PersistentVector<T> set(int i, T value)
+    {
+        return new PersistentVector<>(size, shift, copyPath(shift, root, i, value));
+    }
+
+    /**
+     * Restituisce un vettore con gli elementi di this seguiti da <code>value</code>.
+     */
+    PersistentVector<T> append(T value)
+    {
+        if (size == 1 << (shift + BITS))
+        {
+            // Albero pieno: la vecchia radice diventa il primo figlio di una nuova radice
+            Object[] grown = new Object[WIDTH];
+            grown[0] = root;
+            return new PersistentVector<>(size + 1, shift + BITS, copyPath(shift + BITS, grown, size, value));
+        }
+        return new PersistentVector<>(size + 1, shift, copyPath(shift, root, size, value));
+    }
+
+    /**
+     * Copia i nodi sul cammino verso la posizione <code>i</code>, creando quelli mancanti, e vi scrive
+     * <code>value</code>.
+     */
+    private static Object[] copyPath(int level, Object[] node, int i, Object value)
+    {
+        Object[] copy = node == null ? new Object[WIDTH] : node.clone();
+        if (level == 0)
+        {
+            copy[i & MASK] = value;
+        }
+        else
+        {
+            int child = (i >>> level) & MASK;
+            copy[child] = copyPath(level - BITS, (Object[]) copy[child], i, value);
+        }
+        return copy;
+    }
+
+}
@@ -0,0 +1,208 @@
+package upo.graph.impl;
+
+import java.util.Arrays;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Ricerche del cammino minimo tra due vertici di un {@link CsrWeightedGraph} con pesi non negativi, che si fermano
+ * appena il cammino e' determinato invece di calcolare l'intero albero dei cammini minimi.
+ *
+ * @author Guido
+ */
+final class PointToPoint
+{
+    private PointToPoint()
+    {
+    }
+
+    /**
+     * Dijkstra bidirezionale: una ricerca in avanti da <code>s</code> sul grafo e una all'indietro da
+     * <code>t</code> sul grafo trasposto, alternate espandendo ogni volta la coda con la chiave minima.
+     * La ricerca termina quando la somma delle due chiavi minime raggiunge il costo del miglior cammino trovato
+     * attraverso un vertice raggiunto da entrambe le parti.
+     *
+     * @param graph Il grafo.
+     * @param s L'indice del vertice di origine.
+     * @param t L'indice del vertice di destinazione.
+     * @return Il cammino minimo.
+     */
+    static ShortestPath bidirectional(CsrWeightedGraph graph, int s, int t)
+    {
+        int n = graph.size();
+        if (s == t)
+        {
+            return new ShortestPath(new String[] {graph.getVertexLabel(s)}, 0, 1);
+        }
+        CsrWeightedGraph transpose = graph.transpose();
+        double[] distForward = new double[n];
+        double[] distBackward = new double[n];
+        int[] parentForward = new int[n];
+        int[] parentBackward = new int[n];
+        Arrays.fill(distForward, Double.POSITIVE_INFINITY);
+        Arrays.fill(distBackward, Double.POSITIVE_INFINITY);
+        Arrays.fill(parentForward, -1);
+        Arrays.fill(parentBackward, -1);
+        IndexedMinHeap forward = new IndexedMinHeap(n);
+        IndexedMinHeap backward = new IndexedMinHeap(n);
+        distForward[s] = 0;
+        distBackward[t] = 0;
+        forward.insert(s, 0);
+        backward.insert(t, 0);
+
+        double best = Double.POSITIVE_INFINITY;
+        int meeting = -1;
+        int settled = 0;
+        while (!forward.isEmpty() && !backward.isEmpty())
+        {
+            double topForward = forward.keyOf(forward.peek());
+            double topBackward = backward.keyOf(backward.peek());
+            if (topForward + topBackward >= best)
+            {
+                break;
+            }
+
+            boolean expandForward = topForward <= topBackward;
+            CsrWeightedGraph adjacency = expandForward ? graph : transpose;
+            IndexedMinHeap heap = expandForward ? forward : backward;
+            double[] dist = expandForward ? distForward : distBackward;
+            double[] other = expandForward ? distBackward : distForward;
+            int[] parent = expandForward ? parentForward : parentBackward;
+
+            int u = heap.extractMin();
+            settled++;
+            for (int e = adjacency.firstEdge(u); e < adjacency.lastEdge(u); e++)
+            {
+                int v = adjacency.edgeTarget(e);
+                double alt = dist[u] + adjacency.edgeWeight(e);
+                if (alt < dist[v])
+                {
+                    dist[v] = alt;
+                    parent[v] = u;
+                    heap.insertOrDecrease(v, alt);
+                }
+                // Ogni arco esaminato puo' chiudere un cammino migliore tra le due ricerche
+                if (other[v] != Double.POSITIVE_INFINITY && dist[v] + other[v] < best)
+                {
+                    best = dist[v] + other[v];
+                    meeting = v;
+                }
+            }
+        }
+
+        if (meeting < 0)
+        {
+            return new ShortestPath(new String[0], Double.POSITIVE_INFINITY, settled);
+        }
+
+        // Il cammino va da s al punto d'incontro con i predecessori in avanti, poi fino a t con quelli all'indietro
+        int length = 0;
+        for (int v = meeting; v >= 0; v = parentForward[v])
+        {
+            length++;
+        }
+        for (int v = parentBackward[meeting]; v >= 0; v = parentBackward[v])
+        {
+            length++;
+        }
+        String[] path = new String[length];
+        int i = 0;
+        for (int v = meeting; v >= 0; v = parentForward[v])
+        {
+            path[i++] = graph.getVertexLabel(v);
+        }
+        reverse(path, i);
+        for (int v = parentBackward[meeting]; v >= 0; v = parentBackward[v])
+        {
+            path[i++] = graph.getVertexLabel(v);
+        }
+        return new ShortestPath(path, best, settled);
+    }
+
+    /**
+     * Ricerca A*: Dijkstra in cui la chiave di ogni vertice e' la distanza dall'origine piu' la stima della
+     * distanza dalla destinazione. La stima deve essere ammissibile (mai maggiore della distanza reale) perche'
+     * il cammino sia minimo; se non e' anche consistente, un vertice gia' estratto puo' essere reinserito.
+     * La stima viene calcolata al piu' una volta per vertice.
+     *
+     * @param graph Il grafo.
+     * @param s L'indice del vertice di origine.
+     * @param t L'indice del vertice di destinazione.
+     * @param heuristic La stima della distanza di un vertice, identificato dall'etichetta, dalla destinazione.
+     * @return Il cammino minimo.
+     */
+    static ShortestPath aStar(CsrWeightedGraph graph, int s, int t, ToDoubleFunction<String> heuristic)
+    {
+        int n = graph.size();
+        double[] dist = new double[n];
+        double[] estimate = new double[n];
+        int[] parent = new int[n];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        Arrays.fill(estimate, Double.NaN);
+        Arrays.fill(parent, -1);
+        IndexedMinHeap heap = new IndexedMinHeap(n);
+        dist[s] = 0;
+        heap.insert(s, estimate(graph, heuristic, estimate, s));
+
+        int settled = 0;
+        boolean found = false;
+        while (!heap.isEmpty())
+        {
+            int u = heap.extractMin();
+            settled++;
+            if (u == t)
+            {
+                found = true;
+                break;
+            }
+            for (int e = graph.firstEdge(u); e < graph.lastEdge(u); e++)
+            {
+                int v = graph.edgeTarget(e);
+                double alt = dist[u] + graph.edgeWeight(e);
+                if (alt < dist[v])
+                {
+                    dist[v] = alt;
+                    parent[v] = u;
+                    heap.insertOrDecrease(v, alt + estimate(graph, heuristic, estimate, v));
+                }
+            }
+        }
+
+        if (!found)
+        {
+            return new ShortestPath(new String[0], Double.POSITIVE_INFINITY, settled);
+        }
+        int length = 0;
+        for (int v = t; v >= 0; v = parent[v])
+        {
+            length++;
+        }
+        String[] path = new String[length];
+        int i = 0;
+        for (int v = t; v >= 0; v = parent[v])
+        {
+            path[i++] = graph.getVertexLabel(v);
+        }
+        reverse(path, length);
+        return new ShortestPath(path, dist[t], settled);
+    }
+
+    private static double estimate(CsrWeightedGraph graph, ToDoubleFunction<String> heuristic, double[] estimate, int v)
+    {
+        if (Double.isNaN(estimate[v]))
+        {
+            estimate[v] = heuristic.applyAsDouble(graph.getVertexLabel(v));
+        }
+        return estimate[v];
+    }
+
+    private static void reverse(String[] array, int length)
+    {
+        for (int i = 0, j = length - 1; i < j; i++, j--)
+        {
+            String tmp = array[i];
+            array[i] = array[j];
+            array[j] = tmp;
+        }
+    }
+
+}
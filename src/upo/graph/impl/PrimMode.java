@@ -0,0 +1,18 @@
+package upo.graph.impl;
+
+/**
+ * Strategia usata dall'algoritmo di Prim per scegliere il prossimo vertice da aggiungere all'albero.
+ *
+ * @author Guido
+ */
+public enum PrimMode
+{
+    /** Sceglie tra {@link #HEAP} e {@link #ARRAY} in base alla densita' del grafo. */
+    AUTO,
+
+    /** Heap indicizzato con decrease-key, O(E log V): adatto ai grafi sparsi. */
+    HEAP,
+
+    /** Scansione lineare di un array delle chiavi, O(V^2): adatto ai grafi quasi completi. */
+    ARRAY
+}
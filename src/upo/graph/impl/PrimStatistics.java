@@ -0,0 +1,100 @@
+package upo.graph.impl;
+
+/**
+ * Contatori di un'esecuzione dell'algoritmo di Prim, utili per verificare la scelta automatica tra la versione
+ * con heap e quella su array. L'oggetto viene azzerato all'inizio di ogni esecuzione a cui viene passato.
+ *
+ * @author Guido
+ */
+public final class PrimStatistics
+{
+    private PrimMode mode;
+    private long edgesExamined;
+    private long relaxations;
+    private long heapOperations;
+    private long arrayScans;
+
+    /**
+     * Crea un oggetto con tutti i contatori a zero.
+     */
+    public PrimStatistics()
+    {
+        reset(null);
+    }
+
+    void reset(PrimMode mode)
+    {
+        this.mode = mode;
+        this.edgesExamined = 0;
+        this.relaxations = 0;
+        this.heapOperations = 0;
+        this.arrayScans = 0;
+    }
+
+    void record(long edgesExamined, long relaxations, long heapOperations, long arrayScans)
+    {
+        this.edgesExamined = edgesExamined;
+        this.relaxations = relaxations;
+        this.heapOperations = heapOperations;
+        this.arrayScans = arrayScans;
+    }
+
+    /**
+     * Restituisce la strategia effettivamente usata ({@link PrimMode#HEAP} o {@link PrimMode#ARRAY}).
+     *
+     * @return La strategia usata, o null se l'oggetto non e' ancora stato usato.
+     */
+    public PrimMode getMode()
+    {
+        return mode;
+    }
+
+    /**
+     * Restituisce il numero di archi esaminati, contando ogni arco una volta per ciascun estremo.
+     *
+     * @return Il numero di archi esaminati.
+     */
+    public long getEdgesExamined()
+    {
+        return edgesExamined;
+    }
+
+    /**
+     * Restituisce il numero di rilassamenti, cioe' di volte in cui la chiave di un vertice e' diminuita.
+     *
+     * @return Il numero di rilassamenti.
+     */
+    public long getRelaxations()
+    {
+        return relaxations;
+    }
+
+    /**
+     * Restituisce il numero di operazioni sullo heap (inserimenti, decrease-key ed estrazioni del minimo).
+     * Vale 0 per la versione su array.
+     *
+     * @return Il numero di operazioni sullo heap.
+     */
+    public long getHeapOperations()
+    {
+        return heapOperations;
+    }
+
+    /**
+     * Restituisce il numero di posizioni lette nella ricerca lineare del minimo. Vale 0 per la versione con heap.
+     *
+     * @return Il numero di posizioni esaminate.
+     */
+    public long getArrayScans()
+    {
+        return arrayScans;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "PrimStatistics[mode=" + mode + ", edgesExamined=" + edgesExamined + ", relaxations=" + relaxations
+                + ", heapOperations=" + heapOperations + ", arrayScans=" + arrayScans + "]";
+    }
+
+}
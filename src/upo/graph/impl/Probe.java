@@ -0,0 +1,100 @@
+package upo.graph.impl;
+
+import java.util.LinkedHashMap;
+
+import upo.graph.base.VisitForest;
+import upo.graph.base.VisitForest.Color;
+
+/**
+ * Misura di un'esecuzione di un algoritmo, creata da {@link GraphMetrics#start(Algorithm, CsrWeightedGraph)} solo
+ * quando ci sono listener registrati. Gli algoritmi contano in variabili locali e riportano i totali con
+ * {@link #count(long, long, long, long, long)}, che puo' essere chiamato da piu' thread.
+ *
+ * @author Guido
+ */
+final class Probe
+{
+    private final Algorithm algorithm;
+    private final int vertexCount;
+    private final int edgeCount;
+    private final AlgorithmListener[] listeners;
+    private final long start;
+    private long phaseStart;
+    private LinkedHashMap<String, Long> phases = new LinkedHashMap<>();
+    private long verticesVisited;
+    private long edgesExamined;
+    private long relaxations;
+    private long heapOperations;
+    private long rounds;
+
+    Probe(Algorithm algorithm, int vertexCount, int edgeCount, AlgorithmListener[] listeners)
+    {
+        this.algorithm = algorithm;
+        this.vertexCount = vertexCount;
+        this.edgeCount = edgeCount;
+        this.listeners = listeners;
+        this.start = System.nanoTime();
+        this.phaseStart = start;
+    }
+
+    /**
+     * Somma i contatori di una parte dell'esecuzione a quelli gia' riportati.
+     */
+    synchronized void count(long visited, long examined, long relaxed, long heapOps, long passes)
+    {
+        verticesVisited += visited;
+        edgesExamined += examined;
+        relaxations += relaxed;
+        heapOperations += heapOps;
+        rounds += passes;
+    }
+
+    /**
+     * Riporta i contatori di una visita gia' conclusa, ricavandoli dalla foresta: ogni vertice raggiunto e' stato
+     * visitato una volta e ha esaminato tutti i suoi archi uscenti. Costa O(V) e viene eseguito solo quando la
+     * sonda esiste, cosi' che le visite non debbano contare nel ciclo principale.
+     */
+    void countVisit(CsrWeightedGraph graph, VisitForest forest)
+    {
+        long visited = 0;
+        long examined = 0;
+        for (int u = 0; u < graph.size(); u++)
+        {
+            if (forest.getColor(u) != Color.WHITE)
+            {
+                visited++;
+                examined += graph.lastEdge(u) - graph.firstEdge(u);
+            }
+        }
+        count(visited, examined, 0, 0, 0);
+    }
+
+    /**
+     * Chiude la fase corrente, che e' iniziata alla fine della fase precedente o all'inizio dell'esecuzione.
+     */
+    synchronized void phase(String name)
+    {
+        long now = System.nanoTime();
+        phases.merge(name, now - phaseStart, Long::sum);
+        phaseStart = now;
+    }
+
+    /**
+     * Conclude l'esecuzione e la consegna ai listener.
+     */
+    void finish()
+    {
+        AlgorithmRun run;
+        synchronized (this)
+        {
+            run = new AlgorithmRun(algorithm, vertexCount, edgeCount, verticesVisited, edgesExamined, relaxations,
+                    heapOperations, rounds, System.nanoTime() - start, phases);
+            phases = new LinkedHashMap<>();
+        }
+        for (AlgorithmListener listener : listeners)
+        {
+            listener.algorithmCompleted(run);
+        }
+    }
+
+}
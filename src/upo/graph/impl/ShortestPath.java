@@ -0,0 +1,79 @@
+package upo.graph.impl;
+
+import java.util.Arrays;
+
+/**
+ * Risultato immutabile di una ricerca del cammino minimo tra due vertici: il cammino, il suo costo e il numero
+ * di vertici definitivamente estratti dalle code durante la ricerca, utile per confrontare le strategie.
+ *
+ * @author Guido
+ */
+public final class ShortestPath
+{
+    private final String[] vertices;
+    private final double cost;
+    private final int settledVertices;
+
+    /**
+     * Costruisce il risultato di una ricerca.
+     *
+     * @param vertices Le etichette dei vertici del cammino, estremi compresi, oppure un array vuoto.
+     * @param cost Il costo del cammino, o infinito se non esiste.
+     * @param settledVertices Il numero di vertici estratti durante la ricerca.
+     */
+    ShortestPath(String[] vertices, double cost, int settledVertices)
+    {
+        this.vertices = vertices;
+        this.cost = cost;
+        this.settledVertices = settledVertices;
+    }
+
+    /**
+     * Verifica se il vertice di destinazione e' raggiungibile da quello di origine.
+     *
+     * @return True se il cammino esiste, altrimenti false.
+     */
+    public boolean exists()
+    {
+        return vertices.length > 0;
+    }
+
+    /**
+     * Restituisce le etichette dei vertici del cammino, dall'origine alla destinazione comprese.
+     *
+     * @return Una copia del cammino, vuota se la destinazione non e' raggiungibile.
+     */
+    public String[] getVertices()
+    {
+        return vertices.clone();
+    }
+
+    /**
+     * Restituisce il costo del cammino, cioe' la somma dei pesi dei suoi archi.
+     *
+     * @return Il costo del cammino, o infinito se la destinazione non e' raggiungibile.
+     */
+    public double getCost()
+    {
+        return cost;
+    }
+
+    /**
+     * Restituisce il numero di vertici estratti dalle code di priorita' durante la ricerca, contando entrambe le
+     * direzioni nella ricerca bidirezionale.
+     *
+     * @return Il numero di vertici estratti.
+     */
+    public int getSettledVertices()
+    {
+        return settledVertices;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ShortestPath[vertices=" + Arrays.toString(vertices) + ", cost=" + cost + ", settledVertices="
+                + settledVertices + "]";
+    }
+
+}
@@ -0,0 +1,252 @@
+package upo.graph.impl;
+
+import java.util.Arrays;
+
+/**
+ * Algoritmi per i cammini minimi da sorgente singola, eseguiti sugli indici interi dei vertici
+ * di un {@link CsrWeightedGraph}. I risultati vengono scritti in array forniti dal chiamante,
+ * cosi' che possano essere riutilizzati tra esecuzioni successive.
+ *
+ * @author Guido
+ */
+final class ShortestPaths
+{
+    private ShortestPaths()
+    {
+    }
+
+    /**
+     * Calcola le distanze minime dalla sorgente <code>s</code> con l'algoritmo di Dijkstra, usando uno heap
+     * indicizzato con decrease-key. Il grafo non deve contenere archi con peso negativo.
+     *
+     * @param graph Il grafo.
+     * @param s L'indice del vertice sorgente.
+     * @param dist Array di lunghezza <code>graph.size()</code> in cui vengono scritte le distanze
+     * (infinito per i vertici non raggiungibili).
+     * @param parent Array di lunghezza <code>graph.size()</code> in cui vengono scritti i predecessori
+     * (-1 per la sorgente e i vertici non raggiungibili), oppure null.
+     * @param heap Uno heap vuoto di capacita' almeno <code>graph.size()</code>; al termine e' di nuovo vuoto.
+     * @param probe La sonda a cui riportare i contatori, oppure null.
+     */
+    static void dijkstra(CsrWeightedGraph graph, int s, double[] dist, int[] parent, IndexedMinHeap heap, Probe probe)
+    {
+        long settled = 0;
+        long examined = 0;
+        long relaxed = 0;
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        if (parent != null)
+        {
+            Arrays.fill(parent, -1);
+        }
+        dist[s] = 0;
+        heap.insert(s, 0);
+
+        while (!heap.isEmpty())
+        {
+            int u = heap.extractMin();
+            double du = dist[u];
+            settled++;
+            examined += graph.lastEdge(u) - graph.firstEdge(u);
+            for (int e = graph.firstEdge(u); e < graph.lastEdge(u); e++)
+            {
+                int v = graph.edgeTarget(e);
+                double alt = du + graph.edgeWeight(e);
+                if (alt < dist[v])
+                {
+                    dist[v] = alt;
+                    if (parent != null)
+                    {
+                        parent[v] = u;
+                    }
+                    heap.insertOrDecrease(v, alt);
+                    relaxed++;
+                }
+            }
+        }
+        if (probe != null)
+        {
+            // Un inserimento per la sorgente, un'estrazione per vertice e un inserimento o decrease-key per rilassamento
+            probe.count(settled, examined, relaxed, 1 + settled + relaxed, 0);
+        }
+    }
+
+    /**
+     * Calcola le distanze minime dalla sorgente <code>s</code> con l'algoritmo di Bellman-Ford, rilassando
+     * solo gli archi esistenti. I round terminano in anticipo appena un round non modifica nessuna distanza.
+     * Come nella versione originale, i cappi vengono ignorati.
+     *
+     * @param graph Il grafo.
+     * @param s L'indice del vertice sorgente.
+     * @param dist Array di lunghezza <code>graph.size()</code> in cui vengono scritte le distanze.
+     * @param parent Array di lunghezza <code>graph.size()</code> per i predecessori, oppure null.
+     * @param probe La sonda a cui riportare i contatori, oppure null.
+     * @return False se dalla sorgente e' raggiungibile un ciclo negativo, altrimenti true.
+     */
+    static boolean bellmanFord(CsrWeightedGraph graph, int s, double[] dist, int[] parent, Probe probe)
+    {
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        if (parent != null)
+        {
+            Arrays.fill(parent, -1);
+        }
+        dist[s] = 0;
+        return relaxRounds(graph, dist, parent, probe);
+    }
+
+    /**
+     * Calcola i potenziali per la ripesatura di Johnson: le distanze minime da una sorgente virtuale collegata a
+     * tutti i vertici con archi di peso 0. Il primo round di Bellman-Ford dalla sorgente virtuale porta tutte le
+     * distanze a 0, quindi si parte direttamente da li'. Con i potenziali <code>h</code> ogni arco (u, v) ha
+     * peso ripesato <code>w(u, v) + h[u] - h[v] &gt;= 0</code>.
+     *
+     * @param graph Il grafo.
+     * @param h Array di lunghezza <code>graph.size()</code> in cui vengono scritti i potenziali.
+     * @param probe La sonda a cui riportare i contatori, oppure null.
+     * @return False se il grafo contiene un ciclo negativo, altrimenti true.
+     */
+    static boolean potentials(CsrWeightedGraph graph, double[] h, Probe probe)
+    {
+        Arrays.fill(h, 0);
+        return relaxRounds(graph, h, null, probe);
+    }
+
+    /**
+     * Esegue i round di Bellman-Ford a partire dalle distanze gia' presenti in <code>dist</code>. Sono contati
+     * come vertici visitati i vertici scanditi in ciascun round.
+     */
+    private static boolean relaxRounds(CsrWeightedGraph graph, double[] dist, int[] parent, Probe probe)
+    {
+        int n = graph.size();
+        long scanned = 0;
+        long examined = 0;
+        long relaxed = 0;
+
+        // Dopo n-1 round senza convergenza, l'n-esimo round rileva un ciclo negativo
+        for (int round = 1; round <= n; round++)
+        {
+            boolean changed = false;
+            for (int u = 0; u < n; u++)
+            {
+                double du = dist[u];
+                if (du == Double.POSITIVE_INFINITY)
+                {
+                    continue;
+                }
+                scanned++;
+                examined += graph.lastEdge(u) - graph.firstEdge(u);
+                for (int e = graph.firstEdge(u); e < graph.lastEdge(u); e++)
+                {
+                    int v = graph.edgeTarget(e);
+                    double alt = du + graph.edgeWeight(e);
+                    if (v != u && alt < dist[v])
+                    {
+                        dist[v] = alt;
+                        if (parent != null)
+                        {
+                            parent[v] = u;
+                        }
+                        changed = true;
+                        relaxed++;
+                    }
+                }
+            }
+            if (!changed)
+            {
+                if (probe != null)
+                {
+                    probe.count(scanned, examined, relaxed, 0, round);
+                }
+                return true;
+            }
+        }
+        if (probe != null)
+        {
+            probe.count(scanned, examined, relaxed, 0, n);
+        }
+        return false;
+    }
+
+    /**
+     * Calcola le distanze minime dalla sorgente <code>s</code> con la variante a coda di Bellman-Ford (SPFA):
+     * vengono rilassati solo gli archi uscenti dai vertici la cui distanza e' appena diminuita.
+     * Per ogni vertice si conta il numero di archi del cammino che ha prodotto l'ultimo rilassamento:
+     * un cammino di <code>graph.size()</code> archi contiene necessariamente un ciclo negativo.
+     * Nel caso peggiore il costo e' O(VE), ma tipicamente e' molto inferiore.
+     *
+     * @param graph Il grafo.
+     * @param s L'indice del vertice sorgente.
+     * @param dist Array di lunghezza <code>graph.size()</code> in cui vengono scritte le distanze.
+     * @param parent Array di lunghezza <code>graph.size()</code> per i predecessori, oppure null.
+     * @param probe La sonda a cui riportare i contatori, oppure null.
+     * @return False se dalla sorgente e' raggiungibile un ciclo negativo, altrimenti true.
+     */
+    static boolean spfa(CsrWeightedGraph graph, int s, double[] dist, int[] parent, Probe probe)
+    {
+        int n = graph.size();
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        if (parent != null)
+        {
+            Arrays.fill(parent, -1);
+        }
+        dist[s] = 0;
+
+        // Coda circolare: ogni vertice compare al piu' una volta, quindi n posizioni bastano
+        int[] queue = new int[n];
+        boolean[] inQueue = new boolean[n];
+        int[] pathEdges = new int[n];
+        int head = 0;
+        int count = 0;
+        queue[0] = s;
+        inQueue[s] = true;
+        count++;
+        long dequeued = 0;
+        long examined = 0;
+        long relaxed = 0;
+
+        while (count > 0)
+        {
+            int u = queue[head];
+            head = (head + 1) % n;
+            count--;
+            inQueue[u] = false;
+            double du = dist[u];
+            dequeued++;
+            examined += graph.lastEdge(u) - graph.firstEdge(u);
+            for (int e = graph.firstEdge(u); e < graph.lastEdge(u); e++)
+            {
+                int v = graph.edgeTarget(e);
+                double alt = du + graph.edgeWeight(e);
+                if (v != u && alt < dist[v])
+                {
+                    dist[v] = alt;
+                    if (parent != null)
+                    {
+                        parent[v] = u;
+                    }
+                    pathEdges[v] = pathEdges[u] + 1;
+                    relaxed++;
+                    if (pathEdges[v] >= n)
+                    {
+                        if (probe != null)
+                        {
+                            probe.count(dequeued, examined, relaxed, 0, 0);
+                        }
+                        return false;
+                    }
+                    if (!inQueue[v])
+                    {
+                        queue[(head + count) % n] = v;
+                        inQueue[v] = true;
+                        count++;
+                    }
+                }
+            }
+        }
+        if (probe != null)
+        {
+            probe.count(dequeued, examined, relaxed, 0, 0);
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,337 @@
+package upo.graph.impl;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Algoritmi per l'albero e la foresta ricoprente minima di un {@link CsrWeightedGraph}. Gli archi vengono considerati
+ * senza orientamento: (u, v) e (v, u) sono due alternative per collegare gli stessi vertici, e i cappi vengono
+ * ignorati. Il risultato e' un array di flag indicizzato per arco, che segna gli archi scelti.
+ *
+ * @author Guido
+ */
+final class SpanningTrees
+{
+    /** Sotto questa dimensione Filter-Kruskal ordina direttamente gli archi invece di partizionarli. */
+    private static final int FILTER_THRESHOLD = 64;
+
+    private SpanningTrees()
+    {
+    }
+
+    /**
+     * Calcola la foresta ricoprente minima con l'algoritmo di Kruskal. Gli archi vengono ordinati con
+     * {@link Arrays#parallelSort(long[])} su chiavi primitive che impacchettano il rango del peso (32 bit alti)
+     * e l'indice dell'arco (32 bit bassi), quindi l'ordinamento non crea oggetti.
+     *
+     * @param graph Il grafo.
+     * @return Un array di lunghezza <code>graph.edgeCount()</code> con true per gli archi scelti.
+     */
+    static boolean[] kruskal(CsrWeightedGraph graph)
+    {
+        int n = graph.size();
+        int m = graph.edgeCount();
+        int[] source = edgeSources(graph);
+        boolean[] selected = new boolean[m];
+
+        // Ranghi densi dei pesi: ordina le chiavi dei pesi ed elimina i duplicati
+        long[] distinct = new long[m];
+        for (int e = 0; e < m; e++)
+        {
+            distinct[e] = weightKey(graph.edgeWeight(e));
+        }
+        Arrays.parallelSort(distinct);
+        int k = 0;
+        for (int i = 0; i < m; i++)
+        {
+            if (k == 0 || distinct[i] != distinct[k - 1])
+            {
+                distinct[k++] = distinct[i];
+            }
+        }
+        int ranks = k;
+
+        long[] keys = new long[m];
+        IntStream.range(0, m).parallel().forEach(e ->
+        {
+            long rank = Arrays.binarySearch(distinct, 0, ranks, weightKey(graph.edgeWeight(e)));
+            keys[e] = (rank << 32) | e;
+        });
+        Arrays.parallelSort(keys);
+
+        UnionFind components = new UnionFind(n);
+        for (int i = 0; i < m && components.sets() > 1; i++)
+        {
+            int e = (int) keys[i];
+            if (components.union(source[e], graph.edgeTarget(e)))
+            {
+                selected[e] = true;
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Calcola la foresta ricoprente minima con Filter-Kruskal (Osipov, Sanders, Singler): gli archi vengono
+     * partizionati attorno a un pivot casuale come in quicksort, si elaborano prima gli archi leggeri e, prima
+     * di elaborare quelli pesanti, si scartano quelli che collegano vertici gia' nella stessa componente.
+     * Sui grafi densi la maggior parte degli archi pesanti viene scartata senza essere mai ordinata.
+     *
+     * @param graph Il grafo.
+     * @return Un array di lunghezza <code>graph.edgeCount()</code> con true per gli archi scelti.
+     */
+    static boolean[] filterKruskal(CsrWeightedGraph graph)
+    {
+        int n = graph.size();
+        int m = graph.edgeCount();
+        int[] source = edgeSources(graph);
+        boolean[] selected = new boolean[m];
+        int[] edges = new int[m];
+        for (int e = 0; e < m; e++)
+        {
+            edges[e] = e;
+        }
+
+        UnionFind components = new UnionFind(n);
+        SplittableRandom random = new SplittableRandom(42);
+
+        // Pila esplicita di intervalli [from, to) di edges: il flag indica che tutti gli archi hanno lo stesso peso
+        int[] stack = new int[48];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = m;
+        stack[top++] = 0;
+
+        while (top > 0 && components.sets() > 1)
+        {
+            boolean equalWeights = stack[--top] != 0;
+            int to = stack[--top];
+            int from = stack[--top];
+
+            // Scarta gli archi i cui estremi sono gia' collegati dagli archi piu' leggeri
+            int end = from;
+            for (int i = from; i < to; i++)
+            {
+                int e = edges[i];
+                if (!components.connected(source[e], graph.edgeTarget(e)))
+                {
+                    edges[end++] = e;
+                }
+            }
+
+            if (equalWeights || end - from <= FILTER_THRESHOLD)
+            {
+                if (!equalWeights)
+                {
+                    sortByWeight(graph, edges, from, end);
+                }
+                for (int i = from; i < end; i++)
+                {
+                    int e = edges[i];
+                    if (components.union(source[e], graph.edgeTarget(e)))
+                    {
+                        selected[e] = true;
+                    }
+                }
+                continue;
+            }
+
+            // Partizione a tre vie: [from, lt) piu' leggeri, [lt, gt) uguali, [gt, end) piu' pesanti del pivot
+            double pivot = graph.edgeWeight(edges[from + random.nextInt(end - from)]);
+            int lt = from;
+            int gt = end;
+            int i = from;
+            while (i < gt)
+            {
+                int e = edges[i];
+                double w = graph.edgeWeight(e);
+                if (w < pivot)
+                {
+                    edges[i++] = edges[lt];
+                    edges[lt++] = e;
+                }
+                else if (w > pivot)
+                {
+                    edges[i] = edges[--gt];
+                    edges[gt] = e;
+                }
+                else
+                {
+                    i++;
+                }
+            }
+
+            // Gli intervalli vengono estratti in ordine di peso crescente
+            if (top + 9 > stack.length)
+            {
+                stack = Arrays.copyOf(stack, stack.length * 2);
+            }
+            stack[top++] = gt;
+            stack[top++] = end;
+            stack[top++] = 0;
+            stack[top++] = lt;
+            stack[top++] = gt;
+            stack[top++] = 1;
+            stack[top++] = from;
+            stack[top++] = lt;
+            stack[top++] = 0;
+        }
+        return selected;
+    }
+
+    /**
+     * Calcola l'albero ricoprente minimo della componente che contiene <code>s</code> con l'algoritmo di Prim.
+     * Ogni vertice estratto esamina sia gli archi uscenti sia quelli entranti (sul grafo trasposto).
+     * Con {@link PrimMode#AUTO} viene usata la versione su array quando V^2 non supera E log V.
+     *
+     * @param graph Il grafo.
+     * @param s L'indice del vertice di partenza.
+     * @param mode La strategia di selezione del minimo.
+     * @param stats L'oggetto in cui registrare i contatori dell'esecuzione, oppure null.
+     * @return Un array di lunghezza <code>graph.edgeCount()</code> con true per gli archi scelti.
+     */
+    static boolean[] prim(CsrWeightedGraph graph, int s, PrimMode mode, PrimStatistics stats)
+    {
+        int n = graph.size();
+        CsrWeightedGraph transpose = graph.transpose();
+        boolean dense = mode == PrimMode.ARRAY || (mode == PrimMode.AUTO && isDense(n, graph.edgeCount()));
+        if (stats != null)
+        {
+            stats.reset(dense ? PrimMode.ARRAY : PrimMode.HEAP);
+        }
+
+        double[] key = new double[n];
+        int[] parent = new int[n];
+        boolean[] forward = new boolean[n];
+        boolean[] inTree = new boolean[n];
+        Arrays.fill(key, Double.POSITIVE_INFINITY);
+        Arrays.fill(parent, -1);
+        key[s] = 0;
+
+        long examined = 0;
+        long relaxations = 0;
+        long heapOperations = 0;
+        long scans = 0;
+        IndexedMinHeap heap = dense ? null : new IndexedMinHeap(n);
+
+        int u = s;
+        while (u >= 0)
+        {
+            inTree[u] = true;
+            for (int side = 0; side < 2; side++)
+            {
+                CsrWeightedGraph adjacency = side == 0 ? graph : transpose;
+                for (int e = adjacency.firstEdge(u); e < adjacency.lastEdge(u); e++)
+                {
+                    examined++;
+                    int v = adjacency.edgeTarget(e);
+                    double w = adjacency.edgeWeight(e);
+                    if (!inTree[v] && w < key[v])
+                    {
+                        key[v] = w;
+                        parent[v] = u;
+                        forward[v] = side == 0;
+                        relaxations++;
+                        if (heap != null)
+                        {
+                            heap.insertOrDecrease(v, w);
+                            heapOperations++;
+                        }
+                    }
+                }
+            }
+
+            // Sceglie il prossimo vertice: estrazione dallo heap o ricerca lineare della chiave minima
+            u = -1;
+            if (heap != null)
+            {
+                if (!heap.isEmpty())
+                {
+                    u = heap.extractMin();
+                    heapOperations++;
+                }
+            }
+            else
+            {
+                double best = Double.POSITIVE_INFINITY;
+                for (int v = 0; v < n; v++)
+                {
+                    if (!inTree[v] && key[v] < best)
+                    {
+                        best = key[v];
+                        u = v;
+                    }
+                }
+                scans += n;
+            }
+        }
+
+        if (stats != null)
+        {
+            stats.record(examined, relaxations, heapOperations, scans);
+        }
+
+        boolean[] selected = new boolean[graph.edgeCount()];
+        for (int v = 0; v < n; v++)
+        {
+            int p = parent[v];
+            if (p >= 0)
+            {
+                selected[forward[v] ? graph.findEdge(p, v) : graph.findEdge(v, p)] = true;
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Confronta il costo stimato delle due versioni di Prim: O(V^2) su array contro O(E log V) con lo heap.
+     */
+    private static boolean isDense(int n, int m)
+    {
+        int log = Math.max(1, 32 - Integer.numberOfLeadingZeros(n));
+        return (long) n * n <= (long) m * log;
+    }
+
+    /**
+     * Ordina per peso crescente gli archi in <code>edges[from, to)</code> (insertion sort, gli intervalli sono corti).
+     */
+    private static void sortByWeight(CsrWeightedGraph graph, int[] edges, int from, int to)
+    {
+        for (int i = from + 1; i < to; i++)
+        {
+            int e = edges[i];
+            double w = graph.edgeWeight(e);
+            int j = i - 1;
+            while (j >= from && graph.edgeWeight(edges[j]) > w)
+            {
+                edges[j + 1] = edges[j];
+                j--;
+            }
+            edges[j + 1] = e;
+        }
+    }
+
+    /**
+     * Restituisce, per ogni arco, l'indice del vertice da cui esce.
+     */
+    private static int[] edgeSources(CsrWeightedGraph graph)
+    {
+        int[] source = new int[graph.edgeCount()];
+        for (int u = 0; u < graph.size(); u++)
+        {
+            Arrays.fill(source, graph.firstEdge(u), graph.lastEdge(u), u);
+        }
+        return source;
+    }
+
+    /**
+     * Converte un peso in un long con lo stesso ordinamento (confronto con segno), normalizzando -0.0 a 0.0.
+     */
+    private static long weightKey(double weight)
+    {
+        long bits = Double.doubleToLongBits(weight + 0.0);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+}
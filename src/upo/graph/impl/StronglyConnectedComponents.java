@@ -0,0 +1,206 @@
+package upo.graph.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Componenti fortemente connesse di un {@link CsrWeightedGraph}, calcolate con l'algoritmo di Tarjan in tempo
+ * O(V+E). La visita e' iterativa (pila esplicita con cursore sugli archi), quindi funziona anche su cammini
+ * molto lunghi.
+ * <p>
+ * Le componenti sono numerate da 0 a <code>count()-1</code> in ordine topologico del grafo delle componenti
+ * (condensazione): ogni arco tra due componenti diverse va da una componente di indice minore a una di
+ * indice maggiore.
+ *
+ * @author Guido
+ */
+final class StronglyConnectedComponents
+{
+    private final CsrWeightedGraph graph;
+    private final int[] component;
+    private final int[] representative;
+    private final int count;
+
+    /**
+     * Calcola le componenti fortemente connesse del grafo specificato.
+     *
+     * @param graph Il grafo.
+     */
+    StronglyConnectedComponents(CsrWeightedGraph graph)
+    {
+        int n = graph.size();
+        this.graph = graph;
+        this.component = new int[n];
+
+        int[] index = new int[n];
+        int[] low = new int[n];
+        int[] cursor = new int[n];
+        int[] callStack = new int[n];
+        int[] sccStack = new int[n];
+        boolean[] onStack = new boolean[n];
+        int[] roots = new int[n];
+        Arrays.fill(index, -1);
+
+        int counter = 0;
+        int found = 0;
+        int sccTop = 0;
+        for (int root = 0; root < n; root++)
+        {
+            if (index[root] >= 0)
+            {
+                continue;
+            }
+            int callTop = 0;
+            index[root] = low[root] = counter++;
+            cursor[root] = graph.firstEdge(root);
+            sccStack[sccTop++] = root;
+            onStack[root] = true;
+            callStack[callTop++] = root;
+
+            while (callTop > 0)
+            {
+                int u = callStack[callTop - 1];
+                if (cursor[u] < graph.lastEdge(u))
+                {
+                    int v = graph.edgeTarget(cursor[u]++);
+                    if (index[v] < 0)
+                    {
+                        index[v] = low[v] = counter++;
+                        cursor[v] = graph.firstEdge(v);
+                        sccStack[sccTop++] = v;
+                        onStack[v] = true;
+                        callStack[callTop++] = v;
+                    }
+                    else if (onStack[v] && index[v] < low[u])
+                    {
+                        low[u] = index[v];
+                    }
+                }
+                else
+                {
+                    callTop--;
+                    if (callTop > 0)
+                    {
+                        int p = callStack[callTop - 1];
+                        if (low[u] < low[p])
+                        {
+                            low[p] = low[u];
+                        }
+                    }
+                    if (low[u] == index[u])
+                    {
+                        // u e' la radice di una componente: i vertici sopra di lui sulla pila ne fanno parte
+                        int w;
+                        do
+                        {
+                            w = sccStack[--sccTop];
+                            onStack[w] = false;
+                            component[w] = found;
+                        }
+                        while (w != u);
+                        roots[found++] = u;
+                    }
+                }
+            }
+        }
+
+        // Tarjan chiude le componenti in ordine topologico inverso: le rinumera in ordine topologico
+        this.count = found;
+        this.representative = new int[found];
+        for (int v = 0; v < n; v++)
+        {
+            component[v] = found - 1 - component[v];
+        }
+        for (int c = 0; c < found; c++)
+        {
+            representative[found - 1 - c] = roots[c];
+        }
+    }
+
+    /**
+     * Restituisce il numero di componenti.
+     *
+     * @return Il numero di componenti fortemente connesse.
+     */
+    int count()
+    {
+        return count;
+    }
+
+    /**
+     * Restituisce la componente a cui appartiene il vertice <code>v</code>.
+     *
+     * @param v L'indice del vertice.
+     * @return L'indice della componente.
+     */
+    int componentOf(int v)
+    {
+        return component[v];
+    }
+
+    /**
+     * Restituisce il vertice radice (nella visita di Tarjan) della componente <code>c</code>, usato per
+     * etichettare la componente nel grafo di condensazione.
+     *
+     * @param c L'indice della componente.
+     * @return L'indice del vertice rappresentante.
+     */
+    int representativeOf(int c)
+    {
+        return representative[c];
+    }
+
+    /**
+     * Restituisce le componenti come insiemi di etichette.
+     *
+     * @return Un insieme di insiemi di etichette, uno per componente.
+     */
+    Set<Set<String>> toLabelSets()
+    {
+        List<Set<String>> sets = new ArrayList<>(count);
+        for (int c = 0; c < count; c++)
+        {
+            sets.add(new HashSet<>());
+        }
+        for (int v = 0; v < component.length; v++)
+        {
+            sets.get(component[v]).add(graph.getVertexLabel(v));
+        }
+        return new HashSet<>(sets);
+    }
+
+    /**
+     * Costruisce il grafo di condensazione: un vertice per componente, etichettato con l'etichetta del suo
+     * rappresentante, e un arco tra due componenti se esiste almeno un arco tra i loro vertici.
+     * I vertici sono inseriti in ordine topologico, quindi i loro indici sono un ordinamento topologico.
+     *
+     * @return Il grafo di condensazione, aciclico.
+     */
+    AdjListDir toCondensation()
+    {
+        AdjListDir condensation = new AdjListDir();
+        String[] names = new String[count];
+        for (int c = 0; c < count; c++)
+        {
+            names[c] = graph.getVertexLabel(representative[c]);
+            condensation.addVertex(names[c]);
+        }
+        for (int u = 0; u < component.length; u++)
+        {
+            for (int e = graph.firstEdge(u); e < graph.lastEdge(u); e++)
+            {
+                int cu = component[u];
+                int cv = component[graph.edgeTarget(e)];
+                if (cu != cv)
+                {
+                    condensation.addEdge(names[cu], names[cv]);
+                }
+            }
+        }
+        return condensation;
+    }
+
+}
@@ -0,0 +1,109 @@
+package upo.graph.impl;
+
+/**
+ * Ordinamento topologico di un {@link CsrWeightedGraph} calcolato con l'algoritmo di Kahn, in un'unica
+ * passata O(V+E) sugli array dei gradi entranti. I vertici vengono estratti per livelli: il livello 0 contiene
+ * i vertici senza archi entranti, il livello k quelli i cui predecessori stanno tutti nei livelli precedenti.
+ * I vertici di uno stesso livello non sono collegati tra loro (formano un'anticatena) e possono quindi essere
+ * elaborati in parallelo.
+ *
+ * @author Guido
+ */
+final class TopologicalOrder
+{
+    private final int[] order;
+    private final int[] layerStart;
+    private final int layers;
+
+    private TopologicalOrder(int[] order, int[] layerStart, int layers)
+    {
+        this.order = order;
+        this.layerStart = layerStart;
+        this.layers = layers;
+    }
+
+    /**
+     * Calcola l'ordinamento topologico del grafo, rilevando i cicli durante la stessa passata.
+     *
+     * @param graph Il grafo.
+     * @return L'ordinamento topologico, o null se il grafo contiene un ciclo orientato.
+     */
+    static TopologicalOrder of(CsrWeightedGraph graph)
+    {
+        int n = graph.size();
+        int[] inDegree = new int[n];
+        for (int e = 0; e < graph.edgeCount(); e++)
+        {
+            inDegree[graph.edgeTarget(e)]++;
+        }
+
+        // L'array dell'ordinamento funge anche da coda: ogni livello e' un suo intervallo contiguo
+        int[] order = new int[n];
+        int[] layerStart = new int[n + 1];
+        int tail = 0;
+        for (int v = 0; v < n; v++)
+        {
+            if (inDegree[v] == 0)
+            {
+                order[tail++] = v;
+            }
+        }
+
+        int layers = 0;
+        int head = 0;
+        while (head < tail)
+        {
+            layerStart[layers++] = head;
+            int end = tail;
+            for (; head < end; head++)
+            {
+                int u = order[head];
+                for (int e = graph.firstEdge(u); e < graph.lastEdge(u); e++)
+                {
+                    int v = graph.edgeTarget(e);
+                    if (--inDegree[v] == 0)
+                    {
+                        order[tail++] = v;
+                    }
+                }
+            }
+        }
+        layerStart[layers] = tail;
+
+        // I vertici di un ciclo non raggiungono mai grado entrante 0
+        return tail == n ? new TopologicalOrder(order, layerStart, layers) : null;
+    }
+
+    /**
+     * Restituisce i vertici in ordine topologico.
+     *
+     * @return Gli indici dei vertici in ordine topologico.
+     */
+    int[] order()
+    {
+        return order;
+    }
+
+    /**
+     * Restituisce il numero di livelli.
+     *
+     * @return Il numero di livelli.
+     */
+    int layerCount()
+    {
+        return layers;
+    }
+
+    /**
+     * Restituisce la posizione in {@link #order()} del primo vertice del livello <code>layer</code>.
+     * Il livello termina alla posizione <code>layerStart(layer + 1)</code>.
+     *
+     * @param layer L'indice del livello, compreso tra 0 e <code>layerCount()</code>.
+     * @return La posizione del primo vertice del livello.
+     */
+    int layerStart(int layer)
+    {
+        return layerStart[layer];
+    }
+
+}
@@ -0,0 +1,107 @@
+package upo.graph.impl;
+
+/**
+ * Struttura union-find su indici interi da 0 a <code>size-1</code>, con compressione dei cammini e unione
+ * per rango: una sequenza di m operazioni costa O(m &alpha;(n)).
+ *
+ * @author Guido
+ */
+final class UnionFind
+{
+    private final int[] parent;
+    private final byte[] rank;
+    private int sets;
+
+    /**
+     * Crea <code>size</code> insiemi, ciascuno contenente un solo elemento.
+     *
+     * @param size Il numero di elementi.
+     */
+    UnionFind(int size)
+    {
+        this.parent = new int[size];
+        this.rank = new byte[size];
+        this.sets = size;
+        for (int i = 0; i < size; i++)
+        {
+            parent[i] = i;
+        }
+    }
+
+    /**
+     * Restituisce il rappresentante dell'insieme che contiene <code>x</code>, comprimendo il cammino percorso.
+     *
+     * @param x L'elemento.
+     * @return Il rappresentante del suo insieme.
+     */
+    int find(int x)
+    {
+        int root = x;
+        while (parent[root] != root)
+        {
+            root = parent[root];
+        }
+        while (parent[x] != root)
+        {
+            int next = parent[x];
+            parent[x] = root;
+            x = next;
+        }
+        return root;
+    }
+
+    /**
+     * Unisce gli insiemi che contengono <code>x</code> e <code>y</code>.
+     *
+     * @param x Il primo elemento.
+     * @param y Il secondo elemento.
+     * @return True se i due elementi appartenevano a insiemi diversi, false altrimenti.
+     */
+    boolean union(int x, int y)
+    {
+        int rx = find(x);
+        int ry = find(y);
+        if (rx == ry)
+        {
+            return false;
+        }
+        if (rank[rx] < rank[ry])
+        {
+            parent[rx] = ry;
+        }
+        else if (rank[rx] > rank[ry])
+        {
+            parent[ry] = rx;
+        }
+        else
+        {
+            parent[ry] = rx;
+            rank[rx]++;
+        }
+        sets--;
+        return true;
+    }
+
+    /**
+     * Verifica se <code>x</code> e <code>y</code> appartengono allo stesso insieme.
+     *
+     * @param x Il primo elemento.
+     * @param y Il secondo elemento.
+     * @return True se i due elementi sono nello stesso insieme.
+     */
+    boolean connected(int x, int y)
+    {
+        return find(x) == find(y);
+    }
+
+    /**
+     * Restituisce il numero di insiemi disgiunti.
+     *
+     * @return Il numero di insiemi.
+     */
+    int sets()
+    {
+        return sets;
+    }
+
+}
@@ -0,0 +1,401 @@
+package upo.graph.impl;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import upo.graph.base.VisitForest;
+import upo.graph.base.WeightedGraph;
+
+/**
+ * Grafo orientato pesato multiversione (MVCC), con la stessa semantica di {@link AdjListDirWeight}: ogni modifica
+ * produce una nuova {@link GraphVersion} immutabile, e {@link #snapshot()} restituisce in tempo costante la versione
+ * corrente.
+ * <p>
+ * I lettori che lavorano su una versione non acquisiscono lock e non vengono mai bloccati dagli scrittori, ne'
+ * li bloccano: continuano a vedere lo stato del grafo al momento di {@link #snapshot()} anche mentre le modifiche
+ * proseguono. Le modifiche sono serializzate tra loro e costano O(grado + log V), perche' copiano solo la lista di
+ * adiacenza cambiata (vedi {@link GraphVersion}). Fa eccezione {@link #removeVertex(String)}, che rinumera i vertici
+ * successivi e ricostruisce quindi tutte le righe in tempo O(V+E).
+ * <p>
+ * I metodi di lettura di questa classe operano sulla versione corrente al momento della chiamata; per eseguire piu'
+ * interrogazioni sullo stesso stato conviene ottenere una versione con {@link #snapshot()} e interrogare quella.
+ *
+ * @author Guido
+ */
+public class VersionedWeightedGraph implements WeightedGraph
+{
+    private volatile GraphVersion current;
+
+    /**
+     * Costruisce un grafo vuoto, alla versione 0.
+     */
+    public VersionedWeightedGraph()
+    {
+        current = new GraphVersion(0, PersistentVector.empty(), new ConcurrentHashMap<>(), 0);
+    }
+
+    /**
+     * Restituisce la versione corrente del grafo, immutabile, senza copiare nulla.
+     *
+     * @return La versione corrente.
+     */
+    public GraphVersion snapshot()
+    {
+        return current;
+    }
+
+    /**
+     * Pubblica la versione successiva a quella corrente con le righe e il numero di archi specificati.
+     */
+    private void publish(GraphVersion base, PersistentVector<GraphVersion.Row> rows, Map<String, Integer> indexMap, int edgeCount)
+    {
+        current = new GraphVersion(base.getVersion() + 1, rows, indexMap, edgeCount);
+    }
+
+    @Override
+    public int getVertexIndex(String label)
+    {
+        return current.getVertexIndex(label);
+    }
+
+    @Override
+    public String getVertexLabel(Integer index)
+    {
+        return current.getVertexLabel(index);
+    }
+
+    /**
+     * Aggiunge un nuovo vertice con l'etichetta specificata, in tempo O(log V).
+     *
+     * @param label L'etichetta del nuovo vertice.
+     * @return L'indice del vertice appena aggiunto o -1 se un vertice con la stessa etichetta è già presente.
+     * @throws IllegalArgumentException Se l'etichetta è null.
+     */
+    @Override
+    public synchronized int addVertex(String label) throws IllegalArgumentException
+    {
+        if (label == null)
+        {
+            throw new IllegalArgumentException("L'etichetta del vertice non puo' essere null");
+        }
+        GraphVersion base = current;
+        if (base.containsVertex(label))
+        {
+            return -1;
+        }
+
+        // La mappa e' condivisa con le versioni precedenti, che ignorano gli indici oltre la propria dimensione
+        int index = base.size();
+        base.indexMap().put(label, index);
+        publish(base, base.rows().append(new GraphVersion.Row(label)), base.indexMap(), base.edgeCount());
+        return index;
+    }
+
+    @Override
+    public boolean containsVertex(String label)
+    {
+        return current.containsVertex(label);
+    }
+
+    /**
+     * Rimuove un vertice insieme a tutti i suoi archi. Gli indici dei vertici successivi vengono decrementati di 1,
+     * quindi tutte le righe vengono ricostruite, con una nuova mappa delle etichette, in tempo O(V+E); le versioni
+     * precedenti restano invariate.
+     *
+     * @param label L'etichetta del vertice da rimuovere.
+     * @throws NoSuchElementException Se il vertice specificato non è presente nel grafo.
+     */
+    @Override
+    public synchronized void removeVertex(String label) throws NoSuchElementException
+    {
+        GraphVersion base = current;
+        int removed = base.getVertexIndex(label);
+        if (removed < 0)
+        {
+            throw new NoSuchElementException("Vertice non trovato: " + label);
+        }
+
+        PersistentVector<GraphVersion.Row> rows = PersistentVector.empty();
+        Map<String, Integer> indexMap = new ConcurrentHashMap<>();
+        int edgeCount = 0;
+        for (int v = 0; v < base.size(); v++)
+        {
+            if (v == removed)
+            {
+                continue;
+            }
+            GraphVersion.Row row = base.row(v);
+            int[] targets = new int[row.targets.length];
+            double[] weights = new double[row.targets.length];
+            int k = 0;
+            for (int e = 0; e < row.targets.length; e++)
+            {
+                int t = row.targets[e];
+                if (t != removed)
+                {
+                    targets[k] = t > removed ? t - 1 : t;
+                    weights[k++] = row.weights[e];
+                }
+            }
+            if (k < targets.length)
+            {
+                targets = Arrays.copyOf(targets, k);
+                weights = Arrays.copyOf(weights, k);
+            }
+            indexMap.put(row.label, rows.size());
+            rows = rows.append(new GraphVersion.Row(row.label, targets, weights));
+            edgeCount += k;
+        }
+        publish(base, rows, indexMap, edgeCount);
+    }
+
+    /**
+     * Restituisce gli indici dei due vertici nella versione specificata.
+     *
+     * @throws IllegalArgumentException Se uno o entrambi i vertici non appartengono al grafo.
+     */
+    private static int[] endpoints(GraphVersion base, String sourceVertex, String targetVertex) throws IllegalArgumentException
+    {
+        int u = base.getVertexIndex(sourceVertex);
+        int v = base.getVertexIndex(targetVertex);
+        if (u < 0 || v < 0)
+        {
+            throw new IllegalArgumentException("Il vertice " + sourceVertex + " o " + targetVertex + " non appartiene al grafo");
+        }
+        return new int[] { u, v };
+    }
+
+    /**
+     * Aggiunge un arco con il peso predefinito, o riporta al peso predefinito un arco gia' presente.
+     *
+     * @param sourceVertex L'etichetta del vertice di origine.
+     * @param targetVertex L'etichetta del vertice di destinazione.
+     * @throws IllegalArgumentException Se uno o entrambi i vertici non appartengono al grafo.
+     */
+    @Override
+    public void addEdge(String sourceVertex, String targetVertex) throws IllegalArgumentException
+    {
+        addEdge(sourceVertex, targetVertex, WeightedGraph.defaultEdgeWeight);
+    }
+
+    /**
+     * Aggiunge un arco con il peso specificato, o ne aggiorna il peso se e' gia' presente, in un'unica versione.
+     *
+     * @param sourceVertex L'etichetta del vertice di origine.
+     * @param targetVertex L'etichetta del vertice di destinazione.
+     * @param weight Il peso dell'arco.
+     * @throws IllegalArgumentException Se uno o entrambi i vertici non appartengono al grafo.
+     */
+    public synchronized void addEdge(String sourceVertex, String targetVertex, double weight) throws IllegalArgumentException
+    {
+        GraphVersion base = current;
+        int[] uv = endpoints(base, sourceVertex, targetVertex);
+        GraphVersion.Row row = base.row(uv[0]);
+        int edgeCount = base.edgeCount() + (row.find(uv[1]) >= 0 ? 0 : 1);
+        publish(base, base.rows().set(uv[0], row.with(uv[1], weight)), base.indexMap(), edgeCount);
+    }
+
+    @Override
+    public boolean containsEdge(String sourceVertex, String targetVertex) throws IllegalArgumentException
+    {
+        return current.containsEdge(sourceVertex, targetVertex);
+    }
+
+    /**
+     * Rimuove l'arco tra il vertice di origine e il vertice di destinazione.
+     *
+     * @param sourceVertex L'etichetta del vertice di origine.
+     * @param targetVertex L'etichetta del vertice di destinazione.
+     * @throws IllegalArgumentException Se uno o entrambi i vertici non appartengono al grafo.
+     * @throws NoSuchElementException Se non c'è un arco tra i vertici specificati.
+     */
+    @Override
+    public synchronized void removeEdge(String sourceVertex, String targetVertex) throws IllegalArgumentException, NoSuchElementException
+    {
+        GraphVersion base = current;
+        int[] uv = endpoints(base, sourceVertex, targetVertex);
+        GraphVersion.Row row = base.row(uv[0]);
+        int pos = row.find(uv[1]);
+        if (pos < 0)
+        {
+            throw new NoSuchElementException("Non c'è un arco tra " + sourceVertex + " e " + targetVertex);
+        }
+        publish(base, base.rows().set(uv[0], row.without(pos)), base.indexMap(), base.edgeCount() - 1);
+    }
+
+    @Override
+    public Set<String> getAdjacent(String vertex) throws NoSuchElementException
+    {
+        return current.getAdjacent(vertex);
+    }
+
+    @Override
+    public boolean isAdjacent(String targetVertex, String sourceVertex) throws IllegalArgumentException
+    {
+        return current.isAdjacent(targetVertex, sourceVertex);
+    }
+
+    @Override
+    public int size()
+    {
+        return current.size();
+    }
+
+    @Override
+    public boolean isDirected()
+    {
+        return true;
+    }
+
+    @Override
+    public double getEdgeWeight(String sourceVertex, String targetVertex) throws IllegalArgumentException, NoSuchElementException
+    {
+        return current.getEdgeWeight(sourceVertex, targetVertex);
+    }
+
+    /**
+     * Imposta il peso di un arco esistente, in tempo O(grado + log V).
+     *
+     * @param sourceVertex Il vertice di origine dell'arco.
+     * @param targetVertex Il vertice di destinazione dell'arco.
+     * @param weight Il nuovo peso dell'arco.
+     * @throws IllegalArgumentException Se uno dei vertici specificati non appartiene al grafo.
+     * @throws NoSuchElementException Se non c'è un arco tra i vertici specificati.
+     */
+    @Override
+    public synchronized void setEdgeWeight(String sourceVertex, String targetVertex, double weight) throws IllegalArgumentException, NoSuchElementException
+    {
+        GraphVersion base = current;
+        int[] uv = endpoints(base, sourceVertex, targetVertex);
+        GraphVersion.Row row = base.row(uv[0]);
+        if (row.find(uv[1]) < 0)
+        {
+            throw new NoSuchElementException("Non c'è un arco tra " + sourceVertex + " e " + targetVertex);
+        }
+        publish(base, base.rows().set(uv[0], row.with(uv[1], weight)), base.indexMap(), base.edgeCount());
+    }
+
+    /**
+     * Restituisce l'istantanea CSR della versione corrente.
+     *
+     * @return Un {@code CsrWeightedGraph} equivalente alla versione corrente, con gli stessi indici dei vertici.
+     */
+    public CsrWeightedGraph freeze()
+    {
+        return current.freeze();
+    }
+
+    @Override
+    public boolean isCyclic()
+    {
+        return current.isCyclic();
+    }
+
+    @Override
+    public boolean isDAG()
+    {
+        return current.isDAG();
+    }
+
+    @Override
+    public VisitForest getBFSTree(String startingVertex) throws UnsupportedOperationException, IllegalArgumentException
+    {
+        return current.getBFSTree(startingVertex);
+    }
+
+    @Override
+    public VisitForest getDFSTree(String startingVertex) throws UnsupportedOperationException, IllegalArgumentException
+    {
+        return current.getDFSTree(startingVertex);
+    }
+
+    @Override
+    public VisitForest getDFSTOTForest(String startingVertex) throws UnsupportedOperationException, IllegalArgumentException
+    {
+        return current.getDFSTOTForest(startingVertex);
+    }
+
+    @Override
+    public VisitForest getDFSTOTForest(String[] vertexOrdering) throws UnsupportedOperationException, IllegalArgumentException
+    {
+        return current.getDFSTOTForest(vertexOrdering);
+    }
+
+    @Override
+    public String[] topologicalSort() throws UnsupportedOperationException
+    {
+        return current.topologicalSort();
+    }
+
+    @Override
+    public Set<Set<String>> stronglyConnectedComponents() throws UnsupportedOperationException
+    {
+        return current.stronglyConnectedComponents();
+    }
+
+    @Override
+    public Set<Set<String>> connectedComponents() throws UnsupportedOperationException
+    {
+        throw new UnsupportedOperationException("Un grafo orientato non supporta l'operazione");
+    }
+
+    @Override
+    public WeightedGraph getBellmanFordShortestPaths(String startingVertex) throws UnsupportedOperationException, IllegalArgumentException
+    {
+        return current.getBellmanFordShortestPaths(startingVertex);
+    }
+
+    @Override
+    public WeightedGraph getDijkstraShortestPaths(String startingVertex) throws UnsupportedOperationException, IllegalArgumentException
+    {
+        return current.getDijkstraShortestPaths(startingVertex);
+    }
+
+    @Override
+    public WeightedGraph getPrimMST(String startingVertex) throws UnsupportedOperationException, IllegalArgumentException
+    {
+        return current.getPrimMST(startingVertex);
+    }
+
+    @Override
+    public WeightedGraph getKruskalMST() throws UnsupportedOperationException
+    {
+        return current.getKruskalMST();
+    }
+
+    @Override
+    public WeightedGraph getFloydWarshallShortestPaths() throws UnsupportedOperationException
+    {
+        return current.getFloydWarshallShortestPaths();
+    }
+
+    /**
+     * Due grafi multiversione sono uguali se le loro versioni correnti lo sono.
+     *
+     * @param obj l'oggetto da confrontare con l'istanza corrente
+     * @return true se i due grafi sono uguali, false altrimenti
+     */
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj)
+        {
+            return true;
+        }
+        if (!(obj instanceof VersionedWeightedGraph))
+        {
+            return false;
+        }
+        return current.equals(((VersionedWeightedGraph) obj).current);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return current.hashCode();
+    }
+
+}
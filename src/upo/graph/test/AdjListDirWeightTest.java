@@ -2,6 +2,8 @@ package upo.graph.test;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Set;
 import java.util.HashSet;
 import java.util.NoSuchElementException;
@@ -197,6 +199,67 @@ class AdjListDirWeightTest
 	    assertEquals(exc.getMessage(), "Vertice non trovato: D");
 	}
 	
+	@Test
+	void testVertexIndexAfterRemove() 
+	{
+	    AdjListDirWeight graph = new AdjListDirWeight();
+	    graph.addVertex("A");
+	    graph.addVertex("B");
+	    graph.addVertex("C");
+	    graph.addVertex("D");
+	    graph.addEdge("A", "C");
+	    graph.addEdge("D", "B");
+
+	    // Rimozione di un vertice intermedio: gli indici successivi vengono decrementati di 1
+	    graph.removeVertex("B");
+	    assertEquals(0, graph.getVertexIndex("A"));
+	    assertEquals(1, graph.getVertexIndex("C"));
+	    assertEquals(2, graph.getVertexIndex("D"));
+	    assertEquals(-1, graph.getVertexIndex("B"));
+	    assertEquals("D", graph.getVertexLabel(2));
+	    assertNull(graph.getVertexLabel(3));
+
+	    // Un nuovo vertice riceve come indice this.size()
+	    assertEquals(3, graph.addVertex("E"));
+	    assertEquals("E", graph.getVertexLabel(3));
+
+	    // Gli indici restano stabili tra chiamate successive
+	    assertEquals(graph.getVertexIndex("C"), graph.getVertexIndex("C"));
+	    assertTrue(graph.containsEdge("A", "C"));
+	}
+	
+	@Test
+	void testPredecessors() 
+	{
+	    for (boolean indexed : new boolean[] { true, false }) 
+	    {
+	        AdjListDirWeight graph = new AdjListDirWeight(indexed);
+	        graph.addVertex("A");
+	        graph.addVertex("B");
+	        graph.addVertex("C");
+	        graph.addEdge("A", "C");
+	        graph.addEdge("B", "C");
+	        graph.addEdge("C", "C");
+	        graph.addEdge("C", "A");
+
+	        assertEquals(new HashSet<String>(Arrays.asList("A", "B", "C")), graph.getPredecessors("C"));
+	        assertEquals(3, graph.inDegree("C"));
+	        assertEquals(0, graph.inDegree("B"));
+
+	        graph.removeEdge("B", "C");
+	        assertEquals(2, graph.inDegree("C"));
+
+	        // La rimozione di un vertice elimina sia gli archi uscenti sia quelli entranti, anche i cappi
+	        graph.removeVertex("C");
+	        assertEquals(0, graph.inDegree("A"));
+	        assertTrue(graph.getAdjacent("A").isEmpty());
+	        assertTrue(graph.getPredecessors("B").isEmpty());
+
+	        NoSuchElementException exc = assertThrows(NoSuchElementException.class, () -> { graph.getPredecessors("C"); });
+	        assertEquals("Il vertice C non appartiene al grafo", exc.getMessage());
+	    }
+	}
+	
 	@Test
 	void testRemoveEdge() 
 	{
@@ -281,6 +344,41 @@ class AdjListDirWeightTest
 	    assertArrayEquals(result, parents);
 	}
 
+	@Test
+	void testGetBFSTreeIndexes() 
+	{
+	    AdjListDirWeight graph = new AdjListDirWeight();
+	    graph.addVertex("A");
+	    graph.addVertex("B");
+	    graph.addVertex("C");
+	    graph.addVertex("D");
+	    graph.addEdge("A", "B");
+	    graph.addEdge("B", "C");
+
+	    VisitForest visit = graph.getBFSTree("A");
+
+	    // Accesso tramite indici interi: -1 indica l'assenza del genitore, NaN una distanza non calcolata
+	    assertEquals(-1, visit.getParent(0));
+	    assertEquals(0, visit.getParent(1));
+	    assertEquals(1, visit.getParent(2));
+	    assertEquals(2.0, visit.getDistance(2));
+	    assertTrue(Double.isNaN(visit.getDistance(3)));
+	    assertEquals(VisitForest.Color.BLACK, visit.getColor(2));
+	    assertEquals(VisitForest.Color.WHITE, visit.getColor(3));
+
+	    // L'accesso tramite label resta coerente con quello tramite indici
+	    assertNull(visit.getParent("A"));
+	    assertNull(visit.getDistance("D"));
+	    Set<String> roots = new HashSet<String>();
+	    roots.add("A");
+	    roots.add("D");
+	    assertEquals(roots, visit.getRoots());
+
+	    assertThrows(NoSuchElementException.class, () -> { visit.getColor(4); });
+	    assertThrows(NoSuchElementException.class, () -> { visit.getColor("E"); });
+	    assertThrows(IllegalArgumentException.class, () -> { visit.setColor(0, VisitForest.Color.WHITE); });
+	}
+
 	@Test
 	void testGetDFSTree() 
 	{
@@ -383,6 +481,102 @@ class AdjListDirWeightTest
 	    assertEquals("B", parents2[2]); // Il vertice "C" ha come genitore "B"
 	}
 
+	@Test
+	void testDFSLongChain() 
+	{
+	    // Una catena molto lunga non deve causare StackOverflowError
+	    AdjListDirWeight graph = new AdjListDirWeight();
+	    int n = 100000;
+	    for (int i = 0; i < n; i++) 
+	    {
+	        graph.addVertex("v" + i);
+	    }
+	    for (int i = 0; i < n - 1; i++) 
+	    {
+	        graph.addEdge("v" + i, "v" + (i + 1));
+	    }
+
+	    VisitForest visit = graph.getDFSTree("v0");
+	    assertEquals("v" + (n - 2), visit.getParent("v" + (n - 1)));
+
+	    // Tempi di inizio e fine visita annidati correttamente
+	    assertEquals(0, visit.getStartTime("v0"));
+	    assertEquals(n - 1, visit.getStartTime("v" + (n - 1)));
+	    assertEquals(n, visit.getEndTime("v" + (n - 1)));
+	    assertEquals(2 * n - 1, visit.getEndTime("v0"));
+
+	    assertFalse(graph.isCyclic());
+	    String[] order = graph.topologicalSort();
+	    assertEquals("v0", order[0]);
+	    assertEquals("v" + (n - 1), order[n - 1]);
+	}
+
+	@Test
+	void testTopologicalSortKahn() 
+	{
+	    // Grafo a diamante: aciclico anche se ha due cammini verso D
+	    AdjListDirWeight graph = new AdjListDirWeight();
+	    graph.addVertex("A");
+	    graph.addVertex("B");
+	    graph.addVertex("C");
+	    graph.addVertex("D");
+	    graph.addVertex("E");
+	    graph.addEdge("A", "B");
+	    graph.addEdge("A", "C");
+	    graph.addEdge("B", "D");
+	    graph.addEdge("C", "D");
+
+	    String[] order = graph.topologicalSort();
+	    assertEquals(5, order.length);
+	    for (String u : order) 
+	    {
+	        for (String v : graph.getAdjacent(u)) 
+	        {
+	            assertTrue(Arrays.asList(order).indexOf(u) < Arrays.asList(order).indexOf(v));
+	        }
+	    }
+
+	    List<Set<String>> layers = graph.topologicalLayers();
+	    assertEquals(3, layers.size());
+	    assertEquals(new HashSet<String>(Arrays.asList("A", "E")), layers.get(0));
+	    assertEquals(new HashSet<String>(Arrays.asList("B", "C")), layers.get(1));
+	    assertEquals(new HashSet<String>(Arrays.asList("D")), layers.get(2));
+
+	    // Un ciclo orientato viene rilevato durante l'ordinamento
+	    graph.addEdge("D", "A");
+	    UnsupportedOperationException exc1 = assertThrows(UnsupportedOperationException.class, () -> { graph.topologicalSort(); });
+	    assertEquals("Il grafo non è un DAG", exc1.getMessage());
+	    UnsupportedOperationException exc2 = assertThrows(UnsupportedOperationException.class, () -> { graph.topologicalLayers(); });
+	    assertEquals("Il grafo non è un DAG", exc2.getMessage());
+	}
+
+	@Test
+	void testGetDFSTOTForestAllVertices() 
+	{
+	    // Vertici non raggiungibili dalla sorgente vengono visitati come nuove radici
+	    AdjListDirWeight graph = new AdjListDirWeight();
+	    graph.addVertex("A");
+	    graph.addVertex("B");
+	    graph.addVertex("C");
+	    graph.addVertex("D");
+	    graph.addEdge("B", "A");
+	    graph.addEdge("C", "D");
+
+	    VisitForest visit = graph.getDFSTOTForest("A");
+	    assertEquals(VisitForest.Color.BLACK, visit.getColor("D"));
+	    assertNull(visit.getParent("A"));
+	    assertNull(visit.getParent("B"));
+	    assertEquals("C", visit.getParent("D"));
+	    assertEquals(0, visit.getStartTime("A"));
+	    assertEquals(1, visit.getEndTime("A"));
+
+	    // Un tempo null viene cancellato, come un padre null
+	    visit.setStartTime("A", null);
+	    visit.setEndTime("A", null);
+	    assertEquals(-1, visit.getStartTime("A"));
+	    assertEquals(-1, visit.getEndTime("A"));
+	}
+
 	@Test
     void testEquals() {
         // Creiamo due istanze della classe AdjListDirWeight con gli stessi valori
@@ -501,6 +695,46 @@ class AdjListDirWeightTest
 	    assertDoesNotThrow(() -> graph.stronglyConnectedComponents());
 	}
 	
+	@Test
+	void testStronglyConnectedComponentsCyclic() 
+	{
+	    // Due cicli collegati da un arco, piu' un vertice isolato
+	    AdjListDirWeight graph = new AdjListDirWeight();
+	    graph.addVertex("A");
+	    graph.addVertex("B");
+	    graph.addVertex("C");
+	    graph.addVertex("D");
+	    graph.addVertex("E");
+	    graph.addVertex("F");
+	    graph.addEdge("A", "B");
+	    graph.addEdge("B", "C");
+	    graph.addEdge("C", "A");
+	    graph.addEdge("C", "D");
+	    graph.addEdge("D", "E");
+	    graph.addEdge("E", "D");
+
+	    Set<Set<String>> expected = new HashSet<>();
+	    expected.add(new HashSet<>(Arrays.asList("A", "B", "C")));
+	    expected.add(new HashSet<>(Arrays.asList("D", "E")));
+	    expected.add(new HashSet<>(Arrays.asList("F")));
+	    assertEquals(expected, graph.stronglyConnectedComponents());
+
+	    // La condensazione ha un vertice per componente e i suoi indici sono in ordine topologico
+	    Graph condensation = graph.getCondensation();
+	    assertEquals(3, condensation.size());
+	    assertFalse(condensation.isCyclic());
+	    int edges = 0;
+	    for (int i = 0; i < condensation.size(); i++) 
+	    {
+	        for (String v : condensation.getAdjacent(condensation.getVertexLabel(i))) 
+	        {
+	            assertTrue(condensation.getVertexIndex(v) > i);
+	            edges++;
+	        }
+	    }
+	    assertEquals(1, edges);
+	}
+
 	@Test
     void testGetBellmanFordShortestPaths() 
 	{
@@ -551,4 +785,290 @@ class AdjListDirWeightTest
         // Verifica che il grafo restituito dal metodo sia uguale al grafo atteso
         assertTrue(graph.getBellmanFordShortestPaths("A").equals(expectedGraph));
 	}
-}
\ No newline at end of file
+
+	@Test
+	void testGetDijkstraShortestPaths() 
+	{
+	    AdjListDirWeight graph = new AdjListDirWeight();
+	    graph.addVertex("A");
+	    graph.addVertex("B");
+	    graph.addVertex("C");
+	    graph.addVertex("D");
+	    graph.addEdge("A", "B");
+	    graph.addEdge("A", "C");
+	    graph.addEdge("B", "C");
+	    graph.addEdge("C", "D");
+	    graph.addEdge("B", "D");
+	    graph.setEdgeWeight("A", "B", 1.0);
+	    graph.setEdgeWeight("A", "C", 4.0);
+	    graph.setEdgeWeight("B", "C", 2.0);
+	    graph.setEdgeWeight("C", "D", 1.0);
+	    graph.setEdgeWeight("B", "D", 5.0);
+
+	    // Le distanze sono A=0, B=1, C=3, D=4: ogni arco ha peso dist(v) - dist(u)
+	    WeightedGraph paths = graph.getDijkstraShortestPaths("A");
+	    assertEquals(1.0, paths.getEdgeWeight("A", "B"));
+	    assertEquals(3.0, paths.getEdgeWeight("A", "C"));
+	    assertEquals(2.0, paths.getEdgeWeight("B", "C"));
+	    assertEquals(1.0, paths.getEdgeWeight("C", "D"));
+	    assertEquals(3.0, paths.getEdgeWeight("B", "D"));
+
+	    // Stesso risultato di Bellman-Ford
+	    WeightedGraph bf = graph.getBellmanFordShortestPaths("A");
+	    assertEquals(bf.getEdgeWeight("B", "D"), paths.getEdgeWeight("B", "D"));
+
+	    IllegalArgumentException exc1 = assertThrows(IllegalArgumentException.class, () -> { graph.getDijkstraShortestPaths("E"); });
+	    assertEquals("Il vertice specificato non appartiene al grafo", exc1.getMessage());
+
+	    // I pesi negativi vengono rifiutati
+	    graph.setEdgeWeight("C", "D", -1.0);
+	    UnsupportedOperationException exc2 = assertThrows(UnsupportedOperationException.class, () -> { graph.getDijkstraShortestPaths("A"); });
+	    assertEquals("Il grafo contiene archi con peso negativo", exc2.getMessage());
+	}
+
+	@Test
+	void testGetBellmanFordShortestPathsQueue() 
+	{
+	    AdjListDirWeight graph = new AdjListDirWeight();
+	    graph.addVertex("A");
+	    graph.addVertex("B");
+	    graph.addVertex("C");
+	    graph.addVertex("D");
+	    graph.addEdge("A", "B");
+	    graph.addEdge("A", "C");
+	    graph.addEdge("C", "B");
+	    graph.addEdge("B", "D");
+	    graph.setEdgeWeight("A", "B", 4.0);
+	    graph.setEdgeWeight("A", "C", 2.0);
+	    graph.setEdgeWeight("C", "B", -3.0);
+	    graph.setEdgeWeight("B", "D", 1.0);
+
+	    // Le due versioni producono le stesse distanze: A=0, B=-1, C=2, D=0
+	    for (boolean useQueue : new boolean[] {false, true}) 
+	    {
+	        WeightedGraph paths = graph.getBellmanFordShortestPaths("A", useQueue);
+	        assertEquals(-1.0, paths.getEdgeWeight("A", "B"));
+	        assertEquals(2.0, paths.getEdgeWeight("A", "C"));
+	        assertEquals(-3.0, paths.getEdgeWeight("C", "B"));
+	        assertEquals(1.0, paths.getEdgeWeight("B", "D"));
+	    }
+
+	    // Ciclo negativo raggiungibile dalla sorgente
+	    graph.addEdge("D", "C");
+	    graph.setEdgeWeight("D", "C", 1.0);
+	    for (boolean useQueue : new boolean[] {false, true}) 
+	    {
+	        UnsupportedOperationException exc = assertThrows(UnsupportedOperationException.class, () -> { graph.getBellmanFordShortestPaths("A", useQueue); });
+	        assertEquals("Il grafo contiene un ciclo negativo", exc.getMessage());
+	    }
+	}
+
+	@Test
+	void testGetKruskalMST() 
+	{
+	    AdjListDirWeight graph = new AdjListDirWeight();
+	    graph.addVertex("A");
+	    graph.addVertex("B");
+	    graph.addVertex("C");
+	    graph.addVertex("D");
+	    graph.addVertex("E");
+	    graph.addEdge("A", "B");
+	    graph.addEdge("B", "C");
+	    graph.addEdge("C", "A");
+	    graph.addEdge("A", "D");
+	    graph.addEdge("D", "D");
+	    graph.setEdgeWeight("A", "B", 3.0);
+	    graph.setEdgeWeight("B", "C", 1.0);
+	    graph.setEdgeWeight("C", "A", 2.0);
+	    graph.setEdgeWeight("A", "D", -1.0);
+	    graph.setEdgeWeight("D", "D", -5.0);
+
+	    // Gli archi sono considerati senza verso: l'arco (A, B) chiuderebbe il ciclo A-B-C, il cappio viene ignorato
+	    for (WeightedGraph mst : new WeightedGraph[] { graph.getKruskalMST(), graph.getFilterKruskalMST() }) 
+	    {
+	        assertEquals(5, mst.size());
+	        assertTrue(mst.containsEdge("B", "C"));
+	        assertTrue(mst.containsEdge("C", "A"));
+	        assertEquals(-1.0, mst.getEdgeWeight("A", "D"));
+	        assertFalse(mst.containsEdge("A", "B"));
+	        assertFalse(mst.containsEdge("D", "D"));
+	        assertTrue(mst.getAdjacent("E").isEmpty());
+	    }
+	}
+
+	@Test
+	void testGetPrimMST() 
+	{
+	    AdjListDirWeight graph = new AdjListDirWeight();
+	    graph.addVertex("A");
+	    graph.addVertex("B");
+	    graph.addVertex("C");
+	    graph.addVertex("D");
+	    graph.addVertex("E");
+	    graph.addEdge("A", "B");
+	    graph.addEdge("B", "C");
+	    graph.addEdge("C", "A");
+	    graph.addEdge("D", "A");
+	    graph.setEdgeWeight("A", "B", 3.0);
+	    graph.setEdgeWeight("B", "C", 1.0);
+	    graph.setEdgeWeight("C", "A", 2.0);
+	    graph.setEdgeWeight("D", "A", -1.0);
+
+	    // L'arco entrante (D, A) viene usato con il suo verso originale; E non e' raggiungibile
+	    for (PrimMode mode : PrimMode.values()) 
+	    {
+	        WeightedGraph mst = graph.getPrimMST("B", mode, null);
+	        assertEquals(5, mst.size());
+	        assertTrue(mst.containsEdge("B", "C"));
+	        assertTrue(mst.containsEdge("C", "A"));
+	        assertEquals(-1.0, mst.getEdgeWeight("D", "A"));
+	        assertFalse(mst.containsEdge("A", "B"));
+	        assertTrue(mst.getAdjacent("E").isEmpty());
+	    }
+
+	    IllegalArgumentException exc = assertThrows(IllegalArgumentException.class, () -> { graph.getPrimMST("F"); });
+	    assertEquals("Il vertice specificato non appartiene al grafo", exc.getMessage());
+	}
+
+	@Test
+	void testGetFloydWarshallShortestPaths() 
+	{
+	    AdjListDirWeight graph = new AdjListDirWeight();
+	    graph.addVertex("A");
+	    graph.addVertex("B");
+	    graph.addVertex("C");
+	    graph.addVertex("D");
+	    graph.addEdge("A", "B");
+	    graph.addEdge("A", "C");
+	    graph.addEdge("C", "B");
+	    graph.addEdge("B", "D");
+	    graph.setEdgeWeight("A", "B", 4.0);
+	    graph.setEdgeWeight("A", "C", 2.0);
+	    graph.setEdgeWeight("C", "B", -3.0);
+	    graph.setEdgeWeight("B", "D", 1.0);
+
+	    WeightedGraph paths = graph.getFloydWarshallShortestPaths();
+	    assertEquals(-1.0, paths.getEdgeWeight("A", "B"));
+	    assertEquals(0.0, paths.getEdgeWeight("A", "D"));
+	    assertEquals(-2.0, paths.getEdgeWeight("C", "D"));
+	    assertFalse(paths.containsEdge("D", "A"));
+
+	    // La matrice dei successori permette di ricostruire i cammini
+	    DistanceMatrix matrix = graph.getFloydWarshallDistances();
+	    assertArrayEquals(new String[] { "A", "C", "B", "D" }, matrix.getPath("A", "D"));
+	    assertEquals(0, matrix.getPath("D", "A").length);
+	    assertEquals(Double.POSITIVE_INFINITY, matrix.getDistance("D", "A"));
+	    assertEquals(-1.0, matrix.distances().get(graph.getVertexIndex("A") * matrix.size() + graph.getVertexIndex("B")));
+
+	    // Ciclo negativo
+	    graph.addEdge("D", "C");
+	    graph.setEdgeWeight("D", "C", 1.0);
+	    UnsupportedOperationException exc = assertThrows(UnsupportedOperationException.class, () -> { graph.getFloydWarshallShortestPaths(); });
+	    assertEquals("Il grafo contiene un ciclo negativo", exc.getMessage());
+	}
+
+	@Test
+	void testShortestPath() 
+	{
+	    AdjListDirWeight graph = new AdjListDirWeight();
+	    graph.addVertex("A");
+	    graph.addVertex("B");
+	    graph.addVertex("C");
+	    graph.addVertex("D");
+	    graph.addEdge("A", "B");
+	    graph.addEdge("B", "C");
+	    graph.addEdge("A", "C");
+	    graph.setEdgeWeight("A", "B", 1.0);
+	    graph.setEdgeWeight("B", "C", 2.0);
+	    graph.setEdgeWeight("A", "C", 5.0);
+
+	    ShortestPath path = graph.shortestPath("A", "C");
+	    assertArrayEquals(new String[] { "A", "B", "C" }, path.getVertices());
+	    assertEquals(3.0, path.getCost());
+	    assertEquals(3.0, graph.shortestPath("A", "C", v -> 0.0).getCost());
+	    assertEquals(0.0, graph.shortestPath("B", "B").getCost());
+
+	    // Destinazione non raggiungibile
+	    ShortestPath none = graph.shortestPath("C", "A");
+	    assertFalse(none.exists());
+	    assertEquals(Double.POSITIVE_INFINITY, none.getCost());
+	    assertFalse(graph.shortestPath("A", "D", v -> 0.0).exists());
+
+	    IllegalArgumentException exc1 = assertThrows(IllegalArgumentException.class, () -> { graph.shortestPath("A", "E"); });
+	    assertEquals("Il vertice A o E non appartiene al grafo", exc1.getMessage());
+	    graph.setEdgeWeight("A", "C", -1.0);
+	    UnsupportedOperationException exc2 = assertThrows(UnsupportedOperationException.class, () -> { graph.shortestPath("A", "C"); });
+	    assertEquals("Il grafo contiene archi con peso negativo", exc2.getMessage());
+	}
+
+	@Test
+	void testApplyBatch() 
+	{
+	    for (boolean parallel : new boolean[] { false, true }) 
+	    {
+	        AdjListDirWeight batched = new AdjListDirWeight();
+	        AdjListDirWeight sequential = new AdjListDirWeight();
+	        AdjListDirWeight untracked = new AdjListDirWeight(false);
+	        for (int i = 0; i < 50; i++) 
+	        {
+	            batched.addVertex("v" + i);
+	            sequential.addVertex("v" + i);
+	            untracked.addVertex("v" + i);
+	        }
+	        batched.addEdge("v0", "v1");
+	        sequential.addEdge("v0", "v1");
+	        untracked.addEdge("v0", "v1");
+
+	        // Inserimenti, riscritture, rimozioni e operazioni su archi inesistenti, applicati nell'ordine del lotto
+	        EdgeBatch batch = new EdgeBatch();
+	        for (int i = 0; i < 50; i++) 
+	        {
+	            for (int k = 1; k <= 20; k++) 
+	            {
+	                batch.insert("v" + i, "v" + ((i + k) % 50), k);
+	            }
+	        }
+	        batch.reweight("v0", "v1", 7.5).delete("v3", "v4").insert("v3", "v4", 2).delete("v5", "v6");
+	        batch.delete("v5", "v6").reweight("v5", "v6", 1).insert("v0", "v1");
+
+	        for (int i = 0; i < 50; i++) 
+	        {
+	            for (int k = 1; k <= 20; k++) 
+	            {
+	                sequential.addEdge("v" + i, "v" + ((i + k) % 50));
+	                sequential.setEdgeWeight("v" + i, "v" + ((i + k) % 50), k);
+	            }
+	        }
+	        sequential.removeEdge("v3", "v4");
+	        sequential.addEdge("v3", "v4");
+	        sequential.setEdgeWeight("v3", "v4", 2);
+	        sequential.removeEdge("v5", "v6");
+	        sequential.addEdge("v0", "v1");
+
+	        BatchStatistics stats = batched.applyBatch(batch, parallel);
+	        untracked.applyBatch(batch, parallel);
+	        assertEquals(sequential.freeze(), batched.freeze());
+	        assertEquals(sequential.freeze(), untracked.freeze());
+	        for (int i = 0; i < 50; i++) 
+	        {
+	            assertEquals(sequential.getPredecessors("v" + i), batched.getPredecessors("v" + i));
+	        }
+	        assertEquals(1007, stats.getOperations());
+	        assertEquals(1000, stats.getInserted());
+	        assertEquals(3, stats.getUpdated());
+	        assertEquals(2, stats.getDeleted());
+	        assertEquals(2, stats.getSkipped());
+	        assertEquals(50, stats.getSources());
+	        assertEquals(parallel, stats.isParallel());
+	    }
+
+	    // Un vertice mancante fa rifiutare l'intero lotto
+	    graph.addVertex("A");
+	    graph.addVertex("B");
+	    EdgeBatch invalid = new EdgeBatch().insert("A", "B").insert("B", "C");
+	    IllegalArgumentException exc = assertThrows(IllegalArgumentException.class, () -> { graph.applyBatch(invalid, false); });
+	    assertEquals("Il vertice B o C non appartiene al grafo", exc.getMessage());
+	    assertFalse(graph.containsEdge("A", "B"));
+	    assertEquals(3, EdgeBatch.inserts(new String[] { "A", "B", "A" }, new String[] { "B", "A", "A" }, new double[] { 1, 2, 3 }).size());
+	}
+}
@@ -0,0 +1,150 @@
+package upo.graph.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import upo.graph.base.*;
+import upo.graph.impl.*;
+
+class CachedWeightedGraphTest
+{
+	private AdjListDirWeight graph;
+	private CachedWeightedGraph cached;
+
+	@BeforeEach
+	void setUp()
+	{
+		graph = new AdjListDirWeight();
+		for (String v : new String[] { "A", "B", "C", "D", "E" })
+		{
+			graph.addVertex(v);
+		}
+		addEdge("A", "B", 4);
+		addEdge("A", "C", 1);
+		addEdge("C", "B", 2);
+		addEdge("B", "D", 5);
+		addEdge("C", "D", 8);
+		cached = new CachedWeightedGraph(graph, 2);
+	}
+
+	private static CsrWeightedGraph freeze(WeightedGraph paths)
+	{
+		return ((AdjListDirWeight) paths).freeze();
+	}
+
+	private void addEdge(String u, String v, double weight)
+	{
+		graph.addEdge(u, v);
+		graph.setEdgeWeight(u, v, weight);
+	}
+
+	@Test
+	void testHitsAndMisses()
+	{
+		WeightedGraph first = cached.getDijkstraShortestPaths("A");
+		WeightedGraph second = cached.getBellmanFordShortestPaths("A");
+		assertEquals(1, cached.getMisses());
+		assertEquals(1, cached.getHits());
+
+		// I risultati coincidono con quelli del grafo non decorato, e sono grafi distinti
+		assertEquals(freeze(graph.getDijkstraShortestPaths("A")), freeze(first));
+		assertEquals(freeze(graph.getBellmanFordShortestPaths("A")), freeze(second));
+		assertNotSame(first, second);
+
+		assertEquals(3.0, cached.getDistance("A", "B"));
+		assertEquals(8.0, cached.getDistance("A", "D"));
+		assertEquals(Double.POSITIVE_INFINITY, cached.getDistance("A", "E"));
+		assertArrayEquals(new String[] { "A", "C", "B", "D" }, cached.getPath("A", "D"));
+		assertArrayEquals(new String[0], cached.getPath("A", "E"));
+		assertEquals(1, cached.getMisses());
+		assertEquals(6, cached.getHits());
+
+		IllegalArgumentException exc = assertThrows(IllegalArgumentException.class, () -> { cached.getDistance("A", "Z"); });
+		assertEquals("Il vertice A o Z non appartiene al grafo", exc.getMessage());
+		exc = assertThrows(IllegalArgumentException.class, () -> { cached.getDijkstraShortestPaths("Z"); });
+		assertEquals("Il vertice specificato non appartiene al grafo", exc.getMessage());
+
+		// L'uguaglianza e' simmetrica: solo un altro decoratore puo' essere uguale al decoratore
+		CachedWeightedGraph other = new CachedWeightedGraph(graph, 1);
+		assertEquals(other, cached);
+		assertEquals(cached.hashCode(), other.hashCode());
+		assertNotEquals(cached, graph);
+		assertNotEquals(graph, cached);
+
+		// Due grafi con le stesse etichette ma archi diversi non sono uguali
+		AdjListDirWeight copy = new AdjListDirWeight();
+		for (String v : new String[] { "A", "B", "C", "D", "E" })
+		{
+			copy.addVertex(v);
+		}
+		assertNotEquals(cached, new CachedWeightedGraph(copy, 1));
+	}
+
+	@Test
+	void testInvalidation()
+	{
+		assertEquals(3.0, cached.getDistance("A", "B"));
+
+		// Modifica tramite il decoratore
+		cached.setEdgeWeight("A", "B", 2);
+		assertEquals(2.0, cached.getDistance("A", "B"));
+		assertEquals(1, cached.getInvalidations());
+
+		// Modifica diretta del grafo decorato
+		graph.removeEdge("A", "B");
+		assertEquals(3.0, cached.getDistance("A", "B"));
+		graph.addEdge("D", "E");
+		assertEquals(9.0, cached.getDistance("A", "E"));
+		graph.removeVertex("C");
+		assertEquals(Double.POSITIVE_INFINITY, cached.getDistance("A", "B"));
+		assertEquals(4, cached.getInvalidations());
+		assertEquals(5, cached.getMisses());
+		assertEquals(0, cached.getHits());
+
+		// Con archi negativi Dijkstra rifiuta il grafo, Bellman-Ford no
+		cached.setEdgeWeight("B", "D", -1);
+		UnsupportedOperationException unsupported = assertThrows(UnsupportedOperationException.class, () -> { cached.getDijkstraShortestPaths("A"); });
+		assertEquals("Il grafo contiene archi con peso negativo", unsupported.getMessage());
+		assertEquals(freeze(graph.getBellmanFordShortestPaths("B")), freeze(cached.getBellmanFordShortestPaths("B")));
+
+		cached.addEdge("D", "B");
+		cached.setEdgeWeight("D", "B", 0.5);
+		unsupported = assertThrows(UnsupportedOperationException.class, () -> { cached.getBellmanFordShortestPaths("B"); });
+		assertEquals("Il grafo contiene un ciclo negativo", unsupported.getMessage());
+	}
+
+	@Test
+	void testEviction()
+	{
+		cached.getDistance("A", "D");
+		cached.getDistance("B", "D");
+		cached.getDistance("A", "D");
+		cached.getDistance("C", "D");
+		assertEquals(2, cached.getCachedTrees());
+		assertEquals(1, cached.getEvictions());
+
+		// B era l'albero usato meno di recente
+		cached.getDistance("A", "D");
+		cached.getDistance("C", "D");
+		assertEquals(3, cached.getMisses());
+		cached.getDistance("B", "D");
+		assertEquals(4, cached.getMisses());
+
+		// Limite di memoria: un albero di 5 vertici occupa 60 byte
+		CachedWeightedGraph small = new CachedWeightedGraph(graph, 10, 130);
+		for (String v : new String[] { "A", "B", "C", "D", "E" })
+		{
+			small.getDistance(v, "D");
+		}
+		assertEquals(2, small.getCachedTrees());
+		assertEquals(120, small.getCachedBytes());
+		assertEquals(3, small.getEvictions());
+
+		CachedWeightedGraph tiny = new CachedWeightedGraph(graph, 10, 10);
+		tiny.getDistance("A", "D");
+		assertEquals(0, tiny.getCachedTrees());
+		assertThrows(IllegalArgumentException.class, () -> { new CachedWeightedGraph(graph, 0); });
+	}
+}
@@ -0,0 +1,210 @@
+package upo.graph.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import upo.graph.impl.*;
+
+class ConcurrentWeightedGraphTest
+{
+	@Test
+	void testSameBehaviourAsAdjListDirWeight()
+	{
+		ConcurrentWeightedGraph graph = new ConcurrentWeightedGraph(2);
+		AdjListDirWeight reference = new AdjListDirWeight();
+		for (String v : new String[] { "A", "B", "C", "D" })
+		{
+			assertEquals(reference.addVertex(v), graph.addVertex(v));
+		}
+		assertEquals(-1, graph.addVertex("A"));
+
+		String[][] edges = { { "A", "B" }, { "A", "C" }, { "C", "B" }, { "B", "D" }, { "D", "A" } };
+		for (int i = 0; i < edges.length; i++)
+		{
+			graph.addEdge(edges[i][0], edges[i][1], i + 1);
+			reference.addEdge(edges[i][0], edges[i][1]);
+			reference.setEdgeWeight(edges[i][0], edges[i][1], i + 1);
+		}
+		assertEquals(reference.freeze(), graph.freeze());
+		assertSame(graph.freeze(), graph.freeze());
+		assertEquals(Set.of("B", "C"), graph.getAdjacent("A"));
+		assertEquals(Set.of("A", "C"), graph.getPredecessors("B"));
+		assertTrue(graph.isAdjacent("B", "A"));
+		assertEquals(3.0, graph.getEdgeWeight("C", "B"));
+		assertEquals(reference.getDijkstraShortestPaths("A"), graph.getDijkstraShortestPaths("A"));
+
+		graph.addEdge("C", "B");
+		assertEquals(1.0, graph.getEdgeWeight("C", "B"));
+		graph.setEdgeWeight("C", "B", 3);
+
+		graph.removeVertex("B");
+		reference.removeVertex("B");
+		assertEquals(reference.freeze(), graph.freeze());
+		assertEquals(1, graph.getVertexIndex("C"));
+		assertEquals("D", graph.getVertexLabel(2));
+		assertNull(graph.getVertexLabel(3));
+		assertEquals(Set.of("C"), graph.getAdjacent("A"));
+
+		IllegalArgumentException exc = assertThrows(IllegalArgumentException.class, () -> { graph.addEdge("A", "B"); });
+		assertEquals("Il vertice A o B non appartiene al grafo", exc.getMessage());
+		NoSuchElementException missing = assertThrows(NoSuchElementException.class, () -> { graph.removeEdge("C", "A"); });
+		assertEquals("Non c'è un arco tra C e A", missing.getMessage());
+		assertThrows(NoSuchElementException.class, () -> { graph.setEdgeWeight("C", "A", 2); });
+		assertThrows(NoSuchElementException.class, () -> { graph.removeVertex("B"); });
+		assertThrows(UnsupportedOperationException.class, () -> { graph.connectedComponents(); });
+	}
+
+	@Test
+	void testConcurrentWriters() throws Exception
+	{
+		int threads = 4;
+		int perThread = 200;
+		ConcurrentWeightedGraph graph = new ConcurrentWeightedGraph();
+		for (int i = 0; i < threads * perThread; i++)
+		{
+			graph.addVertex("v" + i);
+		}
+
+		// Ogni thread inserisce archi con origini proprie e verso tutte le destinazioni, mentre un lettore
+		// prende istantanee che devono essere sempre coerenti
+		ExecutorService pool = Executors.newFixedThreadPool(threads + 1);
+		try
+		{
+			List<Future<?>> writers = new ArrayList<>();
+			for (int t = 0; t < threads; t++)
+			{
+				int first = t * perThread;
+				writers.add(pool.submit(() ->
+				{
+					for (int u = first; u < first + perThread; u++)
+					{
+						for (int k = 1; k <= 5; k++)
+						{
+							int v = (u + k * 37) % (threads * perThread);
+							graph.addEdge("v" + u, "v" + v, k);
+						}
+						graph.removeEdge("v" + u, "v" + ((u + 37) % (threads * perThread)));
+					}
+				}));
+			}
+			Future<?> reader = pool.submit(() ->
+			{
+				for (int i = 0; i < 50; i++)
+				{
+					CsrWeightedGraph snapshot = graph.freeze();
+					assertEquals(threads * perThread, snapshot.size());
+					assertTrue(snapshot.edgeCount() <= threads * perThread * 5);
+				}
+			});
+			for (Future<?> writer : writers)
+			{
+				writer.get();
+			}
+			reader.get();
+		}
+		finally
+		{
+			pool.shutdown();
+			assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+		}
+
+		CsrWeightedGraph snapshot = graph.freeze();
+		assertEquals(threads * perThread * 4, snapshot.edgeCount());
+		for (int u = 0; u < threads * perThread; u++)
+		{
+			assertEquals(4, graph.getAdjacent("v" + u).size());
+			assertEquals(4, graph.getPredecessors("v" + u).size());
+			assertFalse(graph.containsEdge("v" + u, "v" + ((u + 37) % (threads * perThread))));
+			assertEquals(5.0, graph.getEdgeWeight("v" + u, "v" + ((u + 5 * 37) % (threads * perThread))));
+		}
+	}
+
+	@Test
+	void testRemoveVertexDuringEdgeWrites() throws Exception
+	{
+		int threads = 4;
+		int n = 400;
+		ConcurrentWeightedGraph graph = new ConcurrentWeightedGraph(4);
+		for (int i = 0; i < n; i++)
+		{
+			graph.addVertex("v" + i);
+		}
+
+		// Gli scrittori inseriscono e ripesano archi verso i vertici pari mentre un altro thread li rimuove: un arco
+		// scritto durante la rimozione di un suo estremo deve essere rifiutato o staccato insieme al vertice
+		ExecutorService pool = Executors.newFixedThreadPool(threads + 1);
+		try
+		{
+			List<Future<?>> writers = new ArrayList<>();
+			for (int t = 0; t < threads; t++)
+			{
+				int seed = t;
+				writers.add(pool.submit(() ->
+				{
+					for (int i = 0; i < 20000; i++)
+					{
+						String u = "v" + ((i * 7 + seed) % n);
+						String v = "v" + ((i * 13 + seed * 2) % n);
+						try
+						{
+							graph.addEdge(u, v, i);
+							graph.setEdgeWeight(u, v, -i);
+						}
+						catch (IllegalArgumentException | NoSuchElementException e)
+						{
+							// Uno dei due vertici e' stato rimosso, o l'arco e' stato staccato con esso
+						}
+					}
+				}));
+			}
+			Future<?> remover = pool.submit(() ->
+			{
+				for (int i = 0; i < n; i += 2)
+				{
+					graph.removeVertex("v" + i);
+				}
+			});
+			remover.get();
+			for (Future<?> writer : writers)
+			{
+				writer.get();
+			}
+		}
+		finally
+		{
+			pool.shutdown();
+			assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+		}
+
+		// Nessun arco sopravvissuto punta a un vertice rimosso, e archi uscenti ed entranti coincidono
+		CsrWeightedGraph snapshot = graph.freeze();
+		assertEquals(n / 2, snapshot.size());
+		int edges = 0;
+		for (int i = 1; i < n; i += 2)
+		{
+			String u = "v" + i;
+			assertEquals(i / 2, graph.getVertexIndex(u));
+			for (String v : graph.getAdjacent(u))
+			{
+				assertTrue(graph.containsVertex(v));
+				assertTrue(graph.getPredecessors(v).contains(u));
+				edges++;
+			}
+			for (String p : graph.getPredecessors(u))
+			{
+				assertTrue(graph.getAdjacent(p).contains(u));
+			}
+		}
+		assertEquals(edges, snapshot.edgeCount());
+	}
+}
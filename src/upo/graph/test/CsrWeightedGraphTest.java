@@ -0,0 +1,605 @@
+package upo.graph.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.HashSet;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import org.junit.jupiter.api.BeforeEach;
+
+import upo.graph.impl.*;
+import upo.graph.base.*;
+
+class CsrWeightedGraphTest
+{
+
+	AdjListDirWeight graph;
+
+	@BeforeEach
+	void setUp()
+	{
+		graph = new AdjListDirWeight();
+		graph.addVertex("A");
+		graph.addVertex("B");
+		graph.addVertex("C");
+		graph.addVertex("D");
+		graph.addEdge("A", "C");
+		graph.addEdge("A", "B");
+		graph.addEdge("B", "C");
+		graph.addEdge("C", "D");
+		graph.setEdgeWeight("A", "C", 5.0);
+		graph.setEdgeWeight("A", "B", 1.0);
+		graph.setEdgeWeight("B", "C", 2.0);
+		graph.setEdgeWeight("C", "D", -1.0);
+	}
+
+	@Test
+	void testFreeze()
+	{
+		CsrWeightedGraph csr = graph.freeze();
+
+		// Verifica che indici, archi e pesi coincidano con quelli del grafo originale
+		assertEquals(4, csr.size());
+		assertEquals(4, csr.edgeCount());
+		for (int i = 0; i < graph.size(); i++)
+		{
+			assertEquals(graph.getVertexLabel(i), csr.getVertexLabel(i));
+		}
+		assertEquals(5.0, csr.getEdgeWeight("A", "C"));
+		assertEquals(-1.0, csr.getEdgeWeight("C", "D"));
+		assertTrue(csr.containsEdge("A", "B"));
+		assertFalse(csr.containsEdge("B", "A"));
+		assertTrue(csr.isAdjacent("D", "C"));
+
+		Set<String> adj = new HashSet<String>();
+		adj.add("B");
+		adj.add("C");
+		assertEquals(adj, csr.getAdjacent("A"));
+
+		// Gli archi di ciascun vertice sono ordinati per indice di destinazione
+		int a = csr.getVertexIndex("A");
+		assertEquals(2, csr.outDegree(a));
+		assertEquals(csr.getVertexIndex("B"), csr.edgeTarget(csr.firstEdge(a)));
+		assertEquals(1.0, csr.edgeWeight(csr.firstEdge(a)));
+
+		// L'istantanea viene riutilizzata finche' il grafo non cambia
+		assertSame(csr, graph.freeze());
+		graph.setEdgeWeight("A", "B", 3.0);
+		CsrWeightedGraph csr2 = graph.freeze();
+		assertNotSame(csr, csr2);
+		assertEquals(1.0, csr.getEdgeWeight("A", "B"));
+		assertEquals(3.0, csr2.getEdgeWeight("A", "B"));
+	}
+
+	@Test
+	void testImmutable()
+	{
+		CsrWeightedGraph csr = graph.freeze();
+
+		assertThrows(UnsupportedOperationException.class, () -> { csr.addVertex("E"); });
+		assertThrows(UnsupportedOperationException.class, () -> { csr.addEdge("D", "A"); });
+		assertThrows(UnsupportedOperationException.class, () -> { csr.removeEdge("A", "B"); });
+		assertThrows(UnsupportedOperationException.class, () -> { csr.setEdgeWeight("A", "B", 0.0); });
+
+		IllegalArgumentException exc1 = assertThrows(IllegalArgumentException.class, () -> { csr.getEdgeWeight("E", "D"); });
+		assertEquals("Il vertice E o D non appartiene al grafo", exc1.getMessage());
+		NoSuchElementException exc2 = assertThrows(NoSuchElementException.class, () -> { csr.getEdgeWeight("B", "A"); });
+		assertEquals("Non c'è un arco tra B e A", exc2.getMessage());
+	}
+
+	@Test
+	void testTraversals()
+	{
+		CsrWeightedGraph csr = graph.freeze();
+
+		VisitForest bfs = csr.getBFSTree("A");
+		assertNull(bfs.getParent("A"));
+		assertEquals("A", bfs.getParent("B"));
+		assertEquals("A", bfs.getParent("C"));
+		assertEquals("C", bfs.getParent("D"));
+		assertEquals(2.0, bfs.getDistance("D"));
+
+		VisitForest dfs = csr.getDFSTree("A");
+		assertEquals("A", dfs.getParent("B"));
+		assertEquals("B", dfs.getParent("C"));
+		assertEquals("C", dfs.getParent("D"));
+		assertTrue(dfs.getStartTime("A") < dfs.getStartTime("D"));
+		assertTrue(dfs.getEndTime("D") < dfs.getEndTime("A"));
+	}
+
+	@Test
+	void testForEachNeighbor()
+	{
+		CsrWeightedGraph csr = graph.freeze();
+		int a = graph.getVertexIndex("A");
+		int c = graph.getVertexIndex("C");
+
+		// Il grafo mutabile e l'istantanea visitano gli stessi archi con gli stessi pesi
+		double[] fromGraph = new double[graph.size()];
+		double[] fromCsr = new double[graph.size()];
+		graph.forEachNeighbor(a, (v, w) -> fromGraph[v] = w);
+		csr.forEachNeighbor(a, (v, w) -> fromCsr[v] = w);
+		assertArrayEquals(new double[] { 0.0, 1.0, 5.0, 0.0 }, fromGraph);
+		assertArrayEquals(fromGraph, fromCsr);
+
+		// Gli archi entranti vengono letti dall'indice dei predecessori
+		Set<String> predecessors = new HashSet<String>();
+		graph.forEachPredecessor(c, (v, w) -> predecessors.add(graph.getVertexLabel(v)));
+		assertEquals(graph.getPredecessors("C"), predecessors);
+
+		NoSuchElementException exc = assertThrows(NoSuchElementException.class, () -> { csr.forEachNeighbor(4, (v, w) -> {}); });
+		assertEquals("Il vertice di indice 4 non appartiene al grafo", exc.getMessage());
+		assertThrows(NoSuchElementException.class, () -> { graph.forEachNeighbor(-1, (v, w) -> {}); });
+	}
+
+	@Test
+	void testFreezeHighDegree()
+	{
+		// Una stella con molti archi uscenti supera la soglia dell'insertion sort
+		AdjListDirWeight star = new AdjListDirWeight();
+		int n = 5000;
+		star.addVertex("hub");
+		for (int i = 0; i < n; i++)
+		{
+			star.addVertex("v" + i);
+		}
+		for (int i = n - 1; i >= 0; i--)
+		{
+			star.addEdge("hub", "v" + i);
+			star.setEdgeWeight("hub", "v" + i, i);
+		}
+		CsrWeightedGraph csr = star.freeze();
+		int[] previous = { -1 };
+		csr.forEachNeighbor(0, (v, w) ->
+		{
+			assertTrue(v > previous[0]);
+			assertEquals(v - 1, w);
+			previous[0] = v;
+		});
+		assertEquals(n, previous[0]);
+		assertEquals(42.0, csr.getEdgeWeight("hub", "v42"));
+	}
+
+	@Test
+	void testGetBellmanFordShortestPaths()
+	{
+		WeightedGraph paths = graph.freeze().getBellmanFordShortestPaths("A");
+
+		assertEquals(1.0, paths.getEdgeWeight("A", "B"));
+		assertEquals(2.0, paths.getEdgeWeight("B", "C"));
+		assertEquals(3.0, paths.getEdgeWeight("A", "C"));
+		assertEquals(-1.0, paths.getEdgeWeight("C", "D"));
+	}
+
+	@Test
+	void testGetParallelBFSTree()
+	{
+		// Grafo casuale abbastanza grande da attivare sia il passo top-down sia quello bottom-up
+		AdjListDirWeight big = new AdjListDirWeight();
+		int n = 20000;
+		for (int i = 0; i < n; i++)
+		{
+			big.addVertex("v" + i);
+		}
+		Random random = new Random(42);
+		for (int i = 0; i < n * 8; i++)
+		{
+			big.addEdge("v" + random.nextInt(n), "v" + random.nextInt(n));
+		}
+
+		CsrWeightedGraph csr = big.freeze();
+		VisitForest sequential = csr.getBFSTree("v0");
+		VisitForest parallel = big.getParallelBFSTree("v0");
+
+		assertNull(parallel.getParent("v0"));
+		for (int v = 0; v < n; v++)
+		{
+			// Le distanze coincidono con quelle della BFS sequenziale
+			double d = sequential.getDistance(v);
+			assertEquals(d, parallel.getDistance(v));
+			assertEquals(sequential.getColor(v), parallel.getColor(v));
+
+			// Ogni genitore e' un predecessore diretto a distanza d-1
+			int p = parallel.getParent(v);
+			if (p >= 0)
+			{
+				assertTrue(csr.containsEdge(csr.getVertexLabel(p), csr.getVertexLabel(v)));
+				assertEquals(d - 1, parallel.getDistance(p));
+			}
+		}
+
+		IllegalArgumentException exc = assertThrows(IllegalArgumentException.class, () -> { big.getParallelBFSTree("X"); });
+		assertEquals("Il vertice specificato non appartiene al grafo", exc.getMessage());
+	}
+
+	@Test
+	void testFilterKruskalMatchesKruskal()
+	{
+		// Grafo denso con pesi ripetuti: le due varianti devono produrre foreste dello stesso peso
+		AdjListDirWeight dense = new AdjListDirWeight();
+		int n = 300;
+		for (int i = 0; i < n; i++)
+		{
+			dense.addVertex("v" + i);
+		}
+		Random random = new Random(7);
+		for (int i = 0; i < n * 40; i++)
+		{
+			String u = "v" + random.nextInt(n);
+			String v = "v" + random.nextInt(n);
+			dense.addEdge(u, v);
+			dense.setEdgeWeight(u, v, random.nextInt(50) - 10);
+		}
+
+		CsrWeightedGraph kruskal = ((AdjListDirWeight) dense.getKruskalMST()).freeze();
+		CsrWeightedGraph filter = ((AdjListDirWeight) dense.getFilterKruskalMST()).freeze();
+		assertEquals(n - 1, kruskal.edgeCount());
+		assertEquals(kruskal.edgeCount(), filter.edgeCount());
+		assertEquals(totalWeight(kruskal), totalWeight(filter));
+	}
+
+	@Test
+	void testPrimModes()
+	{
+		// Grafo quasi completo: la scelta automatica deve ricadere sulla versione su array
+		AdjListDirWeight dense = new AdjListDirWeight();
+		int n = 60;
+		for (int i = 0; i < n; i++)
+		{
+			dense.addVertex("v" + i);
+		}
+		Random random = new Random(3);
+		for (int i = 0; i < n; i++)
+		{
+			for (int j = i + 1; j < n; j++)
+			{
+				dense.addEdge("v" + i, "v" + j);
+				dense.setEdgeWeight("v" + i, "v" + j, random.nextInt(100));
+			}
+		}
+
+		PrimStatistics heapStats = new PrimStatistics();
+		PrimStatistics arrayStats = new PrimStatistics();
+		PrimStatistics autoStats = new PrimStatistics();
+		double heapWeight = totalWeight(((AdjListDirWeight) dense.getPrimMST("v0", PrimMode.HEAP, heapStats)).freeze());
+		double arrayWeight = totalWeight(((AdjListDirWeight) dense.getPrimMST("v0", PrimMode.ARRAY, arrayStats)).freeze());
+		dense.getPrimMST("v0", PrimMode.AUTO, autoStats);
+
+		assertEquals(totalWeight(((AdjListDirWeight) dense.getKruskalMST()).freeze()), heapWeight);
+		assertEquals(heapWeight, arrayWeight);
+		assertEquals(PrimMode.ARRAY, autoStats.getMode());
+		assertEquals(0, arrayStats.getHeapOperations());
+		assertEquals((long) n * n, arrayStats.getArrayScans());
+		assertTrue(heapStats.getHeapOperations() >= n - 1);
+		assertEquals(0, heapStats.getArrayScans());
+
+		// Ogni arco viene esaminato da entrambi gli estremi, in entrambe le versioni
+		assertEquals(2L * n * (n - 1) / 2, heapStats.getEdgesExamined());
+		assertEquals(heapStats.getEdgesExamined(), arrayStats.getEdgesExamined());
+
+		// Su un cammino la scelta automatica usa lo heap
+		PrimStatistics pathStats = new PrimStatistics();
+		graph.getPrimMST("A", PrimMode.AUTO, pathStats);
+		assertEquals(PrimMode.HEAP, pathStats.getMode());
+	}
+
+	@Test
+	void testFloydWarshallMatchesBellmanFord()
+	{
+		// Grafo casuale piu' grande di un blocco, con pesi non negativi
+		AdjListDirWeight random = new AdjListDirWeight();
+		int n = 150;
+		for (int i = 0; i < n; i++)
+		{
+			random.addVertex("v" + i);
+		}
+		Random generator = new Random(11);
+		for (int i = 0; i < n * 6; i++)
+		{
+			String u = "v" + generator.nextInt(n);
+			String v = "v" + generator.nextInt(n);
+			random.addEdge(u, v);
+			random.setEdgeWeight(u, v, generator.nextInt(20));
+		}
+
+		CsrWeightedGraph csr = random.freeze();
+		DistanceMatrix matrix = csr.getFloydWarshallDistances();
+		for (int s = 0; s < n; s += 17)
+		{
+			WeightedGraph paths = csr.getBellmanFordShortestPaths("v" + s);
+			VisitForest reachable = csr.getBFSTree("v" + s);
+			for (int v = 0; v < n; v++)
+			{
+				if (reachable.getColor(v) == VisitForest.Color.WHITE)
+				{
+					assertEquals(Double.POSITIVE_INFINITY, matrix.distance(s, v));
+					assertEquals(-1, matrix.nextHop(s, v));
+				}
+				else
+				{
+					// Il cammino ricostruito ha la lunghezza calcolata
+					String[] path = matrix.getPath("v" + s, "v" + v);
+					double length = 0;
+					for (int i = 0; i + 1 < path.length; i++)
+					{
+						length += csr.getEdgeWeight(path[i], path[i + 1]);
+					}
+					assertEquals(matrix.distance(s, v), length);
+					if (v != s && paths.containsEdge("v" + s, "v" + v))
+					{
+						assertEquals(paths.getEdgeWeight("v" + s, "v" + v), matrix.distance(s, v));
+					}
+				}
+			}
+		}
+
+		// Gli indici fuori dalla matrice non vengono ripiegati sulla riga successiva
+		NoSuchElementException exc = assertThrows(NoSuchElementException.class, () -> { matrix.distance(0, n); });
+		assertEquals("Il vertice di indice " + n + " non appartiene al grafo", exc.getMessage());
+		assertThrows(NoSuchElementException.class, () -> { matrix.nextHop(-1, 0); });
+	}
+
+	@Test
+	void testJohnsonMatchesFloydWarshall()
+	{
+		// Grafo sparso con archi negativi ma senza cicli negativi: i pesi dipendono da potenziali casuali
+		AdjListDirWeight sparse = new AdjListDirWeight();
+		int n = 200;
+		double[] potential = new double[n];
+		Random generator = new Random(5);
+		for (int i = 0; i < n; i++)
+		{
+			sparse.addVertex("v" + i);
+			potential[i] = generator.nextInt(30);
+		}
+		for (int i = 0; i < n * 4; i++)
+		{
+			int u = generator.nextInt(n);
+			int v = generator.nextInt(n);
+			sparse.addEdge("v" + u, "v" + v);
+			sparse.setEdgeWeight("v" + u, "v" + v, generator.nextInt(10) + potential[v] - potential[u]);
+		}
+
+		DistanceMatrix johnson = sparse.getJohnsonDistances();
+		DistanceMatrix floyd = sparse.getFloydWarshallDistances();
+		CsrWeightedGraph csr = sparse.freeze();
+		for (int u = 0; u < n; u++)
+		{
+			for (int v = 0; v < n; v++)
+			{
+				assertEquals(floyd.distance(u, v), johnson.distance(u, v), 1e-9);
+				assertEquals(floyd.nextHop(u, v) < 0, johnson.nextHop(u, v) < 0);
+			}
+		}
+
+		// Il cammino ricostruito con i successori di Johnson ha la lunghezza calcolata
+		String[] path = johnson.getPath("v0", "v" + (n - 1));
+		if (path.length > 0)
+		{
+			double length = 0;
+			for (int i = 0; i + 1 < path.length; i++)
+			{
+				length += csr.getEdgeWeight(path[i], path[i + 1]);
+			}
+			assertEquals(johnson.distance(0, n - 1), length, 1e-9);
+		}
+
+		// Un ciclo negativo viene rilevato dalla passata di Bellman-Ford
+		sparse.addEdge("v1", "v1");
+		sparse.setEdgeWeight("v1", "v1", -1.0);
+		UnsupportedOperationException exc = assertThrows(UnsupportedOperationException.class, () -> { sparse.getJohnsonShortestPaths(); });
+		assertEquals("Il grafo contiene un ciclo negativo", exc.getMessage());
+	}
+
+	@Test
+	void testShortestPathOnGrid()
+	{
+		// Griglia con archi in entrambi i versi e pesi tra 1 e 4: la distanza di Manhattan e' una stima ammissibile
+		int side = 60;
+		AdjListDirWeight grid = new AdjListDirWeight();
+		for (int r = 0; r < side; r++)
+		{
+			for (int c = 0; c < side; c++)
+			{
+				grid.addVertex(r + "," + c);
+			}
+		}
+		Random generator = new Random(9);
+		for (int r = 0; r < side; r++)
+		{
+			for (int c = 0; c < side; c++)
+			{
+				if (c + 1 < side)
+				{
+					connect(grid, r + "," + c, r + "," + (c + 1), 1 + generator.nextInt(4));
+				}
+				if (r + 1 < side)
+				{
+					connect(grid, r + "," + c, (r + 1) + "," + c, 1 + generator.nextInt(4));
+				}
+			}
+		}
+
+		String source = "5,5";
+		String target = "20,25";
+		WeightedGraph tree = grid.getDijkstraShortestPaths(source);
+		String[] parts = target.split(",");
+		int tr = Integer.parseInt(parts[0]);
+		int tc = Integer.parseInt(parts[1]);
+
+		ShortestPath bidirectional = grid.shortestPath(source, target);
+		ShortestPath aStar = grid.shortestPath(source, target, v ->
+		{
+			String[] rc = v.split(",");
+			return Math.abs(Integer.parseInt(rc[0]) - tr) + Math.abs(Integer.parseInt(rc[1]) - tc);
+		});
+
+		// Il costo coincide con la distanza calcolata da Dijkstra sull'intero grafo
+		double expected = distanceTo(tree, source, target);
+		for (ShortestPath path : new ShortestPath[] { bidirectional, aStar })
+		{
+			assertTrue(path.exists());
+			assertEquals(expected, path.getCost());
+			String[] vertices = path.getVertices();
+			assertEquals(source, vertices[0]);
+			assertEquals(target, vertices[vertices.length - 1]);
+			double length = 0;
+			for (int i = 0; i + 1 < vertices.length; i++)
+			{
+				length += grid.getEdgeWeight(vertices[i], vertices[i + 1]);
+			}
+			assertEquals(path.getCost(), length);
+			assertTrue(path.getSettledVertices() < side * side);
+		}
+		assertTrue(aStar.getSettledVertices() <= bidirectional.getSettledVertices());
+	}
+
+	@Test
+	void testContractionHierarchy() throws IOException
+	{
+		// Grafo orientato sparso con pesi interi, alcune coppie non raggiungibili
+		AdjListDirWeight sparse = new AdjListDirWeight();
+		int n = 300;
+		Random generator = new Random(17);
+		for (int i = 0; i < n; i++)
+		{
+			sparse.addVertex("v" + i);
+		}
+		for (int i = 0; i < n * 3; i++)
+		{
+			int u = generator.nextInt(n);
+			int v = generator.nextInt(n);
+			sparse.addEdge("v" + u, "v" + v);
+			sparse.setEdgeWeight("v" + u, "v" + v, 1 + generator.nextInt(20));
+		}
+		CsrWeightedGraph csr = sparse.freeze();
+		DistanceMatrix expected = csr.getFloydWarshallDistances();
+		ContractionHierarchy hierarchy = sparse.buildContractionHierarchy();
+		assertEquals(n, hierarchy.size());
+
+		// La gerarchia riletta dal formato binario risponde come l'originale
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		hierarchy.write(buffer);
+		ContractionHierarchy copy = ContractionHierarchy.read(new ByteArrayInputStream(buffer.toByteArray()));
+		assertEquals(hierarchy.edgeCount(), copy.edgeCount());
+		assertEquals(hierarchy.shortcutCount(), copy.shortcutCount());
+
+		for (int u = 0; u < n; u += 7)
+		{
+			for (int v = 0; v < n; v += 3)
+			{
+				for (ContractionHierarchy ch : new ContractionHierarchy[] { hierarchy, copy })
+				{
+					ShortestPath path = ch.shortestPath("v" + u, "v" + v);
+					assertEquals(expected.distance(u, v), path.getCost());
+					String[] vertices = path.getVertices();
+					assertEquals(path.getCost() != Double.POSITIVE_INFINITY, path.exists());
+					if (path.exists())
+					{
+						// Le scorciatoie sono espanse: il cammino usa solo archi del grafo originale
+						assertEquals("v" + u, vertices[0]);
+						assertEquals("v" + v, vertices[vertices.length - 1]);
+						double length = 0;
+						for (int i = 0; i + 1 < vertices.length; i++)
+						{
+							length += csr.getEdgeWeight(vertices[i], vertices[i + 1]);
+						}
+						assertEquals(path.getCost(), length);
+					}
+				}
+			}
+		}
+
+		IllegalArgumentException exc = assertThrows(IllegalArgumentException.class, () -> { hierarchy.shortestPath("v0", "x"); });
+		assertEquals("Il vertice v0 o x non appartiene al grafo", exc.getMessage());
+		assertThrows(IOException.class, () -> { ContractionHierarchy.read(new ByteArrayInputStream(new byte[] { 1, 2, 3, 4 })); });
+		assertCorruptionDetected(buffer.toByteArray(), "v0", "v" + (n - 1));
+
+		sparse.setEdgeWeight("v0", sparse.getAdjacent("v0").iterator().next(), -1.0);
+		assertThrows(UnsupportedOperationException.class, () -> { sparse.buildContractionHierarchy(); });
+	}
+
+	/**
+	 * Altera uno alla volta i byte di una gerarchia serializzata e di un suo prefisso: ogni flusso deve essere
+	 * rifiutato con una IOException oppure produrre una gerarchia interrogabile senza eccezioni.
+	 */
+	private static void assertCorruptionDetected(byte[] bytes, String source, String target)
+	{
+		for (int i = 4; i < bytes.length; i += 3)
+		{
+			for (int value : new int[] { 0x00, 0x7F, 0x80, 0xFF })
+			{
+				byte[] corrupt = bytes.clone();
+				corrupt[i] = (byte) value;
+				assertQueryableOrRejected(corrupt, source, target);
+			}
+			assertQueryableOrRejected(Arrays.copyOf(bytes, i), source, target);
+		}
+	}
+
+	private static void assertQueryableOrRejected(byte[] bytes, String source, String target)
+	{
+		ContractionHierarchy hierarchy;
+		try
+		{
+			hierarchy = ContractionHierarchy.read(new ByteArrayInputStream(bytes));
+		}
+		catch (IOException e)
+		{
+			return;
+		}
+		for (int u = 0; u < hierarchy.size(); u += 37)
+		{
+			String label = "v" + u;
+			try
+			{
+				hierarchy.shortestPath(source, label);
+				hierarchy.shortestPath(label, target);
+			}
+			catch (IllegalArgumentException e)
+			{
+				// Un'etichetta alterata non appartiene piu' alla gerarchia
+			}
+		}
+	}
+
+	private static void connect(AdjListDirWeight graph, String u, String v, double weight)
+	{
+		graph.addEdge(u, v);
+		graph.setEdgeWeight(u, v, weight);
+		graph.addEdge(v, u);
+		graph.setEdgeWeight(v, u, weight);
+	}
+
+	/**
+	 * Ricava la distanza di v dalla sorgente dal grafo dei cammini minimi: gli archi sono pesati con la differenza
+	 * delle distanze, quindi basta sommarli lungo un cammino qualunque.
+	 */
+	private static double distanceTo(WeightedGraph tree, String source, String v)
+	{
+		VisitForest bfs = tree.getBFSTree(source);
+		double distance = 0;
+		for (String u = v; !u.equals(source); u = bfs.getParent(u))
+		{
+			distance += tree.getEdgeWeight(bfs.getParent(u), u);
+		}
+		return distance;
+	}
+
+	private static double totalWeight(CsrWeightedGraph graph)
+	{
+		double total = 0;
+		for (int e = 0; e < graph.edgeCount(); e++)
+		{
+			total += graph.edgeWeight(e);
+		}
+		return total;
+	}
+}
@@ -0,0 +1,171 @@
+package upo.graph.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+import upo.graph.impl.*;
+
+class DynamicShortestPathsTest
+{
+	@Test
+	void testRandomUpdatesMatchRecomputation()
+	{
+		AdjListDirWeight graph = new AdjListDirWeight();
+		List<String> labels = new ArrayList<>();
+		Random generator = new Random(23);
+		int n = 60;
+		for (int i = 0; i < n; i++)
+		{
+			graph.addVertex("v" + i);
+			labels.add("v" + i);
+		}
+		for (int i = 0; i < 200; i++)
+		{
+			String u = labels.get(generator.nextInt(n));
+			String v = labels.get(generator.nextInt(n));
+			graph.addEdge(u, v);
+			graph.setEdgeWeight(u, v, generator.nextInt(10));
+		}
+		DynamicShortestPaths paths = new DynamicShortestPaths(graph, "v0");
+		int added = n;
+
+		for (int step = 0; step < 400; step++)
+		{
+			String u = labels.get(generator.nextInt(labels.size()));
+			Set<String> adjacent = graph.getAdjacent(u);
+			int operation = generator.nextInt(20);
+			if (operation < 8 && !adjacent.isEmpty())
+			{
+				paths.setEdgeWeight(u, adjacent.iterator().next(), generator.nextInt(10));
+			}
+			else if (operation < 13)
+			{
+				paths.addEdge(u, labels.get(generator.nextInt(labels.size())));
+			}
+			else if (operation < 18 && !adjacent.isEmpty())
+			{
+				paths.removeEdge(u, adjacent.iterator().next());
+			}
+			else if (operation == 18)
+			{
+				String label = "v" + added++;
+				assertEquals(labels.size(), paths.addVertex(label));
+				labels.add(label);
+			}
+			else if (!u.equals("v0"))
+			{
+				paths.removeVertex(u);
+				labels.remove(u);
+			}
+			if (step % 100 == 99)
+			{
+				// Una modifica diretta del grafo causa il ricalcolo completo
+				graph.addEdge("v0", labels.get(generator.nextInt(labels.size())));
+			}
+			assertConsistent(graph, paths);
+		}
+	}
+
+	private static void assertConsistent(AdjListDirWeight graph, DynamicShortestPaths paths)
+	{
+		DistanceMatrix expected = graph.getFloydWarshallDistances();
+		for (int v = 0; v < graph.size(); v++)
+		{
+			String label = graph.getVertexLabel(v);
+			assertEquals(expected.getDistance("v0", label), paths.getDistance(label));
+			String[] path = paths.getPath(label);
+			if (path.length > 0)
+			{
+				double length = 0;
+				for (int i = 0; i + 1 < path.length; i++)
+				{
+					length += graph.getEdgeWeight(path[i], path[i + 1]);
+				}
+				assertEquals(paths.getDistance(label), length);
+			}
+		}
+	}
+
+	@Test
+	void testUpdateCostIsLocal()
+	{
+		AdjListDirWeight chain = new AdjListDirWeight(true);
+		int n = 1000;
+		for (int i = 0; i < n; i++)
+		{
+			chain.addVertex("v" + i);
+		}
+		for (int i = 0; i + 1 < n; i++)
+		{
+			chain.addEdge("v" + i, "v" + (i + 1));
+		}
+		DynamicShortestPaths paths = new DynamicShortestPaths(chain, "v0");
+		assertEquals(999.0, paths.getDistance("v999"));
+
+		// Aumento di un arco dell'albero: si ricalcola solo il sottoalbero di v999
+		paths.setEdgeWeight("v998", "v999", 3);
+		assertEquals(1001.0, paths.getDistance("v999"));
+		assertEquals(2, paths.getLastUpdateVertices());
+
+		// Nuovo arco che accorcia i cammini verso v995..v999
+		paths.addEdge("v990", "v995");
+		assertEquals(991.0, paths.getDistance("v995"));
+		assertEquals(997.0, paths.getDistance("v999"));
+		assertEquals(5, paths.getLastUpdateVertices());
+
+		// Un arco che non appartiene all'albero non cambia nulla
+		paths.setEdgeWeight("v994", "v995", 10);
+		assertEquals(0, paths.getLastUpdateVertices());
+
+		paths.removeEdge("v990", "v995");
+		assertEquals(1010.0, paths.getDistance("v999"));
+		assertArrayEquals(new String[] { "v0", "v1", "v2" }, paths.getPath("v2"));
+		paths.removeVertex("v500");
+		assertEquals(Double.POSITIVE_INFINITY, paths.getDistance("v501"));
+		assertArrayEquals(new String[0], paths.getPath("v999"));
+
+		UnsupportedOperationException exc = assertThrows(UnsupportedOperationException.class, () -> { paths.setEdgeWeight("v0", "v1", -1); });
+		assertEquals("Il peso dell'arco non puo' essere negativo", exc.getMessage());
+		assertEquals(1.0, chain.getEdgeWeight("v0", "v1"));
+		assertThrows(IllegalArgumentException.class, () -> { paths.removeVertex("v0"); });
+		NoSuchElementException missing = assertThrows(NoSuchElementException.class, () -> { paths.removeVertex("v500"); });
+		assertEquals("Vertice non trovato: v500", missing.getMessage());
+		assertThrows(IllegalArgumentException.class, () -> { new DynamicShortestPaths(chain, "x"); });
+	}
+
+	@Test
+	void testRepairWithAndWithoutInEdgeIndex()
+	{
+		// Con l'indice degli archi entranti la riparazione di tutta la catena resta lineare nella regione;
+		// senza indice ogni predecessore costerebbe una scansione dei vertici, quindi si ricalcola l'albero
+		int n = 20000;
+		for (boolean track : new boolean[] { true, false })
+		{
+			AdjListDirWeight chain = new AdjListDirWeight(track);
+			for (int i = 0; i < n; i++)
+			{
+				chain.addVertex("v" + i);
+			}
+			for (int i = 0; i + 1 < n; i++)
+			{
+				chain.addEdge("v" + i, "v" + (i + 1));
+			}
+			DynamicShortestPaths paths = new DynamicShortestPaths(chain, "v0");
+			assertTimeout(Duration.ofSeconds(5), () -> { paths.setEdgeWeight("v0", "v1", 2); });
+			assertEquals(n, paths.getDistance("v" + (n - 1)));
+			assertEquals(track ? 2 * (n - 1) : n, paths.getLastUpdateVertices());
+
+			// Gli aumenti locali restano locali solo con l'indice
+			paths.setEdgeWeight("v" + (n - 2), "v" + (n - 1), 3);
+			assertEquals(n + 2, paths.getDistance("v" + (n - 1)));
+			assertEquals(track ? 2 : n, paths.getLastUpdateVertices());
+		}
+	}
+}
@@ -0,0 +1,114 @@
+package upo.graph.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import upo.graph.impl.*;
+
+class GraphLoaderTest
+{
+	@TempDir
+	Path directory;
+
+	@Test
+	void testReadEdgeList() throws IOException
+	{
+		Path file = directory.resolve("small.txt");
+		Files.writeString(file, "# archi di prova\n"
+				+ "A B 2.5\n"
+				+ "\n"
+				+ "B\tC\t-1\r\n"
+				+ "A C\n"
+				+ "città A 1e3\n"
+				+ "   D\n"
+				+ "A B 4\n"
+				+ "C C 0.125", StandardCharsets.UTF_8);
+
+		AdjListDirWeight expected = new AdjListDirWeight();
+		for (String v : new String[] { "A", "B", "C", "città", "D" })
+		{
+			expected.addVertex(v);
+		}
+		addEdge(expected, "A", "B", 4);
+		addEdge(expected, "B", "C", -1);
+		addEdge(expected, "A", "C", 1);
+		addEdge(expected, "città", "A", 1000);
+		addEdge(expected, "C", "C", 0.125);
+
+		CsrWeightedGraph graph = GraphLoader.readEdgeList(file);
+		assertEquals(expected.freeze(), graph);
+		assertEquals(3, graph.getVertexIndex("città"));
+		assertEquals(5, graph.edgeCount());
+
+		Files.writeString(file, "A B 1\nA B C D\n");
+		IOException exc = assertThrows(IOException.class, () -> { GraphLoader.readEdgeList(file); });
+		assertEquals("Riga non valida alla posizione 6 del file", exc.getMessage());
+		Files.writeString(file, "A B uno\n");
+		assertThrows(IOException.class, () -> { GraphLoader.readEdgeList(file); });
+	}
+
+	@Test
+	void testParallelChunksAndBinaryFormat() throws IOException
+	{
+		// Un file di alcuni megabyte viene diviso in piu' blocchi
+		Random generator = new Random(31);
+		int n = 5000;
+		AdjListDirWeight expected = new AdjListDirWeight();
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 250000; i++)
+		{
+			String u = "vertex" + generator.nextInt(n);
+			String v = "vertex" + generator.nextInt(n);
+			double w = generator.nextInt(1000) / 8.0;
+			expected.addVertex(u);
+			expected.addVertex(v);
+			addEdge(expected, u, v, w);
+			text.append(u).append(' ').append(v).append(' ').append(w).append('\n');
+		}
+		Path file = directory.resolve("large.txt");
+		Files.writeString(file, text);
+		assertTrue(Files.size(file) > 3 << 20);
+
+		CsrWeightedGraph graph = GraphLoader.readEdgeList(file);
+		assertEquals(expected.freeze(), graph);
+
+		Path binary = directory.resolve("large.bin");
+		GraphLoader.writeBinary(graph, binary);
+		assertEquals(graph, GraphLoader.readBinary(binary));
+
+		IOException exc = assertThrows(IOException.class, () -> { GraphLoader.readBinary(file); });
+		assertEquals("Il file non e' nel formato binario degli archi", exc.getMessage());
+
+		// Un numero di vertici o una lunghezza di etichetta alterati vengono rifiutati prima di allocare
+		byte[] bytes = Files.readAllBytes(binary);
+		for (int value : new int[] { -1, Integer.MAX_VALUE })
+		{
+			assertCorruptRejected(bytes, 4, value, "Numero di vertici non valido nel file binario: " + value);
+			assertCorruptRejected(bytes, 16, value, "Lunghezza di etichetta non valida nel file binario: " + value);
+		}
+	}
+
+	private void assertCorruptRejected(byte[] bytes, int offset, int value, String message) throws IOException
+	{
+		byte[] corrupt = bytes.clone();
+		ByteBuffer.wrap(corrupt).putInt(offset, value);
+		Path file = directory.resolve("corrupt.bin");
+		Files.write(file, corrupt);
+		IOException exc = assertThrows(IOException.class, () -> { GraphLoader.readBinary(file); });
+		assertEquals(message, exc.getMessage());
+	}
+
+	private static void addEdge(AdjListDirWeight graph, String u, String v, double weight)
+	{
+		graph.addEdge(u, v);
+		graph.setEdgeWeight(u, v, weight);
+	}
+}
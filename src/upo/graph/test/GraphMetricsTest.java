@@ -0,0 +1,241 @@
+package upo.graph.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import upo.graph.impl.*;
+
+class GraphMetricsTest
+{
+	private AdjListDirWeight graph;
+	private final List<AlgorithmRun> runs = Collections.synchronizedList(new ArrayList<>());
+	private final AlgorithmListener listener = runs::add;
+
+	@BeforeEach
+	void setUp()
+	{
+		graph = new AdjListDirWeight();
+		for (String v : new String[] { "A", "B", "C", "D" })
+		{
+			graph.addVertex(v);
+		}
+		addEdge("A", "B", 1);
+		addEdge("A", "C", 4);
+		addEdge("B", "C", 2);
+		addEdge("C", "D", 1);
+		GraphMetrics.addListener(listener);
+	}
+
+	@AfterEach
+	void tearDown()
+	{
+		GraphMetrics.removeListener(listener);
+	}
+
+	private void addEdge(String u, String v, double weight)
+	{
+		graph.addEdge(u, v);
+		graph.setEdgeWeight(u, v, weight);
+	}
+
+	@Test
+	void testCounters()
+	{
+		assertTrue(GraphMetrics.isEnabled());
+		graph.getDijkstraShortestPaths("A");
+		assertEquals(1, runs.size());
+		AlgorithmRun dijkstra = runs.get(0);
+		assertEquals(Algorithm.DIJKSTRA, dijkstra.getAlgorithm());
+		assertEquals(4, dijkstra.getVertexCount());
+		assertEquals(4, dijkstra.getEdgeCount());
+		assertEquals(4, dijkstra.getVerticesVisited());
+		assertEquals(4, dijkstra.getEdgesExamined());
+		// A -> B, A -> C, B -> C migliora C, C -> D
+		assertEquals(4, dijkstra.getRelaxations());
+		assertEquals(9, dijkstra.getHeapOperations());
+		assertEquals(List.of("ricerca", "risultato"), new ArrayList<>(dijkstra.getPhases().keySet()));
+		assertTrue(dijkstra.getNanos() >= dijkstra.getPhases().get("ricerca"));
+
+		// Il secondo round non migliora nessuna distanza
+		graph.getBellmanFordShortestPaths("A");
+		AlgorithmRun bellmanFord = runs.get(1);
+		assertEquals(Algorithm.BELLMAN_FORD, bellmanFord.getAlgorithm());
+		assertEquals(2, bellmanFord.getRounds());
+		assertEquals(8, bellmanFord.getVerticesVisited());
+		assertEquals(4, bellmanFord.getRelaxations());
+		assertEquals(0, bellmanFord.getHeapOperations());
+
+		graph.getBFSTree("B");
+		AlgorithmRun bfs = runs.get(2);
+		assertEquals(Algorithm.BFS, bfs.getAlgorithm());
+		assertEquals(3, bfs.getVerticesVisited());
+		assertEquals(2, bfs.getEdgesExamined());
+
+		graph.getDFSTOTForest("B");
+		assertEquals(Algorithm.DFS_TOT, runs.get(3).getAlgorithm());
+		assertEquals(4, runs.get(3).getVerticesVisited());
+		assertEquals(4, runs.get(3).getEdgesExamined());
+
+		// L'esecuzione viene riportata anche quando l'algoritmo fallisce
+		addEdge("D", "A", -10);
+		assertThrows(UnsupportedOperationException.class, () -> { graph.getBellmanFordShortestPaths("A"); });
+		assertEquals(5, runs.size());
+		assertEquals(4, runs.get(4).getRounds());
+
+		assertTrue(GraphMetrics.removeListener(listener));
+		assertFalse(GraphMetrics.removeListener(listener));
+		graph.getBFSTree("A");
+		assertEquals(5, runs.size());
+	}
+
+	@Test
+	void testHierarchyDynamicAndCycleCheck()
+	{
+		// Con la semantica di AdjListDirWeight l'arco A -> C, gia' raggiunto tramite B, segnala un ciclo
+		assertTrue(graph.isCyclic());
+		AlgorithmRun cycleCheck = runs.get(0);
+		assertEquals(Algorithm.CYCLE_CHECK, cycleCheck.getAlgorithm());
+		assertEquals(4, cycleCheck.getVerticesVisited());
+		assertEquals(4, cycleCheck.getEdgesExamined());
+
+		// Costruzione e interrogazione della gerarchia di contrazione
+		ContractionHierarchy hierarchy = graph.freeze().buildContractionHierarchy();
+		AlgorithmRun build = runs.get(1);
+		assertEquals(Algorithm.CONTRACTION_HIERARCHY_BUILD, build.getAlgorithm());
+		assertEquals(4, build.getVerticesVisited());
+		assertTrue(build.getRounds() >= 1);
+		assertEquals(hierarchy.shortcutCount() > 0, build.getRelaxations() > 0);
+		assertEquals(List.of("contrazione", "esportazione"), new ArrayList<>(build.getPhases().keySet()));
+
+		ShortestPath path = hierarchy.shortestPath("A", "D");
+		AlgorithmRun query = runs.get(2);
+		assertEquals(Algorithm.CONTRACTION_HIERARCHY_QUERY, query.getAlgorithm());
+		assertEquals(4, query.getVertexCount());
+		assertEquals(hierarchy.edgeCount(), query.getEdgeCount());
+		assertEquals(path.getSettledVertices(), query.getVerticesVisited());
+
+		// Ogni aggiornamento incrementale e' un'esecuzione a se', dopo il Dijkstra iniziale
+		DynamicShortestPaths dynamic = new DynamicShortestPaths(graph, "A");
+		assertEquals(Algorithm.DIJKSTRA, runs.get(3).getAlgorithm());
+		dynamic.setEdgeWeight("A", "C", 1);
+		AlgorithmRun decrease = runs.get(4);
+		assertEquals(Algorithm.DYNAMIC_UPDATE, decrease.getAlgorithm());
+		assertEquals(4, decrease.getEdgeCount());
+		assertEquals(dynamic.getLastUpdateVertices(), decrease.getVerticesVisited());
+		assertEquals(2, decrease.getVerticesVisited());
+
+		dynamic.removeEdge("C", "D");
+		dynamic.removeVertex("B");
+		assertEquals(7, runs.size());
+		for (AlgorithmRun update : runs.subList(5, 7))
+		{
+			assertEquals(Algorithm.DYNAMIC_UPDATE, update.getAlgorithm());
+		}
+		assertEquals(4, runs.get(6).getVertexCount());
+	}
+
+	@Test
+	void testRegistry()
+	{
+		MetricsRegistry registry = new MetricsRegistry();
+		GraphMetrics.addListener(registry);
+		try
+		{
+			for (int i = 0; i < 3; i++)
+			{
+				graph.getDijkstraShortestPaths("A");
+			}
+			graph.getJohnsonDistances();
+		}
+		finally
+		{
+			GraphMetrics.removeListener(registry);
+		}
+		assertEquals(4, runs.size());
+		assertEquals(List.of("potenziali", "dijkstra"), new ArrayList<>(runs.get(3).getPhases().keySet()));
+
+		MetricsSnapshot dijkstra = registry.snapshot(Algorithm.DIJKSTRA);
+		assertEquals(3, dijkstra.getRuns());
+		assertEquals(12, dijkstra.getRelaxations());
+		assertEquals(27, dijkstra.getHeapOperations());
+		assertEquals(3, dijkstra.getEdgeCountHistogram()[2]);
+		assertEquals(3, Arrays.stream(dijkstra.getLatencyHistogram()).sum());
+		assertTrue(dijkstra.getLatencyPercentile(100) >= dijkstra.getMaxNanos());
+		assertTrue(dijkstra.getMaxNanos() * 3 >= dijkstra.getTotalNanos());
+
+		// Johnson esegue un Dijkstra per vertice: ogni vertice estrae i vertici che raggiunge
+		MetricsSnapshot johnson = registry.snapshot(Algorithm.JOHNSON);
+		assertEquals(1, johnson.getRuns());
+		assertEquals(4 + 3 + 2 + 1, johnson.getVerticesVisited() - 4);
+		assertEquals(registry.snapshot().keySet(), EnumSet.of(Algorithm.DIJKSTRA, Algorithm.JOHNSON));
+
+		registry.reset();
+		assertEquals(0, registry.snapshot(Algorithm.DIJKSTRA).getRuns());
+		assertEquals(0, registry.snapshot(Algorithm.DIJKSTRA).getLatencyPercentile(50));
+		assertTrue(registry.snapshot().isEmpty());
+	}
+
+	@Test
+	void testJfrEvents() throws Exception
+	{
+		JfrAlgorithmListener jfr = new JfrAlgorithmListener();
+		MetricsRegistry registry = new MetricsRegistry();
+		GraphMetrics.addListener(jfr);
+		GraphMetrics.addListener(registry);
+		registry.startJfrExport();
+		Path file = Files.createTempFile("graph-metrics", ".jfr");
+		try (Recording recording = new Recording())
+		{
+			recording.enable("upo.graph.Algorithm");
+			recording.enable("upo.graph.AlgorithmMetrics").with("period", "endChunk");
+			recording.start();
+			graph.getDijkstraShortestPaths("A");
+			graph.getPrimMST("A");
+			recording.stop();
+			recording.dump(file);
+
+			List<String> algorithms = new ArrayList<>();
+			List<String> totals = new ArrayList<>();
+			for (RecordedEvent event : RecordingFile.readAllEvents(file))
+			{
+				String name = event.getEventType().getName();
+				if (name.equals("upo.graph.Algorithm"))
+				{
+					algorithms.add(event.getString("algorithm"));
+					if (event.getString("algorithm").equals("DIJKSTRA"))
+					{
+						assertEquals(4, event.getLong("relaxations"));
+					}
+				}
+				else if (name.equals("upo.graph.AlgorithmMetrics"))
+				{
+					totals.add(event.getString("algorithm"));
+					assertEquals(1, event.getLong("runs"));
+				}
+			}
+			assertEquals(List.of("DIJKSTRA", "PRIM"), algorithms);
+			assertTrue(totals.containsAll(List.of("DIJKSTRA", "PRIM")));
+		}
+		finally
+		{
+			registry.stopJfrExport();
+			GraphMetrics.removeListener(registry);
+			GraphMetrics.removeListener(jfr);
+			Files.deleteIfExists(file);
+		}
+	}
+}
@@ -0,0 +1,35 @@
+package upo.graph.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import upo.graph.bench.*;
+import upo.graph.impl.*;
+
+class GraphShapeTest
+{
+	@Test
+	void testGeneratorsAreDeterministic()
+	{
+		for (GraphShape shape : GraphShape.values())
+		{
+			EdgeList first = shape.generate(5000, 7);
+			EdgeList second = shape.generate(5000, 7);
+			CsrWeightedGraph csr = first.toCsrWeightedGraph();
+			assertEquals(csr, second.toCsrWeightedGraph());
+			assertEquals(first.toAdjListDirWeight().freeze(), csr);
+			assertNotEquals(csr, shape.generate(5000, 8).toCsrWeightedGraph());
+			assertTrue(first.edgeCount() > 4000 && first.edgeCount() <= 5000);
+		}
+
+		EdgeList dag = GraphShape.DAG.generate(5000, 7);
+		for (int e = 0; e < dag.edgeCount(); e++)
+		{
+			assertTrue(dag.source(e) < dag.target(e));
+		}
+		EdgeList grid = GraphShape.GRID.generate(4 * 30 * 30, 7);
+		assertEquals(900, grid.vertexCount());
+		assertEquals(4 * 30 * 29, grid.edgeCount());
+	}
+}
@@ -0,0 +1,63 @@
+package upo.graph.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.NoSuchElementException;
+import org.junit.jupiter.api.Test;
+
+import upo.graph.impl.*;
+
+class IndexedMinHeapTest
+{
+	@Test
+	void testExtractMin()
+	{
+		IndexedMinHeap heap = new IndexedMinHeap(10);
+		double[] keys = {5.0, 3.0, 8.0, 1.0, 9.0, 2.0, 7.0};
+		for (int i = 0; i < keys.length; i++)
+		{
+			heap.insert(i, keys[i]);
+		}
+		assertEquals(7, heap.size());
+
+		int[] expected = {3, 5, 1, 0, 6, 2, 4};
+		for (int id : expected)
+		{
+			assertEquals(id, heap.extractMin());
+		}
+		assertTrue(heap.isEmpty());
+
+		NoSuchElementException exc = assertThrows(NoSuchElementException.class, () -> { heap.extractMin(); });
+		assertEquals("Lo heap e' vuoto", exc.getMessage());
+	}
+
+	@Test
+	void testDecreaseKey()
+	{
+		IndexedMinHeap heap = new IndexedMinHeap(5);
+		heap.insert(0, 10.0);
+		heap.insert(1, 20.0);
+		heap.insert(2, 30.0);
+
+		heap.decreaseKey(2, 5.0);
+		assertEquals(5.0, heap.keyOf(2));
+		assertEquals(2, heap.peek());
+
+		assertFalse(heap.insertOrDecrease(1, 25.0));
+		assertTrue(heap.insertOrDecrease(1, 1.0));
+		assertTrue(heap.insertOrDecrease(4, 3.0));
+		assertEquals(1, heap.extractMin());
+		assertEquals(4, heap.extractMin());
+
+		assertThrows(IllegalArgumentException.class, () -> { heap.decreaseKey(0, 50.0); });
+		assertThrows(IllegalArgumentException.class, () -> { heap.insert(0, 1.0); });
+		assertThrows(NoSuchElementException.class, () -> { heap.decreaseKey(3, 1.0); });
+
+		// Dopo clear lo heap e' riutilizzabile
+		heap.clear();
+		assertTrue(heap.isEmpty());
+		assertFalse(heap.contains(0));
+		heap.insert(0, 2.0);
+		assertEquals(0, heap.extractMin());
+	}
+}
@@ -0,0 +1,158 @@
+package upo.graph.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import upo.graph.base.*;
+import upo.graph.impl.*;
+
+class VersionedWeightedGraphTest
+{
+	@Test
+	void testSnapshotsAreImmutable()
+	{
+		VersionedWeightedGraph graph = new VersionedWeightedGraph();
+		AdjListDirWeight reference = new AdjListDirWeight();
+		for (String v : new String[] { "A", "B", "C", "D" })
+		{
+			assertEquals(reference.addVertex(v), graph.addVertex(v));
+		}
+		assertEquals(-1, graph.addVertex("A"));
+		String[][] edges = { { "A", "B" }, { "A", "C" }, { "C", "B" }, { "B", "D" } };
+		for (int i = 0; i < edges.length; i++)
+		{
+			graph.addEdge(edges[i][0], edges[i][1], 4 - i);
+			reference.addEdge(edges[i][0], edges[i][1]);
+			reference.setEdgeWeight(edges[i][0], edges[i][1], 4 - i);
+		}
+		GraphVersion before = graph.snapshot();
+		assertEquals(8, before.getVersion());
+		assertEquals(4, before.edgeCount());
+		assertEquals(reference.freeze(), before.freeze());
+		assertEquals(((AdjListDirWeight) reference.getBellmanFordShortestPaths("A")).freeze(),
+				((AdjListDirWeight) before.getBellmanFordShortestPaths("A")).freeze());
+
+		// Le modifiche successive non sono visibili nella versione gia' ottenuta
+		graph.addVertex("E");
+		graph.addEdge("D", "E");
+		graph.setEdgeWeight("A", "B", 10);
+		graph.removeEdge("A", "C");
+		assertFalse(before.containsVertex("E"));
+		assertEquals(-1, before.getVertexIndex("E"));
+		assertNull(before.getVertexLabel(4));
+		assertEquals(4.0, before.getEdgeWeight("A", "B"));
+		assertEquals(Set.of("B", "C"), before.getAdjacent("A"));
+		assertEquals(4, before.size());
+
+		GraphVersion after = graph.snapshot();
+		assertEquals(12, after.getVersion());
+		assertEquals(10.0, after.getEdgeWeight("A", "B"));
+		assertEquals(Set.of("B"), after.getAdjacent("A"));
+		assertEquals(4, after.getVertexIndex("E"));
+		assertEquals(4, after.edgeCount());
+
+		graph.removeVertex("B");
+		GraphVersion removed = graph.snapshot();
+		assertEquals(Set.of(), removed.getAdjacent("A"));
+		assertEquals(Set.of("E"), removed.getAdjacent("D"));
+		assertEquals(2, removed.getVertexIndex("D"));
+		assertEquals(1, removed.edgeCount());
+		assertEquals(1, after.getVertexIndex("B"));
+		assertTrue(after.containsEdge("C", "B"));
+		assertEquals(graph.snapshot(), removed);
+		assertNotEquals(after, removed);
+
+		assertThrows(UnsupportedOperationException.class, () -> { before.addVertex("F"); });
+		assertThrows(UnsupportedOperationException.class, () -> { before.setEdgeWeight("A", "B", 1); });
+		IllegalArgumentException exc = assertThrows(IllegalArgumentException.class, () -> { graph.addEdge("A", "B"); });
+		assertEquals("Il vertice A o B non appartiene al grafo", exc.getMessage());
+		NoSuchElementException missing = assertThrows(NoSuchElementException.class, () -> { graph.removeEdge("A", "C"); });
+		assertEquals("Non c'è un arco tra A e C", missing.getMessage());
+	}
+
+	@Test
+	void testManyVersions()
+	{
+		// Oltre 32 * 32 vertici l'albero del vettore persistente ha tre livelli
+		VersionedWeightedGraph graph = new VersionedWeightedGraph();
+		int n = 2000;
+		for (int i = 0; i < n; i++)
+		{
+			graph.addVertex("v" + i);
+		}
+		GraphVersion empty = graph.snapshot();
+		for (int i = 0; i + 1 < n; i++)
+		{
+			graph.addEdge("v" + i, "v" + (i + 1), i);
+		}
+		GraphVersion chain = graph.snapshot();
+		assertEquals(0, empty.edgeCount());
+		assertEquals(n - 1, chain.edgeCount());
+		for (int i = 0; i < n; i++)
+		{
+			assertEquals(i, chain.getVertexIndex("v" + i));
+			assertEquals("v" + i, chain.getVertexLabel(i));
+		}
+		WeightedGraph paths = chain.getDijkstraShortestPaths("v0");
+		assertEquals(chain.size(), paths.size());
+		String[] order = chain.topologicalSort();
+		for (int i = 0; i < n; i++)
+		{
+			assertEquals("v" + i, order[i]);
+		}
+	}
+
+	@Test
+	void testReadersDoNotBlockWriter() throws Exception
+	{
+		VersionedWeightedGraph graph = new VersionedWeightedGraph();
+		int n = 300;
+		for (int i = 0; i < n; i++)
+		{
+			graph.addVertex("v" + i);
+		}
+
+		// Il lettore verifica che ogni versione sia coerente: l'arco i -> i+1 esiste solo se esistono tutti
+		// quelli precedenti, perche' lo scrittore li aggiunge in ordine
+		ExecutorService pool = Executors.newSingleThreadExecutor();
+		try
+		{
+			Future<?> reader = pool.submit(() ->
+			{
+				for (int round = 0; round < 200; round++)
+				{
+					GraphVersion version = graph.snapshot();
+					int edges = version.edgeCount();
+					for (int i = 0; i + 1 < n; i++)
+					{
+						assertEquals(i < edges, version.containsEdge("v" + i, "v" + (i + 1)));
+					}
+					VisitForest bfs = version.getBFSTree("v0");
+					assertEquals(edges, bfs.getDistance(edges));
+					if (edges + 1 < n)
+					{
+						assertEquals(VisitForest.Color.WHITE, bfs.getColor(edges + 1));
+					}
+				}
+			});
+			for (int i = 0; i + 1 < n; i++)
+			{
+				graph.addEdge("v" + i, "v" + (i + 1));
+			}
+			reader.get();
+		}
+		finally
+		{
+			pool.shutdown();
+			assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+		}
+	}
+}